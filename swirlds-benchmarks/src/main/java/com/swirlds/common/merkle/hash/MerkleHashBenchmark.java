@@ -0,0 +1,180 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common.merkle.hash;
+
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.crypto.engine.CryptoEngine;
+import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.common.merkle.utility.AbstractBinaryMerkleInternal;
+import com.swirlds.common.merkle.utility.MerkleLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MerkleHashBuilder}, whose threads each iterate over the whole tree, with
+ * {@link ForkJoinMerkleHashBuilder}, which splits the tree into subtrees, on a balanced tree and on a skewed one.
+ * Every node is rehashed by each invocation.
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar MerkleHashBenchmark -p threads=4,8,16
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MerkleHashBenchmark {
+
+	/** "threads" for {@link MerkleHashBuilder}, "forkjoin" for {@link ForkJoinMerkleHashBuilder} */
+	@Param({ "threads", "forkjoin" })
+	public String builder;
+
+	/**
+	 * "balanced" splits the leaves of every internal node evenly between its children, "skewed" gives the left child
+	 * nine tenths of them
+	 */
+	@Param({ "balanced", "skewed" })
+	public String shape;
+
+	/** the number of leaves in the tree */
+	@Param({ "1000000" })
+	public int numLeaves;
+
+	/** the number of threads that hash the tree */
+	@Param({ "8" })
+	public int threads;
+
+	private MerkleHashBuilder hashBuilder;
+
+	private MerkleNode root;
+
+	/** every node of the tree, so the hashes can be invalidated between invocations */
+	private List<MerkleNode> nodes;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		final CryptoEngine cryptography = new CryptoEngine();
+		switch (builder) {
+			case "threads":
+				hashBuilder = new MerkleHashBuilder(cryptography, threads);
+				break;
+			case "forkjoin":
+				hashBuilder = new ForkJoinMerkleHashBuilder(cryptography, threads);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown merkle hash builder: " + builder);
+		}
+
+		final double leftShare;
+		switch (shape) {
+			case "balanced":
+				leftShare = 0.5;
+				break;
+			case "skewed":
+				leftShare = 0.9;
+				break;
+			default:
+				throw new IllegalArgumentException("unknown tree shape: " + shape);
+		}
+
+		nodes = new ArrayList<>(2 * numLeaves);
+		root = buildTree(0, numLeaves, leftShare);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		for (final MerkleNode node : nodes) {
+			node.invalidateHash();
+		}
+	}
+
+	/**
+	 * Hash every node of the tree.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Hash digestTree() throws InterruptedException {
+		return hashBuilder.digestTreeAsync(root).get();
+	}
+
+	/**
+	 * Build a tree over a range of leaves, giving the left child of each internal node a share of its leaves.
+	 */
+	private MerkleNode buildTree(final long firstLeaf, final int leafCount, final double leftShare) {
+		final MerkleNode node;
+		if (leafCount == 1) {
+			node = new MerkleLong(firstLeaf);
+		} else {
+			final int leftCount = Math.min(leafCount - 1, Math.max(1, (int) (leafCount * leftShare)));
+			final BenchmarkInternal internal = new BenchmarkInternal();
+			internal.setLeft(buildTree(firstLeaf, leftCount, leftShare));
+			internal.setRight(buildTree(firstLeaf + leftCount, leafCount - leftCount, leftShare));
+			node = internal;
+		}
+		nodes.add(node);
+		return node;
+	}
+
+	/**
+	 * A minimal binary internal node, so the benchmarks measure the hash builders rather than the nodes.
+	 */
+	private static class BenchmarkInternal extends AbstractBinaryMerkleInternal {
+
+		BenchmarkInternal() {
+			super();
+		}
+
+		private BenchmarkInternal(final BenchmarkInternal other) {
+			super(other);
+		}
+
+		void setLeft(final MerkleNode child) {
+			setChild(0, child);
+		}
+
+		void setRight(final MerkleNode child) {
+			setChild(1, child);
+		}
+
+		@Override
+		public BenchmarkInternal copy() {
+			return new BenchmarkInternal(this);
+		}
+
+		@Override
+		public long getClassId() {
+			return 0x5e0b7d21c4a96f38L;
+		}
+
+		@Override
+		public int getVersion() {
+			return 1;
+		}
+	}
+}
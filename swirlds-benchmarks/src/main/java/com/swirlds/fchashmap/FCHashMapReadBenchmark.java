@@ -0,0 +1,110 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of reading an {@link FCHashMap} copy that is some number of versions behind the mutable copy,
+ * as signed state readers and the hashing thread do. Every key is written in every version and no copy is released,
+ * so every key has a long history of mutations, as a hot key does.
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar FCHashMapReadBenchmark -p versionsBehind=1,5,50
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class FCHashMapReadBenchmark {
+	/** the number of reads done by each invocation */
+	private static final int READS_PER_INVOCATION = 1_000;
+	/** the number of versions made by the setup, which is the length of the history of every key */
+	private static final int NUM_VERSIONS = 64;
+	/** the seed of the keys that are read, so every run reads the same ones */
+	private static final long SEED = 0x5EED;
+
+	/** the number of keys in the map */
+	@Param({ "10000" })
+	public int numKeys;
+
+	/** how many versions the copy that is read is behind the mutable copy. 0 reads the mutable copy. */
+	@Param({ "0", "1", "5", "50" })
+	public int versionsBehind;
+
+	private List<FCHashMap<Long, Long>> copies;
+	private FCHashMap<Long, Long> copy;
+	private Long[] keys;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		copies = new ArrayList<>(NUM_VERSIONS + 1);
+		FCHashMap<Long, Long> map = new FCHashMap<>(numKeys);
+		for (long version = 0; version < NUM_VERSIONS; version++) {
+			for (long key = 0; key < numKeys; key++) {
+				map.put(key, version);
+			}
+			copies.add(map);
+			map = map.copy();
+		}
+		copies.add(map);
+		copy = copies.get(copies.size() - 1 - versionsBehind);
+
+		final Random random = new Random(SEED);
+		keys = new Long[READS_PER_INVOCATION];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = (long) random.nextInt(numKeys);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		for (final FCHashMap<Long, Long> map : copies) {
+			map.release();
+		}
+	}
+
+	/**
+	 * Read random keys from the copy.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@OperationsPerInvocation(READS_PER_INVOCATION)
+	public void get(final Blackhole blackhole) {
+		for (final Long key : keys) {
+			blackhole.consume(copy.get(key));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.merkle.utility.MerkleLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link FCMap#get(Object)} and {@link FCMap#containsKey(Object)} by several reader
+ * threads while one writer thread replaces values in the mutable copy, as the transaction handling thread does. The
+ * readers either read the mutable copy, contending with the writer, or an immutable copy, as signed state readers do.
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar FCMapReadBenchmark -p numKeys=10000,1000000
+ * </pre>
+ */
+@State(Scope.Group)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FCMapReadBenchmark {
+
+	/** the number of keys in the map */
+	@Param({ "100000" })
+	public int numKeys;
+
+	/** the copy that is written to */
+	private FCMap<MerkleLong, MerkleLong> mutableMap;
+
+	/** a copy that is only read */
+	private FCMap<MerkleLong, MerkleLong> immutableMap;
+
+	/** the keys, so readers do not allocate */
+	private MerkleLong[] keys;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		keys = new MerkleLong[numKeys];
+		immutableMap = new FCMap<>();
+		for (int i = 0; i < numKeys; i++) {
+			keys[i] = new MerkleLong(i);
+			immutableMap.put(new MerkleLong(i), new MerkleLong(i));
+		}
+		mutableMap = immutableMap.copy();
+	}
+
+	private MerkleLong randomKey() {
+		return keys[ThreadLocalRandom.current().nextInt(numKeys)];
+	}
+
+	/**
+	 * Replace the value of a random key in the mutable copy.
+	 */
+	private MerkleLong write() {
+		final MerkleLong key = randomKey();
+		return mutableMap.put(new MerkleLong(key.getValue()), new MerkleLong(key.getValue() + 1));
+	}
+
+	@Benchmark
+	@Group("mutable")
+	@GroupThreads(3)
+	public MerkleLong getMutable() {
+		return mutableMap.get(randomKey());
+	}
+
+	@Benchmark
+	@Group("mutable")
+	@GroupThreads(1)
+	public MerkleLong writeMutable() {
+		return write();
+	}
+
+	@Benchmark
+	@Group("immutable")
+	@GroupThreads(3)
+	public MerkleLong getImmutable() {
+		return immutableMap.get(randomKey());
+	}
+
+	@Benchmark
+	@Group("immutable")
+	@GroupThreads(1)
+	public MerkleLong writeImmutable() {
+		return write();
+	}
+
+	@Benchmark
+	@Group("containsKey")
+	@GroupThreads(3)
+	public boolean containsKeyMutable() {
+		return mutableMap.containsKey(randomKey());
+	}
+
+	@Benchmark
+	@Group("containsKey")
+	@GroupThreads(1)
+	public MerkleLong writeContainsKey() {
+		return write();
+	}
+}
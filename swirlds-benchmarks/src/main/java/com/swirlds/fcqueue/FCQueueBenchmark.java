@@ -0,0 +1,215 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcqueue;
+
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.io.SerializableDataInputStream;
+import com.swirlds.common.io.SerializableDataOutputStream;
+import com.swirlds.common.merkle.utility.AbstractMerkleLeaf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FCQueue} with {@link ChunkedFCQueue} for the operations a record queue sees: adding at the tail,
+ * removing from the head, iterating over an immutable copy, and copying once per round.
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar FCQueueBenchmark -p implementation=linked,chunked
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class FCQueueBenchmark {
+	/** the number of elements added or removed by each invocation of the add and remove benchmarks */
+	private static final int OPERATIONS_PER_INVOCATION = 10_000;
+
+	/** "linked" for {@link FCQueue}, "chunked" for {@link ChunkedFCQueue} */
+	@Param({ "linked", "chunked" })
+	public String implementation;
+
+	/** the number of elements in the queue that is iterated over and copied */
+	@Param({ "100000" })
+	public int numElements;
+
+	private Element[] elements;
+
+	/** a full queue, with an immutable copy of it */
+	private Queue<Element> queue;
+	private Queue<Element> immutableQueue;
+
+	/** an empty queue for the add benchmark, and a queue with enough elements for the remove benchmark */
+	private Queue<Element> emptyQueue;
+	private Queue<Element> removalQueue;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		elements = new Element[Math.max(numElements, OPERATIONS_PER_INVOCATION)];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = new Element(i);
+		}
+
+		immutableQueue = newQueue();
+		for (int i = 0; i < numElements; i++) {
+			immutableQueue.add(elements[i]);
+		}
+		queue = copy(immutableQueue);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		emptyQueue = newQueue();
+		removalQueue = newQueue();
+		for (int i = 0; i < OPERATIONS_PER_INVOCATION; i++) {
+			removalQueue.add(elements[i]);
+		}
+	}
+
+	/**
+	 * Add elements to the tail of an empty queue.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@OperationsPerInvocation(OPERATIONS_PER_INVOCATION)
+	public void add() {
+		for (int i = 0; i < OPERATIONS_PER_INVOCATION; i++) {
+			emptyQueue.add(elements[i]);
+		}
+	}
+
+	/**
+	 * Remove every element of a queue from its head.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@OperationsPerInvocation(OPERATIONS_PER_INVOCATION)
+	public void remove(final Blackhole blackhole) {
+		for (int i = 0; i < OPERATIONS_PER_INVOCATION; i++) {
+			blackhole.consume(removalQueue.remove());
+		}
+	}
+
+	/**
+	 * Iterate over an immutable copy, as the hashing and signed state threads do.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void iterate(final Blackhole blackhole) {
+		for (final Element element : immutableQueue) {
+			blackhole.consume(element);
+		}
+	}
+
+	/**
+	 * Make a round's copy of a full queue, release the previous copy, and add and remove an element, as a queue in the
+	 * state does every round.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void copy(final Blackhole blackhole) {
+		final Queue<Element> next = copy(queue);
+		((AbstractMerkleLeaf) queue).release();
+		queue = next;
+		queue.add(queue.remove());
+		blackhole.consume(queue);
+	}
+
+	private Queue<Element> newQueue() {
+		switch (implementation) {
+			case "linked":
+				return new FCQueue<>();
+			case "chunked":
+				return new ChunkedFCQueue<>();
+			default:
+				throw new IllegalArgumentException("unknown FCQueue implementation: " + implementation);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Queue<Element> copy(final Queue<Element> queue) {
+		return (Queue<Element>) ((AbstractMerkleLeaf) queue).copy();
+	}
+
+	/**
+	 * A minimal element, so the benchmarks measure the queues rather than their elements.
+	 */
+	private static class Element implements FCQueueElement {
+		private final long value;
+		private Hash hash;
+
+		Element(final long value) {
+			this.value = value;
+		}
+
+		@Override
+		public Element copy() {
+			return this;
+		}
+
+		@Override
+		public void release() {
+		}
+
+		@Override
+		public Hash getHash() {
+			return hash;
+		}
+
+		@Override
+		public void setHash(final Hash hash) {
+			this.hash = hash;
+		}
+
+		@Override
+		public void serialize(final SerializableDataOutputStream out) throws IOException {
+			out.writeLong(value);
+		}
+
+		@Override
+		public void deserialize(final SerializableDataInputStream in, final int version) throws IOException {
+			throw new UnsupportedOperationException("benchmark elements are never deserialized");
+		}
+
+		@Override
+		public long getClassId() {
+			return 0x1f6a9c2e5b7d3048L;
+		}
+
+		@Override
+		public int getVersion() {
+			return 1;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform;
+
+import com.swirlds.common.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link ConsensusImpl#addEvent} processes a deterministic {@link SyntheticHashgraph}.
+ * <p>
+ * Each trial adds events to a single consensus object for its whole duration, so after warmup the hashgraph is in a
+ * steady state, with rounds being decided and expired at the same rate they are created. The results are:
+ * <ul>
+ * <li>{@link #addEvents}: events per second</li>
+ * <li>{@link #addEvent}: the latency of a single call, including its percentiles (p0.99 is the p99)</li>
+ * </ul>
+ * The allocation rate is reported by running with the GC profiler, where gc.alloc.rate.norm is bytes per event:
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar ConsensusBenchmark -prof gc
+ * </pre>
+ * A change to consensus is measured by building the jar before and after it, and running the same benchmark with
+ * each, e.g. for the throughput at every member count:
+ * <pre>
+ * java -jar benchmarks.jar ConsensusBenchmark.addEvents -prof gc -rf json -rff before.json
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class ConsensusBenchmark {
+	/** the number of events added by each invocation of {@link #addEvents} */
+	private static final int EVENTS_PER_INVOCATION = 1_000;
+	/** the number of events generated at a time for {@link #addEvent} */
+	private static final int EVENTS_PER_CHUNK = 10_000;
+	/** the seed of every hashgraph, so every run replays the same one */
+	private static final long SEED = 0x5EED;
+
+	/** the number of members in the hashgraph */
+	@Param({ "10", "40", "100" })
+	public int numMembers;
+
+	/** the number of events created each second by the whole network */
+	@Param({ "1000", "10000" })
+	public int eventsPerSecond;
+
+	private SyntheticHashgraph hashgraph;
+	private ConsensusImpl consensus;
+
+	/** events generated ahead of time, waiting to be added */
+	private EventImpl[] pending;
+	/** the index of the next event in pending to add */
+	private int nextPending;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		hashgraph = new SyntheticHashgraph(numMembers, eventsPerSecond, SEED);
+		final NoOpConsensusStats stats = new NoOpConsensusStats();
+		consensus = new ConsensusImpl(
+				() -> stats,
+				(round, generation) -> {
+				},
+				NodeId.createMain(0),
+				hashgraph.getAddressBook());
+		pending = new EventImpl[0];
+		nextPending = 0;
+	}
+
+	/**
+	 * The events for one invocation of {@link #addEvents}. They are generated before the invocation, so generating
+	 * them is not measured.
+	 */
+	@State(Scope.Thread)
+	public static class Batch {
+		private EventImpl[] events;
+
+		@Setup(Level.Invocation)
+		public void generate(final ConsensusBenchmark benchmark) {
+			events = benchmark.hashgraph.generate(EVENTS_PER_INVOCATION);
+		}
+	}
+
+	/**
+	 * Add a batch of events, one at a time. The score is in events per second.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(EVENTS_PER_INVOCATION)
+	public void addEvents(final Batch batch, final Blackhole blackhole) {
+		for (final EventImpl event : batch.events) {
+			blackhole.consume(consensus.addEvent(event, hashgraph.getAddressBook()));
+		}
+	}
+
+	/**
+	 * Add a single event. Events are generated {@link #EVENTS_PER_CHUNK} at a time, so generating them adds to the
+	 * latency of only one call in that many, which is well beyond the p99.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<EventImpl> addEvent() {
+		if (nextPending == pending.length) {
+			pending = hashgraph.generate(EVENTS_PER_CHUNK);
+			nextPending = 0;
+		}
+		return consensus.addEvent(pending[nextPending++], hashgraph.getAddressBook());
+	}
+}
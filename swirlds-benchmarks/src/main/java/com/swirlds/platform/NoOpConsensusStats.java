@@ -0,0 +1,47 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform;
+
+import com.swirlds.platform.stats.ConsensusStats;
+
+/**
+ * Consensus statistics that are discarded, so that benchmarks only measure consensus itself.
+ */
+public class NoOpConsensusStats implements ConsensusStats {
+	@Override
+	public void addedEvent(final EventImpl event) {
+	}
+
+	@Override
+	public void coinRounds(final long numCoinRounds) {
+	}
+
+	@Override
+	public void lastFamousInRound(final EventImpl event) {
+	}
+
+	@Override
+	public void consensusReachedOnRound() {
+	}
+
+	@Override
+	public void consensusReached(final EventImpl event) {
+	}
+
+	@Override
+	public void dotProductTime(final long nanoTime) {
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.Address;
+import com.swirlds.common.AddressBook;
+import com.swirlds.common.Transaction;
+import com.swirlds.common.crypto.DigestType;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.crypto.SerializablePublicKey;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.events.BaseEventUnhashedData;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates a deterministic, endless hashgraph for benchmarking, in the order the events could be added to
+ * {@link Consensus}. A given (numMembers, eventsPerSecond, seed) triplet always generates the same hashgraph.
+ * <p>
+ * Members gossip over a {@link RandomGraph} built the same way {@link SwirldsPlatform} builds its connection graph.
+ * Each new event is created by a random member, and its other parent is the latest event by a random neighbor of that
+ * member. Events are not signed or hashed: the hash and the signature are pseudorandom bytes, which is all consensus
+ * needs from them (they are only compared, and used for whitening and coin rounds).
+ */
+public class SyntheticHashgraph {
+	/** the time the first event was created */
+	private static final Instant START_TIME = Instant.parse("2021-01-01T00:00:00Z");
+	/** the length of the signature of each event, which is the length of an RSA 3072 signature */
+	private static final int SIGNATURE_LENGTH = 384;
+	/** nanoseconds in a second */
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+	/** a transaction array shared by all events, since none of them have transactions */
+	private static final Transaction[] NO_TRANSACTIONS = new Transaction[0];
+
+	/** the address book, in which every member has equal stake */
+	private final AddressBook addressBook;
+	/** neighbors[m] is the array of members that member m gossips with */
+	private final int[][] neighbors;
+	/** the number of nanoseconds between the creation of consecutive events */
+	private final long nanosBetweenEvents;
+	/** a deterministic PRNG that makes every choice in the hashgraph */
+	private final RandomExtended random;
+	/** lastEvent[m] is the latest event created by member m, or null if none */
+	private final EventImpl[] lastEvent;
+	/** the number of events generated so far */
+	private long numGenerated = 0;
+
+	/**
+	 * Create a generator for a hashgraph with the given number of members.
+	 *
+	 * @param numMembers
+	 * 		the number of members, each with a stake of 1
+	 * @param eventsPerSecond
+	 * 		the number of events created each second by the whole network, which sets the creation time of each event
+	 * @param seed
+	 * 		the seed for every pseudorandom choice
+	 */
+	public SyntheticHashgraph(final int numMembers, final int eventsPerSecond, final long seed) {
+		if (numMembers < 2) {
+			throw new IllegalArgumentException("a hashgraph needs at least 2 members, not " + numMembers);
+		}
+		if (eventsPerSecond <= 0) {
+			throw new IllegalArgumentException("eventsPerSecond must be positive, not " + eventsPerSecond);
+		}
+
+		final List<Address> addresses = new ArrayList<>(numMembers);
+		for (int i = 0; i < numMembers; i++) {
+			addresses.add(new Address(i, "node" + i, "node" + i, 1, false,
+					null, -1, null, -1, null, -1, null, -1,
+					(SerializablePublicKey) null, (SerializablePublicKey) null, (SerializablePublicKey) null, ""));
+		}
+		this.addressBook = new AddressBook(addresses);
+
+		final RandomGraph graph = new RandomGraph(numMembers, Settings.numConnections, seed);
+		this.neighbors = new int[numMembers][];
+		for (int i = 0; i < numMembers; i++) {
+			neighbors[i] = graph.getNeighbors(i);
+		}
+
+		this.nanosBetweenEvents = Math.max(1, NANOS_PER_SECOND / eventsPerSecond);
+		this.random = new RandomExtended(seed);
+		this.lastEvent = new EventImpl[numMembers];
+	}
+
+	/**
+	 * @return the address book of the members creating the hashgraph
+	 */
+	public AddressBook getAddressBook() {
+		return addressBook;
+	}
+
+	/**
+	 * @return the number of events generated so far
+	 */
+	public long getNumGenerated() {
+		return numGenerated;
+	}
+
+	/**
+	 * Generate the next events of the hashgraph. Every event's parents were generated before it.
+	 *
+	 * @param numEvents
+	 * 		the number of events to generate
+	 * @return the events, in the order they were created
+	 */
+	public EventImpl[] generate(final int numEvents) {
+		final EventImpl[] events = new EventImpl[numEvents];
+		for (int i = 0; i < numEvents; i++) {
+			events[i] = nextEvent();
+		}
+		return events;
+	}
+
+	/**
+	 * Generate the next event of the hashgraph.
+	 *
+	 * @return the event
+	 */
+	public EventImpl nextEvent() {
+		final int creatorId = random.nextInt(lastEvent.length);
+		final int[] creatorNeighbors = neighbors[creatorId];
+		final int otherId = creatorNeighbors[random.nextInt(creatorNeighbors.length)];
+		final EventImpl selfParent = lastEvent[creatorId];
+		final EventImpl otherParent = lastEvent[otherId];
+
+		final BaseEventHashedData hashedData = new BaseEventHashedData(
+				creatorId,
+				selfParent == null ? -1 : selfParent.getGeneration(),
+				otherParent == null ? -1 : otherParent.getGeneration(),
+				selfParent == null ? null : selfParent.getBaseHash(),
+				otherParent == null ? null : otherParent.getBaseHash(),
+				START_TIME.plusNanos(numGenerated * nanosBetweenEvents),
+				NO_TRANSACTIONS);
+		hashedData.setHash(new Hash(randomBytes(DigestType.SHA_384.digestLength()), DigestType.SHA_384));
+
+		final BaseEventUnhashedData unhashedData = new BaseEventUnhashedData(
+				selfParent == null ? 0 : selfParent.getCreatorSeq() + 1,
+				otherParent == null ? -1 : otherId,
+				otherParent == null ? -1 : otherParent.getCreatorSeq(),
+				randomBytes(SIGNATURE_LENGTH));
+
+		final EventImpl event = new EventImpl(hashedData, unhashedData, selfParent, otherParent);
+		lastEvent[creatorId] = event;
+		numGenerated++;
+		return event;
+	}
+
+	private byte[] randomBytes(final int length) {
+		final byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.eventhandling;
+
+import com.swirlds.common.AddressBook;
+import com.swirlds.common.ParallelSwirldState;
+import com.swirlds.common.Platform;
+import com.swirlds.common.SwirldDualState;
+import com.swirlds.common.SwirldTransaction;
+import com.swirlds.common.TransactionKeys;
+import com.swirlds.common.merkle.utility.AbstractBinaryMerkleInternal;
+import com.swirlds.common.merkle.utility.MerkleLong;
+import com.swirlds.fcmap.FCMap;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * A demo {@link ParallelSwirldState} that holds the balances of accounts in an {@link FCMap}, and whose only
+ * transaction transfers an amount from one account to another. A transfer only reads and writes the balances of its
+ * two accounts, so transfers between different accounts can be prepared in parallel.
+ * <p>
+ * A transfer is rejected if the balance of the sending account is less than the amount. An account is created the
+ * first time something is transferred to it.
+ */
+public class ParallelTransferState extends AbstractBinaryMerkleInternal implements ParallelSwirldState {
+
+	public static final long CLASS_ID = 0x3a6e1c0a5fd9b27eL;
+
+	private static final int CLASS_VERSION = 1;
+
+	/** the number of bytes in a transfer transaction: the sending account, the receiving account and the amount */
+	public static final int TRANSFER_BYTES = 3 * Long.BYTES;
+
+	private static class ChildIndices {
+		public static final int ADDRESS_BOOK = 0;
+		public static final int BALANCES = 1;
+	}
+
+	public ParallelTransferState() {
+		setBalances(new FCMap<>());
+	}
+
+	private ParallelTransferState(final ParallelTransferState sourceState) {
+		super(sourceState);
+		if (sourceState.getAddressBook() != null) {
+			setAddressBook(sourceState.getAddressBook().copy());
+		}
+		setBalances(sourceState.getBalances().copy());
+		setImmutable(false);
+		sourceState.setImmutable(true);
+	}
+
+	/**
+	 * Encode a transfer.
+	 *
+	 * @param from
+	 * 		the account the amount is taken from
+	 * @param to
+	 * 		the account the amount is given to
+	 * @param amount
+	 * 		the amount to transfer
+	 * @return the transaction
+	 */
+	public static SwirldTransaction transfer(final long from, final long to, final long amount) {
+		return new SwirldTransaction(ByteBuffer.allocate(TRANSFER_BYTES)
+				.putLong(from)
+				.putLong(to)
+				.putLong(amount)
+				.array());
+	}
+
+	/**
+	 * Create an account, or replace its balance. This is for setting up a state, and is not a transaction.
+	 *
+	 * @param account
+	 * 		the account
+	 * @param balance
+	 * 		the balance of the account
+	 */
+	public void setBalance(final long account, final long balance) {
+		getBalances().put(new MerkleLong(account), new MerkleLong(balance));
+	}
+
+	/**
+	 * @param account
+	 * 		the account
+	 * @return the balance of the account, which is 0 if it doesn't exist
+	 */
+	public long getBalance(final long account) {
+		final MerkleLong balance = getBalances().get(new MerkleLong(account));
+		return balance == null ? 0 : balance.getValue();
+	}
+
+	public AddressBook getAddressBook() {
+		return getChild(ChildIndices.ADDRESS_BOOK);
+	}
+
+	private void setAddressBook(final AddressBook addressBook) {
+		setChild(ChildIndices.ADDRESS_BOOK, addressBook);
+	}
+
+	public FCMap<MerkleLong, MerkleLong> getBalances() {
+		return getChild(ChildIndices.BALANCES);
+	}
+
+	private void setBalances(final FCMap<MerkleLong, MerkleLong> balances) {
+		setChild(ChildIndices.BALANCES, balances);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void genesisInit(final Platform platform, final AddressBook addressBook) {
+		setAddressBook(addressBook.copy());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init(final Platform platform, final AddressBook addressBook) {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AddressBook getAddressBookCopy() {
+		return getAddressBook().copy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * A transfer writes the balances of its two accounts.
+	 */
+	@Override
+	public TransactionKeys getTransactionKeys(final SwirldTransaction trans) {
+		final ByteBuffer contents = ByteBuffer.wrap(trans.getContentsDirect());
+		return TransactionKeys.writing(contents.getLong(), contents.getLong());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Runnable prepareTransaction(final long id, final boolean isConsensus, final Instant timeCreated,
+			final Instant timestamp, final SwirldTransaction trans, final SwirldDualState swirldDualState) {
+		final ByteBuffer contents = ByteBuffer.wrap(trans.getContentsDirect());
+		final long from = contents.getLong();
+		final long to = contents.getLong();
+		final long amount = contents.getLong();
+
+		final long fromBalance = getBalance(from);
+		if (from == to || amount <= 0 || fromBalance < amount) {
+			// rejected, so it has no effect
+			return () -> {
+			};
+		}
+		final long toBalance = getBalance(to);
+		return () -> {
+			setBalance(from, fromBalance - amount);
+			setBalance(to, toBalance + amount);
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void noMoreTransactions() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void expandSignatures(final SwirldTransaction trans) {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void archive() {
+		getBalances().archive();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParallelTransferState copy() {
+		throwIfImmutable();
+		return new ParallelTransferState(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getClassId() {
+		return CLASS_ID;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getVersion() {
+		return CLASS_VERSION;
+	}
+}
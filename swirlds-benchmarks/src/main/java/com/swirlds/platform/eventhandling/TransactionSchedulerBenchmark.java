@@ -0,0 +1,154 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.eventhandling;
+
+import com.swirlds.common.SwirldDualState;
+import com.swirlds.common.SwirldTransaction;
+import com.swirlds.common.constructable.ConstructableIgnored;
+import com.swirlds.common.constructable.ConstructableRegistry;
+import com.swirlds.common.constructable.ConstructableRegistryException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of handling transfers in a {@link ParallelTransferState}, one at a time as
+ * {@code EventFlow} does by default, and through a {@link TransactionScheduler} as it does if
+ * {@code parallelTransactions} is enabled. The score is in transactions per second.
+ * <p>
+ * The transactions are random transfers between numAccounts accounts, so fewer accounts means more conflicts and
+ * shorter runs of transactions that can be prepared in parallel. A transfer is cheap to prepare, so prepareTokens
+ * adds the CPU work of a heavier transaction (such as checking a payload) to each one:
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar TransactionSchedulerBenchmark -p prepareTokens=0,1000
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class TransactionSchedulerBenchmark {
+	/** the number of transactions handled by each invocation, which is about as many as a busy event holds */
+	private static final int TRANSACTIONS_PER_INVOCATION = 1_000;
+	/** the balance of each account when the state is created */
+	private static final long INITIAL_BALANCE = 1_000_000_000L;
+	/** the seed of the transactions, so every run handles the same ones */
+	private static final long SEED = 0x5EED;
+	/** the timestamp given to every transaction */
+	private static final Instant NOW = Instant.parse("2021-01-01T00:00:00Z");
+
+	/** the number of accounts the transfers are between */
+	@Param({ "10", "1000", "100000" })
+	public int numAccounts;
+
+	/** the number of threads preparing transactions in parallel */
+	@Param({ "4", "8" })
+	public int numThreads;
+
+	/** the amount of extra CPU work done to prepare each transaction, in JMH tokens */
+	@Param({ "0", "1000" })
+	public long prepareTokens;
+
+	private ParallelTransferState state;
+	private TransactionScheduler scheduler;
+	private SwirldTransaction[] transactions;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws ConstructableRegistryException {
+		// the FCMap copies its leaves when it inserts them, which needs the registry. Only the packages the state
+		// uses are registered, since some other constructables connect to a database when they are constructed.
+		ConstructableRegistry.registerConstructables("com.swirlds.common");
+		ConstructableRegistry.registerConstructables("com.swirlds.fcmap");
+		state = new SlowTransferState(prepareTokens);
+		for (int i = 0; i < numAccounts; i++) {
+			state.setBalance(i, INITIAL_BALANCE);
+		}
+		scheduler = new TransactionScheduler(numThreads);
+
+		final Random random = new Random(SEED);
+		transactions = new SwirldTransaction[TRANSACTIONS_PER_INVOCATION];
+		for (int i = 0; i < transactions.length; i++) {
+			transactions[i] = ParallelTransferState.transfer(random.nextInt(numAccounts), random.nextInt(numAccounts),
+					1 + random.nextInt(100));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		scheduler.shutdown();
+	}
+
+	/**
+	 * A {@link ParallelTransferState} that does extra CPU work to prepare each transfer.
+	 */
+	@ConstructableIgnored
+	public static class SlowTransferState extends ParallelTransferState {
+		private final long prepareTokens;
+
+		public SlowTransferState(final long prepareTokens) {
+			this.prepareTokens = prepareTokens;
+		}
+
+		@Override
+		public Runnable prepareTransaction(final long id, final boolean isConsensus, final Instant timeCreated,
+				final Instant timestamp, final SwirldTransaction trans, final SwirldDualState swirldDualState) {
+			Blackhole.consumeCPU(prepareTokens);
+			return super.prepareTransaction(id, isConsensus, timeCreated, timestamp, trans, swirldDualState);
+		}
+	}
+
+	/**
+	 * Handle the transactions one at a time.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+	public void serial() {
+		for (final SwirldTransaction transaction : transactions) {
+			state.handleTransaction(0, true, NOW, NOW, transaction, null);
+		}
+	}
+
+	/**
+	 * Handle the transactions through the scheduler.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(TRANSACTIONS_PER_INVOCATION)
+	public void parallel() throws InterruptedException {
+		scheduler.handle(transactions.length,
+				i -> state.getTransactionKeys(transactions[i]),
+				i -> state.prepareTransaction(0, true, NOW, NOW, transactions[i], null),
+				i -> state.handleTransaction(0, true, NOW, NOW, transactions[i], null));
+	}
+}
@@ -0,0 +1,355 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the listener side of syncs run with a thread per connection, as {@code SyncListener} does, with syncs run
+ * by a {@link NioSyncSelector} and its workers, as {@code NioSyncServer} does.
+ * <p>
+ * Each of the {@link #numNodes} loopback connections is a member calling this node. A sync is shaped like a real one,
+ * without a hashgraph: the caller sends a sync request and {@link #eventsPerSync} events, each preceded by
+ * COMM_EVENT_NEXT and followed by COMM_EVENT_DONE, and the listener, having read them all, replies with as many
+ * events. The JMH threads are the callers, which block as {@code SyncCaller} does, each taking whichever connection is
+ * free. The results are syncs per second, and after each iteration, the CPU time of the process per sync and the
+ * number of live threads are printed:
+ * <pre>
+ * java -jar swirlds-benchmarks/target/benchmarks.jar SyncTransportBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SyncTransportBenchmark {
+	/** the bytes of SyncConstants used by the synthetic sync */
+	private static final byte COMM_SYNC_REQUEST = 0x42;
+	private static final byte COMM_EVENT_NEXT = 0x48;
+	private static final byte COMM_EVENT_DONE = 0x4a;
+
+	/** the number of bytes of each event, about the size of an event with a few transactions */
+	private static final int EVENT_SIZE = 400;
+	/** the size of the buffers of both sides, as Settings.bufferSize */
+	private static final int BUFFER_SIZE = 8 * 1024;
+	/** the number of worker threads, as Settings.nioSyncListenerThreads */
+	private static final int WORKER_THREADS = 2;
+	/** the limit of the bytes buffered by a connection, as Settings.nioSyncMaxBufferedBytes */
+	private static final int MAX_BUFFERED_BYTES = 4 * 1024 * 1024;
+
+	/** how the listener side is run: "blocking" for a thread per connection, "nio" for a selector */
+	@Param({ "blocking", "nio" })
+	public String transport;
+
+	/** the number of members connected to this node */
+	@Param({ "10", "40" })
+	public int numNodes;
+
+	/** the number of events sent by each side of a sync */
+	@Param({ "10", "100" })
+	public int eventsPerSync;
+
+	/** the connections that no caller is using */
+	private BlockingQueue<Caller> idle;
+	private final List<Socket> sockets = new ArrayList<>();
+
+	private ServerSocket serverSocket;
+	private ExecutorService listenerThreads;
+
+	private ServerSocketChannel serverChannel;
+	private NioSyncSelector selector;
+	private ExecutorService[] workers;
+
+	private final AtomicLong syncs = new AtomicLong();
+	private long startCpuNanos;
+	private long startSyncs;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException, InterruptedException {
+		final InetAddress loopback = InetAddress.getLoopbackAddress();
+		final int port;
+		if ("nio".equals(transport)) {
+			final DirectBufferPool bufferPool = new DirectBufferPool(BUFFER_SIZE, 2 * numNodes);
+			selector = new NioSyncSelector(bufferPool, 0, MAX_BUFFERED_BYTES);
+			final Thread selectorThread = new Thread(selector, "nioSyncSelector");
+			selectorThread.setDaemon(true);
+			selectorThread.start();
+			workers = new ExecutorService[WORKER_THREADS];
+			for (int i = 0; i < workers.length; i++) {
+				final String name = "nioSyncWorker-" + i;
+				workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+					final Thread thread = new Thread(runnable, name);
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(loopback, 0));
+			port = serverChannel.socket().getLocalPort();
+			final AtomicLong accepted = new AtomicLong();
+			selector.listen(serverChannel, (final SocketChannel socketChannel) -> {
+				try {
+					socketChannel.socket().setTcpNoDelay(true);
+				} catch (final IOException ignored) {
+					// the sync still works, only slower
+				}
+				selector.register(socketChannel, null, workers[(int) (accepted.getAndIncrement() % workers.length)],
+						new NioListener());
+			});
+		} else {
+			listenerThreads = Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "syncListener");
+				thread.setDaemon(true);
+				return thread;
+			});
+			serverSocket = new ServerSocket(0, numNodes, loopback);
+			port = serverSocket.getLocalPort();
+			listenerThreads.submit(() -> {
+				while (!serverSocket.isClosed()) {
+					final Socket socket = serverSocket.accept();
+					socket.setTcpNoDelay(true);
+					listenerThreads.submit(() -> {
+						listen(socket);
+						return null;
+					});
+				}
+				return null;
+			});
+		}
+
+		idle = new ArrayBlockingQueue<>(numNodes);
+		for (int i = 0; i < numNodes; i++) {
+			final Socket socket = new Socket(loopback, port);
+			socket.setTcpNoDelay(true);
+			sockets.add(socket);
+			idle.put(new Caller(socket));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		for (final Socket socket : sockets) {
+			socket.close();
+		}
+		sockets.clear();
+		if (serverSocket != null) {
+			serverSocket.close();
+			listenerThreads.shutdownNow();
+		}
+		if (selector != null) {
+			selector.close();
+			serverChannel.close();
+			for (final ExecutorService worker : workers) {
+				worker.shutdownNow();
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		startCpuNanos = processCpuNanos();
+		startSyncs = syncs.get();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		final long count = syncs.get() - startSyncs;
+		final long cpu = processCpuNanos() - startCpuNanos;
+		System.out.printf("%n%s: %.1f us of CPU per sync, %d live threads%n",
+				transport,
+				count == 0 ? 0.0 : cpu / 1_000.0 / count,
+				ManagementFactory.getThreadMXBean().getThreadCount());
+	}
+
+	/**
+	 * One sync, called on a free connection, as a SyncCaller would.
+	 */
+	@Benchmark
+	public void sync() throws IOException, InterruptedException {
+		final Caller caller = idle.take();
+		try {
+			caller.sync();
+		} finally {
+			idle.put(caller);
+		}
+		syncs.incrementAndGet();
+	}
+
+	private static long processCpuNanos() {
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+				.getProcessCpuTime();
+	}
+
+	private static void writeEvents(final DataOutputStream out, final int count, final byte[] event)
+			throws IOException {
+		for (int i = 0; i < count; i++) {
+			out.writeByte(COMM_EVENT_NEXT);
+			out.write(event);
+		}
+		out.writeByte(COMM_EVENT_DONE);
+	}
+
+	/**
+	 * Read events written by {@link #writeEvents}.
+	 *
+	 * @return the number of events read
+	 */
+	private static int readEvents(final DataInputStream in, final byte[] event) throws IOException {
+		int count = 0;
+		while (true) {
+			final byte b = in.readByte();
+			if (b == COMM_EVENT_DONE) {
+				return count;
+			}
+			if (b != COMM_EVENT_NEXT) {
+				throw new IOException("unexpected byte " + b);
+			}
+			in.readFully(event);
+			count++;
+		}
+	}
+
+	/**
+	 * The listener of one connection, on a thread of its own.
+	 */
+	private void listen(final Socket socket) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+		final byte[] event = new byte[EVENT_SIZE];
+		while (!socket.isClosed()) {
+			if (in.readByte() != COMM_SYNC_REQUEST) {
+				throw new IOException("expected a sync request");
+			}
+			final int count = readEvents(in, event);
+			writeEvents(out, count, event);
+			out.flush();
+		}
+	}
+
+	/**
+	 * The listener of one connection, as a state machine run by a selector.
+	 */
+	private static final class NioListener implements NioSyncHandler {
+		private final byte[] event = new byte[EVENT_SIZE];
+		private boolean syncing;
+		private int count;
+
+		@Override
+		public void received(final NioSyncChannel channel) throws IOException {
+			final DataInputStream in = channel.getInput();
+			while (true) {
+				if (!syncing) {
+					final Byte b = channel.tryRead(in::readByte);
+					if (b == null) {
+						return;
+					}
+					if (b != COMM_SYNC_REQUEST) {
+						throw new IOException("expected a sync request");
+					}
+					syncing = true;
+					count = 0;
+				}
+
+				final Boolean done = channel.tryRead(() -> {
+					final byte b = in.readByte();
+					if (b == COMM_EVENT_DONE) {
+						return Boolean.TRUE;
+					}
+					if (b != COMM_EVENT_NEXT) {
+						throw new IOException("unexpected byte " + b);
+					}
+					in.readFully(event);
+					return Boolean.FALSE;
+				});
+				if (done == null) {
+					return;
+				}
+				if (done) {
+					writeEvents(channel.getOutput(), count, event);
+					channel.getOutput().flush();
+					syncing = false;
+				} else {
+					count++;
+				}
+			}
+		}
+
+		@Override
+		public void closed(final NioSyncChannel channel) {
+			// nothing to release
+		}
+	}
+
+	/**
+	 * The caller side of one connection, which blocks.
+	 */
+	private final class Caller {
+		private final DataInputStream in;
+		private final DataOutputStream out;
+		private final byte[] event = new byte[EVENT_SIZE];
+
+		Caller(final Socket socket) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+			out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+		}
+
+		void sync() throws IOException {
+			out.writeByte(COMM_SYNC_REQUEST);
+			writeEvents(out, eventsPerSync, event);
+			out.flush();
+			if (readEvents(in, event) != eventsPerSync) {
+				throw new IOException("the listener did not reply with every event");
+			}
+		}
+	}
+}
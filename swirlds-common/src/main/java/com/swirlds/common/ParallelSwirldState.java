@@ -0,0 +1,86 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common;
+
+import java.time.Instant;
+
+/**
+ * A {@link SwirldState} that declares which parts of the state each transaction reads and writes, so that the
+ * Platform can handle transactions that don't conflict at the same time, on several threads.
+ * <p>
+ * Each transaction is handled in two steps. {@link #prepareTransaction} computes the effect of the transaction
+ * without changing the state, and may be called on several threads at once, for transactions whose
+ * {@link TransactionKeys} don't conflict. The {@link Runnable} it returns then applies that effect, and is always
+ * run on a single thread, one transaction at a time, in the same order that {@link #handleTransaction} would have
+ * been called in. So the state ends up exactly as if the transactions had been handled one at a time, including
+ * any part of it (such as the shape of a merkle tree) that depends on the order of the changes.
+ * <p>
+ * For this to hold, {@link #prepareTransaction} must only read the parts of the state named by the keys declared
+ * for the transaction, and the effect must only change those parts. Since several transactions are prepared at
+ * once, {@link #prepareTransaction} must not be synchronized on the state. The parts of the state it reads must be
+ * safe to read from several threads at once, as long as nothing is writing them (which is true of an FCMap).
+ * <p>
+ * The Platform only does this if {@code parallelTransactions} is enabled in its settings. Otherwise, and whenever
+ * it can't prepare transactions in parallel, it calls {@link #handleTransaction}, which prepares the transaction and
+ * applies its effect at once.
+ */
+public interface ParallelSwirldState extends SwirldState {
+
+	/**
+	 * Declare the parts of the state that a transaction reads and writes. This must only look at the transaction,
+	 * never at the state, and must give the same result on every node. It may be called on any thread.
+	 *
+	 * @param trans
+	 * 		the transaction
+	 * @return the keys the transaction reads and writes, or null if it may read or write any part of the state, in
+	 * 		which case it is handled while no other transaction is being prepared
+	 */
+	TransactionKeys getTransactionKeys(SwirldTransaction trans);
+
+	/**
+	 * Compute the effect of a transaction, without changing the state. The parameters are the same as those of
+	 * {@link #handleTransaction}.
+	 *
+	 * @param id
+	 * 		the ID number of the member who created this transaction
+	 * @param isConsensus
+	 * 		is this transaction's timeCreated and position in history part of the consensus?
+	 * @param timeCreated
+	 * 		the time when this transaction was first created and sent to the network, as claimed by
+	 * 		the member that created it (which might be dishonest or mistaken)
+	 * @param timestamp
+	 * 		the consensus timestamp for when this transaction happened (or an estimate of it, if it
+	 * 		hasn't reached consensus yet)
+	 * @param trans
+	 * 		the transaction to handle, encoded any way the swirld app author chooses
+	 * @param swirldDualState
+	 * 		current dualState object, which must only be read while preparing
+	 * @return a runnable that applies the effect of the transaction to the state (never null)
+	 */
+	Runnable prepareTransaction(long id, boolean isConsensus,
+			Instant timeCreated, Instant timestamp, SwirldTransaction trans, SwirldDualState swirldDualState);
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Prepares the transaction, and applies its effect.
+	 */
+	@Override
+	default void handleTransaction(final long id, final boolean isConsensus,
+			final Instant timeCreated, final Instant timestamp, final SwirldTransaction trans,
+			final SwirldDualState swirldDualState) {
+		prepareTransaction(id, isConsensus, timeCreated, timestamp, trans, swirldDualState).run();
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The keys of the parts of a {@link ParallelSwirldState} that one transaction reads and writes. Two transactions
+ * conflict if either of them writes a key that the other reads or writes. Transactions that don't conflict can be
+ * prepared at the same time.
+ * <p>
+ * A key can be any object that implements {@code equals} and {@code hashCode}, such as the key of an entry in a map.
+ * Keys from different parts of the state must not be equal to each other.
+ */
+public final class TransactionKeys {
+
+	/** the keys the transaction only reads */
+	private final Collection<?> readKeys;
+	/** the keys the transaction writes, and may also read */
+	private final Collection<?> writeKeys;
+
+	private TransactionKeys(final Collection<?> readKeys, final Collection<?> writeKeys) {
+		this.readKeys = Objects.requireNonNull(readKeys, "readKeys");
+		this.writeKeys = Objects.requireNonNull(writeKeys, "writeKeys");
+	}
+
+	/**
+	 * @param readKeys
+	 * 		the keys the transaction only reads
+	 * @param writeKeys
+	 * 		the keys the transaction writes, and may also read
+	 * @return the keys of a transaction
+	 */
+	public static TransactionKeys of(final Collection<?> readKeys, final Collection<?> writeKeys) {
+		return new TransactionKeys(readKeys, writeKeys);
+	}
+
+	/**
+	 * @param writeKeys
+	 * 		the keys the transaction writes, and may also read. It reads no other keys.
+	 * @return the keys of a transaction
+	 */
+	public static TransactionKeys writing(final Object... writeKeys) {
+		return new TransactionKeys(Collections.emptyList(), List.of(writeKeys));
+	}
+
+	/**
+	 * @return the keys the transaction only reads
+	 */
+	public Collection<?> getReadKeys() {
+		return readKeys;
+	}
+
+	/**
+	 * @return the keys the transaction writes, and may also read
+	 */
+	public Collection<?> getWriteKeys() {
+		return writeKeys;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "TransactionKeys{reads=" + readKeys + ", writes=" + writeKeys + "}";
+	}
+}
@@ -30,6 +30,7 @@ import com.swirlds.common.futures.WaitingFuture;
 import com.swirlds.common.io.SelfSerializable;
 import com.swirlds.common.merkle.MerkleInternal;
 import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.common.merkle.hash.ForkJoinMerkleHashBuilder;
 import com.swirlds.common.merkle.hash.FutureMerkleHash;
 import com.swirlds.common.merkle.hash.MerkleHashBuilder;
 import com.swirlds.logging.LogMarker;
@@ -197,7 +198,9 @@ public class CryptoEngine extends AbstractCryptography implements Cryptography {
 		this.serializationDigestProvider = new SerializationDigestProvider();
 		this.merkleInternalDigestProvider = new MerkleInternalDigestProvider();
 		this.runningHashProvider = new RunningHashProvider();
-		this.merkleHashBuilder = new MerkleHashBuilder(this, settings.computeCpuDigestThreadCount());
+		this.merkleHashBuilder = settings.forkJoinMerkleHashing()
+				? new ForkJoinMerkleHashBuilder(this, settings.computeCpuDigestThreadCount())
+				: new MerkleHashBuilder(this, settings.computeCpuDigestThreadCount());
 
 		if (!settings.forceCpu()) {
 			detectSystemFeatures();
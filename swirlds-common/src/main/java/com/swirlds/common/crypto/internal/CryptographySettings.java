@@ -59,6 +59,11 @@ public interface CryptographySettings {
 			public String getKeystorePassword() {
 				return DEFAULT_KEYSTORE_PASSWORD;
 			}
+
+			@Override
+			public boolean forkJoinMerkleHashing() {
+				return false;
+			}
 		};
 	}
 
@@ -106,6 +111,14 @@ public interface CryptographySettings {
 	 */
 	String getKeystorePassword();
 
+	/**
+	 * Returns true if merkle trees should be hashed by splitting them into subtrees on a fork-join pool, or false if
+	 * they should be hashed by several threads that each iterate over the whole tree.
+	 *
+	 * @return true if merkle trees are hashed on a fork-join pool, false otherwise
+	 */
+	boolean forkJoinMerkleHashing();
+
 	/**
 	 * Calculates the number of threads needed to achieve the CPU core ratio given by {@link
 	 * #getCpuVerifierThreadRatio()}.
@@ -34,6 +34,17 @@ public class CountingStreamExtension implements StreamExtension, Counter {
 		counter.addToCount(len);
 	}
 
+	/**
+	 * Count bytes that did not pass through a stream, such as bytes that are only counted once they have been
+	 * consumed from a buffer that may be read again
+	 *
+	 * @param count
+	 * 		the number of bytes to add to the count
+	 */
+	public void addToCount(final long count) {
+		counter.addToCount(count);
+	}
+
 	/**
 	 * Resets the number of bytes read
 	 */
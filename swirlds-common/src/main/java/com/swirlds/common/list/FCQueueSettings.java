@@ -0,0 +1,34 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common.list;
+
+/**
+ * Settings for FCQueue. They live here rather than in the FCQueue module so that the platform can configure them.
+ */
+public interface FCQueueSettings {
+
+	/**
+	 * Should the elements added since a queue was last hashed be hashed in parallel by a pool of threads? If not, they
+	 * are hashed one at a time by the thread that asks for the queue's hash. Either way each element is hashed by
+	 * the queue's getHash(element), so the hash is the same.
+	 */
+	boolean isAsyncElementHashing();
+
+	/**
+	 * Get the number of elements hashed together when hashing asynchronously. Each batch is split across the
+	 * threads of the pool, then folded into the queue's hash before the next batch is started.
+	 */
+	int getAsyncHashingBatchSize();
+}
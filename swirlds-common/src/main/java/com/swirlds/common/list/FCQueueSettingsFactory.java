@@ -0,0 +1,61 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common.list;
+
+/**
+ * This object is used to configure general FCQueue settings.
+ */
+public final class FCQueueSettingsFactory {
+
+	private static FCQueueSettings settings;
+
+	private FCQueueSettingsFactory() {
+
+	}
+
+	/**
+	 * Specify the settings that should be used for FCQueue.
+	 */
+	public static void configure(final FCQueueSettings settings) {
+		FCQueueSettingsFactory.settings = settings;
+	}
+
+	/**
+	 * Get the settings for FCQueue.
+	 */
+	public static FCQueueSettings get() {
+		if (settings == null) {
+			settings = getDefaultSettings();
+		}
+		return settings;
+	}
+
+	/**
+	 * Get default FCQueue settings. Useful for testing.
+	 */
+	private static FCQueueSettings getDefaultSettings() {
+		return new FCQueueSettings() {
+			@Override
+			public boolean isAsyncElementHashing() {
+				return false;
+			}
+
+			@Override
+			public int getAsyncHashingBatchSize() {
+				return 1024;
+			}
+		};
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common.merkle.hash;
+
+import com.swirlds.common.crypto.Cryptography;
+import com.swirlds.common.crypto.CryptographyException;
+import com.swirlds.common.crypto.DigestType;
+import com.swirlds.common.crypto.Message;
+import com.swirlds.common.crypto.engine.CryptoEngine;
+import com.swirlds.common.io.SerializableDataOutputStream;
+import com.swirlds.common.merkle.MerkleInternal;
+import com.swirlds.common.merkle.MerkleLeaf;
+import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.common.merkle.exceptions.IllegalChildHashException;
+import com.swirlds.logging.LogMarker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import static com.swirlds.common.merkle.utility.MerkleConstants.MERKLE_DIGEST_TYPE;
+
+/**
+ * This class is responsible for hashing a merkle tree on a {@link ForkJoinPool}.
+ * <p>
+ * Instead of several threads racing over the whole tree and locking every node, the tree is split recursively at
+ * internal nodes. Each subtree without a hash is hashed by exactly one task. A task collects the leaves of its part
+ * of the subtree and sends them to the crypto engine's digest threads in bulk, joins the tasks it forked, and then
+ * hashes its internal nodes, children before parents. Subtrees that already have a hash are never visited.
+ * </p>
+ */
+public class ForkJoinMerkleHashBuilder extends MerkleHashBuilder {
+	private static final Logger log = LogManager.getLogger(ForkJoinMerkleHashBuilder.class);
+
+	/**
+	 * While a worker has more queued tasks than this, it hashes internal children itself instead of forking them.
+	 */
+	private static final int MAX_SURPLUS_TASKS = 3;
+
+	/**
+	 * The most leaves sent to the crypto engine as one list. Each list is digested by one of the engine's threads.
+	 */
+	private static final int MAX_LEAVES_PER_LIST = 256;
+
+	private final ForkJoinPool forkJoinPool;
+
+	private final Cryptography cryptography;
+
+	/**
+	 * Construct an object which calculates the hash of a merkle tree.
+	 *
+	 * @param cryptography
+	 * 		the {@link Cryptography} implementation to use
+	 * @param cpuThreadCount
+	 * 		the number of threads to be used for computing hash
+	 */
+	public ForkJoinMerkleHashBuilder(final Cryptography cryptography, final int cpuThreadCount) {
+		super(cryptography);
+		this.cryptography = cryptography;
+		this.forkJoinPool = new ForkJoinPool(cpuThreadCount, pool -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("merkle_hash_builder_fj_" + thread.getPoolIndex());
+			return thread;
+		}, (t, ex) -> log.error(CryptoEngine.LOGM_EXCEPTION,
+				"Uncaught exception in ForkJoinMerkleHashBuilder thread pool", ex), false);
+	}
+
+	/**
+	 * Compute the hash of the merkle tree on the fork-join pool.
+	 *
+	 * @param root
+	 * 		the root of the tree to hash
+	 * @return a Future which encapsulates the hash of the merkle tree
+	 */
+	@Override
+	public FutureMerkleHash digestTreeAsync(final MerkleNode root) {
+		final FutureMerkleHash result = new FutureMerkleHash();
+		if (root == null) {
+			result.set(cryptography.getNullHash(MERKLE_DIGEST_TYPE));
+			return result;
+		}
+		if (root.getHash() != null) {
+			result.set(root.getHash());
+			return result;
+		}
+
+		final StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+
+		forkJoinPool.execute(() -> {
+			try {
+				new HashTask(root).invoke();
+				result.set(root.getHash());
+			} catch (IllegalChildHashException ex) {
+				ex.setStackTrace(stackTrace);
+
+				log.error(CryptoEngine.LOGM_EXCEPTION, ex.getMessage(), ex);
+				throw new IllegalChildHashException(ex);
+			} catch (RuntimeException ex) {
+				log.error(CryptoEngine.LOGM_EXCEPTION, "Uncaught exception in ForkJoinMerkleHashBuilder", ex);
+				throw ex;
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Hashes the nodes of a subtree that have no hash, children before parents.
+	 */
+	private class HashTask extends RecursiveAction {
+
+		private final MerkleNode node;
+
+		HashTask(final MerkleNode node) {
+			this.node = node;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (node == null || node.getHash() != null) {
+				return;
+			}
+
+			if (node.isLeaf()) {
+				cryptography.digestSync(node.asLeaf(), MERKLE_DIGEST_TYPE);
+				return;
+			}
+
+			final List<MerkleLeaf> leaves = new ArrayList<>();
+			final List<MerkleInternal> internals = new ArrayList<>();
+			final List<HashTask> forked = new ArrayList<>();
+			collectDirtyNodes(node.asInternal(), leaves, internals, forked);
+
+			final List<Message> leafMessages = digestLeavesAsync(leaves);
+
+			for (final HashTask task : forked) {
+				task.join();
+			}
+
+			awaitLeaves(leaves, leafMessages);
+
+			for (final MerkleInternal internal : internals) {
+				cryptography.digestSync(internal, MERKLE_DIGEST_TYPE);
+			}
+		}
+
+		/**
+		 * Walk the nodes without a hash below an internal node, forking tasks for some internal children.
+		 *
+		 * @param internal
+		 * 		an internal node without a hash
+		 * @param leaves
+		 * 		the leaves without a hash that this task hashes
+		 * @param internals
+		 * 		the internal nodes without a hash that this task hashes, children before parents
+		 * @param forked
+		 * 		the tasks forked for subtrees, which must be joined before any of the internal nodes is hashed
+		 */
+		private void collectDirtyNodes(final MerkleInternal internal, final List<MerkleLeaf> leaves,
+				final List<MerkleInternal> internals, final List<HashTask> forked) {
+			MerkleNode internalChild = null;
+			for (int childIndex = 0; childIndex < internal.getNumberOfChildren(); childIndex++) {
+				final MerkleNode child = internal.getChild(childIndex);
+				if (child == null || child.getHash() != null) {
+					continue;
+				}
+
+				if (child.isLeaf()) {
+					// Leaves are cheap, so they are digested in bulk rather than in tasks of their own
+					leaves.add(child.asLeaf());
+					continue;
+				}
+
+				if (internalChild != null) {
+					if (getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS) {
+						final HashTask task = new HashTask(internalChild);
+						task.fork();
+						forked.add(task);
+					} else {
+						collectDirtyNodes(internalChild.asInternal(), leaves, internals, forked);
+					}
+				}
+				internalChild = child;
+			}
+
+			// The last internal child always stays with this task
+			if (internalChild != null) {
+				collectDirtyNodes(internalChild.asInternal(), leaves, internals, forked);
+			}
+
+			internals.add(internal);
+		}
+
+		/**
+		 * Send the leaves to the crypto engine's digest threads as lists of messages, with the same bytes that
+		 * {@link Cryptography#digestSync(MerkleLeaf, DigestType)} would digest.
+		 *
+		 * @return the message of each leaf, in the same order
+		 */
+		private List<Message> digestLeavesAsync(final List<MerkleLeaf> leaves) {
+			final List<Message> messages = new ArrayList<>(leaves.size());
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			for (final MerkleLeaf leaf : leaves) {
+				buffer.reset();
+				try (final SerializableDataOutputStream out = new SerializableDataOutputStream(buffer)) {
+					out.writeSerializable(leaf, true);
+				} catch (final IOException ex) {
+					throw new CryptographyException(ex, LogMarker.EXCEPTION);
+				}
+				messages.add(new Message(buffer.toByteArray(), MERKLE_DIGEST_TYPE));
+			}
+
+			for (int from = 0; from < messages.size(); from += MAX_LEAVES_PER_LIST) {
+				cryptography.digestAsync(messages.subList(from, Math.min(from + MAX_LEAVES_PER_LIST, messages.size())));
+			}
+			return messages;
+		}
+
+		/**
+		 * Wait for the digest of each leaf and set its hash. A leaf whose message could not be digested
+		 * asynchronously is digested by this thread instead.
+		 */
+		private void awaitLeaves(final List<MerkleLeaf> leaves, final List<Message> messages) {
+			for (int i = 0; i < leaves.size(); i++) {
+				final MerkleLeaf leaf = leaves.get(i);
+				final Message message = messages.get(i);
+				if (message.getFuture() == null && Thread.currentThread().isInterrupted()) {
+					// the message was never queued, and waiting for it would block forever
+					cryptography.digestSync(leaf, MERKLE_DIGEST_TYPE);
+					continue;
+				}
+				try {
+					message.waitForFuture().get();
+					leaf.setHash(message.getHash());
+				} catch (final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					cryptography.digestSync(leaf, MERKLE_DIGEST_TYPE);
+				} catch (final ExecutionException ex) {
+					cryptography.digestSync(leaf, MERKLE_DIGEST_TYPE);
+				}
+			}
+		}
+	}
+}
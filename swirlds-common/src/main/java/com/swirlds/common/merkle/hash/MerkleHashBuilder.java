@@ -66,6 +66,19 @@ public class MerkleHashBuilder {
 				}));
 	}
 
+	/**
+	 * Construct an object which calculates the hash of a merkle tree without a thread pool of its own, for a subclass
+	 * that overrides {@link #digestTreeAsync(MerkleNode)} to hash on its own worker threads.
+	 *
+	 * @param cryptography
+	 * 		the {@link Cryptography} implementation to use
+	 */
+	protected MerkleHashBuilder(final Cryptography cryptography) {
+		this.cryptography = cryptography;
+		this.cpuThreadCount = 0;
+		this.threadPool = null;
+	}
+
 	/**
 	 * Compute the hash of the merkle tree synchronously on the caller's thread.
 	 *
@@ -50,6 +50,8 @@ public class QueueThread<T> implements BlockingQueue<T> {
 
 	private final QueueThreadHandler<T> handler;
 
+	private final QueueThreadBatchHandler<T> batchHandler;
+
 	private final StoppableThread stoppableThread;
 
 	/**
@@ -77,6 +79,7 @@ public class QueueThread<T> implements BlockingQueue<T> {
 		buffer = new ArrayList<>(bufferSize);
 
 		handler = configuration.getHandler();
+		batchHandler = configuration.getBatchHandler();
 
 		stoppableThread = configuration.getStoppableThreadConfiguration()
 				.setWork(this::doWork)
@@ -182,8 +185,22 @@ public class QueueThread<T> implements BlockingQueue<T> {
 			return;
 		}
 
-		for (final T item : buffer) {
-			handler.handle(item);
+		handleBuffer();
+	}
+
+	/**
+	 * Handle every item in the buffer, then empty it.
+	 *
+	 * @throws InterruptedException
+	 * 		if this method is interrupted during execution
+	 */
+	private void handleBuffer() throws InterruptedException {
+		if (batchHandler != null) {
+			batchHandler.handle(buffer);
+		} else {
+			for (final T item : buffer) {
+				handler.handle(item);
+			}
 		}
 		buffer.clear();
 	}
@@ -198,7 +215,8 @@ public class QueueThread<T> implements BlockingQueue<T> {
 	private void waitForWork() throws InterruptedException {
 		final T item = queue.poll(WAIT_FOR_WORK_DELAY_MS, TimeUnit.MILLISECONDS);
 		if (item != null) {
-			handler.handle(item);
+			buffer.add(item);
+			handleBuffer();
 		}
 	}
 
@@ -208,9 +226,7 @@ public class QueueThread<T> implements BlockingQueue<T> {
 	private void doFinalCycleWork() throws InterruptedException {
 		while (queue.size() > 0) {
 			queue.drainTo(buffer, bufferSize);
-			for (final T item : buffer) {
-				handler.handle(item);
-			}
+			handleBuffer();
 		}
 	}
 
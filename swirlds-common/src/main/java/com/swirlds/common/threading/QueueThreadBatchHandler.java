@@ -0,0 +1,37 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.common.threading;
+
+import java.util.List;
+
+/**
+ * A method that an {@link QueueThread} can use to handle all the elements it drains from the queue at once.
+ */
+@FunctionalInterface
+public interface QueueThreadBatchHandler<T> {
+
+	/**
+	 * Handle a batch of items from the queue, in the order they were queued.
+	 *
+	 * @param items
+	 * 		the items from the queue. Will never be null or empty, and must not be kept after this method returns,
+	 * 		since the list is reused.
+	 * @throws InterruptedException
+	 * 		if the thread is interrupted while work is being done
+	 */
+	void handle(List<T> items) throws InterruptedException;
+
+}
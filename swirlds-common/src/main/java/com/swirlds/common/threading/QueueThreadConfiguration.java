@@ -43,6 +43,12 @@ public class QueueThreadConfiguration<T> {
 	 */
 	private QueueThreadHandler<T> handler;
 
+	/**
+	 * The method used to handle all the items drained from the queue at once. If set, it is used instead of
+	 * {@link #handler}.
+	 */
+	private QueueThreadBatchHandler<T> batchHandler;
+
 	/**
 	 * A collection of thresholds that can be triggered based on the size of the queue.
 	 */
@@ -77,7 +83,7 @@ public class QueueThreadConfiguration<T> {
 	 * start the background handler, call {@link QueueThread#start()}.
 	 */
 	public QueueThread<T> build() {
-		if (handler == null) {
+		if (handler == null && batchHandler == null) {
 			throw new NullPointerException("handler must not be null");
 		}
 
@@ -147,6 +153,25 @@ public class QueueThreadConfiguration<T> {
 		return this;
 	}
 
+	/**
+	 * Get the handler method that will be called against all the items drained from the queue at once, or null if
+	 * items are handled one at a time.
+	 */
+	public QueueThreadBatchHandler<T> getBatchHandler() {
+		return batchHandler;
+	}
+
+	/**
+	 * Set the handler method that will be called against all the items drained from the queue at once. If set, it
+	 * is used instead of the handler set by {@link #setHandler(QueueThreadHandler)}.
+	 *
+	 * @return this object
+	 */
+	public QueueThreadConfiguration<T> setBatchHandler(final QueueThreadBatchHandler<T> batchHandler) {
+		this.batchHandler = batchHandler;
+		return this;
+	}
+
 	/**
 	 * Get the the thread group that new threads will be created in.
 	 */
@@ -0,0 +1,84 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.common.threading;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link ForkJoinPool} shared by several objects, which is created when the first of them acquires it and shut down
+ * when the last of them releases it. So no threads are left behind once nothing uses the pool, and it is created
+ * again if something needs it later.
+ * <p>
+ * Every {@link #acquire()} must be matched by exactly one {@link #release()}.
+ */
+public class SharedForkJoinPool {
+
+	/** the prefix of the name of each thread, which is followed by its index in the pool */
+	private final String threadNamePrefix;
+
+	/** returns the number of threads of the pool when it is created */
+	private final IntSupplier parallelism;
+
+	/** the pool, or null if nothing holds it */
+	private ForkJoinPool pool;
+
+	/** the number of acquires not yet released */
+	private int users;
+
+	/**
+	 * @param threadNamePrefix
+	 * 		the prefix of the name of each thread, which is followed by its index in the pool
+	 * @param parallelism
+	 * 		returns the number of threads of the pool. It is called each time the pool is created.
+	 */
+	public SharedForkJoinPool(final String threadNamePrefix, final IntSupplier parallelism) {
+		this.threadNamePrefix = threadNamePrefix;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Get the pool, creating it if nothing holds it.
+	 *
+	 * @return the pool, which may be used until the matching call to {@link #release()}
+	 */
+	public synchronized ForkJoinPool acquire() {
+		if (pool == null) {
+			pool = new ForkJoinPool(Math.max(1, parallelism.getAsInt()), p -> {
+				final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				thread.setName(threadNamePrefix + thread.getPoolIndex());
+				return thread;
+			}, null, false);
+		}
+		users++;
+		return pool;
+	}
+
+	/**
+	 * Stop using the pool. If nothing else holds it, it is shut down once the tasks already submitted are done.
+	 */
+	public synchronized void release() {
+		if (users == 0) {
+			throw new IllegalStateException("the pool " + threadNamePrefix + " was released more times than acquired");
+		}
+		users--;
+		if (users == 0) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+}
@@ -0,0 +1,638 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.common.threading;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * A lock-free queue with a single producer thread and a single consumer thread, backed by a ring of preallocated
+ * slots. Putting or taking an element never takes a lock, and never allocates while the ring has room.
+ * <p>
+ * The consumer takes elements in batches: it reads the producer's position at most once every {@code batchSize}
+ * elements, and takes the elements published up to then without touching memory the producer writes. When the ring
+ * is empty (or full, for the producer), the waiting thread either busy-spins or parks, depending on the
+ * {@link WaitStrategy}.
+ * <p>
+ * What the producer does when the ring is full is set by the {@link OverflowPolicy}. With {@link OverflowPolicy#SPILL}
+ * it never waits: the elements that don't fit are put in an unbounded overflow queue, which allocates, and the
+ * producer keeps putting elements there until the consumer has emptied it, so the elements are still taken in the
+ * order they were put.
+ * <p>
+ * Only one thread may put elements at a time, and only one thread may take them at a time. A different thread may
+ * take over either role, as long as it happens-after the thread it replaces (e.g. the old thread was joined).
+ * {@link #size()}, {@link #remainingCapacity()}, {@link #peek()}, {@link #wakeUp()} and {@link #iterator()} (and so
+ * {@link #contains(Object)} and {@link #toArray()}) may be called by any thread. {@link #remove(Object)} and
+ * {@link #clear()} take elements, so they must only be called by the consumer.
+ *
+ * @param <T>
+ * 		the type of the elements in the ring
+ */
+public class SpscRingBuffer<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+
+	/** How a thread waits for the ring to have an element (the consumer) or a free slot (the producer) */
+	public enum WaitStrategy {
+		/**
+		 * spin on the CPU until the ring changes, yielding now and then in case the other side has no core to run
+		 * on. Lowest latency, but keeps a core busy while waiting.
+		 */
+		BUSY_SPIN,
+		/** park the thread until the other side wakes it up. Frees the core, at the cost of a wakeup per wait. */
+		PARK
+	}
+
+	/** What the producer does when the ring is full */
+	public enum OverflowPolicy {
+		/** wait for the consumer to free a slot, using the {@link WaitStrategy}. The ring is bounded. */
+		WAIT,
+		/** put the element in an unbounded overflow queue, so the producer never waits */
+		SPILL
+	}
+
+	/** the largest capacity of a ring */
+	public static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * the longest time the producer parks before checking for a free slot again. The consumer only wakes the
+	 * producer once per batch, so this bounds the wait if the consumer stops taking elements in the middle of one.
+	 */
+	private static final long PRODUCER_PARK_NANOS = 100_000;
+
+	/** a busy-spinning thread yields once every this many spins (must be a power of 2) */
+	private static final int SPINS_PER_YIELD = 1024;
+
+	/** the slots of the ring. The element with sequence number s is in slot s &amp; mask */
+	private final Object[] buffer;
+	/** putTimes[s &amp; mask] is the {@link System#nanoTime()} at which element s was put, if hand-offs are timed */
+	private final long[] putTimes;
+	/** the capacity of the ring, minus 1 */
+	private final int mask;
+	/** the maximum number of elements the consumer takes between reads of the producer's position */
+	private final int batchSize;
+	/** how the producer and consumer wait */
+	private final WaitStrategy waitStrategy;
+	/** called by the consumer with the number of nanoseconds each element spent in the ring, or null */
+	private final LongConsumer handOffListener;
+	/**
+	 * the elements put while the ring was full, if the overflow policy is {@link OverflowPolicy#SPILL}, else null.
+	 * While it isn't empty, every element is put here, and the consumer only takes from here once the ring is empty.
+	 */
+	private final Queue<T> overflow;
+
+	/** the sequence number of the next element to take. Only written by the consumer */
+	private final AtomicLong head = new PaddedAtomicLong();
+	/** the sequence number of the next element to put. Only written by the producer */
+	private final AtomicLong tail = new PaddedAtomicLong();
+	/** the value of head last read by the producer. Only used by the producer */
+	private long headCache = 0;
+	/** the end of the batch the consumer is taking elements from. Only used by the consumer */
+	private long batchEnd = 0;
+
+	/** the consumer, if it is parked waiting for an element */
+	private volatile Thread waitingConsumer;
+	/** the producer, if it is parked waiting for a free slot */
+	private volatile Thread waitingProducer;
+	/** set by {@link #wakeUp()}, to make the consumer's next wait return at once */
+	private volatile boolean wakeUpRequested;
+
+	/**
+	 * Create an empty, bounded ring, whose producer waits when it is full.
+	 *
+	 * @param capacity
+	 * 		the minimum number of elements the ring can hold. It is rounded up to a power of 2.
+	 * @param batchSize
+	 * 		the maximum number of elements the consumer takes between reads of the producer's position
+	 * @param waitStrategy
+	 * 		how the producer and the consumer wait
+	 * @param handOffListener
+	 * 		if not null, it is called by the consumer with the number of nanoseconds each element it takes spent in
+	 * 		the ring
+	 */
+	public SpscRingBuffer(final int capacity, final int batchSize, final WaitStrategy waitStrategy,
+			final LongConsumer handOffListener) {
+		this(capacity, batchSize, waitStrategy, OverflowPolicy.WAIT, handOffListener);
+	}
+
+	/**
+	 * Create an empty ring.
+	 *
+	 * @param capacity
+	 * 		the minimum number of elements the ring can hold. It is rounded up to a power of 2.
+	 * @param batchSize
+	 * 		the maximum number of elements the consumer takes between reads of the producer's position
+	 * @param waitStrategy
+	 * 		how the producer and the consumer wait
+	 * @param overflowPolicy
+	 * 		what the producer does when the ring is full
+	 * @param handOffListener
+	 * 		if not null, it is called by the consumer with the number of nanoseconds each element it takes spent in
+	 * 		the ring (elements that spilled into the overflow queue are not timed)
+	 */
+	public SpscRingBuffer(final int capacity, final int batchSize, final WaitStrategy waitStrategy,
+			final OverflowPolicy overflowPolicy, final LongConsumer handOffListener) {
+		if (capacity <= 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ", not " + capacity);
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be positive, not " + batchSize);
+		}
+		final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.buffer = new Object[size];
+		this.putTimes = handOffListener == null ? null : new long[size];
+		this.mask = size - 1;
+		this.batchSize = batchSize;
+		this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+		this.handOffListener = handOffListener;
+		this.overflow = Objects.requireNonNull(overflowPolicy, "overflowPolicy") == OverflowPolicy.SPILL
+				? new ConcurrentLinkedQueue<>()
+				: null;
+	}
+
+	/**
+	 * @return the number of elements the ring can hold
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Make the consumer's current wait for an element return null at once, or if it isn't waiting, its next one.
+	 * This lets another thread get the consumer's attention without putting an element in the ring, which would
+	 * make it a second producer. May be called by any thread.
+	 */
+	public void wakeUp() {
+		wakeUpRequested = true;
+		final Thread consumer = waitingConsumer;
+		if (consumer != null) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the producer. If the overflow policy is {@link OverflowPolicy#SPILL}, this always
+	 * succeeds.
+	 */
+	@Override
+	public boolean offer(final T t) {
+		Objects.requireNonNull(t);
+		if (overflow == null) {
+			return offerToRing(t);
+		}
+		// once an element has spilled, the ones after it must spill too, until the consumer has taken them all
+		if (overflow.isEmpty() && offerToRing(t)) {
+			return true;
+		}
+		overflow.add(t);
+		final Thread consumer = waitingConsumer;
+		if (consumer != null) {
+			LockSupport.unpark(consumer);
+		}
+		return true;
+	}
+
+	/**
+	 * Put an element in a free slot of the ring, if there is one.
+	 *
+	 * @return true if the element was put, false if the ring is full
+	 */
+	private boolean offerToRing(final T t) {
+		final long seq = tail.get();
+		if (seq - headCache >= buffer.length) {
+			headCache = head.get();
+			if (seq - headCache >= buffer.length) {
+				return false;
+			}
+		}
+		final int slot = (int) seq & mask;
+		buffer[slot] = t;
+		if (putTimes != null) {
+			putTimes[slot] = System.nanoTime();
+		}
+		if (waitStrategy == WaitStrategy.BUSY_SPIN) {
+			// an ordered store is enough to publish the element, since the consumer never parks
+			tail.lazySet(seq + 1);
+		} else {
+			// a full fence, so the consumer can't read tail before this and then park after waitingConsumer is read
+			tail.set(seq + 1);
+			final Thread consumer = waitingConsumer;
+			if (consumer != null) {
+				LockSupport.unpark(consumer);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the producer.
+	 */
+	@Override
+	public void put(final T t) throws InterruptedException {
+		int spins = 0;
+		while (!offer(t)) {
+			waitForSlot(Long.MAX_VALUE, ++spins);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the producer.
+	 */
+	@Override
+	public boolean offer(final T t, final long timeout, final TimeUnit unit) throws InterruptedException {
+		final long start = System.nanoTime();
+		final long timeoutNanos = unit.toNanos(timeout);
+		int spins = 0;
+		while (!offer(t)) {
+			final long remaining = timeoutNanos - (System.nanoTime() - start);
+			if (remaining <= 0) {
+				return false;
+			}
+			waitForSlot(remaining, ++spins);
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer.
+	 */
+	@Override
+	public T poll() {
+		final T t = pollRing();
+		if (t != null || overflow == null) {
+			return t;
+		}
+		// the ring is empty, and nothing is put in it while the overflow queue has elements, so they are next
+		return overflow.poll();
+	}
+
+	/**
+	 * Take the next element from the ring, if there is one.
+	 *
+	 * @return the element, or null if the ring is empty
+	 */
+	@SuppressWarnings("unchecked")
+	private T pollRing() {
+		final long seq = head.get();
+		if (seq >= batchEnd) {
+			// start a new batch with the elements the producer has published since the last one
+			batchEnd = Math.min(tail.get(), seq + batchSize);
+			final Thread producer = waitingProducer;
+			if (producer != null) {
+				LockSupport.unpark(producer);
+			}
+			if (seq >= batchEnd) {
+				return null;
+			}
+		}
+		final int slot = (int) seq & mask;
+		final T t = (T) buffer[slot];
+		buffer[slot] = null;
+		if (handOffListener != null) {
+			handOffListener.accept(System.nanoTime() - putTimes[slot]);
+		}
+		// an ordered store, since the producer only needs to see the free slot eventually
+		head.lazySet(seq + 1);
+		return t;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer. Returns null early if {@link #wakeUp()} is called.
+	 */
+	@Override
+	public T poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		return awaitElement(unit.toNanos(timeout), true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer.
+	 */
+	@Override
+	public T take() throws InterruptedException {
+		return awaitElement(Long.MAX_VALUE, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * May be called by any thread, but if it isn't the consumer, the element returned may have been taken by the
+	 * time it returns.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T peek() {
+		final long seq = head.get();
+		if (seq >= tail.get()) {
+			return overflow == null ? null : overflow.peek();
+		}
+		return (T) buffer[(int) seq & mask];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer.
+	 */
+	@Override
+	public int drainTo(final Collection<? super T> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer.
+	 */
+	@Override
+	public int drainTo(final Collection<? super T> c, final int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this) {
+			throw new IllegalArgumentException("can't drain a ring into itself");
+		}
+		int drained = 0;
+		T t;
+		while (drained < maxElements && (t = poll()) != null) {
+			c.add(t);
+			drained++;
+		}
+		return drained;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This is a snapshot, which may be out of date by the time it returns if the producer or consumer is active.
+	 * Counting the elements in the overflow queue takes time proportional to their number.
+	 */
+	@Override
+	public int size() {
+		// read head first, so that a concurrent take can't make the size negative
+		final long seq = head.get();
+		final int ringSize = (int) Math.max(0, Math.min(buffer.length, tail.get() - seq));
+		return overflow == null ? ringSize : ringSize + overflow.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the overflow policy is {@link OverflowPolicy#SPILL}, there is no limit.
+	 */
+	@Override
+	public int remainingCapacity() {
+		if (overflow != null) {
+			return Integer.MAX_VALUE;
+		}
+		return buffer.length - size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer. The elements after the one removed are not moved, the ones before it are
+	 * moved up by one slot, since the producer never writes to a slot before the consumer has freed it.
+	 */
+	@Override
+	public boolean remove(final Object o) {
+		if (o == null) {
+			return false;
+		}
+		final long first = head.get();
+		final long last = tail.get();
+		for (long seq = first; seq < last; seq++) {
+			if (!o.equals(buffer[(int) seq & mask])) {
+				continue;
+			}
+			for (long s = seq; s > first; s--) {
+				final int to = (int) s & mask;
+				final int from = (int) (s - 1) & mask;
+				buffer[to] = buffer[from];
+				if (putTimes != null) {
+					putTimes[to] = putTimes[from];
+				}
+			}
+			buffer[(int) first & mask] = null;
+			head.lazySet(first + 1);
+			return true;
+		}
+		return overflow != null && overflow.remove(o);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must only be called by the consumer.
+	 */
+	@Override
+	public void clear() {
+		while (poll() != null) {
+			// keep taking until the ring is empty
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The iterator is weakly consistent: it returns the elements in the ring when it was created, except those
+	 * taken since, and may return elements put since. It never throws {@link java.util.ConcurrentModificationException}
+	 * and may be used by any thread, but it can't remove elements. The elements in the overflow queue come last.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Itr();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "SpscRingBuffer{size=" + size() + ", capacity=" + buffer.length + ", waitStrategy=" + waitStrategy
+				+ ", overflowPolicy=" + (overflow == null ? OverflowPolicy.WAIT : OverflowPolicy.SPILL) + "}";
+	}
+
+	/**
+	 * Wait until there is an element to take, and take it.
+	 *
+	 * @param timeoutNanos
+	 * 		the longest time to wait, in nanoseconds
+	 * @param wakeable
+	 * 		if true, a call to {@link #wakeUp()} ends the wait
+	 * @return the element, or null if the wait timed out or was woken up
+	 */
+	private T awaitElement(final long timeoutNanos, final boolean wakeable) throws InterruptedException {
+		T t = poll();
+		if (t != null) {
+			return t;
+		}
+		final long start = System.nanoTime();
+		int spins = 0;
+		while (true) {
+			if (wakeable && wakeUpRequested) {
+				wakeUpRequested = false;
+				return poll();
+			}
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			final long remaining = timeoutNanos - (System.nanoTime() - start);
+			if (remaining <= 0) {
+				return null;
+			}
+			if (waitStrategy == WaitStrategy.BUSY_SPIN) {
+				spin(++spins);
+			} else {
+				waitingConsumer = Thread.currentThread();
+				// check again after publishing waitingConsumer, so an element put in between isn't missed
+				t = poll();
+				if (t == null && !(wakeable && wakeUpRequested)) {
+					LockSupport.parkNanos(this, remaining);
+				}
+				waitingConsumer = null;
+				if (t != null) {
+					return t;
+				}
+			}
+			t = poll();
+			if (t != null) {
+				return t;
+			}
+		}
+	}
+
+	/**
+	 * Wait for the consumer to free a slot, or until the timeout.
+	 *
+	 * @param timeoutNanos
+	 * 		the longest time to wait, in nanoseconds
+	 * @param spins
+	 * 		the number of times the producer has waited for this slot, including this one
+	 */
+	private void waitForSlot(final long timeoutNanos, final int spins) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		if (waitStrategy == WaitStrategy.BUSY_SPIN) {
+			spin(spins);
+		} else {
+			waitingProducer = Thread.currentThread();
+			LockSupport.parkNanos(this, Math.min(timeoutNanos, PRODUCER_PARK_NANOS));
+			waitingProducer = null;
+		}
+	}
+
+	/**
+	 * Busy-spin once.
+	 *
+	 * @param spins
+	 * 		the number of times the thread has spun in the current wait, including this one
+	 */
+	private static void spin(final int spins) {
+		if ((spins & (SPINS_PER_YIELD - 1)) == 0) {
+			Thread.yield();
+		} else {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * A weakly consistent iterator over the elements from the consumer's position to the producer's position when it
+	 * was created.
+	 */
+	private final class Itr implements Iterator<T> {
+		/** the sequence number of the next slot to read */
+		private long seq = head.get();
+		/** the producer's position when this iterator was created */
+		private final long end = tail.get();
+		/** the elements of the overflow queue, once the ring has been iterated, or null */
+		private Iterator<T> overflowIterator;
+		/** the next element to return, or null if there is none */
+		private T next = advance();
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public T next() {
+			final T t = next;
+			if (t == null) {
+				throw new NoSuchElementException();
+			}
+			next = advance();
+			return t;
+		}
+
+		/**
+		 * Find the next element that is still in the ring.
+		 *
+		 * @return the element, or null if there are no more
+		 */
+		@SuppressWarnings("unchecked")
+		private T advance() {
+			// skip the elements the consumer took since this iterator last read
+			seq = Math.max(seq, head.get());
+			while (seq < end) {
+				final T t = (T) buffer[(int) seq++ & mask];
+				if (t != null) {
+					return t;
+				}
+			}
+			if (overflow == null) {
+				return null;
+			}
+			if (overflowIterator == null) {
+				overflowIterator = overflow.iterator();
+			}
+			return overflowIterator.hasNext() ? overflowIterator.next() : null;
+		}
+	}
+
+	/**
+	 * An {@link AtomicLong} padded to fill a cache line, so that the producer's and consumer's positions, which are
+	 * written by different threads, are never in the same line.
+	 */
+	@SuppressWarnings("unused")
+	private static final class PaddedAtomicLong extends AtomicLong {
+		private static final long serialVersionUID = 1L;
+		private long p1, p2, p3, p4, p5, p6, p7;
+	}
+}
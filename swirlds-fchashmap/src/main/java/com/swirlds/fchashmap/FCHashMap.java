@@ -16,7 +16,6 @@ package com.swirlds.fchashmap;
 
 import com.swirlds.common.FastCopyable;
 import com.swirlds.fchashmap.internal.FCHashMapGarbageCollector;
-import com.swirlds.fchashmap.internal.Mutation;
 import com.swirlds.fchashmap.internal.MutationQueue;
 
 import java.util.AbstractMap;
@@ -179,44 +178,10 @@ public class FCHashMap<K, V> extends AbstractMap<K, V> implements FastCopyable {
 	/**
 	 * {@inheritDoc}
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public boolean containsKey(Object key) {
-		Mutation<V> prev = getLatestMutation((K) key);
-		return prev != null && !prev.deleted;
-	}
-
-	/**
-	 * Look up the most recent mutation for a key at the map's current version
-	 *
-	 * @param key
-	 * 		Look up the mutation for this key.
-	 * @return The latest mutation for this version. May be null if the key is not in the map at this version.
-	 */
-	private Mutation<V> getLatestMutation(K key) {
 		MutationQueue<V> mutations = data.get(key);
-
-		if (mutations == null || mutations.isEmpty()) {
-			return null;
-		}
-		if (!immutable) {
-			// The mutable copy always depends on the latest value
-			return mutations.getLast();
-		} else {
-			Mutation<V> prev = null;
-			for (Mutation<V> mutation : mutations) {
-				if (mutation.version == version) {
-					// This mutation happened during this copy's version
-					return mutation;
-				} else if (mutation.version > version) {
-					// This mutation happened after this copy was made
-					return prev;
-				}
-				prev = mutation;
-			}
-			// There are no more mutations
-			return prev;
-		}
+		return mutations != null && mutations.containsValue(version);
 	}
 
 	/**
@@ -287,11 +252,10 @@ public class FCHashMap<K, V> extends AbstractMap<K, V> implements FastCopyable {
 				mutations = new MutationQueue<>();
 			}
 
-			final Mutation<V> newest = mutations.peekLast();
-			if (newest != null) {
+			if (!mutations.isEmpty()) {
 				// Read the state of an existing mutation queue
-				originalValue = newest.value;
-				originalDeletionStatus = newest.deleted;
+				originalValue = mutations.getLastValue();
+				originalDeletionStatus = mutations.isLastDeleted();
 				if (deletion && originalDeletionStatus) {
 					// Caller is deleting the same key twice
 					return null;
@@ -303,7 +267,7 @@ public class FCHashMap<K, V> extends AbstractMap<K, V> implements FastCopyable {
 			final int originalMutationQueueSize = mutations.size();
 
 			// Add the mutation
-			mutations.maybeAddLast(new Mutation<>(version, value, deletion));
+			mutations.maybeAddLast(version, value, deletion);
 			final int newMutationQueueSize = mutations.size();
 
 			// Adjust the size of the map
@@ -342,14 +306,13 @@ public class FCHashMap<K, V> extends AbstractMap<K, V> implements FastCopyable {
 	 * Deletes and reads against an immutable copy must be externally synchronized. The function hasBeenDeleted()
 	 * can be used to check to see if the copy has been deleted.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public V get(Object key) {
 		if (key == null) {
 			throw new NullPointerException("Null keys are not allowed");
 		}
-		Mutation<V> mutation = getLatestMutation((K) key);
-		return mutation == null ? null : mutation.value;
+		MutationQueue<V> mutations = data.get(key);
+		return mutations == null ? null : mutations.getValue(version);
 	}
 
 	/**
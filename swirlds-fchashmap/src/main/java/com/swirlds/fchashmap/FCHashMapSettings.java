@@ -31,4 +31,11 @@ public interface FCHashMapSettings {
 	 */
 	Duration getGCQueueThresholdPeriod();
 
+	/**
+	 * Get the number of threads that clean up FCHashMap copies. With one thread, each FCHashMap's garbage collector
+	 * does the cleanup itself. With more, every garbage collector splits its cleanup into this many shards by key,
+	 * and cleans them in parallel on a pool shared by all FCHashMaps.
+	 */
+	int getGCThreadCount();
+
 }
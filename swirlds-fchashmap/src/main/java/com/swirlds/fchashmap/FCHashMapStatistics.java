@@ -0,0 +1,133 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import com.swirlds.common.Platform;
+import com.swirlds.common.StatEntry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton factory for loading and registering {@link FCHashMap} garbage collection statistics. The statistics are
+ * always kept, and are only reported once an application registers them.
+ */
+public final class FCHashMapStatistics {
+
+	/**
+	 * true if these statistics have been registered by the application; otherwise false
+	 */
+	private static volatile boolean registered;
+
+	/**
+	 * the weight of a new cleanup time in the average of the cleanup times
+	 */
+	private static final double CLEANUP_WEIGHT = 0.1;
+
+	/**
+	 * the number of mutations waiting to be garbage collected, in all FCHashMaps
+	 */
+	private static final LongAdder gcBacklog = new LongAdder();
+
+	/**
+	 * the exponentially weighted average time taken to clean up after a copy is released (in microseconds)
+	 */
+	private static double gcCleanupMicros;
+
+	private static final String FCHM_CATEGORY = "FCHM";
+	private static final String FORMAT_INTEGER = "%,d";
+	private static final String FORMAT_FLOAT_3SIGFIG = "%,11.3f";
+
+	/**
+	 * Default private constructor to ensure that this may not be instantiated.
+	 */
+	private FCHashMapStatistics() {
+	}
+
+	/**
+	 * Gets a value indicating whether the {@link com.swirlds.common.SwirldMain} has called the {@link
+	 * #register(Platform)} method on this factory.
+	 *
+	 * @return true if these statistics have been registered by the application; otherwise false
+	 */
+	public static boolean isRegistered() {
+		return registered;
+	}
+
+	/**
+	 * Registers the {@link FCHashMap} statistics with the specified {@link Platform} instance.
+	 *
+	 * @param platform
+	 * 		the platform instance
+	 */
+	public static void register(final Platform platform) {
+		platform.addAppStatEntry(new StatEntry(
+				FCHM_CATEGORY,
+				"fchmGcBacklog",
+				"number of FCHashMap mutations waiting to be garbage collected",
+				FORMAT_INTEGER,
+				null,
+				null,
+				null,
+				FCHashMapStatistics::getGCBacklog
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCHM_CATEGORY,
+				"fchmGcMicroSec",
+				"avg time taken to garbage collect an FCHashMap copy once it is released (in microseconds)",
+				FORMAT_FLOAT_3SIGFIG,
+				null,
+				null,
+				null,
+				FCHashMapStatistics::getGCCleanupMicros
+		));
+
+		registered = true;
+	}
+
+	/**
+	 * @return the number of mutations waiting to be garbage collected, in all FCHashMaps
+	 */
+	public static long getGCBacklog() {
+		return gcBacklog.sum();
+	}
+
+	/**
+	 * @return the average time taken to clean up after a copy is released (in microseconds)
+	 */
+	public static synchronized double getGCCleanupMicros() {
+		return gcCleanupMicros;
+	}
+
+	/**
+	 * Record a change in the number of mutations waiting to be garbage collected.
+	 *
+	 * @param delta
+	 * 		the number of mutations added to (if positive) or removed from (if negative) the backlog
+	 */
+	public static void addGCBacklog(final long delta) {
+		gcBacklog.add(delta);
+	}
+
+	/**
+	 * Record the time taken to clean up after a copy was released.
+	 *
+	 * @param micros
+	 * 		the time taken (in microseconds)
+	 */
+	public static synchronized void recordGCCleanup(final long micros) {
+		gcCleanupMicros += (micros - gcCleanupMicros) * CLEANUP_WEIGHT;
+	}
+}
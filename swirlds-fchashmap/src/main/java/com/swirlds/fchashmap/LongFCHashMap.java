@@ -0,0 +1,251 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import com.swirlds.common.FastCopyable;
+import com.swirlds.fchashmap.internal.LongFCHashMapGarbageCollector;
+import com.swirlds.fchashmap.internal.LongMutationTable;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A version of {@link FCHashMap} whose keys are primitive longs, for maps with so many keys that the objects
+ * FCHashMap keeps per key (the boxed key, the hash table node, the mutation queue and its mutations) would dominate
+ * the heap. The keys and the versions of the values are kept in arrays, so a key with one value costs a few dozen
+ * bytes plus the value itself.
+ *
+ * Copies, releases and garbage collection work exactly as they do for FCHashMap, and so do its thread safety rules:
+ * only one thread may modify the map at a time, a copy may not be made while the map is modified, and a copy must
+ * not be released while another thread reads it. Any number of threads may read while one thread writes.
+ *
+ * Unlike FCHashMap, a LongFCHashMap may not hold null values.
+ *
+ * @param <V>
+ * 		the type of the values
+ */
+public class LongFCHashMap<V> implements FastCopyable {
+
+	/**
+	 * Monotonically increasing version number that is incremented every time copy() is called on the mutable copy.
+	 */
+	private final long version;
+
+	/**
+	 * Is this object a mutable object?
+	 */
+	private boolean immutable;
+
+	private final LongMutationTable<V> data;
+
+	private int size;
+
+	private final CountDownLatch releasedLatch;
+
+	private final LongFCHashMapGarbageCollector<V> garbageCollector;
+
+	/**
+	 * Tracks if this particular object has been deleted.
+	 */
+	private boolean deleted;
+
+	/**
+	 * @param capacity
+	 * 		the number of keys the map should hold without growing
+	 */
+	public LongFCHashMap(final int capacity) {
+		data = new LongMutationTable<>(capacity);
+		immutable = false;
+		version = 0;
+		garbageCollector = new LongFCHashMapGarbageCollector<>(data);
+		startGarbageCollector();
+		deleted = false;
+		releasedLatch = new CountDownLatch(1);
+	}
+
+	public LongFCHashMap() {
+		this(0);
+	}
+
+	private LongFCHashMap(final LongFCHashMap<V> other) {
+		data = other.data;
+		size = other.size;
+		garbageCollector = other.garbageCollector;
+		deleted = false;
+
+		immutable = false;
+		other.immutable = true;
+		version = other.version + 1;
+
+		releasedLatch = new CountDownLatch(1);
+
+		garbageCollector.registerCopy(other);
+	}
+
+	/**
+	 * Start the garbage collector. Can be overridden by subclasses that want to disable garbage collection.
+	 */
+	protected void startGarbageCollector() {
+		garbageCollector.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * There can only be one mutable copy of a LongFCHashMap at any point in time.
+	 */
+	@Override
+	public LongFCHashMap<V> copy() {
+		throwIfImmutable();
+		throwIfReleased();
+		return new LongFCHashMap<>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isImmutable() {
+		return this.immutable;
+	}
+
+	/**
+	 * Use this to clean up resources held by this copy.
+	 * Failure to call delete on a copy before it is garbage collected will result in a memory leak.
+	 *
+	 * Not thread safe.
+	 * Must not be called at the same time another thread is attempting to read from this copy.
+	 */
+	public synchronized void release() {
+		releasedLatch.countDown();
+		if (!deleted) {
+			deleted = true;
+			garbageCollector.decrementReferenceCount();
+		}
+	}
+
+	/**
+	 * Check to see if this copy has been deleted.
+	 */
+	@Override
+	public boolean isReleased() {
+		return deleted;
+	}
+
+	/**
+	 * Block until this LongFCHashMap has been released.
+	 */
+	public void waitUntilReleased() throws InterruptedException {
+		releasedLatch.await();
+	}
+
+	/**
+	 * Returns the version of the copy.
+	 *
+	 * @return the version of the copy
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return the number of keys in this copy
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if this copy has no keys
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param key
+	 * 		the key
+	 * @return true if this copy has a value for the key
+	 */
+	public boolean containsKey(final long key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Not thread safe on an immutable copy if it is possible that another thread may have deleted the copy.
+	 * Deletes and reads against an immutable copy must be externally synchronized.
+	 *
+	 * @param key
+	 * 		the key
+	 * @return the value of the key in this copy, or null if the key is not in it
+	 */
+	public V get(final long key) {
+		return data.get(key, version, !immutable);
+	}
+
+	/**
+	 * Associate a value with a key.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param value
+	 * 		the value, which must not be null
+	 * @return the previous value of the key, or null if it had none
+	 */
+	public V put(final long key, final V value) {
+		if (value == null) {
+			throw new NullPointerException("Null values are not allowed");
+		}
+		throwIfImmutable();
+		final V original = data.put(key, version, value);
+		if (original == null) {
+			size++;
+		}
+		return original;
+	}
+
+	/**
+	 * Remove a key.
+	 *
+	 * @param key
+	 * 		the key
+	 * @return the value the key had, or null if it had none
+	 */
+	public V remove(final long key) {
+		throwIfImmutable();
+		final V original = data.put(key, version, null);
+		if (original != null) {
+			size--;
+		}
+		return original;
+	}
+
+	/**
+	 * Check the number of mutations still in memory for a key, e.g. to see how far garbage collection has caught up.
+	 *
+	 * @param key
+	 * 		the key whose associated value is to be returned
+	 * @return the number of mutations still in memory for a key
+	 */
+	public Integer mutationCountForKey(final long key) {
+		return data.mutationCount(key);
+	}
+
+	/**
+	 * @return true if the garbage collection thread is still running
+	 */
+	public boolean isGarbageCollectorStillRunning() {
+		return garbageCollector.isRunning();
+	}
+}
@@ -16,21 +16,34 @@ package com.swirlds.fchashmap.internal;
 
 import com.swirlds.common.threading.QueueThread;
 import com.swirlds.common.threading.QueueThreadConfiguration;
+import com.swirlds.common.threading.SharedForkJoinPool;
 import com.swirlds.fchashmap.FCHashMap;
 import com.swirlds.fchashmap.FCHashMapSettingsFactory;
+import com.swirlds.fchashmap.FCHashMapStatistics;
 import com.swirlds.logging.payloads.GarbageCollectionQueuePayload;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.swirlds.logging.LogMarker.EXCEPTION;
 
 /**
  * This thread performs garbage collection on an FCHashMap in a background thread.
+ * <p>
+ * The mutations that need cleanup are split into shards by key. If {@link
+ * com.swirlds.fchashmap.FCHashMapSettings#getGCThreadCount()} is more than one, the shards are cleaned in parallel
+ * on a pool shared by all FCHashMaps. Each shard is still cleaned in version order, and no two shards share a key.
+ * A garbage collector holds the pool from when it starts until every copy of its map has been released, so the
+ * pool's threads stop once no map needs them.
  */
 public class FCHashMapGarbageCollector<K, V> {
 
@@ -51,13 +64,28 @@ public class FCHashMapGarbageCollector<K, V> {
 	private static final int QUEUE_BUFFER_SIZE = 10;
 
 	/**
-	 * Contains a sequence of events that eventually require cleanup
+	 * The pool shared by all garbage collectors for cleaning shards in parallel.
 	 */
-	private final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> garbageCollectionEvents;
+	private static final SharedForkJoinPool SHARD_POOL = new SharedForkJoinPool("fchashmap_gc_",
+			() -> FCHashMapSettingsFactory.get().getGCThreadCount());
+
+	/**
+	 * The shard pool while this garbage collector is running with more than one shard, or null.
+	 */
+	private ForkJoinPool shardPool;
+
+	/**
+	 * Contains a sequence of events that eventually require cleanup, for each shard
+	 */
+	private final List<ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>>> garbageCollectionEvents;
 
 	public FCHashMapGarbageCollector(final ConcurrentMap<K, MutationQueue<V>> data) {
 		this.data = data;
-		this.garbageCollectionEvents = new ConcurrentLinkedDeque<>();
+		final int numShards = Math.max(1, FCHashMapSettingsFactory.get().getGCThreadCount());
+		this.garbageCollectionEvents = new ArrayList<>(numShards);
+		for (int i = 0; i < numShards; i++) {
+			garbageCollectionEvents.add(new ConcurrentLinkedDeque<>());
+		}
 		this.referenceCount = new AtomicInteger(1);
 
 		final int maximumQueueSize = FCHashMapSettingsFactory.get().getMaximumGCQueueSize();
@@ -80,18 +108,39 @@ public class FCHashMapGarbageCollector<K, V> {
 	 * Start the garbage collection thread.
 	 */
 	public void start() {
+		if (garbageCollectionEvents.size() > 1) {
+			shardPool = SHARD_POOL.acquire();
+		}
 		workQueue.start();
 	}
 
 	/**
 	 * This should be called every time an FCHashMap is deleted. When the reference count reaches 0 the garbage
-	 * collection thread terminates.
+	 * collection thread terminates, and the shard pool is released.
 	 */
 	public void decrementReferenceCount() {
 		referenceCount.getAndDecrement();
 		if (referenceCount.get() == 0) {
 			workQueue.stop();
+			discardEvents();
+			if (shardPool != null) {
+				shardPool = null;
+				SHARD_POOL.release();
+			}
+		}
+	}
+
+	/**
+	 * Drop the events that were never cleaned because every copy was released, so they no longer count as backlog.
+	 */
+	private void discardEvents() {
+		long discarded = 0;
+		for (final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> shard : garbageCollectionEvents) {
+			while (shard.pollFirst() != null) {
+				discarded++;
+			}
 		}
+		FCHashMapStatistics.addGCBacklog(-discarded);
 	}
 
 	/**
@@ -121,58 +170,85 @@ public class FCHashMapGarbageCollector<K, V> {
 	 * 		When this copy is no longer in memory then the mutation queue needs to be cleaned.
 	 */
 	public void registerGarbageCollectionEvent(K key, MutationQueue<V> mutationQueue, long version) {
-		garbageCollectionEvents.addLast(new GarbageCollectionEvent<>(key, mutationQueue, version));
+		garbageCollectionEvents.get(getShard(key)).addLast(new GarbageCollectionEvent<>(key, mutationQueue, version));
+		FCHashMapStatistics.addGCBacklog(1);
+	}
+
+	/**
+	 * @return the shard of the events of a key
+	 */
+	private int getShard(final K key) {
+		final int numShards = garbageCollectionEvents.size();
+		if (numShards == 1) {
+			return 0;
+		}
+		final int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), numShards);
 	}
 
 	/**
-	 * Find the next queue that needs to have garbage collection done.
+	 * Check if a shard has an event that needs garbage collection.
 	 *
+	 * @param shard
+	 * 		The events of one shard.
+	 * @param version
+	 * 		A copy version that has expired.
+	 * @return true if the next event of the shard needs garbage collection
+	 */
+	private boolean isCleanupDue(final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> shard, final long version) {
+		final GarbageCollectionEvent<K, V> next = shard.peekFirst();
+		return next != null && version + 1 >= next.getVersion();
+	}
+
+	/**
+	 * Find the next queue in a shard that needs to have garbage collection done.
+	 *
+	 * @param shard
+	 * 		The events of one shard.
 	 * @param version
 	 * 		A copy version that has expired.
 	 * @return A mutation queue that needs cleaning. null if no mutation queues need cleaning (with the given version).
 	 */
-	private GarbageCollectionEvent<K, V> getNextGarbageCollectionEvent(final long version) {
-		final GarbageCollectionEvent<K, V> next = garbageCollectionEvents.peekFirst();
+	private GarbageCollectionEvent<K, V> getNextGarbageCollectionEvent(
+			final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> shard, final long version) {
+		final GarbageCollectionEvent<K, V> next = shard.peekFirst();
 		if (next != null && version + 1 >= next.getVersion()) {
 			// When a queue contains a single (non-removal) element there is no need for garbage collection.
 			// When a second element is added to the queue at version v, we know that when all copies older
 			// than v expire we will need to clean the first element in the queue. The last copy to depend
 			// on the first element in the queue is at version v-1, so when v-1 expires it is time to clean the
 			// queue.
-			garbageCollectionEvents.removeFirst();
+			shard.removeFirst();
 			return next;
 		}
 		return null;
 	}
 
 	/**
-	 * Given a queue and a version, remove mutations that are no longer needed by any copies.
+	 * Given a queue, remove mutations that are no longer needed by any copies.
 	 *
 	 * @param event
 	 * 		Contains a queue that will require garbage collection.
-	 * @param version
-	 * 		The version of the oldest event that has just been evicted from memory.
 	 */
-	private void cleanQueue(final GarbageCollectionEvent<K, V> event, final long version) {
+	private void cleanQueue(final GarbageCollectionEvent<K, V> event) {
 		synchronized (event.getMutationQueue()) {
 
-			while (event.getMutationQueue().size() > 1) {
-				// There will always be at least one element in the mutationQueue so getFirst() will never fail
-				final Mutation<V> next = event.getMutationQueue().getFirst();
-
-				// There exist no copies with an id lower or equal to version.
-				// Delete a mutation that happened at or before this version.
-				if (next.version <= version) {
-					event.getMutationQueue().remove();
-				} else {
-					break;
-				}
+			if (event.getMutationQueue().isDeleted()) {
+				// A key deleted twice in one version has two events. The queue was removed by the first one, and the
+				// key may have a new queue by now, which must not be removed.
+				return;
 			}
 
+			// There exist no copies older than the event's version, which all read the event's mutation or a newer one.
+			// Delete the mutations that happened before it. The copy that was just released may be newer than the
+			// event's version - 1 if the event was registered after the copy before it had been collected, so the
+			// copy's version would delete a mutation that the next copy still reads.
+			event.getMutationQueue().removeMutationsBefore(event.getVersion());
+
 			// Decide if the queue needs to be removed from the map after being cleaned.
-			if (event.getMutationQueue().size() == 1 && event.getMutationQueue().getFirst().deleted) {
+			if (event.getMutationQueue().size() == 1 && event.getMutationQueue().isFirstDeleted()) {
 				event.getMutationQueue().delete();
-				data.remove(event.getKey());
+				data.remove(event.getKey(), event.getMutationQueue());
 			}
 		}
 	}
@@ -192,10 +268,35 @@ public class FCHashMapGarbageCollector<K, V> {
 	private void handler(final FCHashMap<K, V> versionToDelete) throws InterruptedException {
 		versionToDelete.waitUntilReleased();
 		final long version = versionToDelete.version();
+		final long start = System.nanoTime();
+
+		if (garbageCollectionEvents.size() == 1) {
+			cleanShard(garbageCollectionEvents.get(0), version);
+		} else {
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(garbageCollectionEvents.size());
+			for (final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> shard : garbageCollectionEvents) {
+				if (isCleanupDue(shard, version)) {
+					tasks.add(shardPool.submit(() -> cleanShard(shard, version)));
+				}
+			}
+			for (final ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		}
+
+		FCHashMapStatistics.recordGCCleanup(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+	}
 
+	/**
+	 * Clean every queue of a shard that needs garbage collection once a version has expired.
+	 */
+	private void cleanShard(final ConcurrentLinkedDeque<GarbageCollectionEvent<K, V>> shard, final long version) {
+		long cleaned = 0;
 		GarbageCollectionEvent<K, V> nextEvent;
-		while ((nextEvent = getNextGarbageCollectionEvent(version)) != null) {
-			cleanQueue(nextEvent, version);
+		while ((nextEvent = getNextGarbageCollectionEvent(shard, version)) != null) {
+			cleanQueue(nextEvent);
+			cleaned++;
 		}
+		FCHashMapStatistics.addGCBacklog(-cleaned);
 	}
 }
@@ -0,0 +1,122 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap.internal;
+
+import com.swirlds.common.threading.QueueThread;
+import com.swirlds.common.threading.QueueThreadConfiguration;
+import com.swirlds.fchashmap.FCHashMapSettingsFactory;
+import com.swirlds.fchashmap.LongFCHashMap;
+import com.swirlds.logging.payloads.GarbageCollectionQueuePayload;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.swirlds.logging.LogMarker.EXCEPTION;
+
+/**
+ * This thread performs garbage collection on a {@link LongFCHashMap} in a background thread. It works like
+ * {@link FCHashMapGarbageCollector}, except that the mutations that need cleanup are recorded by the
+ * {@link LongMutationTable} itself.
+ */
+public class LongFCHashMapGarbageCollector<V> {
+
+	private static final Logger log = LogManager.getLogger();
+
+	/**
+	 * A reference to the internal data structure of the LongFCHashMap copies.
+	 */
+	private final LongMutationTable<V> data;
+
+	private final AtomicInteger referenceCount;
+
+	private final QueueThread<LongFCHashMap<V>> workQueue;
+
+	/**
+	 * The size of the transfer buffer for the queue thread.
+	 */
+	private static final int QUEUE_BUFFER_SIZE = 10;
+
+	public LongFCHashMapGarbageCollector(final LongMutationTable<V> data) {
+		this.data = data;
+		this.referenceCount = new AtomicInteger(1);
+
+		final int maximumQueueSize = FCHashMapSettingsFactory.get().getMaximumGCQueueSize();
+		final Duration thresholdPeriod = FCHashMapSettingsFactory.get().getGCQueueThresholdPeriod();
+
+		this.workQueue = new QueueThreadConfiguration<LongFCHashMap<V>>()
+				.setComponent("LongFCHashMap")
+				.setThreadName("garbage-collector")
+				.setHandler(this::handler)
+				.setMaxBufferSize(QUEUE_BUFFER_SIZE)
+				.setUnlimitedCapacity()
+				.addThreshold(
+						size -> size > maximumQueueSize,
+						size -> log.error(EXCEPTION.getMarker(), new GarbageCollectionQueuePayload(size)),
+						thresholdPeriod)
+				.build();
+	}
+
+	/**
+	 * Start the garbage collection thread.
+	 */
+	public void start() {
+		workQueue.start();
+	}
+
+	/**
+	 * This should be called every time a LongFCHashMap is deleted. When the reference count reaches 0 the garbage
+	 * collection thread terminates.
+	 */
+	public void decrementReferenceCount() {
+		if (referenceCount.decrementAndGet() == 0) {
+			workQueue.stop();
+		}
+	}
+
+	/**
+	 * The garbage collector must be given a copy of each new immutable LongFCHashMap that is created.
+	 *
+	 * @param copy
+	 * 		A new immutable copy of the LongFCHashMap that was just created.
+	 */
+	public void registerCopy(final LongFCHashMap<V> copy) {
+		referenceCount.getAndIncrement();
+		try {
+			workQueue.put(copy);
+		} catch (final InterruptedException ex) {
+			log.error(EXCEPTION.getMarker(), "interrupted while registering LongFCHashMap copy");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * For debugging. Check if the garbage collector thread is still running.
+	 *
+	 * @return whether the garbage collector thread is still running
+	 */
+	public boolean isRunning() {
+		return workQueue.isAlive();
+	}
+
+	/**
+	 * This method is called every time there is a version to delete.
+	 */
+	private void handler(final LongFCHashMap<V> versionToDelete) throws InterruptedException {
+		versionToDelete.waitUntilReleased();
+		data.collectGarbage(versionToDelete.version());
+	}
+}
@@ -0,0 +1,511 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap.internal;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The data shared by all copies of a {@link com.swirlds.fchashmap.LongFCHashMap}: the mutations of every key, and the
+ * mutations that will need garbage collection.
+ * <p>
+ * This holds the same information as the map of {@link MutationQueue}s behind an FCHashMap, but without any objects
+ * per key. The keys are in an open-addressed, linearly probed index, stored as a long[] slab of (key, head) pairs.
+ * The head is the newest mutation of the key. Mutations are nodes in parallel arrays (version, value, next older
+ * node), so each key's mutations form a chain from the newest to the oldest. Freed nodes are reused.
+ * <p>
+ * Only one thread may write at a time, and only the garbage collector may call {@link #collectGarbage(long)}. Any
+ * number of threads may read concurrently with them.
+ */
+public class LongMutationTable<V> {
+
+	/** the value of a mutation that deleted its key */
+	private static final Object DELETED = new Object();
+
+	/** a node index that means "no node" */
+	private static final int NO_NODE = -1;
+
+	/** the smallest capacity of the index and of the node arrays */
+	private static final int MIN_CAPACITY = 16;
+
+	/** the index holds at most this fraction of its capacity, as LOAD_NUMERATOR / LOAD_DENOMINATOR */
+	private static final int LOAD_NUMERATOR = 2;
+	private static final int LOAD_DENOMINATOR = 3;
+
+	/**
+	 * protects every field below. Writes and garbage collection take it exclusively. Reads first try without taking
+	 * it, and only share it if a write happened while they read.
+	 */
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * The index. Slot i is index[2 * i] (the key) and index[2 * i + 1] (the head node plus one, so 0 is an empty
+	 * slot). The number of slots is a power of 2.
+	 */
+	private long[] index;
+
+	/** the number of keys in the index, including keys whose newest mutation deletes them */
+	private int numKeys;
+
+	/** the version of the copy that made each node's mutation */
+	private long[] nodeVersions;
+
+	/** the value of each node, or {@link #DELETED} */
+	private Object[] nodeValues;
+
+	/** the next older node of the same key, or the next free node if the node is free */
+	private int[] nextNodes;
+
+	/** the first free node, or {@link #NO_NODE} */
+	private int freeNode;
+
+	/** the number of nodes that have ever been used. Nodes from here on are free and not in the free list. */
+	private int usedNodes;
+
+	/** the number of nodes that hold a mutation */
+	private int numNodes;
+
+	/**
+	 * The keys and versions of the mutations that will later require cleanup, in the order they were made, as a
+	 * ring of (key, version) pairs. Versions never decrease along the ring.
+	 */
+	private long[] events;
+
+	/** the position of the oldest event in the ring, in pairs */
+	private int firstEvent;
+
+	/** the number of events in the ring */
+	private int numEvents;
+
+	/**
+	 * @param capacity
+	 * 		the number of keys the table should hold without growing
+	 */
+	public LongMutationTable(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative, not " + capacity);
+		}
+		final int slots = slotsFor(capacity);
+		index = new long[2 * slots];
+		final int nodes = Math.max(MIN_CAPACITY, capacity);
+		nodeVersions = new long[nodes];
+		nodeValues = new Object[nodes];
+		nextNodes = new int[nodes];
+		freeNode = NO_NODE;
+		events = new long[2 * MIN_CAPACITY];
+	}
+
+	/**
+	 * Get the value of a key. This first reads optimistically, without taking the lock, and only takes the read lock
+	 * if a write or garbage collection ran at the same time.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param version
+	 * 		the version of the copy that is reading
+	 * @param latest
+	 * 		true if the copy reading is the mutable one, which always reads the newest mutation
+	 * @return the value of the key in that copy, or null if the key is not in it
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(final long key, final long version, final boolean latest) {
+		final long optimisticStamp = lock.tryOptimisticRead();
+		if (optimisticStamp != 0) {
+			final Object value = readOptimistically(key, version, latest);
+			if (lock.validate(optimisticStamp)) {
+				return value == null || value == DELETED ? null : (V) value;
+			}
+		}
+
+		final long stamp = lock.readLock();
+		try {
+			final int node = findNode(key, version, latest);
+			if (node == NO_NODE || nodeValues[node] == DELETED) {
+				return null;
+			}
+			return (V) nodeValues[node];
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Write a value to a key, or delete it.
+	 *
+	 * @param key
+	 * 		the key
+	 * @param version
+	 * 		the version of the mutable copy
+	 * @param value
+	 * 		the new value, or null to delete the key
+	 * @return the previous value of the key, or null if it was not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(final long key, final long version, final V value) {
+		final boolean deletion = value == null;
+		final long stamp = lock.writeLock();
+		try {
+			int slot = findSlot(key);
+			final int head = slot < 0 ? NO_NODE : headOf(slot);
+
+			if (head == NO_NODE) {
+				if (deletion) {
+					// Caller is deleting a key that is not in the map
+					return null;
+				}
+				if (slot < 0) {
+					slot = insertKey(key);
+				}
+				setHead(slot, newNode(version, value, NO_NODE));
+				return null;
+			}
+
+			final Object original = nodeValues[head];
+			if (deletion && original == DELETED) {
+				// Caller is deleting the same key twice
+				return null;
+			}
+
+			if (nodeVersions[head] == version) {
+				// The key has already been mutated in this version, so no older copy can see this mutation
+				final int older = nextNodes[head];
+				if (deletion && older == NO_NODE) {
+					// The key was added by this version, so no copy has ever seen it
+					freeNode(head);
+					removeSlot(slot);
+				} else {
+					nodeValues[head] = deletion ? DELETED : value;
+					if (deletion) {
+						addEvent(key, version);
+					}
+				}
+			} else {
+				setHead(slot, newNode(version, deletion ? DELETED : value, head));
+				addEvent(key, version);
+			}
+
+			return original == DELETED ? null : (V) original;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Remove the mutations that no copy can read anymore, for every event that is due once a copy is gone.
+	 *
+	 * @param version
+	 * 		the version of a copy that has been released. Every older copy must have been released as well.
+	 */
+	public void collectGarbage(final long version) {
+		while (true) {
+			final long stamp = lock.writeLock();
+			try {
+				// When a key's chain grows at version v, the node it replaced is needed until copy v-1 is released
+				if (numEvents == 0 || version + 1 < events[2 * firstEvent + 1]) {
+					return;
+				}
+				final long key = events[2 * firstEvent];
+				firstEvent = (firstEvent + 1) % (events.length / 2);
+				numEvents--;
+				cleanKey(key, version);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		the key
+	 * @return the number of mutations in memory for a key, or null if the key is not in the table
+	 */
+	public Integer mutationCount(final long key) {
+		final long stamp = lock.readLock();
+		try {
+			final int slot = findSlot(key);
+			if (slot < 0) {
+				return null;
+			}
+			int count = 0;
+			for (int node = headOf(slot); node != NO_NODE; node = nextNodes[node]) {
+				count++;
+			}
+			return count;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return the number of mutations in memory for all keys
+	 */
+	public int mutationCount() {
+		final long stamp = lock.readLock();
+		try {
+			return numNodes;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Remove the mutations of a key that no remaining copy can read. The remaining copies are version + 1 and newer,
+	 * so each of them reads either a mutation newer than version + 1 or the newest one at or before it. Anything
+	 * older than that is garbage, and so is the key if that mutation is its newest and deleted it.
+	 */
+	private void cleanKey(final long key, final long version) {
+		final int slot = findSlot(key);
+		if (slot < 0) {
+			return;
+		}
+
+		int keep = headOf(slot);
+		while (keep != NO_NODE && nodeVersions[keep] > version + 1) {
+			keep = nextNodes[keep];
+		}
+		if (keep == NO_NODE) {
+			return;
+		}
+
+		int garbage = nextNodes[keep];
+		nextNodes[keep] = NO_NODE;
+		while (garbage != NO_NODE) {
+			final int next = nextNodes[garbage];
+			freeNode(garbage);
+			garbage = next;
+		}
+
+		if (keep == headOf(slot) && nodeValues[keep] == DELETED) {
+			freeNode(keep);
+			removeSlot(slot);
+		}
+	}
+
+	/**
+	 * Read the value a copy reads for a key without holding the lock. A write may be changing the arrays at the same
+	 * time, so the result is only meaningful if the lock's stamp is still valid afterwards. Until then, every index
+	 * is checked against the arrays it reads and every loop is bounded, so a torn read can't throw or spin forever.
+	 *
+	 * @return the value of the node the copy reads, {@link #DELETED}, or null if there is no such node
+	 */
+	private Object readOptimistically(final long key, final long version, final boolean latest) {
+		final long[] keyIndex = index;
+		final long[] versions = nodeVersions;
+		final Object[] values = nodeValues;
+		final int[] next = nextNodes;
+		final int nodes = Math.min(versions.length, Math.min(values.length, next.length));
+		final int mask = keyIndex.length / 2 - 1;
+		int slot = hash(key) & mask;
+		for (int probes = 0; probes <= mask; probes++) {
+			final long head = keyIndex[2 * slot + 1];
+			if (head == 0) {
+				return null;
+			}
+			if (keyIndex[2 * slot] == key) {
+				int node = (int) head - 1;
+				for (int steps = 0; node >= 0 && node < nodes && steps < nodes; steps++) {
+					if (latest || versions[node] <= version) {
+						return values[node];
+					}
+					node = next[node];
+				}
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Find the node a copy reads for a key.
+	 */
+	private int findNode(final long key, final long version, final boolean latest) {
+		final int slot = findSlot(key);
+		if (slot < 0) {
+			return NO_NODE;
+		}
+		int node = headOf(slot);
+		if (!latest) {
+			while (node != NO_NODE && nodeVersions[node] > version) {
+				node = nextNodes[node];
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * @return the slot holding a key, or -1 if the key is not in the index
+	 */
+	private int findSlot(final long key) {
+		final int mask = index.length / 2 - 1;
+		int slot = hash(key) & mask;
+		while (index[2 * slot + 1] != 0) {
+			if (index[2 * slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Add a key that is not in the index, with no mutations yet.
+	 *
+	 * @return the slot of the key
+	 */
+	private int insertKey(final long key) {
+		if ((long) (numKeys + 1) * LOAD_DENOMINATOR > (long) (index.length / 2) * LOAD_NUMERATOR) {
+			resizeIndex(index.length);
+		}
+		final int mask = index.length / 2 - 1;
+		int slot = hash(key) & mask;
+		while (index[2 * slot + 1] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		index[2 * slot] = key;
+		numKeys++;
+		return slot;
+	}
+
+	/**
+	 * Remove the key in a slot, shifting back the keys that probed past it so that no lookup stops early.
+	 */
+	private void removeSlot(int slot) {
+		final int mask = index.length / 2 - 1;
+		index[2 * slot] = 0;
+		index[2 * slot + 1] = 0;
+		numKeys--;
+
+		int next = (slot + 1) & mask;
+		while (index[2 * next + 1] != 0) {
+			final int home = hash(index[2 * next]) & mask;
+			// the key in next can move to slot if slot is not cyclically between its home and next
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				index[2 * slot] = index[2 * next];
+				index[2 * slot + 1] = index[2 * next + 1];
+				index[2 * next] = 0;
+				index[2 * next + 1] = 0;
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+	}
+
+	/**
+	 * Move every key to an index with a number of slots.
+	 */
+	private void resizeIndex(final int slots) {
+		final long[] old = index;
+		index = new long[2 * slots];
+		final int mask = index.length / 2 - 1;
+		for (int i = 0; i < old.length; i += 2) {
+			if (old[i + 1] != 0) {
+				int slot = hash(old[i]) & mask;
+				while (index[2 * slot + 1] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				index[2 * slot] = old[i];
+				index[2 * slot + 1] = old[i + 1];
+			}
+		}
+	}
+
+	private int headOf(final int slot) {
+		return (int) index[2 * slot + 1] - 1;
+	}
+
+	private void setHead(final int slot, final int node) {
+		index[2 * slot + 1] = node + 1L;
+	}
+
+	private int newNode(final long version, final Object value, final int next) {
+		final int node;
+		if (freeNode != NO_NODE) {
+			node = freeNode;
+			freeNode = nextNodes[node];
+		} else {
+			if (usedNodes == nodeVersions.length) {
+				growNodes();
+			}
+			node = usedNodes++;
+		}
+		nodeVersions[node] = version;
+		nodeValues[node] = value;
+		nextNodes[node] = next;
+		numNodes++;
+		return node;
+	}
+
+	private void freeNode(final int node) {
+		nodeValues[node] = null;
+		nextNodes[node] = freeNode;
+		freeNode = node;
+		numNodes--;
+	}
+
+	private void growNodes() {
+		final int length = nodeVersions.length * 2;
+		final long[] versions = new long[length];
+		final Object[] values = new Object[length];
+		final int[] next = new int[length];
+		System.arraycopy(nodeVersions, 0, versions, 0, usedNodes);
+		System.arraycopy(nodeValues, 0, values, 0, usedNodes);
+		System.arraycopy(nextNodes, 0, next, 0, usedNodes);
+		nodeVersions = versions;
+		nodeValues = values;
+		nextNodes = next;
+	}
+
+	private void addEvent(final long key, final long version) {
+		final int ringSize = events.length / 2;
+		if (numEvents == ringSize) {
+			final long[] grown = new long[events.length * 2];
+			for (int i = 0; i < numEvents; i++) {
+				final int from = (firstEvent + i) % ringSize;
+				grown[2 * i] = events[2 * from];
+				grown[2 * i + 1] = events[2 * from + 1];
+			}
+			events = grown;
+			firstEvent = 0;
+		}
+		final int last = (firstEvent + numEvents) % (events.length / 2);
+		events[2 * last] = key;
+		events[2 * last + 1] = version;
+		numEvents++;
+	}
+
+	/**
+	 * @return the number of slots of an index that holds a number of keys without growing, a power of 2
+	 */
+	private static int slotsFor(final int capacity) {
+		final long needed = Math.max(MIN_CAPACITY, ((long) capacity * LOAD_DENOMINATOR) / LOAD_NUMERATOR + 1);
+		if (needed > (1 << 29)) {
+			throw new IllegalArgumentException("capacity is too large: " + capacity);
+		}
+		return Integer.highestOneBit((int) needed - 1) << 1;
+	}
+
+	/**
+	 * Spread the bits of a key, since keys are often sequential and the index uses the low bits of the hash.
+	 */
+	private static int hash(final long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
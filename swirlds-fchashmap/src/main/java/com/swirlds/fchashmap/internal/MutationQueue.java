@@ -14,12 +14,70 @@
 
 package com.swirlds.fchashmap.internal;
 
-import java.util.concurrent.ConcurrentLinkedDeque;
-
 /**
  * Represents a sequence of mutations on a single data value.
+ * <p>
+ * The mutations are kept in a sorted array of versions with a parallel array of values, so a copy finds the mutation
+ * for its version with a binary search, no matter how far behind the mutable copy it is. The arrays are read through
+ * an immutable view that is replaced whenever mutations are added or removed, so readers never lock. Writers and the
+ * garbage collector must synchronize on the queue.
  */
-public class MutationQueue<V> extends ConcurrentLinkedDeque<Mutation<V>> {
+public class MutationQueue<V> {
+
+	/** the value of a mutation that deleted the key */
+	private static final Object DELETED = new Object();
+
+	/**
+	 * The mutations at some point in time: the ones in [start, end) of the arrays. Mutations are only ever added
+	 * after end, or removed by publishing a view with a later start, so a view never changes under a reader. The one
+	 * exception is the value of the newest mutation, which is updated in place by the version that made it.
+	 */
+	private static final class Mutations {
+		/** the version of each mutation, increasing */
+		private final long[] versions;
+		/** the value of each mutation, or {@link #DELETED} */
+		private final Object[] values;
+		/** the index of the oldest mutation */
+		private final int start;
+		/** one past the index of the newest mutation */
+		private final int end;
+
+		private Mutations(final long[] versions, final Object[] values, final int start, final int end) {
+			this.versions = versions;
+			this.values = values;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return the index of the newest mutation made at or before a version, or -1 if there is none
+		 */
+		private int find(final long version) {
+			if (end == start) {
+				return -1;
+			}
+			// the mutable copy, and any copy made since the last mutation, reads the newest one
+			if (versions[end - 1] <= version) {
+				return end - 1;
+			}
+			int low = start;
+			int high = end - 2;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				if (versions[mid] <= version) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return high >= start ? high : -1;
+		}
+	}
+
+	/** a view with no mutations, shared by all new queues */
+	private static final Mutations EMPTY = new Mutations(new long[0], new Object[0], 0, 0);
+
+	private volatile Mutations mutations;
 
 	/**
 	 * When the garbage collector removes this queue from the map it marks it as deleted. A writer must check
@@ -28,30 +86,155 @@ public class MutationQueue<V> extends ConcurrentLinkedDeque<Mutation<V>> {
 	private boolean deleted;
 
 	public MutationQueue() {
-		super();
+		mutations = EMPTY;
 		deleted = false;
 	}
 
+	/**
+	 * @return the number of mutations in the queue
+	 */
+	public int size() {
+		final Mutations current = mutations;
+		return current.end - current.start;
+	}
+
+	/**
+	 * @return whether the queue has no mutations
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Check if the key has a value in a copy.
+	 *
+	 * @param version
+	 * 		the version of the copy
+	 * @return true if the newest mutation at or before the version did not delete the key
+	 */
+	public boolean containsValue(final long version) {
+		final Mutations current = mutations;
+		final int index = current.find(version);
+		return index >= 0 && current.values[index] != DELETED;
+	}
+
+	/**
+	 * Get the value of the key in a copy.
+	 *
+	 * @param version
+	 * 		the version of the copy
+	 * @return the value of the newest mutation at or before the version, or null if there is none or it deleted the
+	 * 		key
+	 */
+	@SuppressWarnings("unchecked")
+	public V getValue(final long version) {
+		final Mutations current = mutations;
+		final int index = current.find(version);
+		if (index < 0 || current.values[index] == DELETED) {
+			return null;
+		}
+		return (V) current.values[index];
+	}
+
+	/**
+	 * @return the value of the newest mutation, or null if there is none or it deleted the key
+	 */
+	public V getLastValue() {
+		return getValue(Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return whether the newest mutation deleted the key
+	 */
+	public boolean isLastDeleted() {
+		final Mutations current = mutations;
+		return current.end > current.start && current.values[current.end - 1] == DELETED;
+	}
+
+	/**
+	 * @return the version of the oldest mutation. Must not be called on an empty queue.
+	 */
+	public long getFirstVersion() {
+		final Mutations current = mutations;
+		return current.versions[current.start];
+	}
+
+	/**
+	 * @return whether the oldest mutation deleted the key. Must not be called on an empty queue.
+	 */
+	public boolean isFirstDeleted() {
+		final Mutations current = mutations;
+		return current.values[current.start] == DELETED;
+	}
+
 	/**
 	 * Add a new mutation to the queue. If the version of this mutation matches the version of the most recent mutation
 	 * then simply update the most recent mutation.
 	 *
-	 * @param mutation
-	 * 		the new mutation to be added
+	 * @param version
+	 * 		the version of the copy making the mutation
+	 * @param value
+	 * 		the new value, ignored if the mutation is a deletion
+	 * @param deletion
+	 * 		whether the mutation deletes the key
 	 */
-	public void maybeAddLast(Mutation<V> mutation) {
-		Mutation<V> last = peekLast();
-		if (last != null) {
-			if (last.version == mutation.version) {
-				// If we are modifying a value that has already been mutated in this version then
-				// we can simply update the existing mutation.
-				last.value = mutation.value;
-				last.deleted = mutation.deleted;
-				return;
-			}
+	public void maybeAddLast(final long version, final V value, final boolean deletion) {
+		final Mutations current = mutations;
+		final Object newValue = deletion ? DELETED : value;
+
+		if (current.end > current.start && current.versions[current.end - 1] == version) {
+			// If we are modifying a value that has already been mutated in this version then
+			// we can simply update the existing mutation.
+			current.values[current.end - 1] = newValue;
+			return;
 		}
 
-		addLast(mutation);
+		if (current.end < current.versions.length) {
+			// Readers of the current view never look past its end
+			current.versions[current.end] = version;
+			current.values[current.end] = newValue;
+			mutations = new Mutations(current.versions, current.values, current.start, current.end + 1);
+			return;
+		}
+
+		final int size = current.end - current.start;
+		final long[] versions = new long[Math.max(1, size * 2)];
+		final Object[] values = new Object[versions.length];
+		System.arraycopy(current.versions, current.start, versions, 0, size);
+		System.arraycopy(current.values, current.start, values, 0, size);
+		versions[size] = version;
+		values[size] = newValue;
+		mutations = new Mutations(versions, values, 0, size + 1);
+	}
+
+	/**
+	 * Remove the mutations made before a version, but never the newest mutation.
+	 *
+	 * @param version
+	 * 		the version of the oldest mutation that copies still read
+	 */
+	public void removeMutationsBefore(final long version) {
+		final Mutations current = mutations;
+		int start = current.start;
+		while (current.end - start > 1 && current.versions[start] < version) {
+			start++;
+		}
+		if (start == current.start) {
+			return;
+		}
+
+		final int size = current.end - start;
+		if (start < size) {
+			mutations = new Mutations(current.versions, current.values, start, current.end);
+			return;
+		}
+
+		// Most of the arrays are now garbage, and readers of older views may still use them, so copy the rest
+		final long[] versions = new long[size];
+		final Object[] values = new Object[size];
+		System.arraycopy(current.versions, start, versions, 0, size);
+		System.arraycopy(current.values, start, values, 0, size);
+		mutations = new Mutations(versions, values, 0, size);
 	}
 
 	public void delete() {
@@ -64,4 +247,21 @@ public class MutationQueue<V> extends ConcurrentLinkedDeque<Mutation<V>> {
 	public boolean isDeleted() {
 		return deleted;
 	}
+
+	/**
+	 * Convert this queue to a human readable string. For debugging purposes.
+	 */
+	@Override
+	public String toString() {
+		final Mutations current = mutations;
+		final StringBuilder sb = new StringBuilder("[");
+		for (int i = current.start; i < current.end; i++) {
+			if (i > current.start) {
+				sb.append(", ");
+			}
+			sb.append('(').append(current.versions[i]).append(": ")
+					.append(current.values[i] == DELETED ? "DELETED" : current.values[i]).append(')');
+		}
+		return sb.append(']').toString();
+	}
 }
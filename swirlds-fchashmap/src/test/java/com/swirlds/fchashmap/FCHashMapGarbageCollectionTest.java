@@ -0,0 +1,76 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FCHashMapGarbageCollectionTest {
+
+	/** the longest time to wait for the garbage collector to clean a key */
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	/**
+	 * Wait until a condition holds, or fail after {@link #TIMEOUT_MILLIS}.
+	 */
+	private static void waitFor(final BooleanSupplier condition, final String message) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, message);
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * A mutation at version 1, registered after copy 0 has been collected, is only cleaned when copy 1 is released.
+	 * Copy 2 has no mutation of its own for the key, so it still reads the mutation made at version 1, which must
+	 * not be removed with the older ones.
+	 */
+	@Test
+	@DisplayName("Cleanup keeps a mutation that a newer copy still reads")
+	void cleanupKeepsMutationReadByNewerCopy() throws InterruptedException {
+		final FCHashMap<String, String> copy0 = new FCHashMap<>();
+		copy0.put("probe", "p0");
+		copy0.put("key", "a");
+
+		final FCHashMap<String, String> copy1 = copy0.copy();
+		copy1.put("probe", "p1");
+
+		// the probe's old mutation is cleaned once copy 0 is collected, so the collector is done with copy 0 then
+		copy0.release();
+		waitFor(() -> copy1.mutationCountForKey("probe") == 1, "copy 0 was never collected");
+
+		copy1.put("key", "b");
+		final FCHashMap<String, String> copy2 = copy1.copy();
+		final FCHashMap<String, String> copy3 = copy2.copy();
+		copy3.put("key", "d");
+		assertEquals(3, copy3.mutationCountForKey("key"), "the key should have a mutation at versions 0, 1 and 3");
+
+		copy1.release();
+		waitFor(() -> copy3.mutationCountForKey("key") < 3, "copy 1 was never collected");
+
+		assertEquals(2, copy3.mutationCountForKey("key"), "only the mutation at version 0 should be removed");
+		assertEquals("b", copy2.get("key"), "copy 2 should read the mutation made at version 1");
+		assertEquals("d", copy3.get("key"), "the mutable copy should read the newest mutation");
+
+		copy2.release();
+		copy3.release();
+	}
+}
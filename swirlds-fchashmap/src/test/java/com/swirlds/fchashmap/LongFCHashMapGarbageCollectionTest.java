@@ -0,0 +1,133 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongFCHashMapGarbageCollectionTest {
+
+	/** the longest time to wait for the garbage collector to clean a key */
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	/**
+	 * Wait until a condition holds, or fail after {@link #TIMEOUT_MILLIS}.
+	 */
+	private static void waitFor(final BooleanSupplier condition, final String message) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, message);
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	@DisplayName("Copies read the values of their own version")
+	void copiesReadTheirVersion() {
+		final LongFCHashMap<String> copy0 = new LongFCHashMap<>();
+		copy0.put(1, "a");
+		copy0.put(2, "b");
+
+		final LongFCHashMap<String> copy1 = copy0.copy();
+		copy1.put(1, "c");
+		assertEquals("b", copy1.remove(2), "remove should return the value the key had");
+		copy1.put(3, "d");
+
+		assertEquals("a", copy0.get(1), "copy 0 should not see the mutations of copy 1");
+		assertEquals("b", copy0.get(2), "copy 0 should still see the key copy 1 removed");
+		assertNull(copy0.get(3), "copy 0 should not see the key copy 1 added");
+		assertEquals(2, copy0.size(), "copy 0 should keep its size");
+
+		assertEquals("c", copy1.get(1), "copy 1 should see its own mutation");
+		assertFalse(copy1.containsKey(2), "copy 1 should not see the key it removed");
+		assertEquals("d", copy1.get(3), "copy 1 should see the key it added");
+		assertEquals(2, copy1.size(), "copy 1 should have its own size");
+
+		copy0.release();
+		copy1.release();
+	}
+
+	/**
+	 * Releasing copy 0 lets the garbage collector drop the mutations only copy 0 could read, including the whole
+	 * key that copy 1 removed, while copy 1 keeps reading the same values.
+	 */
+	@Test
+	@DisplayName("Releasing a copy removes the mutations only it could read")
+	void cleanupAfterRelease() throws InterruptedException {
+		final LongFCHashMap<String> copy0 = new LongFCHashMap<>();
+		copy0.put(1, "a");
+		copy0.put(2, "b");
+
+		final LongFCHashMap<String> copy1 = copy0.copy();
+		copy1.put(1, "c");
+		copy1.remove(2);
+		assertEquals(2, copy1.mutationCountForKey(1), "key 1 should have a mutation at versions 0 and 1");
+		assertEquals(2, copy1.mutationCountForKey(2), "key 2 should have an addition and a deletion");
+
+		copy0.release();
+		waitFor(() -> copy1.mutationCountForKey(2) == null, "copy 0 was never collected");
+
+		assertEquals(1, copy1.mutationCountForKey(1), "only the mutation of copy 1 should remain");
+		assertEquals("c", copy1.get(1), "copy 1 should still read its own mutation");
+		assertNull(copy1.get(2), "copy 1 should still not see the key it removed");
+
+		copy1.release();
+		waitFor(() -> !copy1.isGarbageCollectorStillRunning(),
+				"the garbage collector should stop once every copy is released");
+	}
+
+	/**
+	 * Like {@link FCHashMapGarbageCollectionTest#cleanupKeepsMutationReadByNewerCopy()}: copy 2 has no mutation of
+	 * its own for the key, so it still reads the mutation made at version 1, which must survive the release of
+	 * copy 1.
+	 */
+	@Test
+	@DisplayName("Cleanup keeps a mutation that a newer copy still reads")
+	void cleanupKeepsMutationReadByNewerCopy() throws InterruptedException {
+		final LongFCHashMap<String> copy0 = new LongFCHashMap<>();
+		copy0.put(0, "p0");
+		copy0.put(1, "a");
+
+		final LongFCHashMap<String> copy1 = copy0.copy();
+		copy1.put(0, "p1");
+
+		// the probe's old mutation is cleaned once copy 0 is collected, so the collector is done with copy 0 then
+		copy0.release();
+		waitFor(() -> copy1.mutationCountForKey(0) == 1, "copy 0 was never collected");
+
+		copy1.put(1, "b");
+		final LongFCHashMap<String> copy2 = copy1.copy();
+		final LongFCHashMap<String> copy3 = copy2.copy();
+		copy3.put(1, "d");
+		assertEquals(3, copy3.mutationCountForKey(1), "the key should have a mutation at versions 0, 1 and 3");
+
+		copy1.release();
+		waitFor(() -> copy3.mutationCountForKey(1) < 3, "copy 1 was never collected");
+
+		assertEquals(2, copy3.mutationCountForKey(1), "only the mutation at version 0 should be removed");
+		assertEquals("b", copy2.get(1), "copy 2 should read the mutation made at version 1");
+		assertEquals("d", copy3.get(1), "the mutable copy should read the newest mutation");
+
+		copy2.release();
+		copy3.release();
+	}
+}
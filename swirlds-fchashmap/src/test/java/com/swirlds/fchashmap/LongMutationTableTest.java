@@ -0,0 +1,153 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fchashmap;
+
+import com.swirlds.fchashmap.internal.LongMutationTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LongMutationTableTest {
+
+	/**
+	 * Check that every key in a range reads the same value in a version of the table as in a map.
+	 */
+	private static void assertMatches(final Map<Long, String> expected, final LongMutationTable<String> table,
+			final long version, final boolean latest, final int numKeys) {
+		for (long key = 0; key < numKeys; key++) {
+			assertEquals(expected.get(key), table.get(key, version, latest),
+					"key " + key + " should have the same value in version " + version + " as in the reference map");
+		}
+	}
+
+	/**
+	 * Ten keys fill a table of 16 slots as far as it goes without growing, so many of them are away from their home
+	 * slot and lookups have to probe past other keys.
+	 */
+	@Test
+	@DisplayName("Keys that share slots can all be found")
+	void probing() {
+		final LongMutationTable<String> table = new LongMutationTable<>(10);
+		for (long key = 0; key < 10; key++) {
+			table.put(key, 0, "v" + key);
+		}
+		for (long key = 0; key < 10; key++) {
+			assertEquals("v" + key, table.get(key, 0, true), "every key should be found");
+			assertEquals(1, table.mutationCount(key), "every key should have one mutation");
+		}
+		assertNull(table.get(10, 0, true), "a key that was never added should not be found");
+		assertNull(table.mutationCount(10), "a key that was never added should have no mutations");
+	}
+
+	@Test
+	@DisplayName("The table grows past its initial capacity")
+	void resize() {
+		final LongMutationTable<String> table = new LongMutationTable<>(0);
+		final int numKeys = 10_000;
+		for (long key = 0; key < numKeys; key++) {
+			table.put(key, key / 100, "v" + key);
+		}
+		for (long key = 0; key < numKeys; key++) {
+			assertEquals("v" + key, table.get(key, numKeys, true), "every key should survive the table growing");
+			assertEquals(key < 100 ? "v" + key : null, table.get(key, 0, false),
+					"version 0 should only see the keys added by version 0");
+		}
+		assertEquals(numKeys, table.mutationCount(), "every key should have one mutation");
+	}
+
+	/**
+	 * Random puts and deletes in one version, checked against a {@link HashMap}. Deleting a key shifts back the keys
+	 * that probed past it, and a key added and deleted in the same version leaves no mutation behind.
+	 */
+	@Test
+	@DisplayName("Deleted keys leave every other key reachable")
+	void deletion() {
+		final Random random = new Random(1234);
+		final LongMutationTable<String> table = new LongMutationTable<>(0);
+		final Map<Long, String> expected = new HashMap<>();
+		final int numKeys = 200;
+
+		for (int i = 0; i < 20_000; i++) {
+			final long key = random.nextInt(numKeys);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), table.put(key, 0, null),
+						"a delete should return the value the key had");
+			} else {
+				final String value = "v" + i;
+				assertEquals(expected.put(key, value), table.put(key, 0, value),
+						"a put should return the value the key had");
+			}
+		}
+
+		assertMatches(expected, table, 0, true, numKeys);
+		assertEquals(expected.size(), table.mutationCount(),
+				"keys deleted by the version that added them should leave no mutation");
+	}
+
+	/**
+	 * Random puts and deletes over many versions, with each version checked against a {@link HashMap} snapshot.
+	 * Collecting the garbage of released versions must not change what the remaining versions read, and once only
+	 * the newest version remains every live key has exactly one mutation.
+	 */
+	@Test
+	@DisplayName("Garbage collection keeps what the remaining versions read")
+	void garbageCollection() {
+		final Random random = new Random(5678);
+		final LongMutationTable<String> table = new LongMutationTable<>(0);
+		final List<Map<Long, String>> snapshots = new ArrayList<>();
+		final Map<Long, String> current = new HashMap<>();
+		final int numKeys = 100;
+		final int numVersions = 20;
+
+		for (long version = 0; version < numVersions; version++) {
+			for (int i = 0; i < 100; i++) {
+				final long key = random.nextInt(numKeys);
+				if (random.nextInt(4) == 0) {
+					current.remove(key);
+					table.put(key, version, null);
+				} else {
+					final String value = version + "-" + i;
+					current.put(key, value);
+					table.put(key, version, value);
+				}
+			}
+			snapshots.add(new HashMap<>(current));
+		}
+		final long latest = numVersions - 1;
+
+		for (long released = 0; released < latest; released++) {
+			table.collectGarbage(released);
+			for (long version = released + 1; version < latest; version++) {
+				assertMatches(snapshots.get((int) version), table, version, false, numKeys);
+			}
+			assertMatches(current, table, latest, true, numKeys);
+		}
+
+		assertEquals(current.size(), table.mutationCount(),
+				"once only the newest version remains, every live key should have one mutation");
+		for (long key = 0; key < numKeys; key++) {
+			assertEquals(current.containsKey(key) ? Integer.valueOf(1) : null, table.mutationCount(key),
+					"key " + key + " should have one mutation if it is live, and none otherwise");
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.io.SelfSerializable;
+import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.fcmap.internal.DiskValue;
+import com.swirlds.fcmap.internal.DiskValueFiles;
+
+import java.nio.file.Path;
+
+/**
+ * An {@link FCMap} whose values are kept in append-only, memory-mapped files instead of as objects on the heap, for
+ * maps that hold more data than fits in memory.
+ * <p>
+ * Each value is wrapped in a {@link DiskValue} leaf, which holds only the location of the serialized value and its
+ * hash, so the tree and the index of keys stay in memory while the values stay on disk until they are read. The
+ * value is deserialized by {@link #getValue(Object)} each time it is read, so changing the returned object does not
+ * change the map: a changed value must be put back with {@link #putValue(MerkleNode, SelfSerializable)}.
+ * </p>
+ * <p>
+ * Fast copies share the values they have in common without copying them. A saved state holds the bytes of every
+ * value, so it does not depend on the files, which are deleted once no copy of any map holds a value in them. The
+ * values read most recently are kept in a cache of their bytes, shared by all maps.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ * @param <V>
+ * 		the type of the values
+ */
+public class DiskFCMap<K extends MerkleNode, V extends SelfSerializable> extends FCMap<K, DiskValue<V>> {
+
+	public static final long CLASS_ID = 0x7b3e05c9f2d1846aL;
+
+	private static class ClassVersion {
+		public static final int ORIGINAL = 1;
+	}
+
+	/**
+	 * Creates an instance of {@link DiskFCMap}
+	 */
+	public DiskFCMap() {
+		super();
+	}
+
+	/**
+	 * Creates an instance of {@link DiskFCMap}
+	 *
+	 * @param initialCapacity
+	 * 		Initial capacity of internal hash map
+	 */
+	public DiskFCMap(final int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * Creates an immutable DiskFCMap based a provided DiskFCMap
+	 *
+	 * @param map
+	 * 		A DiskFCMap
+	 */
+	protected DiskFCMap(final DiskFCMap<K, V> map) {
+		super(map);
+	}
+
+	/**
+	 * Choose where the values of all DiskFCMaps are stored. Must be called before any value is stored or read.
+	 *
+	 * @param directory
+	 * 		the directory of the files, which must not be used by another process
+	 * @param fileSize
+	 * 		the size of a file, in bytes
+	 * @param cacheSize
+	 * 		the number of recently read values whose bytes are kept in memory
+	 */
+	public static void configure(final Path directory, final int fileSize, final int cacheSize) {
+		DiskValueFiles.configure(directory, fileSize, cacheSize);
+	}
+
+	/**
+	 * Deserialize the value of a key. Each call returns a new object, and changes to it do not change the map.
+	 *
+	 * @param key
+	 * 		the key whose value is to be returned
+	 * @return the value of the key, or null if this map contains no value for the key
+	 */
+	public V getValue(final Object key) {
+		final DiskValue<V> value = get(key);
+		return value == null ? null : value.getValue();
+	}
+
+	/**
+	 * Store a serialized copy of a value for a key. Later changes to the value do not change the map.
+	 *
+	 * @param key
+	 * 		key with which the value is to be associated
+	 * @param value
+	 * 		value to be associated with the key
+	 */
+	public void putValue(final K key, final V value) {
+		put(key, new DiskValue<>(value));
+	}
+
+	/**
+	 * Add a mutation to a batch that stores a serialized copy of a value for a key, as
+	 * {@link #putValue(MerkleNode, SelfSerializable)} does.
+	 *
+	 * @param batch
+	 * 		the batch to add the mutation to
+	 * @param key
+	 * 		key with which the value is to be associated
+	 * @param value
+	 * 		value to be associated with the key
+	 */
+	public static <K extends MerkleNode, V extends SelfSerializable> void putValue(
+			final FCMapBatch<K, DiskValue<V>> batch, final K key, final V value) {
+		batch.put(key, new DiskValue<>(value));
+	}
+
+	/**
+	 * @return the total size of the values that some copy of a DiskFCMap still holds, in bytes
+	 */
+	public static long getDiskLiveBytes() {
+		return DiskValueFiles.getLiveBytes();
+	}
+
+	/**
+	 * @return the total size of the files that have not been deleted yet, in bytes
+	 */
+	public static long getDiskMappedBytes() {
+		return DiskValueFiles.getMappedBytes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public DiskFCMap<K, V> copy() {
+		return (DiskFCMap<K, V>) super.copy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DiskFCMap<K, V> newCopy() {
+		return new DiskFCMap<>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getClassId() {
+		return CLASS_ID;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getVersion() {
+		return ClassVersion.ORIGINAL;
+	}
+}
@@ -16,6 +16,7 @@ package com.swirlds.fcmap;
 
 import com.swirlds.common.Archivable;
 import com.swirlds.common.FastCopyable;
+import com.swirlds.common.crypto.CryptoFactory;
 import com.swirlds.common.crypto.Hash;
 import com.swirlds.common.merkle.MerkleNode;
 import com.swirlds.common.merkle.utility.AbstractBinaryMerkleInternal;
@@ -26,15 +27,20 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.swirlds.logging.LogMarker.RECONNECT;
@@ -134,6 +140,42 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		}
 	}
 
+	/**
+	 * Perform a read without taking the read lock, and perform it again under the read lock if a write lock was held
+	 * at any point during the read. The read must have no side effects, and must tolerate seeing the map in the middle
+	 * of a write: its result is discarded in that case, as is any exception it throws.
+	 * <p>
+	 * The only write locks taken on an immutable copy are by {@link #archive()} and {@link #hashDirtyPaths()}, so
+	 * reads of immutable copies are effectively lock free.
+	 * </p>
+	 *
+	 * @param read
+	 * 		the read to perform
+	 * @return the result of the read
+	 */
+	private <T> T optimisticRead(final Supplier<T> read) {
+		if (!LOCKS_DISABLED_FOR_DEBUGGING) {
+			final long optimisticStamp = lock.tryOptimisticRead();
+			if (optimisticStamp != 0) {
+				try {
+					final T result = read.get();
+					if (lock.validate(optimisticStamp)) {
+						return result;
+					}
+				} catch (final RuntimeException ignored) {
+					// A write raced with this read, which is performed again under the read lock
+				}
+			}
+		}
+
+		final long stamp = readLock();
+		try {
+			return read.get();
+		} finally {
+			releaseReadLock(stamp);
+		}
+	}
+
 	/**
 	 * Acquire a write lock. Released by {@link #releaseWriteLock(long)}.
 	 *
@@ -231,12 +273,7 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 	 * @return the number of key-value mappings in this map
 	 */
 	public long getSize() {
-		final long stamp = readLock();
-		try {
-			return getTree().size();
-		} finally {
-			releaseReadLock(stamp);
-		}
+		return optimisticRead(() -> getTree().size());
 	}
 
 	/**
@@ -252,12 +289,22 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		throwIfReleased();
 		final long stamp = readLock();
 		try {
-			return new FCMap<>(this);
+			return newCopy();
 		} finally {
 			releaseReadLock(stamp);
 		}
 	}
 
+	/**
+	 * Create the fast copy returned by {@link #copy()}, while the read lock is held. Subclasses override this to
+	 * return a copy of their own type.
+	 *
+	 * @return A fast copied FCMap
+	 */
+	protected FCMap<K, V> newCopy() {
+		return new FCMap<>(this);
+	}
+
 	private void updateCache(final FCMLeaf<K, V> leaf) {
 		internalMap.put(leaf.getKey(), leaf);
 	}
@@ -312,20 +359,27 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		throwIfImmutable();
 		final long stamp = writeLock();
 		try {
-			final FCMLeaf<K, V> leaf = this.internalMap.remove(key);
-			if (leaf == null) {
-				return null;
-			}
-
-			final V value = leaf.getValue();
-			getTree().delete(leaf, this::updateCache);
-			this.invalidateHash();
-			return value;
+			return removeInternal(key);
 		} finally {
 			releaseWriteLock(stamp);
 		}
 	}
 
+	/**
+	 * The implementation of remove without locks.
+	 */
+	private V removeInternal(final Object key) {
+		final FCMLeaf<K, V> leaf = this.internalMap.remove(key);
+		if (leaf == null) {
+			return null;
+		}
+
+		final V value = leaf.getValue();
+		getTree().delete(leaf, this::updateCache);
+		this.invalidateHash();
+		return value;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -358,7 +412,6 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 	 * easy use incorrectly.
 	 * </p>
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public V get(final Object key) {
 		StopWatch watch = null;
@@ -368,19 +421,12 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 			watch.start();
 		}
 
-		final long stamp = readLock();
 		try {
-			final FCMLeaf<K, V> leaf;
-			if (this.internalMap.isReleased()) {
-				leaf = getTree().findLeafByKey((K) key);
-			} else {
-				leaf = this.internalMap.get(key);
-			}
-
-			return leaf == null ? null : leaf.getValue();
+			return optimisticRead(() -> {
+				final FCMLeaf<K, V> leaf = findLeaf(key);
+				return leaf == null ? null : leaf.getValue();
+			});
 		} finally {
-			releaseReadLock(stamp);
-
 			if (watch != null) {
 				watch.stop();
 				FCMapStatistics.fcmGetMicroSec.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
@@ -478,19 +524,7 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 			if (internalMap.containsKey(key)) {
 				return replaceInternal(key, value);
 			} else {
-
-				if (key.getReferenceCount() != 0) {
-					throw new IllegalArgumentException("Key is in another tree, can not insert");
-				}
-
-				if (value != null && value.getReferenceCount() != 0) {
-					throw new IllegalArgumentException("Value is in another tree, can not insert");
-				}
-
-				final FCMLeaf<K, V> leaf = new FCMLeaf<>(key, value);
-				getTree().insert(leaf, this::updateCache);
-				internalMap.put(key, leaf);
-				invalidateHash();
+				insertInternal(key, value);
 				return null;
 			}
 		} finally {
@@ -498,6 +532,24 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		}
 	}
 
+	/**
+	 * The implementation of put for a key that is not in the map, without locks.
+	 */
+	private void insertInternal(final K key, final V value) {
+		if (key.getReferenceCount() != 0) {
+			throw new IllegalArgumentException("Key is in another tree, can not insert");
+		}
+
+		if (value != null && value.getReferenceCount() != 0) {
+			throw new IllegalArgumentException("Value is in another tree, can not insert");
+		}
+
+		final FCMLeaf<K, V> leaf = new FCMLeaf<>(key, value);
+		getTree().insert(leaf, this::updateCache);
+		internalMap.put(key, leaf);
+		invalidateHash();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -521,8 +573,7 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 	 * specified key.
 	 *
 	 * <p>
-	 * This operation takes O(1) time in the original instance
-	 * and O(n) in the copied map.
+	 * This operation takes O(1) time, or O(n) time in a copy that has been archived.
 	 * </p>
 	 *
 	 * @param key
@@ -532,7 +583,20 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 	 */
 	@Override
 	public boolean containsKey(final Object key) {
-		return this.internalMap.containsKey(key);
+		return optimisticRead(() -> findLeaf(key) != null);
+	}
+
+	/**
+	 * Find the leaf of a key, without locks. Uses the internal map unless it has been released by {@link #archive()}.
+	 *
+	 * @return the leaf, or null if this map contains no mapping for the key
+	 */
+	@SuppressWarnings("unchecked")
+	private FCMLeaf<K, V> findLeaf(final Object key) {
+		if (this.internalMap.isReleased()) {
+			return getTree().findLeafByKey((K) key);
+		}
+		return this.internalMap.get(key);
 	}
 
 	/**
@@ -548,12 +612,7 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 	 */
 	@Override
 	public boolean isEmpty() {
-		final long stamp = readLock();
-		try {
-			return getTree().isEmpty();
-		} finally {
-			releaseReadLock(stamp);
-		}
+		return optimisticRead(() -> getTree().isEmpty());
 	}
 
 	/**
@@ -638,6 +697,249 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		}
 	}
 
+	/**
+	 * Apply a batch of mutations while holding the write lock once. The result is the same as making the same calls
+	 * one at a time, in the same order.
+	 * <p>
+	 * Inserts and removals change the shape of the tree, so they are applied in order as they are found. Replacing
+	 * or modifying the value of a key that is already in the map leaves the shape unchanged, so those are collected
+	 * (keeping the last value and every modifier of each key) and then applied together in the order of their
+	 * leaves in the tree. Consecutive leaves share most of their path from the root, and that part of each path is
+	 * walked and replaced only once.
+	 * </p>
+	 * <p>
+	 * The batch is checked before anything is changed, so a batch that would fail part-way through leaves the map
+	 * untouched.
+	 * </p>
+	 *
+	 * @param batch
+	 * 		the mutations to apply
+	 * @throws IllegalArgumentException
+	 * 		if a key or value the batch puts is already in another tree, or if the batch puts the same value
+	 * 		instance under two different keys
+	 */
+	public void applyBatch(final FCMapBatch<K, V> batch) {
+		throwIfImmutable();
+		StopWatch watch = null;
+
+		if (FCMapStatistics.isRegistered()) {
+			watch = new StopWatch();
+			watch.start();
+		}
+
+		final long stamp = writeLock();
+		try {
+			final long sharedPathSteps = applyBatchInternal(batch);
+
+			if (watch != null) {
+				FCMapStatistics.fcmBatchSharedPathSteps.recordValue(sharedPathSteps);
+			}
+		} finally {
+			releaseWriteLock(stamp);
+
+			if (watch != null) {
+				watch.stop();
+				FCMapStatistics.fcmBatchMicroSec.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
+			}
+		}
+	}
+
+	/**
+	 * The implementation of applyBatch without locks.
+	 *
+	 * @return the number of path steps that were not walked again
+	 */
+	private long applyBatchInternal(final FCMapBatch<K, V> batch) {
+		validateBatch(batch);
+
+		final Map<K, PendingUpdate<K, V>> pendingUpdates = new HashMap<>();
+
+		for (final FCMapBatch.Mutation<K, V> mutation : batch.getMutations()) {
+			final K key = mutation.getKey();
+			switch (mutation.getType()) {
+				case PUT:
+					if (internalMap.containsKey(key)) {
+						pendingUpdates.computeIfAbsent(key, k -> new PendingUpdate<>())
+								.setValue(key, mutation.getValue());
+					} else {
+						insertInternal(key, mutation.getValue());
+					}
+					break;
+				case REMOVE:
+					pendingUpdates.remove(key);
+					removeInternal(key);
+					break;
+				case MODIFY:
+					if (internalMap.containsKey(key)) {
+						pendingUpdates.computeIfAbsent(key, k -> new PendingUpdate<>())
+								.addModifier(mutation.getModifier());
+					}
+					break;
+				default:
+					throw new IllegalStateException("Unknown mutation type " + mutation.getType());
+			}
+		}
+
+		return applyPendingUpdates(pendingUpdates);
+	}
+
+	/**
+	 * Check that every put in a batch would succeed, without changing anything. Applying the batch would otherwise
+	 * insert some keys before it found a value that can't be put, or put one value instance in two leaves, since
+	 * the values of keys already in the map are only put into the tree after every insert and removal.
+	 */
+	private void validateBatch(final FCMapBatch<K, V> batch) {
+		// the key each value instance is put under, and whether each key mentioned so far is in the map
+		final Map<V, K> valueKeys = new IdentityHashMap<>();
+		final Map<K, Boolean> present = new HashMap<>();
+		for (final FCMapBatch.Mutation<K, V> mutation : batch.getMutations()) {
+			final K key = mutation.getKey();
+			switch (mutation.getType()) {
+				case PUT:
+					final boolean seen = present.containsKey(key);
+					final boolean inMap = seen ? present.get(key) : internalMap.containsKey(key);
+					if (!seen && !inMap && key.getReferenceCount() != 0) {
+						throw new IllegalArgumentException("Key is in another tree, can not insert");
+					}
+					present.put(key, true);
+
+					final V value = mutation.getValue();
+					if (value == null) {
+						break;
+					}
+					final K previousKey = valueKeys.putIfAbsent(value, key);
+					if (previousKey != null && !previousKey.equals(key)) {
+						throw new IllegalArgumentException("Value is put under two keys in one batch, can not insert");
+					}
+					if (previousKey == null && value.getReferenceCount() != 0) {
+						final FCMLeaf<K, V> leaf = inMap && !seen ? internalMap.get(key) : null;
+						if (leaf == null || leaf.getValue() != value) {
+							throw new IllegalArgumentException("Value is already in a tree, can not insert into map");
+						}
+					}
+					break;
+				case REMOVE:
+					present.put(key, false);
+					break;
+				case MODIFY:
+					break;
+				default:
+					throw new IllegalStateException("Unknown mutation type " + mutation.getType());
+			}
+		}
+	}
+
+	/**
+	 * Replace or modify the values of keys that are in the map, in the order of their leaves.
+	 *
+	 * @return the number of path steps that were not walked again
+	 */
+	private long applyPendingUpdates(final Map<K, PendingUpdate<K, V>> pendingUpdates) {
+		final List<FCMLeaf<K, V>> oldLeaves = new ArrayList<>(pendingUpdates.size());
+		for (final Map.Entry<K, PendingUpdate<K, V>> entry : pendingUpdates.entrySet()) {
+			final FCMLeaf<K, V> leaf = internalMap.get(entry.getKey());
+			final PendingUpdate<K, V> update = entry.getValue();
+			if (update.hasValue() && leaf.getValue() == update.getValue()) {
+				// Value is already in this exact position, as in replaceInternal
+				update.clearValue();
+			}
+			if (update.hasValue() || update.hasModifiers()) {
+				oldLeaves.add(leaf);
+			}
+		}
+
+		if (oldLeaves.isEmpty()) {
+			return 0;
+		}
+
+		final List<FCMLeaf<K, V>> newLeaves = new ArrayList<>(oldLeaves.size());
+		for (final FCMLeaf<K, V> oldLeaf : oldLeaves) {
+			final PendingUpdate<K, V> update = pendingUpdates.get(oldLeaf.getKey());
+			if (!update.hasValue()) {
+				newLeaves.add(null);
+				continue;
+			}
+
+			// validateBatch has checked that the value is in no tree, and is put under no other key
+			final V value = update.getValue();
+			final V oldValue = oldLeaf.getValue();
+			final FCMLeaf<K, V> newLeaf = new FCMLeaf<>();
+			newLeaf.setRoute(oldLeaf.getRoute());
+			newLeaf.emplaceChildren(update.getKey(), oldLeaf.getKey().getRoute(), value,
+					oldValue == null ? null : oldValue.getRoute());
+			newLeaves.add(newLeaf);
+		}
+
+		// Once fast copies are managed by a utility, these manual hash invalidations will no longer be necessary.
+		this.invalidateHash();
+		getTree().invalidateHash();
+		getTree().getRoot().invalidateHash();
+
+		final long sharedPathSteps = getTree().updateLeaves(oldLeaves, newLeaves, this::updateCache);
+
+		for (final FCMLeaf<K, V> oldLeaf : oldLeaves) {
+			final PendingUpdate<K, V> update = pendingUpdates.get(oldLeaf.getKey());
+			if (update.hasModifiers()) {
+				final V value = internalMap.get(oldLeaf.getKey()).getValue();
+				for (final Consumer<V> modifier : update.getModifiers()) {
+					modifier.accept(value);
+				}
+			}
+		}
+
+		return sharedPathSteps;
+	}
+
+	/**
+	 * The replacement value and the modifiers that a batch applies to a key that is already in the map.
+	 */
+	private static class PendingUpdate<K, V> {
+		private boolean hasValue;
+		private K key;
+		private V value;
+		private final List<Consumer<V>> modifiers = new ArrayList<>(1);
+
+		/**
+		 * Replace the value. Modifiers of the previous value no longer matter.
+		 */
+		void setValue(final K key, final V value) {
+			this.hasValue = true;
+			this.key = key;
+			this.value = value;
+			modifiers.clear();
+		}
+
+		void clearValue() {
+			hasValue = false;
+			key = null;
+			value = null;
+		}
+
+		void addModifier(final Consumer<V> modifier) {
+			modifiers.add(modifier);
+		}
+
+		boolean hasValue() {
+			return hasValue;
+		}
+
+		K getKey() {
+			return key;
+		}
+
+		V getValue() {
+			return value;
+		}
+
+		boolean hasModifiers() {
+			return !modifiers.isEmpty();
+		}
+
+		List<Consumer<V>> getModifiers() {
+			return modifiers;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -882,6 +1184,47 @@ public class FCMap<K extends MerkleNode, V extends MerkleNode>
 		return this.getTree().getHash();
 	}
 
+	/**
+	 * Hash the nodes of this map that were invalidated since it was last hashed, and return the root hash.
+	 * <p>
+	 * Only the paths down to the leaves that changed are visited, and they are split by subtree across a shared
+	 * fork-join pool, so this is much cheaper than hashing a large map with few changes through the general merkle
+	 * hash builder. Once this returns, a merkle hash builder that reaches this map finds it already hashed and does
+	 * not descend into it, so an application may call this on a copy before the state that holds it is hashed.
+	 * </p>
+	 * <p>
+	 * Setting the hashes changes the nodes, so this holds the write lock, even on an immutable copy.
+	 * </p>
+	 *
+	 * @return The root hash
+	 */
+	public Hash hashDirtyPaths() {
+		StopWatch watch = null;
+
+		if (FCMapStatistics.isRegistered()) {
+			watch = new StopWatch();
+			watch.start();
+		}
+
+		final long stamp = writeLock();
+		try {
+			final long hashedNodes = FCMTree.hashDirtyPaths(CryptoFactory.getInstance(), this);
+
+			if (watch != null) {
+				FCMapStatistics.fcmHashedNodes.recordValue(hashedNodes);
+			}
+
+			return getRootHashWithoutLocking();
+		} finally {
+			releaseWriteLock(stamp);
+
+			if (watch != null) {
+				watch.stop();
+				FCMapStatistics.fcmHashMicroSec.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
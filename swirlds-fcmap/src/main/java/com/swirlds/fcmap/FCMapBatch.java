@@ -0,0 +1,152 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.merkle.MerkleNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A list of mutations to apply to an {@link FCMap} with {@link FCMap#applyBatch(FCMapBatch)}. The result is the same
+ * as making the same calls to the map one at a time, in the same order.
+ *
+ * @param <K>
+ * 		the type of the keys of the map
+ * @param <V>
+ * 		the type of the values of the map
+ */
+public class FCMapBatch<K extends MerkleNode, V extends MerkleNode> {
+
+	/**
+	 * The kinds of mutation in a batch.
+	 */
+	enum MutationType {
+		PUT,
+		REMOVE,
+		MODIFY
+	}
+
+	/**
+	 * One mutation in a batch.
+	 */
+	static class Mutation<K, V> {
+		private final MutationType type;
+		private final K key;
+		private final V value;
+		private final Consumer<V> modifier;
+
+		Mutation(final MutationType type, final K key, final V value, final Consumer<V> modifier) {
+			this.type = type;
+			this.key = key;
+			this.value = value;
+			this.modifier = modifier;
+		}
+
+		MutationType getType() {
+			return type;
+		}
+
+		K getKey() {
+			return key;
+		}
+
+		V getValue() {
+			return value;
+		}
+
+		Consumer<V> getModifier() {
+			return modifier;
+		}
+	}
+
+	private final List<Mutation<K, V>> mutations = new ArrayList<>();
+
+	/**
+	 * Add a mutation that does what {@link FCMap#put(MerkleNode, MerkleNode)} does.
+	 *
+	 * @param key
+	 * 		key with which the value is to be associated
+	 * @param value
+	 * 		value to be associated with the key
+	 * @return this batch
+	 */
+	public FCMapBatch<K, V> put(final K key, final V value) {
+		if (key == null) {
+			throw new NullPointerException("Null keys are not allowed");
+		}
+		mutations.add(new Mutation<>(MutationType.PUT, key, value, null));
+		return this;
+	}
+
+	/**
+	 * Add a mutation that does what {@link FCMap#remove(Object)} does.
+	 *
+	 * @param key
+	 * 		key whose mapping is to be removed from the map
+	 * @return this batch
+	 */
+	public FCMapBatch<K, V> remove(final K key) {
+		if (key == null) {
+			throw new NullPointerException("Null keys are not allowed");
+		}
+		mutations.add(new Mutation<>(MutationType.REMOVE, key, null, null));
+		return this;
+	}
+
+	/**
+	 * Add a mutation that modifies the value of a key, as a caller of {@link FCMap#getForModify(MerkleNode)} would.
+	 * The modifier is not called if the key is not in the map when the mutation is applied.
+	 *
+	 * @param key
+	 * 		the key whose value is modified
+	 * @param modifier
+	 * 		modifies the value, which is safe to modify when it is called
+	 * @return this batch
+	 */
+	public FCMapBatch<K, V> modify(final K key, final Consumer<V> modifier) {
+		if (key == null) {
+			throw new NullPointerException("Null keys are not allowed");
+		}
+		if (modifier == null) {
+			throw new NullPointerException("Null modifiers are not allowed");
+		}
+		mutations.add(new Mutation<>(MutationType.MODIFY, key, null, modifier));
+		return this;
+	}
+
+	/**
+	 * @return the number of mutations in this batch
+	 */
+	public int size() {
+		return mutations.size();
+	}
+
+	/**
+	 * @return true if this batch has no mutations
+	 */
+	public boolean isEmpty() {
+		return mutations.isEmpty();
+	}
+
+	/**
+	 * @return the mutations, in the order they were added
+	 */
+	List<Mutation<K, V>> getMutations() {
+		return Collections.unmodifiableList(mutations);
+	}
+}
@@ -54,8 +54,29 @@ public class FCMapStatistics {
 	 */
 	protected static final StatsRunningAverage fcmPutMicroSec = new StatsRunningAverage(DEFAULT_HALF_LIFE);
 
+	/**
+	 * avg time taken to execute the FCMap applyBatch method (in microseconds)
+	 */
+	protected static final StatsRunningAverage fcmBatchMicroSec = new StatsRunningAverage(DEFAULT_HALF_LIFE);
+
+	/**
+	 * avg number of path steps per FCMap batch that were replaced once for several keys, instead of once per key
+	 */
+	protected static final StatsRunningAverage fcmBatchSharedPathSteps = new StatsRunningAverage(DEFAULT_HALF_LIFE);
+
+	/**
+	 * avg time taken to execute the FCMap hashDirtyPaths method (in microseconds)
+	 */
+	protected static final StatsRunningAverage fcmHashMicroSec = new StatsRunningAverage(DEFAULT_HALF_LIFE);
+
+	/**
+	 * avg number of nodes hashed by the FCMap hashDirtyPaths method
+	 */
+	protected static final StatsRunningAverage fcmHashedNodes = new StatsRunningAverage(DEFAULT_HALF_LIFE);
+
 	private static final String FCM_CATEGORY = "FCM";
 	private static final String FORMAT_FLOAT_3SIGFIG = "%,11.3f";
+	private static final String FORMAT_INTEGER = "%,d";
 
 	/**
 	 * Default private constructor to ensure that this may not be instantiated.
@@ -136,6 +157,106 @@ public class FCMapStatistics {
 				fcmPutMicroSec::getWeightedMean
 		));
 
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmBatchMicroSec",
+				"avg time taken to execute the FCMap applyBatch method (in microseconds)",
+				FORMAT_FLOAT_3SIGFIG,
+				fcmBatchMicroSec,
+				h -> {
+					fcmBatchMicroSec.reset(h);
+					return fcmBatchMicroSec;
+				},
+				null,
+				fcmBatchMicroSec::getWeightedMean
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmBatchSharedSteps",
+				"avg number of path steps per FCMap batch that were not walked again for each key",
+				FORMAT_FLOAT_3SIGFIG,
+				fcmBatchSharedPathSteps,
+				h -> {
+					fcmBatchSharedPathSteps.reset(h);
+					return fcmBatchSharedPathSteps;
+				},
+				null,
+				fcmBatchSharedPathSteps::getWeightedMean
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmHashMicroSec",
+				"avg time taken to execute the FCMap hashDirtyPaths method (in microseconds)",
+				FORMAT_FLOAT_3SIGFIG,
+				fcmHashMicroSec,
+				h -> {
+					fcmHashMicroSec.reset(h);
+					return fcmHashMicroSec;
+				},
+				null,
+				fcmHashMicroSec::getWeightedMean
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmHashedNodes",
+				"avg number of nodes hashed by the FCMap hashDirtyPaths method",
+				FORMAT_FLOAT_3SIGFIG,
+				fcmHashedNodes,
+				h -> {
+					fcmHashedNodes.reset(h);
+					return fcmHashedNodes;
+				},
+				null,
+				fcmHashedNodes::getWeightedMean
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmOffHeapBytes",
+				"bytes of serialized OffHeapFCMap values held by any copy",
+				FORMAT_INTEGER,
+				null,
+				null,
+				null,
+				OffHeapFCMap::getOffHeapLiveBytes
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmOffHeapAllocated",
+				"bytes of direct buffers allocated for OffHeapFCMap values",
+				FORMAT_INTEGER,
+				null,
+				null,
+				null,
+				OffHeapFCMap::getOffHeapAllocatedBytes
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmDiskBytes",
+				"bytes of DiskFCMap values stored by this process and held by any copy",
+				FORMAT_INTEGER,
+				null,
+				null,
+				null,
+				DiskFCMap::getDiskLiveBytes
+		));
+
+		platform.addAppStatEntry(new StatEntry(
+				FCM_CATEGORY,
+				"fcmDiskMapped",
+				"bytes of DiskFCMap files mapped by this process",
+				FORMAT_INTEGER,
+				null,
+				null,
+				null,
+				DiskFCMap::getDiskMappedBytes
+		));
+
 		registered = true;
 	}
 }
@@ -0,0 +1,161 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.io.SelfSerializable;
+import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.fcmap.internal.OffHeapValue;
+import com.swirlds.fcmap.internal.OffHeapValueSlabs;
+
+/**
+ * An {@link FCMap} whose values are kept serialized in direct buffers instead of as objects on the heap, for maps
+ * with so many entries that their values would need a very large heap.
+ * <p>
+ * Each value is wrapped in an {@link OffHeapValue} leaf, which holds only the location of the serialized value. The
+ * value is deserialized by {@link #getValue(Object)} each time it is read, so changing the returned object does not
+ * change the map: a changed value must be put back with {@link #putValue(MerkleNode, SelfSerializable)}.
+ * </p>
+ * <p>
+ * The buffers are shared by all copies of all maps. Fast copies share the serialized values they have in common
+ * without copying them, and the space of a value is freed once no copy holds it. Keys are still kept on the heap.
+ * </p>
+ *
+ * @param <K>
+ * 		the type of the keys
+ * @param <V>
+ * 		the type of the values
+ */
+public class OffHeapFCMap<K extends MerkleNode, V extends SelfSerializable> extends FCMap<K, OffHeapValue<V>> {
+
+	public static final long CLASS_ID = 0x2d9f41b7a0c35e86L;
+
+	private static class ClassVersion {
+		public static final int ORIGINAL = 1;
+	}
+
+	/**
+	 * Creates an instance of {@link OffHeapFCMap}
+	 */
+	public OffHeapFCMap() {
+		super();
+	}
+
+	/**
+	 * Creates an instance of {@link OffHeapFCMap}
+	 *
+	 * @param initialCapacity
+	 * 		Initial capacity of internal hash map
+	 */
+	public OffHeapFCMap(final int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * Creates an immutable OffHeapFCMap based a provided OffHeapFCMap
+	 *
+	 * @param map
+	 * 		An OffHeapFCMap
+	 */
+	protected OffHeapFCMap(final OffHeapFCMap<K, V> map) {
+		super(map);
+	}
+
+	/**
+	 * Deserialize the value of a key. Each call returns a new object, and changes to it do not change the map.
+	 *
+	 * @param key
+	 * 		the key whose value is to be returned
+	 * @return the value of the key, or null if this map contains no value for the key
+	 */
+	public V getValue(final Object key) {
+		final OffHeapValue<V> value = get(key);
+		return value == null ? null : value.getValue();
+	}
+
+	/**
+	 * Store a serialized copy of a value for a key. Later changes to the value do not change the map.
+	 *
+	 * @param key
+	 * 		key with which the value is to be associated
+	 * @param value
+	 * 		value to be associated with the key
+	 */
+	public void putValue(final K key, final V value) {
+		put(key, new OffHeapValue<>(value));
+	}
+
+	/**
+	 * Add a mutation to a batch that stores a serialized copy of a value for a key, as
+	 * {@link #putValue(MerkleNode, SelfSerializable)} does.
+	 *
+	 * @param batch
+	 * 		the batch to add the mutation to
+	 * @param key
+	 * 		key with which the value is to be associated
+	 * @param value
+	 * 		value to be associated with the key
+	 */
+	public static <K extends MerkleNode, V extends SelfSerializable> void putValue(
+			final FCMapBatch<K, OffHeapValue<V>> batch, final K key, final V value) {
+		batch.put(key, new OffHeapValue<>(value));
+	}
+
+	/**
+	 * @return the total size of the serialized values held by any copy of any OffHeapFCMap, in bytes
+	 */
+	public static long getOffHeapLiveBytes() {
+		return OffHeapValueSlabs.getLiveBytes();
+	}
+
+	/**
+	 * @return the total capacity of the direct buffers used by all OffHeapFCMaps, in bytes
+	 */
+	public static long getOffHeapAllocatedBytes() {
+		return OffHeapValueSlabs.getAllocatedBytes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public OffHeapFCMap<K, V> copy() {
+		return (OffHeapFCMap<K, V>) super.copy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected OffHeapFCMap<K, V> newCopy() {
+		return new OffHeapFCMap<>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getClassId() {
+		return CLASS_ID;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getVersion() {
+		return ClassVersion.ORIGINAL;
+	}
+}
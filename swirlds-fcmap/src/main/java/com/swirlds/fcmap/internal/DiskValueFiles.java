@@ -0,0 +1,332 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The memory-mapped files that hold the serialized values of every {@link DiskValue}, and a cache of the values that
+ * were read most recently.
+ * <p>
+ * Values are appended to the open file and never overwritten, so all fast copies of a map can read the same bytes.
+ * A saved state holds the bytes of its values itself, so the files are only scratch space for the process that wrote
+ * them: the files left in the directory by an earlier run are deleted before this process creates its first file.
+ * </p>
+ * <p>
+ * Each file counts the leaves that refer to it. Once no leaf refers to a file other than the open one, the file is
+ * dropped, so that it is unmapped when it is collected, and deleted. The open file is deleted in the same way once
+ * values go to a new file. A file that still holds one live value is kept whole; the values are not compacted.
+ * </p>
+ * <p>
+ * Writes are synchronized. Reads from the files are not: a value is only read once the leaf that holds its location
+ * has been published, and its bytes are never changed while that leaf exists. The cache has a lock of its own.
+ * </p>
+ * <p>
+ * The files of a directory must only be used by one process at a time.
+ * </p>
+ */
+public final class DiskValueFiles {
+
+	/**
+	 * The default directory of the files.
+	 */
+	public static final Path DEFAULT_DIRECTORY = Paths.get("data", "fcmap");
+
+	/**
+	 * The default size of a file. A value larger than this gets a file of its own.
+	 */
+	public static final int DEFAULT_FILE_SIZE = 256 * 1024 * 1024;
+
+	/**
+	 * The default number of values kept in the cache.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 100_000;
+
+	private static final String FILE_PREFIX = "values-";
+	private static final String FILE_SUFFIX = ".dat";
+	private static final Pattern FILE_NAME = Pattern.compile(FILE_PREFIX + "(\\d+)" + Pattern.quote(FILE_SUFFIX));
+
+	private static final int INITIAL_FILE_COUNT = 16;
+
+	private static Path directory = DEFAULT_DIRECTORY;
+	private static int fileSize = DEFAULT_FILE_SIZE;
+	private static volatile int cacheSize = DEFAULT_CACHE_SIZE;
+
+	/**
+	 * The bytes of the values read most recently, by location, in the order they were last read.
+	 */
+	private static final Map<Long, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+			return size() > cacheSize;
+		}
+	};
+
+	/**
+	 * The mapped files, indexed by the high half of a location, or null for a file that was deleted. Replaced by a
+	 * larger copy when full, so readers never see an array that is being changed.
+	 */
+	private static volatile MappedByteBuffer[] files = new MappedByteBuffer[INITIAL_FILE_COUNT];
+
+	/**
+	 * The number of leaves that refer to each file, by index. A file with no entry is not referred to.
+	 */
+	private static final Map<Integer, Integer> references = new HashMap<>();
+
+	/**
+	 * The file that values are appended to, or -1 if none has been opened by this process.
+	 */
+	private static int openFile = -1;
+
+	/**
+	 * The number of bytes written to the open file.
+	 */
+	private static int openFileUsed;
+
+	/**
+	 * The index of the next file to create, or -1 if the files of earlier runs have not been deleted yet.
+	 */
+	private static int nextFile = -1;
+
+	/**
+	 * The total size of the values stored by this process that have not been released, in bytes.
+	 */
+	private static long liveBytes;
+
+	/**
+	 * The total size of the files mapped by this process and not dropped yet, in bytes.
+	 */
+	private static long mappedBytes;
+
+	private DiskValueFiles() {
+
+	}
+
+	/**
+	 * Choose where and how values are stored. Must be called before any value is stored or read.
+	 *
+	 * @param directory
+	 * 		the directory of the files
+	 * @param fileSize
+	 * 		the size of a file
+	 * @param cacheSize
+	 * 		the number of values kept in the cache
+	 */
+	public static synchronized void configure(final Path directory, final int fileSize, final int cacheSize) {
+		if (nextFile >= 0 || !references.isEmpty()) {
+			throw new IllegalStateException("Values have already been stored in " + DiskValueFiles.directory);
+		}
+		DiskValueFiles.directory = directory;
+		DiskValueFiles.fileSize = fileSize;
+		DiskValueFiles.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Copy bytes into a file. The caller holds a reference to the file until it calls
+	 * {@link #release(long, int)}.
+	 *
+	 * @param bytes
+	 * 		the bytes to store
+	 * @return the location of the bytes, to be passed to {@link #read(long, int)}
+	 */
+	public static synchronized long write(final byte[] bytes) {
+		final int index;
+		final int offset;
+		if (bytes.length > fileSize) {
+			// An oversized value gets a file of its own, and the open file stays open
+			index = newFile(bytes.length);
+			offset = 0;
+		} else {
+			if (openFile < 0 || fileSize - openFileUsed < bytes.length) {
+				final int previousFile = openFile;
+				openFile = newFile(fileSize);
+				openFileUsed = 0;
+				if (previousFile >= 0 && !references.containsKey(previousFile)) {
+					deleteFile(previousFile);
+				}
+			}
+			index = openFile;
+			offset = openFileUsed;
+			openFileUsed += bytes.length;
+		}
+
+		final ByteBuffer buffer = files[index].duplicate();
+		buffer.position(offset);
+		buffer.put(bytes);
+		references.merge(index, 1, Integer::sum);
+		liveBytes += bytes.length;
+
+		return ((long) index << Integer.SIZE) | offset;
+	}
+
+	/**
+	 * Get the bytes of a value, from the cache or else from its file.
+	 *
+	 * @param location
+	 * 		the location returned by {@link #write(byte[])}
+	 * @param length
+	 * 		the number of bytes that were written
+	 * @return the bytes, which may be shared with other readers and must not be changed
+	 */
+	public static byte[] read(final long location, final int length) {
+		synchronized (cache) {
+			final byte[] cached = cache.get(location);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		final ByteBuffer buffer = files[(int) (location >>> Integer.SIZE)].duplicate();
+		buffer.position((int) location);
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+
+		synchronized (cache) {
+			cache.put(location, bytes);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Remove the reference of a leaf to the file of a value. The file is deleted if no leaf refers to it any more
+	 * and values are no longer appended to it.
+	 *
+	 * @param location
+	 * 		the location of the value
+	 * @param length
+	 * 		the number of bytes of the value
+	 */
+	public static synchronized void release(final long location, final int length) {
+		synchronized (cache) {
+			cache.remove(location);
+		}
+		liveBytes -= length;
+
+		final int index = (int) (location >>> Integer.SIZE);
+		final int remaining = references.merge(index, -1, Integer::sum);
+		if (remaining == 0) {
+			references.remove(index);
+			if (index != openFile) {
+				deleteFile(index);
+			}
+		}
+	}
+
+	/**
+	 * @return the total size of the values that have not been released, in bytes
+	 */
+	public static synchronized long getLiveBytes() {
+		return liveBytes;
+	}
+
+	/**
+	 * @return the total size of the files that have not been deleted yet, in bytes
+	 */
+	public static synchronized long getMappedBytes() {
+		return mappedBytes;
+	}
+
+	/**
+	 * Create and map a new file.
+	 *
+	 * @return the index of the new file
+	 */
+	private static int newFile(final int size) {
+		if (nextFile < 0) {
+			deleteFilesOfEarlierRuns();
+			nextFile = 0;
+		}
+		final int index = nextFile++;
+		setFile(index, map(getFilePath(index), size));
+		return index;
+	}
+
+	/**
+	 * Drop the mapping of a file that no leaf refers to, which unmaps it once it is collected, and delete the file.
+	 */
+	private static void deleteFile(final int index) {
+		if (index < files.length && files[index] != null) {
+			mappedBytes -= files[index].capacity();
+			files[index] = null;
+		}
+
+		try {
+			Files.deleteIfExists(getFilePath(index));
+		} catch (final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static MappedByteBuffer map(final Path path, final int size) {
+		try {
+			Files.createDirectories(path.getParent());
+			try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				final MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				mappedBytes += size;
+				return file;
+			}
+		} catch (final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static void setFile(final int index, final MappedByteBuffer file) {
+		if (index >= files.length) {
+			files = Arrays.copyOf(files, Math.max(files.length * 2, index + 1));
+		}
+		files[index] = file;
+	}
+
+	/**
+	 * Delete the files that an earlier run left in the directory. No saved state refers to them, so no leaf of this
+	 * run ever will either.
+	 */
+	private static void deleteFilesOfEarlierRuns() {
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+
+		try (final Stream<Path> paths = Files.list(directory)) {
+			final Iterator<Path> it = paths
+					.filter(path -> FILE_NAME.matcher(path.getFileName().toString()).matches())
+					.iterator();
+			while (it.hasNext()) {
+				Files.delete(it.next());
+			}
+		} catch (final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static Path getFilePath(final int index) {
+		return directory.resolve(FILE_PREFIX + index + FILE_SUFFIX);
+	}
+}
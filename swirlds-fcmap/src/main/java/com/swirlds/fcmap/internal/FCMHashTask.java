@@ -0,0 +1,121 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap.internal;
+
+import com.swirlds.common.crypto.Cryptography;
+import com.swirlds.common.merkle.MerkleInternal;
+import com.swirlds.common.merkle.MerkleNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import static com.swirlds.common.merkle.utility.MerkleConstants.MERKLE_DIGEST_TYPE;
+
+/**
+ * Hashes the nodes of a subtree that have no hash, and no others.
+ * <p>
+ * Every mutation of an FCMap replaces or invalidates the path from the root down to the leaf it touches, so a node
+ * without a hash is on a dirty path and a node with a hash heads a subtree that is entirely clean. This task never
+ * descends below a node with a hash. Each dirty subtree is visited by exactly one task, so no node is locked, and
+ * children are forked as separate tasks only while the pool has few queued tasks to steal. The result of the task is
+ * the number of nodes that were hashed.
+ */
+public class FCMHashTask extends RecursiveTask<Long> {
+
+	/**
+	 * While a worker has more queued tasks than this, it hashes children itself instead of forking them.
+	 */
+	private static final int MAX_SURPLUS_TASKS = 3;
+
+	private final Cryptography cryptography;
+
+	private final MerkleNode node;
+
+	/**
+	 * Create a task that hashes the dirty part of a subtree.
+	 *
+	 * @param cryptography
+	 * 		the {@link Cryptography} implementation to use
+	 * @param node
+	 * 		the root of the subtree
+	 */
+	public FCMHashTask(final Cryptography cryptography, final MerkleNode node) {
+		this.cryptography = cryptography;
+		this.node = node;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Long compute() {
+		return hashDirtyNodes(node);
+	}
+
+	/**
+	 * Hash the nodes of a subtree that have no hash, children before parents.
+	 *
+	 * @return the number of nodes that were hashed
+	 */
+	private long hashDirtyNodes(final MerkleNode root) {
+		if (root == null || root.getHash() != null) {
+			return 0;
+		}
+
+		if (root.isLeaf()) {
+			cryptography.digestSync(root.asLeaf(), MERKLE_DIGEST_TYPE);
+			return 1;
+		}
+
+		final MerkleInternal internal = root.asInternal();
+		long hashed = 1;
+		List<FCMHashTask> forked = null;
+		MerkleNode dirtyChild = null;
+		for (int childIndex = 0; childIndex < internal.getNumberOfChildren(); childIndex++) {
+			final MerkleNode child = internal.getChild(childIndex);
+			if (child == null || child.getHash() != null) {
+				continue;
+			}
+
+			if (dirtyChild != null) {
+				// The previous dirty child is either handed to the pool or hashed here, and this one takes its place
+				if (getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS) {
+					if (forked == null) {
+						forked = new ArrayList<>(internal.getNumberOfChildren());
+					}
+					final FCMHashTask task = new FCMHashTask(cryptography, dirtyChild);
+					task.fork();
+					forked.add(task);
+				} else {
+					hashed += hashDirtyNodes(dirtyChild);
+				}
+			}
+			dirtyChild = child;
+		}
+
+		// The last dirty child is always hashed on this thread
+		hashed += hashDirtyNodes(dirtyChild);
+
+		if (forked != null) {
+			for (final FCMHashTask task : forked) {
+				hashed += task.join();
+			}
+		}
+
+		cryptography.digestSync(internal, MERKLE_DIGEST_TYPE);
+		return hashed;
+	}
+}
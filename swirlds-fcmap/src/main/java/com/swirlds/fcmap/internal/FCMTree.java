@@ -14,13 +14,19 @@
 
 package com.swirlds.fcmap.internal;
 
+import com.swirlds.common.crypto.Cryptography;
 import com.swirlds.common.crypto.SerializableHashable;
 import com.swirlds.common.merkle.MerkleNode;
 import com.swirlds.common.merkle.exceptions.IllegalChildIndexException;
+import com.swirlds.common.merkle.route.MerkleRoute;
 import com.swirlds.common.merkle.utility.AbstractBinaryMerkleInternal;
 import com.swirlds.common.merkle.utility.MerkleLong;
+import com.swirlds.common.threading.SharedForkJoinPool;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import static com.swirlds.common.merkle.copy.MerkleCopy.adoptChildren;
@@ -51,6 +57,17 @@ public class FCMTree<K extends MerkleNode, V extends MerkleNode> extends Abstrac
 	 */
 	private FCMLeaf<K, V> rightMostLeaf;
 
+	/**
+	 * The deepest leaf, below the root, whose position fits in the bits of a long that {@link #updateLeaves} compares.
+	 */
+	private static final int MAX_POSITION_DEPTH = Long.SIZE - 1;
+
+	/**
+	 * The pool shared by all trees for hashing dirty paths. It only has threads while a tree is being hashed.
+	 */
+	private static final SharedForkJoinPool HASH_POOL = new SharedForkJoinPool("fcmap_hash_",
+			() -> Runtime.getRuntime().availableProcessors());
+
 	private static class ChildIndices {
 		/**
 		 * Number of leaves in the tree.
@@ -418,6 +435,127 @@ public class FCMTree<K extends MerkleNode, V extends MerkleNode> extends Abstrac
 		return newLeaf;
 	}
 
+	/**
+	 * Replace the paths down to several leaves, doing what {@link #update(FCMLeaf, FCMLeaf)} (for a leaf with a
+	 * replacement) or {@link #getForModify(FCMLeaf, Consumer)} (for a leaf without one) does for each of them. The
+	 * leaves are visited from left to right, so the part of a path that it shares with the path before it has already
+	 * been replaced, and the replacement starts from the last node they share instead of from the root.
+	 *
+	 * @param oldLeaves
+	 * 		the leaves to replace, each at most once
+	 * @param newLeaves
+	 * 		for each old leaf, the leaf that replaces it, or null to replace it with a copy whose value is safe to
+	 * 		modify
+	 * @param updateCache
+	 * 		a function that is used to register changes that may need to be tracked by a cache in the outer scope
+	 * @return the number of steps down the tree that were not walked again, since they were shared with the
+	 * 		previous path
+	 */
+	public long updateLeaves(
+			final List<FCMLeaf<K, V>> oldLeaves,
+			final List<FCMLeaf<K, V>> newLeaves,
+			final Consumer<FCMLeaf<K, V>> updateCache) {
+		throwIfImmutable();
+
+		if (getSize().getValue() < oldLeaves.size()) {
+			throw new IllegalStateException("The tree has fewer leaves than the leaves to replace");
+		}
+
+		// Routes start above the root of the tree, and paths start at the root. Below the root every step is 0 or 1,
+		// so the position of a leaf is its steps as bits, which sort from left to right when aligned to the left.
+		final int rootDepth = getRoot().getRoute().size();
+		final int numLeaves = oldLeaves.size();
+		final long[] positions = new long[numLeaves];
+		final int[] depths = new int[numLeaves];
+		final Integer[] order = new Integer[numLeaves];
+		for (int i = 0; i < numLeaves; i++) {
+			final MerkleRoute route = oldLeaves.get(i).getRoute();
+			depths[i] = route.size() - rootDepth;
+			if (depths[i] > MAX_POSITION_DEPTH) {
+				throw new IllegalStateException("The tree is too deep to replace leaves in a batch");
+			}
+			final Iterator<Integer> steps = route.iterator();
+			for (int step = 0; step < rootDepth; step++) {
+				steps.next();
+			}
+			long position = 0;
+			while (steps.hasNext()) {
+				position = (position << 1) | steps.next();
+			}
+			positions[i] = position << (MAX_POSITION_DEPTH - depths[i]);
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+
+		long sharedSteps = 0;
+		MerkleNode[] previousPath = null;
+		int previous = -1;
+		for (final int i : order) {
+			final FCMLeaf<K, V> oldLeaf = oldLeaves.get(i);
+			final FCMLeaf<K, V> newLeaf = newLeaves.get(i);
+			final MerkleRoute route = oldLeaf.getRoute();
+
+			final int shared = previous < 0 ? 0 : Math.min(
+					Long.numberOfLeadingZeros(positions[previous] ^ positions[i]) - (Long.SIZE - MAX_POSITION_DEPTH),
+					Math.min(depths[previous], depths[i]));
+			final MerkleNode[] path = new MerkleNode[depths[i] + 1];
+			final MerkleNode firstNodeInPath = previousPath == null ? getRoot() : previousPath[shared];
+			final MerkleNode[] replaced = replacePath(firstNodeInPath, route, newLeaf == null ? 0 : 1);
+			if (shared > 0) {
+				System.arraycopy(previousPath, 0, path, 0, shared);
+			}
+			System.arraycopy(replaced, 0, path, shared, replaced.length);
+			sharedSteps += shared;
+
+			final FCMLeaf<K, V> leafInTree;
+			if (newLeaf == null) {
+				// as in getForModify, the copy of the leaf still shares its value, which must be copied by hand
+				leafInTree = path[path.length - 1].cast();
+				final V originalValue = leafInTree.getValue();
+				if (originalValue != null && originalValue.getReferenceCount() > 1) {
+					leafInTree.setChild(1, originalValue.copy(), originalValue.getRoute());
+				}
+			} else {
+				final FCMInternalNode<K, V> parent = path[path.length - 2].cast();
+				parent.setChild(findChildPositionInParent(parent, oldLeaf), newLeaf, route);
+				leafInTree = newLeaf;
+			}
+			updateCache.accept(leafInTree);
+
+			if (rightMostLeaf == oldLeaf) {
+				rightMostLeaf = leafInTree;
+			}
+
+			previousPath = path;
+			previous = i;
+		}
+
+		return sharedSteps;
+	}
+
+	/**
+	 * Hash the nodes of a subtree that were invalidated since it was last hashed. Subtrees that still have a hash are
+	 * not visited, so the cost is proportional to the number of leaves changed since the last hash, not to the size
+	 * of the tree. The dirty paths are split by subtree across a pool shared by all trees.
+	 *
+	 * @param cryptography
+	 * 		the {@link Cryptography} implementation to use
+	 * @param root
+	 * 		the root of the subtree to hash, typically this tree or the map that holds it
+	 * @return the number of nodes that were hashed
+	 */
+	public static long hashDirtyPaths(final Cryptography cryptography, final MerkleNode root) {
+		if (root == null || root.getHash() != null) {
+			return 0;
+		}
+		final ForkJoinPool pool = HASH_POOL.acquire();
+		try {
+			return pool.invoke(new FCMHashTask(cryptography, root));
+		} finally {
+			HASH_POOL.release();
+		}
+	}
+
 	/**
 	 * This method takes O(n) where n is the number of nodes (leaves and internal nodes).
 	 * <p>This method should only be used for testing to guarantee correctness of the
@@ -0,0 +1,250 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap.internal;
+
+import com.swirlds.common.io.SelfSerializable;
+import com.swirlds.common.io.SerializableDataInputStream;
+import com.swirlds.common.io.SerializableDataOutputStream;
+import com.swirlds.common.merkle.utility.AbstractMerkleLeaf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+
+/**
+ * A merkle leaf whose value is kept serialized in {@link OffHeapValueSlabs} instead of on the heap. The leaf itself
+ * only holds the location of the bytes. The value is deserialized each time it is read.
+ * <p>
+ * The bytes never change, so a fast copy of a map can share this leaf with the map it was copied from. The bytes
+ * are freed when the leaf is released, which happens once no copy of the map holds it. A leaf that is never put in a
+ * map, or is dropped without being released, frees its bytes when it is garbage collected.
+ * </p>
+ *
+ * @param <V>
+ * 		the type of the value
+ */
+public class OffHeapValue<V extends SelfSerializable> extends AbstractMerkleLeaf {
+
+	public static final long CLASS_ID = 0x6c2f8a93d1e4b057L;
+
+	/**
+	 * The largest serialized value that can be stored or deserialized, in bytes.
+	 */
+	public static final int MAX_SERIALIZED_LENGTH = 4 * OffHeapValueSlabs.SLAB_SIZE;
+
+	/**
+	 * Frees the bytes of leaves that become unreachable without being released.
+	 */
+	private static final Cleaner CLEANER = Cleaner.create(runnable -> new Thread(runnable, "offheap_value_cleaner"));
+
+	private static class ClassVersion {
+		public static final int ORIGINAL = 1;
+	}
+
+	/**
+	 * The location of the bytes in {@link OffHeapValueSlabs}.
+	 */
+	private long location;
+
+	/**
+	 * The number of bytes, or -1 if no bytes have been stored yet.
+	 */
+	private int length = -1;
+
+	/**
+	 * Frees the bytes, at most once, either when this leaf is released or when it is garbage collected.
+	 */
+	private Cleaner.Cleanable freeBytes;
+
+	/**
+	 * Frees bytes in {@link OffHeapValueSlabs}. It must not refer to the leaf, or the leaf would never become
+	 * unreachable.
+	 */
+	private static final class FreeBytes implements Runnable {
+		private final long location;
+		private final int length;
+
+		FreeBytes(final long location, final int length) {
+			this.location = location;
+			this.length = length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			OffHeapValueSlabs.free(location, length);
+		}
+	}
+
+	public OffHeapValue() {
+		super();
+	}
+
+	/**
+	 * Create a leaf that holds a serialized copy of a value. Later changes to the value do not change the leaf.
+	 *
+	 * @param value
+	 * 		the value to store, with its class ID
+	 * @throws IllegalArgumentException
+	 * 		if the serialized value is longer than {@link #MAX_SERIALIZED_LENGTH}
+	 */
+	public OffHeapValue(final V value) {
+		super();
+		store(serialize(value));
+	}
+
+	private OffHeapValue(final OffHeapValue<V> sourceValue) {
+		super(sourceValue);
+		store(sourceValue.getBytes());
+		setImmutable(false);
+		sourceValue.setImmutable(true);
+	}
+
+	/**
+	 * Deserialize the value. Each call returns a new object, and changes to it do not change this leaf.
+	 *
+	 * @return the value
+	 */
+	public V getValue() {
+		throwIfReleased();
+		try {
+			return new SerializableDataInputStream(new ByteArrayInputStream(getBytes())).readSerializable();
+		} catch (final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * @return the size of the serialized value, in bytes
+	 */
+	public int getSerializedLength() {
+		return length;
+	}
+
+	private byte[] getBytes() {
+		try {
+			return OffHeapValueSlabs.read(location, length);
+		} finally {
+			// The cleaner must not free the bytes while they are being read
+			Reference.reachabilityFence(this);
+		}
+	}
+
+	private void store(final byte[] bytes) {
+		if (bytes.length > MAX_SERIALIZED_LENGTH) {
+			throw new IllegalArgumentException(String.format(
+					"The serialized value is %d bytes, more than the maximum of %d", bytes.length,
+					MAX_SERIALIZED_LENGTH));
+		}
+		location = OffHeapValueSlabs.write(bytes);
+		length = bytes.length;
+		freeBytes = CLEANER.register(this, new FreeBytes(location, length));
+	}
+
+	private static byte[] serialize(final SelfSerializable value) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final SerializableDataOutputStream out = new SerializableDataOutputStream(bytes)) {
+			out.writeSerializable(value, true);
+		} catch (final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void onRelease() {
+		if (freeBytes != null) {
+			freeBytes.clean();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public OffHeapValue<V> copy() {
+		throwIfImmutable();
+		throwIfReleased();
+		return new OffHeapValue<>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void serialize(final SerializableDataOutputStream out) throws IOException {
+		out.writeByteArray(getBytes());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void deserialize(final SerializableDataInputStream in, final int version) throws IOException {
+		if (freeBytes != null) {
+			freeBytes.clean();
+		}
+		store(in.readByteArray(MAX_SERIALIZED_LENGTH));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (!(o instanceof OffHeapValue)) {
+			return false;
+		}
+
+		return Arrays.equals(getBytes(), ((OffHeapValue<?>) o).getBytes());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(getBytes());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getClassId() {
+		return CLASS_ID;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getVersion() {
+		return ClassVersion.ORIGINAL;
+	}
+}
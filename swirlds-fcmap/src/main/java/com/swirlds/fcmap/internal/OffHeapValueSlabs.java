@@ -0,0 +1,361 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap.internal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The direct buffers that hold the serialized values of every {@link OffHeapValue}.
+ * <p>
+ * A value is stored in a block whose size is the next power of two, at least {@link #MIN_BLOCK_SIZE}. When a value is
+ * released by every copy that held it, its block is kept on a free list of its size class and reused by the next value
+ * of that class, in whichever slab it is. A new block is only appended to the open slab when no block of its class is
+ * free, so a map whose values are replaced over and over reuses the same space instead of growing. At most half of a
+ * block is unused. A slab other than the open one is freed once none of its blocks are in use, and only a few freed
+ * buffers are kept for new slabs; the rest are left to the garbage collector.
+ * </p>
+ * <p>
+ * Writes and frees are synchronized. Reads are not: a value is only read once the leaf that holds its location has
+ * been published, and its block is not reused while that leaf exists.
+ * </p>
+ */
+public final class OffHeapValueSlabs {
+
+	/**
+	 * The size of a slab. A value larger than this gets a slab of its own, which is not kept for reuse.
+	 */
+	public static final int SLAB_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * The size of the smallest block, which holds any value of up to this many bytes.
+	 */
+	public static final int MIN_BLOCK_SIZE = 32;
+
+	private static final int MIN_BLOCK_SHIFT = Integer.numberOfTrailingZeros(MIN_BLOCK_SIZE);
+
+	/**
+	 * The number of block sizes, from {@link #MIN_BLOCK_SIZE} to {@link #SLAB_SIZE}.
+	 */
+	private static final int SIZE_CLASS_COUNT = Integer.numberOfTrailingZeros(SLAB_SIZE) - MIN_BLOCK_SHIFT + 1;
+
+	/**
+	 * The number of buffers of freed slabs that are kept for new slabs.
+	 */
+	private static final int MAX_SPARE_BUFFERS = 2;
+
+	private static final int INITIAL_SLAB_COUNT = 16;
+
+	/**
+	 * The slabs, indexed by the high half of a location. Replaced by a larger copy when full, so readers never see
+	 * an array that is being changed.
+	 */
+	private static volatile Slab[] slabs = new Slab[INITIAL_SLAB_COUNT];
+
+	/**
+	 * The number of indices in {@link #slabs} that have been used.
+	 */
+	private static int slabCount;
+
+	/**
+	 * Indices in {@link #slabs} whose slab was freed.
+	 */
+	private static final Deque<Integer> freeIndices = new ArrayDeque<>();
+
+	/**
+	 * Buffers of freed slabs, kept for new slabs. Never more than {@link #MAX_SPARE_BUFFERS}.
+	 */
+	private static final Deque<ByteBuffer> spareBuffers = new ArrayDeque<>();
+
+	/**
+	 * For each size class, the indices of slabs that may have a free block of that class. An index whose slab has
+	 * no such block any more is dropped when it is next looked at.
+	 */
+	private static final Deque<Integer>[] slabsWithFreeBlocks = newSlabsWithFreeBlocks();
+
+	/**
+	 * The slab that new blocks are appended to.
+	 */
+	private static int openSlab = -1;
+
+	/**
+	 * The total capacity of the buffers in use or kept for reuse, in bytes.
+	 */
+	private static long allocatedBytes;
+
+	/**
+	 * The total size of the values that have not been released, in bytes.
+	 */
+	private static long liveBytes;
+
+	private static class Slab {
+		final ByteBuffer buffer;
+		int used;
+		long liveBytes;
+
+		/**
+		 * The offsets of the free blocks of each size class, as a stack of freeCounts[sizeClass] entries.
+		 */
+		final int[][] freeOffsets = new int[SIZE_CLASS_COUNT][];
+		final int[] freeCounts = new int[SIZE_CLASS_COUNT];
+
+		Slab(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		boolean isOversized() {
+			return buffer.capacity() != SLAB_SIZE;
+		}
+
+		void pushFreeBlock(final int sizeClass, final int offset) {
+			int[] offsets = freeOffsets[sizeClass];
+			if (offsets == null) {
+				offsets = freeOffsets[sizeClass] = new int[4];
+			} else if (freeCounts[sizeClass] == offsets.length) {
+				offsets = freeOffsets[sizeClass] = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[freeCounts[sizeClass]++] = offset;
+		}
+
+		int popFreeBlock(final int sizeClass) {
+			return freeOffsets[sizeClass][--freeCounts[sizeClass]];
+		}
+
+		/**
+		 * Forget every block, once none of them is in use.
+		 */
+		void reset() {
+			used = 0;
+			Arrays.fill(freeCounts, 0);
+		}
+	}
+
+	private OffHeapValueSlabs() {
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Deque<Integer>[] newSlabsWithFreeBlocks() {
+		final Deque<Integer>[] deques = new Deque[SIZE_CLASS_COUNT];
+		for (int sizeClass = 0; sizeClass < SIZE_CLASS_COUNT; sizeClass++) {
+			deques[sizeClass] = new ArrayDeque<>();
+		}
+		return deques;
+	}
+
+	/**
+	 * Copy bytes into a slab.
+	 *
+	 * @param bytes
+	 * 		the bytes to store
+	 * @return the location of the bytes, to be passed to {@link #read(long, int)} and {@link #free(long, int)}
+	 */
+	public static synchronized long write(final byte[] bytes) {
+		final long location;
+		if (bytes.length > SLAB_SIZE) {
+			// An oversized value gets a slab of its own, and the open slab stays open
+			final int index = newSlab(bytes.length);
+			slabs[index].used = bytes.length;
+			slabs[index].liveBytes = bytes.length;
+			location = toLocation(index, 0);
+		} else {
+			location = allocateBlock(sizeClass(bytes.length));
+		}
+
+		final ByteBuffer buffer = slabs[slabIndex(location)].buffer.duplicate();
+		buffer.position(offset(location));
+		buffer.put(bytes);
+		liveBytes += bytes.length;
+
+		return location;
+	}
+
+	/**
+	 * Copy bytes out of a slab.
+	 *
+	 * @param location
+	 * 		the location returned by {@link #write(byte[])}
+	 * @param length
+	 * 		the number of bytes that were written
+	 * @return the bytes
+	 */
+	public static byte[] read(final long location, final int length) {
+		final ByteBuffer buffer = slabs[slabIndex(location)].buffer.duplicate();
+		buffer.position(offset(location));
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Release bytes that are no longer needed by any copy. Their block may be reused by the next write.
+	 *
+	 * @param location
+	 * 		the location returned by {@link #write(byte[])}
+	 * @param length
+	 * 		the number of bytes that were written
+	 */
+	public static synchronized void free(final long location, final int length) {
+		final int index = slabIndex(location);
+		final Slab slab = slabs[index];
+		liveBytes -= length;
+
+		if (slab.isOversized()) {
+			freeSlab(index);
+			return;
+		}
+
+		final int sizeClass = sizeClass(length);
+		slab.liveBytes -= blockSize(sizeClass);
+		if (slab.liveBytes == 0) {
+			if (index == openSlab) {
+				slab.reset();
+			} else {
+				freeSlab(index);
+			}
+			return;
+		}
+
+		slab.pushFreeBlock(sizeClass, offset(location));
+		if (slab.freeCounts[sizeClass] == 1) {
+			slabsWithFreeBlocks[sizeClass].push(index);
+		}
+	}
+
+	/**
+	 * @return the total capacity of the slabs in use or kept for reuse, in bytes
+	 */
+	public static synchronized long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return the total size of the values that have not been released, in bytes
+	 */
+	public static synchronized long getLiveBytes() {
+		return liveBytes;
+	}
+
+	/**
+	 * Take a free block of a size class, or append one to the open slab if none is free.
+	 *
+	 * @return the location of the block
+	 */
+	private static long allocateBlock(final int sizeClass) {
+		final int blockSize = blockSize(sizeClass);
+		final Deque<Integer> candidates = slabsWithFreeBlocks[sizeClass];
+		while (!candidates.isEmpty()) {
+			final int index = candidates.peek();
+			final Slab slab = slabs[index];
+			if (slab == null || slab.freeCounts[sizeClass] == 0) {
+				candidates.pop();
+				continue;
+			}
+
+			final int offset = slab.popFreeBlock(sizeClass);
+			if (slab.freeCounts[sizeClass] == 0) {
+				candidates.pop();
+			}
+			slab.liveBytes += blockSize;
+			return toLocation(index, offset);
+		}
+
+		if (openSlab < 0 || SLAB_SIZE - slabs[openSlab].used < blockSize) {
+			final int previousSlab = openSlab;
+			openSlab = newSlab(SLAB_SIZE);
+			if (previousSlab >= 0 && slabs[previousSlab].liveBytes == 0) {
+				freeSlab(previousSlab);
+			}
+		}
+
+		final Slab slab = slabs[openSlab];
+		final int offset = slab.used;
+		slab.used += blockSize;
+		slab.liveBytes += blockSize;
+		return toLocation(openSlab, offset);
+	}
+
+	/**
+	 * Free a slab none of whose blocks are in use. Its buffer is kept for a new slab if there are not enough spare
+	 * buffers already, and otherwise left to the garbage collector.
+	 */
+	private static void freeSlab(final int index) {
+		final Slab slab = slabs[index];
+		slabs[index] = null;
+		freeIndices.push(index);
+		if (!slab.isOversized() && spareBuffers.size() < MAX_SPARE_BUFFERS) {
+			spareBuffers.push(slab.buffer);
+		} else {
+			allocatedBytes -= slab.buffer.capacity();
+		}
+	}
+
+	/**
+	 * Start a new slab.
+	 *
+	 * @return the index of the new slab
+	 */
+	private static int newSlab(final int capacity) {
+		final ByteBuffer buffer;
+		if (capacity == SLAB_SIZE && !spareBuffers.isEmpty()) {
+			// A reused buffer is overwritten from the start, so its old bytes are never read
+			buffer = spareBuffers.pop();
+		} else {
+			buffer = ByteBuffer.allocateDirect(capacity);
+			allocatedBytes += capacity;
+		}
+
+		final int index;
+		if (freeIndices.isEmpty()) {
+			if (slabCount == slabs.length) {
+				slabs = Arrays.copyOf(slabs, slabs.length * 2);
+			}
+			index = slabCount++;
+		} else {
+			index = freeIndices.pop();
+		}
+
+		slabs[index] = new Slab(buffer);
+		return index;
+	}
+
+	/**
+	 * @return the size class of a value of a given length, which is at most {@link #SLAB_SIZE}
+	 */
+	private static int sizeClass(final int length) {
+		if (length <= MIN_BLOCK_SIZE) {
+			return 0;
+		}
+		return Integer.SIZE - Integer.numberOfLeadingZeros(length - 1) - MIN_BLOCK_SHIFT;
+	}
+
+	private static int blockSize(final int sizeClass) {
+		return 1 << (sizeClass + MIN_BLOCK_SHIFT);
+	}
+
+	private static long toLocation(final int index, final int offset) {
+		return ((long) index << Integer.SIZE) | offset;
+	}
+
+	private static int slabIndex(final long location) {
+		return (int) (location >>> Integer.SIZE);
+	}
+
+	private static int offset(final long location) {
+		return (int) location;
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.constructable.ClassConstructorPair;
+import com.swirlds.common.constructable.ConstructableRegistry;
+import com.swirlds.common.constructable.ConstructableRegistryException;
+import com.swirlds.common.crypto.CryptoFactory;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.merkle.io.MerkleDataInputStream;
+import com.swirlds.common.merkle.io.MerkleDataOutputStream;
+import com.swirlds.common.merkle.io.MerkleTreeSerializationOptions;
+import com.swirlds.common.merkle.utility.MerkleLong;
+import com.swirlds.fcmap.internal.DiskValue;
+import com.swirlds.fcmap.internal.FCMInternalNode;
+import com.swirlds.fcmap.internal.FCMLeaf;
+import com.swirlds.fcmap.internal.FCMTree;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskFCMapTest {
+
+	/** small enough that the values of a test are spread over several files */
+	private static final int FILE_SIZE = 512;
+
+	private static final int NUM_ENTRIES = 200;
+
+	private static Path directory;
+
+	/** a file that an earlier run left in the directory */
+	private static Path earlierRunFile;
+
+	@BeforeAll
+	static void setUp() throws ConstructableRegistryException, IOException {
+		// the maps construct their nodes by class ID. The registry only scans jars, so they are registered one by one.
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(MerkleLong.class, MerkleLong::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(DiskFCMap.class, DiskFCMap::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(DiskValue.class, DiskValue::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(FCMLeaf.class, FCMLeaf::new));
+		ConstructableRegistry.registerConstructable(
+				new ClassConstructorPair(FCMInternalNode.class, FCMInternalNode::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(FCMTree.class, FCMTree::new));
+
+		directory = Files.createTempDirectory("disk-fcmap");
+		earlierRunFile = Files.write(directory.resolve("values-7.dat"), new byte[FILE_SIZE]);
+		DiskFCMap.configure(directory, FILE_SIZE, 16);
+	}
+
+	private static DiskFCMap<MerkleLong, MerkleLong> buildMap() {
+		final DiskFCMap<MerkleLong, MerkleLong> map = new DiskFCMap<>();
+		for (long key = 0; key < NUM_ENTRIES; key++) {
+			map.putValue(new MerkleLong(key), new MerkleLong(key * 10));
+		}
+		return map;
+	}
+
+	private static long countFiles() throws IOException {
+		try (final Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	/**
+	 * Saving a state in abbreviated form used to write only where each value was. Once the map was released, its
+	 * files were deleted and the saved state could no longer be loaded.
+	 */
+	@Test
+	@DisplayName("A saved state loads after the files of its values are deleted")
+	void savedStateOutlivesFiles() throws IOException {
+		// values of other tests may still be waiting for the cleaner
+		final long liveBytesBefore = DiskFCMap.getDiskLiveBytes();
+		final long filesBefore = countFiles();
+
+		final DiskFCMap<MerkleLong, MerkleLong> map = buildMap();
+		final Hash hash = CryptoFactory.getInstance().digestTreeSync(map);
+		assertTrue(countFiles() > filesBefore + 2, "the values should be spread over several files");
+
+		final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+		try (final MerkleDataOutputStream out = new MerkleDataOutputStream(saved,
+				MerkleTreeSerializationOptions.builder().setAbbreviated(true))) {
+			out.writeMerkleTree(map);
+		}
+
+		map.release();
+		assertEquals(liveBytesBefore, DiskFCMap.getDiskLiveBytes(), "no value should be held once the map is released");
+		assertTrue(countFiles() <= filesBefore + 1, "only the file values are appended to should be left");
+
+		final DiskFCMap<MerkleLong, MerkleLong> loaded;
+		try (final MerkleDataInputStream in = new MerkleDataInputStream(
+				new ByteArrayInputStream(saved.toByteArray()), true)) {
+			loaded = in.readMerkleTree(Integer.MAX_VALUE);
+		}
+
+		assertEquals(NUM_ENTRIES, loaded.size(), "every entry should be loaded");
+		for (long key = 0; key < NUM_ENTRIES; key++) {
+			assertEquals(key * 10, loaded.getValue(new MerkleLong(key)).getValue(), "the value should be loaded");
+		}
+		assertEquals(hash, CryptoFactory.getInstance().digestTreeSync(loaded), "the loaded map should hash the same");
+
+		loaded.release();
+	}
+
+	@Test
+	@DisplayName("The files of an earlier run are deleted")
+	void earlierRunFilesAreDeleted() {
+		final DiskFCMap<MerkleLong, MerkleLong> map = new DiskFCMap<>();
+		map.putValue(new MerkleLong(1), new MerkleLong(2));
+
+		assertFalse(Files.exists(earlierRunFile), "no saved state refers to the files of an earlier run");
+
+		map.release();
+	}
+
+	@Test
+	@DisplayName("Values read through the cache are still new objects")
+	void cachedValuesAreNotShared() {
+		final DiskFCMap<MerkleLong, MerkleLong> map = buildMap();
+		final MerkleLong key = new MerkleLong(3);
+
+		final MerkleLong first = map.getValue(key);
+		final MerkleLong second = map.getValue(key);
+		assertNotSame(first, second, "each read should deserialize a new object");
+		first.increment();
+		assertEquals(30, map.getValue(key).getValue(), "changing a value that was read should not change the map");
+
+		final DiskFCMap<MerkleLong, MerkleLong> copy = map.copy();
+		copy.putValue(key, new MerkleLong(-3));
+		assertEquals(30, map.getValue(key).getValue(), "the original should keep its value");
+		assertEquals(-3, copy.getValue(key).getValue(), "the copy should read its own value");
+
+		map.release();
+		copy.release();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcmap;
+
+import com.swirlds.common.constructable.ClassConstructorPair;
+import com.swirlds.common.constructable.ConstructableRegistry;
+import com.swirlds.common.constructable.ConstructableRegistryException;
+import com.swirlds.common.crypto.CryptoFactory;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.merkle.MerkleNode;
+import com.swirlds.common.merkle.iterators.MerkleDepthFirstIterator;
+import com.swirlds.common.merkle.utility.MerkleLong;
+import com.swirlds.fcmap.internal.FCMInternalNode;
+import com.swirlds.fcmap.internal.FCMLeaf;
+import com.swirlds.fcmap.internal.FCMTree;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FCMapHashDirtyPathsTest {
+
+	/** the number of entries in each map */
+	private static final int NUM_ENTRIES = 1_000;
+
+	@BeforeAll
+	static void registerConstructables() throws ConstructableRegistryException {
+		// the map constructs its nodes by class ID. The registry only scans jars, so they are registered one by one.
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(MerkleLong.class, MerkleLong::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(FCMLeaf.class, FCMLeaf::new));
+		ConstructableRegistry.registerConstructable(
+				new ClassConstructorPair(FCMInternalNode.class, FCMInternalNode::new));
+		ConstructableRegistry.registerConstructable(new ClassConstructorPair(FCMTree.class, FCMTree::new));
+	}
+
+	private static FCMap<MerkleLong, MerkleLong> buildMap() {
+		final FCMap<MerkleLong, MerkleLong> map = new FCMap<>();
+		for (long key = 0; key < NUM_ENTRIES; key++) {
+			map.put(new MerkleLong(key), new MerkleLong(key * 10));
+		}
+		return map;
+	}
+
+	/**
+	 * Forget the hash of every node of a map and hash it again with the general merkle hash builder.
+	 *
+	 * @return the number of nodes in the map
+	 */
+	private static int fullRehash(final FCMap<MerkleLong, MerkleLong> map) {
+		int numNodes = 0;
+		final Iterator<MerkleNode> it = new MerkleDepthFirstIterator<>(map);
+		while (it.hasNext()) {
+			final MerkleNode node = it.next();
+			if (node != null) {
+				node.invalidateHash();
+				numNodes++;
+			}
+		}
+		CryptoFactory.getInstance().digestTreeSync(map);
+		return numNodes;
+	}
+
+	@Test
+	@DisplayName("Hashing a new map matches a full rehash")
+	void newMapMatchesFullRehash() {
+		final FCMap<MerkleLong, MerkleLong> map = buildMap();
+
+		final Hash dirtyPathsHash = map.hashDirtyPaths();
+
+		fullRehash(map);
+		assertEquals(map.getRootHash(), dirtyPathsHash, "hashing the dirty paths should give the full rehash");
+
+		map.release();
+	}
+
+	/**
+	 * After a copy, only the paths of the entries the new copy changed lack a hash. Hashing them must give the same
+	 * root hash as rehashing every node, and must not visit the rest of the tree.
+	 */
+	@Test
+	@DisplayName("Hashing the paths a copy changed matches a full rehash")
+	void changedCopyMatchesFullRehash() {
+		final FCMap<MerkleLong, MerkleLong> original = buildMap();
+		final Hash originalHash = original.hashDirtyPaths();
+
+		final FCMap<MerkleLong, MerkleLong> copy = original.copy();
+		copy.put(new MerkleLong(NUM_ENTRIES), new MerkleLong(-1));
+		copy.replace(new MerkleLong(7), new MerkleLong(-7));
+		copy.remove(new MerkleLong(500));
+		copy.getForModify(new MerkleLong(999)).increment();
+
+		final long hashedNodes = FCMTree.hashDirtyPaths(CryptoFactory.getInstance(), copy);
+		final Hash dirtyPathsHash = copy.getRootHash();
+		assertNotEquals(originalHash, dirtyPathsHash, "the changes should change the root hash");
+		assertEquals(originalHash, original.getRootHash(), "the original should keep its hash");
+
+		final int numNodes = fullRehash(copy);
+		assertEquals(copy.getRootHash(), dirtyPathsHash, "hashing the dirty paths should give the full rehash");
+		assertTrue(hashedNodes < numNodes / 10,
+				"only the changed paths should be hashed, but " + hashedNodes + " of " + numNodes + " nodes were");
+
+		original.release();
+		copy.release();
+	}
+
+	@Test
+	@DisplayName("Hashing a map without changes hashes nothing")
+	void cleanMapHashesNothing() {
+		final FCMap<MerkleLong, MerkleLong> map = buildMap();
+		final Hash hash = map.hashDirtyPaths();
+
+		assertEquals(0, FCMTree.hashDirtyPaths(CryptoFactory.getInstance(), map), "no node should need a hash");
+		assertEquals(hash, map.hashDirtyPaths(), "the root hash should not change");
+
+		map.release();
+	}
+}
@@ -0,0 +1,695 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcqueue;
+
+import com.swirlds.common.crypto.CryptoFactory;
+import com.swirlds.common.crypto.Cryptography;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.crypto.ImmutableHash;
+import com.swirlds.common.io.SerializableDataInputStream;
+import com.swirlds.common.io.SerializableDataOutputStream;
+import com.swirlds.common.merkle.utility.AbstractMerkleLeaf;
+import com.swirlds.fcqueue.internal.FCQHashAlgorithm;
+import com.swirlds.fcqueue.internal.FCQueueChunk;
+import org.apache.commons.lang3.time.StopWatch;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import static com.swirlds.fcqueue.FCQueue.HASH_ALGORITHM;
+import static com.swirlds.fcqueue.FCQueue.MAX_ELEMENTS;
+import static com.swirlds.fcqueue.internal.FCQueueChunk.CHUNK_MASK;
+import static com.swirlds.fcqueue.internal.FCQueueChunk.CHUNK_SHIFT;
+
+/**
+ * An alternative to {@link FCQueue} that stores its elements in fixed-size arrays ({@link FCQueueChunk}s) instead of
+ * a linked list of nodes. It has the same behavior, the same hash and the same serialized form as an FCQueue with the
+ * same elements, but it costs about one reference per element rather than one node per element, it iterates over
+ * arrays rather than chasing pointers, and reading an immutable copy takes no lock.
+ *
+ * The queues of a queue group share their chunks. Chunks are append-only: the mutable queue fills the slots after its
+ * tail, and removing from the head only moves the head of the queue that removes. So a copy never changes a chunk that
+ * another copy reads, and neither copying nor releasing a queue touches its elements. A chunk is reclaimed by the JVM
+ * once no queue in the group contains any of its elements.
+ *
+ * Each queue refers to its chunks through an array of chunks (its spine), which it shares with its copies in the same
+ * way. When the mutable queue runs out of room in its spine, it moves the chunks it still uses into a new spine and
+ * leaves the old one to the older copies.
+ *
+ * Writes, and reads of the mutable queue, are synchronized with the instance, as in FCQueue. A queue must not be read
+ * while it is being released.
+ */
+public class ChunkedFCQueue<E extends FCQueueElement> extends AbstractMerkleLeaf implements Queue<E> {
+
+	private static class ClassVersion {
+		public static final int ORIGINAL = 1;
+	}
+
+	/** Object identifier of this class (random int). Do NOT change when the class changes its code/name/version. */
+	public static final long CLASS_ID = 0x3f9e2b6ad4c8157bL;
+
+	/** the smallest number of chunks a spine has room for */
+	private static final int MIN_SPINE_SIZE = 16;
+
+	/** the chunks of this queue, from the one holding the head, or null if nothing has been added since it was empty */
+	private FCQueueChunk<E>[] chunks;
+
+	/** the position of the head within the chunks of the spine */
+	private int first;
+
+	/** the number of elements in this queue */
+	private int size;
+
+	/** number of elements hashed, starting at the head */
+	private int runningHashSize;
+
+	/** the rolling hash of the first {@link #runningHashSize} elements */
+	private final byte[] hash = FCQueue.getNullHash();
+
+	/** the number of times this queue has changed so far, such as by add/remove/clear */
+	private int numChanges;
+
+	/**
+	 * Set once this queue has been copied. From then on its contents never change, so it may be read without locks.
+	 */
+	private volatile boolean frozen;
+
+	/**
+	 * Instantiates a new empty queue
+	 */
+	public ChunkedFCQueue() {
+		setImmutable(false);
+	}
+
+	private ChunkedFCQueue(final ChunkedFCQueue<E> that) {
+		super(that);
+		this.chunks = that.chunks;
+		this.first = that.first;
+		this.size = that.size;
+		this.runningHashSize = that.runningHashSize;
+		System.arraycopy(that.hash, 0, this.hash, 0, this.hash.length);
+		setImmutable(false);
+	}
+
+	/** @return the number of times this queue has changed since it was instantiated by {@code new} or {@code copy} */
+	public int getNumChanges() {
+		return numChanges;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Hash getHash() {
+		final StopWatch watch = new StopWatch();
+		watch.start();
+
+		final FCQueueChunk<E>[] currentChunks;
+		final int currentFirst;
+		final int currentSize;
+		final int currentRunningHashSize;
+		final int currentNumChanges;
+		final byte[] localHash;
+
+		synchronized (this) {
+			if (size == 0) {
+				return new ImmutableHash(FCQueue.getNullHash());
+			}
+
+			if (size == runningHashSize) {
+				return new ImmutableHash(hash);
+			}
+
+			currentChunks = chunks;
+			currentFirst = first;
+			currentSize = size;
+			currentRunningHashSize = runningHashSize;
+			currentNumChanges = numChanges;
+			localHash = Arrays.copyOf(hash, hash.length);
+		}
+
+		// the elements after the hashed ones are folded in from the tail, as FCQueue does
+		final int limit = currentSize - currentRunningHashSize;
+		FCQHashAlgorithm.increaseRollingBase(limit, localHash);
+		for (int index = 0; index < limit; index++) {
+			final int position = currentFirst + currentSize - 1 - index;
+			final FCQueueChunk<E> chunk = currentChunks[position >>> CHUNK_SHIFT];
+			HASH_ALGORITHM.computeHash(localHash, getElementHashOfHash(chunk, position & CHUNK_MASK), index);
+		}
+
+		synchronized (this) {
+			// if the queue changed meanwhile, the hash of the old contents is still the right answer for this call
+			if (numChanges == currentNumChanges) {
+				runningHashSize = currentSize;
+				System.arraycopy(localHash, 0, hash, 0, hash.length);
+			}
+		}
+
+		watch.stop();
+		synchronized (this) {
+			// StatsBuffer is not thread-safe, see FCQueue#getHash
+			FCQueueStatistics.fcqHashExecutionMicros.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
+		}
+
+		return new ImmutableHash(localHash);
+	}
+
+	/**
+	 * Not supported, since a ChunkedFCQueue computes its own hash from its elements.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		always
+	 */
+	@Override
+	public void setHash(final Hash hash) {
+		throw new UnsupportedOperationException("ChunkedFCQueue computes its own hash");
+	}
+
+	/**
+	 * This method is intentionally a no-op.
+	 *
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invalidateHash() {
+		// This method is intentionally a no-op.
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+	//the following implement Queue<E>
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Add an element at the tail of the queue.
+	 *
+	 * @param o
+	 * 		the element to add
+	 * @return true
+	 * @throws NullPointerException
+	 * 		if the element is null
+	 * @throws IllegalStateException
+	 * 		if the queue is immutable, or already holds {@link FCQueue#MAX_ELEMENTS} elements
+	 */
+	@Override
+	public synchronized boolean add(final E o) {
+		StopWatch watch = null;
+
+		if (FCQueueStatistics.isRegistered()) {
+			watch = new StopWatch();
+			watch.start();
+		}
+
+		if (isImmutable()) {
+			throw new IllegalStateException("tried to modify an immutable ChunkedFCQueue");
+		}
+
+		if (o == null) {
+			throw new NullPointerException("tried to add a null element into a ChunkedFCQueue");
+		}
+
+		if (size >= MAX_ELEMENTS) {
+			throw new IllegalStateException(
+					String.format(
+							"tried to add an element to a ChunkedFCQueue whose size has reached MAX_ELEMENTS: %d",
+							MAX_ELEMENTS));
+		}
+
+		int position = first + size;
+		if ((position & CHUNK_MASK) == 0) {
+			// the tail chunk is full (or there is none), so the element starts a new chunk
+			if (chunks == null || (position >>> CHUNK_SHIFT) == chunks.length) {
+				moveToNewSpine();
+				position = first + size;
+			}
+			chunks[position >>> CHUNK_SHIFT] = new FCQueueChunk<>();
+		}
+		chunks[position >>> CHUNK_SHIFT].setElement(position & CHUNK_MASK, o);
+
+		size++;
+		numChanges++;
+
+		if (watch != null) {
+			watch.stop();
+			FCQueueStatistics.fcqAddExecutionMicros.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Retrieves and removes the head of this queue.
+	 *
+	 * @return the head of this queue
+	 * @throws NoSuchElementException
+	 * 		if this queue is empty
+	 */
+	@Override
+	public synchronized E remove() {
+		StopWatch watch = null;
+
+		if (FCQueueStatistics.isRegistered()) {
+			watch = new StopWatch();
+			watch.start();
+		}
+
+		if (isImmutable()) {
+			throw new IllegalArgumentException("tried to remove from an immutable ChunkedFCQueue");
+		}
+
+		if (size == 0) {
+			throw new NoSuchElementException("tried to remove from an empty ChunkedFCQueue");
+		}
+
+		final FCQueueChunk<E> chunk = chunks[first >>> CHUNK_SHIFT];
+		final E element = chunk.getElement(first & CHUNK_MASK);
+		final byte[] elementHash = chunk.getElementHashOfHash(first & CHUNK_MASK);
+
+		first++;
+		size--;
+		numChanges++;
+
+		if (size == 0) {
+			// drop the spine, so this queue no longer keeps any chunk alive
+			chunks = null;
+			first = 0;
+		}
+
+		if (elementHash != null && runningHashSize > 0) {
+			runningHashSize--;
+			HASH_ALGORITHM.computeRemoveHash(hash, elementHash, runningHashSize);
+		}
+
+		if (watch != null) {
+			watch.stop();
+			FCQueueStatistics.fcqRemoveExecutionMicros.recordValue(watch.getTime(TimeUnit.MICROSECONDS));
+		}
+
+		return element;
+	}
+
+	/**
+	 * Inserts the specified element into this queue. This is equivalent to {@code add(o)}.
+	 *
+	 * @param o
+	 * 		the element to add
+	 * @return true
+	 */
+	@Override
+	public synchronized boolean offer(final E o) {
+		return add(o);
+	}
+
+	/**
+	 * Retrieves and removes the head of this queue, or returns {@code null} if this queue is empty.
+	 *
+	 * @return the head of this queue, or {@code null} if this queue is empty
+	 */
+	@Override
+	public synchronized E poll() {
+		if (size == 0) {
+			return null;
+		}
+
+		return remove();
+	}
+
+	/**
+	 * Retrieves, but does not remove, the head of this queue.
+	 *
+	 * @return the head of this queue
+	 * @throws NoSuchElementException
+	 * 		if this queue is empty
+	 */
+	@Override
+	public E element() {
+		final E head = peek();
+		if (head == null) {
+			throw new NoSuchElementException("tried to get the head of an empty ChunkedFCQueue");
+		}
+
+		return head;
+	}
+
+	/**
+	 * Retrieves, but does not remove, the head of this queue, or returns {@code null} if this queue is empty.
+	 *
+	 * @return the head of this queue, or {@code null} if this queue is empty
+	 */
+	@Override
+	public E peek() {
+		if (frozen) {
+			return peekInternal();
+		}
+		synchronized (this) {
+			return peekInternal();
+		}
+	}
+
+	private E peekInternal() {
+		if (size == 0) {
+			return null;
+		}
+		return chunks[first >>> CHUNK_SHIFT].getElement(first & CHUNK_MASK);
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+	//the following implement FastCopyable
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/** {@inheritDoc} */
+	@Override
+	public synchronized ChunkedFCQueue<E> copy() {
+		if (isImmutable()) {
+			throw new IllegalStateException("Tried to make a copy of an immutable ChunkedFCQueue");
+		}
+
+		final ChunkedFCQueue<E> queue = new ChunkedFCQueue<>(this);
+
+		//there can be only one mutable per queue group. If the copy is, then this isn't.
+		setImmutable(true);
+		frozen = true;
+
+		return queue;
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+	//the following implement Java.util.Collection
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the number of elements in this collection.
+	 *
+	 * @return the number of elements in this collection
+	 */
+	@Override
+	public int size() {
+		if (frozen) {
+			return size;
+		}
+		synchronized (this) {
+			return size;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if this collection contains no elements.
+	 *
+	 * @return {@code true} if this collection contains no elements
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns {@code true} if this collection contains at least one element {@code e} such that
+	 * {@code Objects.equals(o, e)}.
+	 *
+	 * @param o
+	 * 		element whose presence in this collection is to be tested
+	 * @return {@code true} if this collection contains the specified element
+	 */
+	@Override
+	public boolean contains(final Object o) {
+		final Iterator<E> it = iterator();
+		while (it.hasNext()) {
+			if (Objects.equals(o, it.next())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns an iterator over the elements in this queue, in insertion order (head first, tail last).
+	 *
+	 * @return an {@code Iterator} over the elements in this collection
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		if (frozen) {
+			return new ChunkedFCQueueIterator<>(this, chunks, first, size);
+		}
+		synchronized (this) {
+			return new ChunkedFCQueueIterator<>(this, chunks, first, size);
+		}
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this collection, in insertion order.
+	 *
+	 * @return an array containing all of the elements in this collection
+	 */
+	@Override
+	public Object[] toArray() {
+		if (frozen) {
+			return toArray(new Object[size]);
+		}
+		synchronized (this) {
+			return toArray(new Object[size]);
+		}
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this collection, in insertion order; the runtime type of the
+	 * returned array is that of the specified array. If the collection fits in the specified array with room to spare,
+	 * the element in the array immediately following the end of the collection is set to {@code null}.
+	 *
+	 * @param a
+	 * 		the array into which the elements of this collection are to be stored, if it is big enough; otherwise, a
+	 * 		new array of the same runtime type is allocated for this purpose.
+	 * @return an array containing all of the elements in this collection
+	 */
+	@Override
+	public <T> T[] toArray(final T[] a) {
+		if (frozen) {
+			return toArrayInternal(a);
+		}
+		synchronized (this) {
+			return toArrayInternal(a);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T[] toArrayInternal(T[] a) {
+		if (a.length < size) {
+			// If array is too small, allocate the new one with the same component type
+			a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+		} else if (a.length > size) {
+			// If array is too large, set the first unassigned element to null
+			a[size] = null;
+		}
+
+		for (int i = 0; i < size; i++) {
+			final int position = first + i;
+			// No need for checked cast - ArrayStoreException will be thrown
+			// if types are incompatible, just as required
+			a[i] = (T) chunks[position >>> CHUNK_SHIFT].getElement(position & CHUNK_MASK);
+		}
+
+		return a;
+	}
+
+	/**
+	 * This operation is not supported, and will throw an exception. Elements can only be removed from the head.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		always
+	 */
+	@Override
+	public boolean remove(final Object o) {
+		throw new UnsupportedOperationException(
+				"ChunkedFCQueue allows removal only from the head, not arbitrary removals");
+	}
+
+	/**
+	 * Returns {@code true} if this collection contains all of the elements in the specified collection.
+	 *
+	 * @param c
+	 * 		collection to be checked for containment in this collection
+	 * @return {@code true} if this collection contains all of the elements in the specified collection
+	 */
+	@Override
+	public boolean containsAll(final Collection<?> c) {
+		for (final Object e : c) {
+			if (!contains(e)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public synchronized boolean addAll(final Collection<? extends E> c) {
+		for (final E e : c) {
+			add(e);
+		}
+
+		return !c.isEmpty();
+	}
+
+	/**
+	 * This operation is not supported, and will throw an exception. Elements can only be removed from the head.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		always
+	 */
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		throw new UnsupportedOperationException("ChunkedFCQueue can only remove from the head");
+	}
+
+	/**
+	 * This operation is not supported, and will throw an exception. Elements can only be removed from the head.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		always
+	 */
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		throw new UnsupportedOperationException("ChunkedFCQueue can only remove from the head");
+	}
+
+	/**
+	 * Removes all of the elements from this queue.
+	 * The queue will be empty and the hash reset to the null value after this method returns.
+	 */
+	@Override
+	public synchronized void clear() {
+		throwIfImmutable();
+		numChanges++;
+
+		chunks = null;
+		first = 0;
+		size = 0;
+		runningHashSize = 0;
+		System.arraycopy(FCQueue.NULL_HASH, 0, hash, 0, hash.length);
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+	//the following FastCopyable methods have default implementations, but are overridden here
+	//////////////////////////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		final ChunkedFCQueue<?> that = (ChunkedFCQueue<?>) o;
+
+		return size == that.size &&
+				Arrays.equals(hash, that.hash);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Objects.hash(size);
+		result = 31 * result + Arrays.hashCode(hash);
+		return result;
+	}
+
+	/**
+	 * Serializes this queue exactly as an {@link FCQueue} with the same elements would be serialized.
+	 *
+	 * @param dos
+	 * 		the {@link java.io.DataOutputStream} to which the object's binary form should be written
+	 * @throws IOException
+	 * 		if there are problems during serialization
+	 */
+	@Override
+	public synchronized void serialize(final SerializableDataOutputStream dos) throws IOException {
+		dos.writeInt(size);
+		dos.write(hash);
+		dos.writeSerializableIterableWithSize(iterator(), size, true, false);
+	}
+
+	@Override
+	public synchronized void deserialize(final SerializableDataInputStream dis, final int version) throws IOException {
+		numChanges++;
+
+		// the hash is recomputed from the elements
+		dis.readInt();
+		dis.readFully(new byte[hash.length]);
+
+		dis.readSerializableIterableWithSize(MAX_ELEMENTS, this::add);
+	}
+
+	/**
+	 * Find the hash of a FastCopyable object.
+	 *
+	 * @param element
+	 * 		an element contained by this collection that is being added, deleted, or replaced
+	 * @return the 48-byte hash of the hash of the element
+	 */
+	protected byte[] getHash(final E element) {
+		final Cryptography crypto = CryptoFactory.getInstance();
+		//return a hash of a hash, in order to make state proofs smaller in the future
+		crypto.digestSync(element);
+		return crypto.digestSync(element.getHash()).getValue();
+	}
+
+	/**
+	 * @return the hash of the hash of an element, computing and keeping it in its chunk if it has not been yet
+	 */
+	private byte[] getElementHashOfHash(final FCQueueChunk<E> chunk, final int index) {
+		byte[] elementHash = chunk.getElementHashOfHash(index);
+		if (elementHash == null) {
+			elementHash = getHash(chunk.getElement(index));
+			chunk.setElementHashOfHash(index, elementHash);
+		}
+		return elementHash;
+	}
+
+	/**
+	 * Move the chunks this queue uses to a new spine, with at least as much room again for new chunks. The old spine
+	 * is left untouched, since older copies may still use it.
+	 */
+	@SuppressWarnings("unchecked")
+	private void moveToNewSpine() {
+		final int firstChunk = first >>> CHUNK_SHIFT;
+		final int usedChunks = chunks == null ? 0 : ((first + size - 1) >>> CHUNK_SHIFT) + 1 - firstChunk;
+		final FCQueueChunk<E>[] spine = new FCQueueChunk[Math.max(MIN_SPINE_SIZE, 2 * (usedChunks + 1))];
+		if (usedChunks > 0) {
+			System.arraycopy(chunks, firstChunk, spine, 0, usedChunks);
+		}
+		chunks = spine;
+		first &= CHUNK_MASK;
+	}
+
+	@Override
+	public long getClassId() {
+		return CLASS_ID;
+	}
+
+	@Override
+	public int getVersion() {
+		return ClassVersion.ORIGINAL;
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcqueue;
+
+import com.swirlds.fcqueue.internal.FCQueueChunk;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.swirlds.fcqueue.internal.FCQueueChunk.CHUNK_MASK;
+import static com.swirlds.fcqueue.internal.FCQueueChunk.CHUNK_SHIFT;
+
+/**
+ * An iterator for ChunkedFCQueue, starts at the head of the given queue, ends at the tail of the given queue
+ *
+ * @param <E>
+ * 		the type of elements in the ChunkedFCQueue
+ */
+public class ChunkedFCQueueIterator<E extends FCQueueElement> implements Iterator<E> {
+
+	/** the queue that this is iterating over.  This is used to fail-fast when it changes during iteration. */
+	private final ChunkedFCQueue<E> queue;
+
+	/**
+	 * the number of times the queue has changed, as of the moment this iterator was created. Fail fast if it
+	 * changes
+	 */
+	private final int numChanges;
+
+	/** the spine of the queue when this iterator was created */
+	private final FCQueueChunk<E>[] chunks;
+
+	/** the position of the element that should be returned the next time this.next() is called */
+	private int position;
+
+	/** the position after the tail of the queue */
+	private final int end;
+
+	/**
+	 * start this iterator at the head of the given queue
+	 *
+	 * @param queue
+	 * 		the queue to iterate over
+	 * @param chunks
+	 * 		the spine of the queue
+	 * @param first
+	 * 		the position of the head of the queue in its spine
+	 * @param size
+	 * 		the number of elements in the queue
+	 */
+	ChunkedFCQueueIterator(final ChunkedFCQueue<E> queue, final FCQueueChunk<E>[] chunks, final int first,
+			final int size) {
+		this.queue = queue;
+		this.numChanges = queue.getNumChanges();
+		this.chunks = chunks;
+		this.position = first;
+		this.end = first + size;
+	}
+
+	/**
+	 * Returns {@code true} if the iteration has more elements.
+	 *
+	 * @return {@code true} if the iteration has more elements
+	 */
+	@Override
+	public boolean hasNext() {
+		return position < end;
+	}
+
+	/**
+	 * Returns the next element in the iteration.
+	 *
+	 * @return the next element in the iteration
+	 * @throws NoSuchElementException
+	 * 		if the iteration has no more elements
+	 * @throws ConcurrentModificationException
+	 * 		if the queue changes (such as with add, remove, clear) since this iterator was created. This is a best
+	 * 		effort, as with {@link FCQueueIterator}.
+	 */
+	@Override
+	public E next() {
+		if (position >= end) {
+			throw new NoSuchElementException();
+		}
+
+		if (numChanges != queue.getNumChanges()) {
+			throw new ConcurrentModificationException();
+		}
+
+		final E element = chunks[position >>> CHUNK_SHIFT].getElement(position & CHUNK_MASK);
+		position++;
+		return element;
+	}
+
+	/**
+	 * This always throws an UnsupportedOperationException, because elements can only be removed at the head.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		always
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("ChunkedFCQueue elements can only be removed at the head");
+	}
+}
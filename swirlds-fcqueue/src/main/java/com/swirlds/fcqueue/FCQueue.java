@@ -21,8 +21,11 @@ import com.swirlds.common.crypto.Hash;
 import com.swirlds.common.crypto.ImmutableHash;
 import com.swirlds.common.io.SerializableDataInputStream;
 import com.swirlds.common.io.SerializableDataOutputStream;
+import com.swirlds.common.list.FCQueueSettings;
+import com.swirlds.common.list.FCQueueSettingsFactory;
 import com.swirlds.common.list.ListDigestException;
 import com.swirlds.common.merkle.utility.AbstractMerkleLeaf;
+import com.swirlds.common.threading.SharedForkJoinPool;
 import com.swirlds.fcqueue.internal.FCQHashAlgorithm;
 import com.swirlds.fcqueue.internal.FCQueueNode;
 import com.swirlds.fcqueue.internal.FCQueueNodeBackwardIterator;
@@ -33,12 +36,16 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 
 import static com.swirlds.common.CommonUtils.hex;
@@ -103,6 +110,13 @@ public class FCQueue<E extends FCQueueElement> extends AbstractMerkleLeaf implem
 	/** log all problems here, not to the console or elsewhere */
 	private static final Logger log = LogManager.getLogger(FCQueue.class);
 
+	/**
+	 * the threads that hash new elements when hashing asynchronously, with the thread asking for the hash as one more.
+	 * It is shared by every queue and only runs while a queue is being hashed.
+	 */
+	private static final SharedForkJoinPool HASHING_POOL = new SharedForkJoinPool("fcqueue_hash_",
+			() -> Runtime.getRuntime().availableProcessors() - 1);
+
 	/** should markers be sent during serialization to aid debugging? */
 	private static final boolean USE_MARKERS = false;
 
@@ -194,20 +208,25 @@ public class FCQueue<E extends FCQueueElement> extends AbstractMerkleLeaf implem
 
 		final int limit = currentSize - currentRunningHashSize;
 		FCQHashAlgorithm.increaseRollingBase(limit, localHash);
-		int index = 0;
-		while (index < limit) {
-			final FCQueueNode<E> node = it.next();
-			final byte[] elementHash;
-
-			if (node.getElementHashOfHash() == null) {
-				elementHash = getHash(node.getElement());
-				node.setElementHashOfHash(elementHash);
-			} else {
-				elementHash = node.getElementHashOfHash();
+		final FCQueueSettings settings = FCQueueSettingsFactory.get();
+		if (settings.isAsyncElementHashing() && limit > 1) {
+			hashElementsAsync(it, limit, localHash, Math.max(1, settings.getAsyncHashingBatchSize()));
+		} else {
+			int index = 0;
+			while (index < limit) {
+				final FCQueueNode<E> node = it.next();
+				final byte[] elementHash;
+
+				if (node.getElementHashOfHash() == null) {
+					elementHash = getHash(node.getElement());
+					node.setElementHashOfHash(elementHash);
+				} else {
+					elementHash = node.getElementHashOfHash();
+				}
+
+				HASH_ALGORITHM.computeHash(localHash, elementHash, index);
+				index++;
 			}
-
-			HASH_ALGORITHM.computeHash(localHash, elementHash, index);
-			index++;
 		}
 
 		synchronized (this) {
@@ -886,6 +905,82 @@ public class FCQueue<E extends FCQueueElement> extends AbstractMerkleLeaf implem
 		return crypto.digestSync(element.getHash()).getValue();
 	}
 
+	/**
+	 * Fold the next elements into a rolling hash, as {@link #getHash()} does, but have the threads of a shared pool
+	 * compute the hashes of hashes of each batch of elements. Only the combine is done by this thread.
+	 *
+	 * @param it
+	 * 		iterates over the nodes to hash, from the oldest
+	 * @param limit
+	 * 		the number of nodes to hash
+	 * @param localHash
+	 * 		the rolling hash to fold the elements into
+	 * @param batchSize
+	 * 		the number of elements to hash at a time
+	 */
+	private void hashElementsAsync(final Iterator<FCQueueNode<E>> it, final int limit, final byte[] localHash,
+			final int batchSize) {
+		final ForkJoinPool pool = HASHING_POOL.acquire();
+		try {
+			final List<FCQueueNode<E>> batch = new ArrayList<>(Math.min(batchSize, limit));
+			int index = 0;
+			while (index < limit) {
+				batch.clear();
+				while (batch.size() < batchSize && index + batch.size() < limit) {
+					batch.add(it.next());
+				}
+
+				computeElementHashesOfHashes(batch, pool);
+
+				for (final FCQueueNode<E> node : batch) {
+					HASH_ALGORITHM.computeHash(localHash, node.getElementHashOfHash(), index);
+					index++;
+				}
+			}
+		} finally {
+			HASHING_POOL.release();
+		}
+	}
+
+	/**
+	 * Set the hash of hash of every node in a batch that does not have one, with {@link #getHash(FCQueueElement)}
+	 * so that a subclass that overrides it is hashed the same way in both modes. The nodes are split into one slice
+	 * per thread of the pool, and this thread hashes the first slice while the pool hashes the others.
+	 */
+	private void computeElementHashesOfHashes(final List<FCQueueNode<E>> batch, final ForkJoinPool pool) {
+		final List<FCQueueNode<E>> unhashed = new ArrayList<>(batch.size());
+		for (final FCQueueNode<E> node : batch) {
+			if (node.getElementHashOfHash() == null) {
+				unhashed.add(node);
+			}
+		}
+		if (unhashed.isEmpty()) {
+			return;
+		}
+
+		final int numSlices = Math.min(unhashed.size(), pool.getParallelism() + 1);
+		final int sliceSize = (unhashed.size() + numSlices - 1) / numSlices;
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>(numSlices);
+		for (int from = sliceSize; from < unhashed.size(); from += sliceSize) {
+			final List<FCQueueNode<E>> slice = unhashed.subList(from, Math.min(from + sliceSize, unhashed.size()));
+			tasks.add(pool.submit(() -> hashElements(slice)));
+		}
+
+		hashElements(unhashed.subList(0, sliceSize));
+		for (final ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Set the hash of hash of every node in a list.
+	 */
+	private void hashElements(final List<FCQueueNode<E>> nodes) {
+		for (final FCQueueNode<E> node : nodes) {
+			node.setElementHashOfHash(getHash(node.getElement()));
+		}
+	}
+
 	protected static byte[] getNullHash() {
 		return Arrays.copyOf(NULL_HASH, NULL_HASH.length);
 	}
@@ -0,0 +1,89 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.fcqueue.internal;
+
+import com.swirlds.common.FastCopyable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size block of consecutive elements of a {@link com.swirlds.fcqueue.ChunkedFCQueue}, shared by every copy in
+ * its queue group that contains any of them.
+ *
+ * A chunk is append-only. Its slots are filled in order by the one mutable queue of the group, and a slot is never
+ * written again once it is filled. A copy only reads the slots that were filled when it was made, so the mutable queue
+ * can keep filling the tail chunk while older copies read it, without copying it and without locks.
+ */
+public class FCQueueChunk<E extends FastCopyable> {
+
+	/** the number of elements in a chunk, as a power of 2 */
+	public static final int CHUNK_SHIFT = 8;
+
+	/** the number of elements in a chunk */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** the position of an element within its chunk is its position in the queue group masked with this */
+	public static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** the elements, in insertion order */
+	private final Object[] elements = new Object[CHUNK_SIZE];
+
+	/**
+	 * the hash of each element's hash value, once computed. Any copy may compute it, so it is published safely to the
+	 * other copies' threads.
+	 */
+	private final AtomicReferenceArray<byte[]> elementHashesOfHashes = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+	/**
+	 * @param index
+	 * 		the position in this chunk
+	 * @return the element at the position
+	 */
+	@SuppressWarnings("unchecked")
+	public E getElement(final int index) {
+		return (E) elements[index];
+	}
+
+	/**
+	 * Fill a slot. Only the mutable queue of the group may call this, and only for the slot after its tail.
+	 *
+	 * @param index
+	 * 		the position in this chunk
+	 * @param element
+	 * 		the element
+	 */
+	public void setElement(final int index, final E element) {
+		elements[index] = element;
+	}
+
+	/**
+	 * @param index
+	 * 		the position in this chunk
+	 * @return the hash of the hash of the element at the position, or null if it has not been computed
+	 */
+	public byte[] getElementHashOfHash(final int index) {
+		return elementHashesOfHashes.get(index);
+	}
+
+	/**
+	 * @param index
+	 * 		the position in this chunk
+	 * @param elementHashOfHash
+	 * 		the hash of the hash of the element at the position
+	 */
+	public void setElementHashOfHash(final int index, final byte[] elementHashOfHash) {
+		elementHashesOfHashes.set(index, elementHashOfHash);
+	}
+}
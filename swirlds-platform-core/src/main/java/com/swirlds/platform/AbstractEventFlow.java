@@ -66,6 +66,11 @@ abstract class AbstractEventFlow implements
 	 */
 	abstract int getForCurrSize();
 
+	/**
+	 * @return the number of events in the forWork queue, or 0 if there is no forWork queue
+	 */
+	abstract int getForWorkSize();
+
 	/**
 	 * @return return the number of events in the forSigs queue
 	 */
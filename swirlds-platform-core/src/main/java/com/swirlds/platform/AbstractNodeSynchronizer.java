@@ -14,11 +14,14 @@
 
 package com.swirlds.platform;
 
+import com.swirlds.common.crypto.CryptoFactory;
 import com.swirlds.common.crypto.Hash;
 import com.swirlds.common.events.BaseEventHashedData;
 import com.swirlds.common.events.BaseEventUnhashedData;
 import com.swirlds.common.io.BadIOException;
 import com.swirlds.platform.event.ValidateEventTask;
+import com.swirlds.platform.sync.CompressionCounter;
+import com.swirlds.platform.sync.ParentHashReferences;
 import com.swirlds.platform.sync.SyncData;
 import com.swirlds.platform.sync.SyncInputStream;
 import com.swirlds.platform.sync.SyncLogging;
@@ -27,7 +30,10 @@ import com.swirlds.platform.sync.SyncShadowGraphManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -82,6 +88,15 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 	/** tracks how many bytes have been written */
 	private final AtomicLong bytesWritten = new AtomicLong(0);
 
+	/** replaces parent hashes by references to events of this sync, or null if the connection does not use them */
+	private final ParentHashReferences parentReferences;
+
+	/** the events sent before the tip booleans of the peer were read, in a pipelined sync, or null if none were */
+	private Set<EventImpl> speculativeEvents;
+
+	/** the number of events read that were already in the shadow graph, counted if the peer has self's filter */
+	private int duplicatesRead;
+
 	/**
 	 * Constructor
 	 *
@@ -124,6 +139,7 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		this.stats = stats;
 		this.addEvent = addEvent;
 		this.log = log;
+		this.parentReferences = conn.usesParentReferences() ? new ParentHashReferences() : null;
 	}
 
 	/**
@@ -245,9 +261,9 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 
 		final String syncLogString = logString + " `writeEvents`: ";
 
-		// (throttle may be null for testing)
-		if (throttle != null) {
-			throttle.initialize(conn);
+		// the throttle counts from the first event, which may have been sent speculatively
+		if (speculativeEvents == null) {
+			initializeThrottle();
 		}
 
 		// If peer node has not fallen behind, send events to peer.
@@ -255,12 +271,26 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 
 		log.debug(SYNC_SGM.getMarker(), "{}{} events to send", syncLogString, diffEvents.size());
 
+		// the events the filter of the peer left out would have been redundant without it
+		// (stats may be null for testing)
+		if (stats != null && syncData.getPeerBloomFilter() != null) {
+			final int skipped = syncData.getNumSkippedByBloomFilter();
+			if (skipped + diffEvents.size() > 0) {
+				stats.avgRedundantBeforeFilterPercent.recordValue(100.0 * skipped / (skipped + diffEvents.size()));
+			}
+		}
+
+		int sent = 0;
 		for (final EventImpl event : diffEvents) {
+			if (speculativeEvents != null && speculativeEvents.contains(event)) {
+				continue;
+			}
 			writeByte(SyncConstants.COMM_EVENT_NEXT);
 			writeEventData(event);
+			sent++;
 		}
 
-		log.debug(SYNC_SGM.getMarker(), "{}sent {} events", syncLogString, diffEvents.size());
+		log.debug(SYNC_SGM.getMarker(), "{}sent {} events", syncLogString, sent);
 
 		writeByte(SyncConstants.COMM_EVENT_DONE);
 
@@ -272,6 +302,46 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		// (stats may be null for testing)
 		if (stats != null) {
 			stats.avgEventsPerSyncSent.recordValue(eventsWritten.get());
+			if (parentReferences != null) {
+				stats.avgParentReferencesPerSync.recordValue(parentReferences.getReferencesWritten());
+				stats.bytesPerSecondCompressionSaved.update(parentReferences.getBytesSaved());
+			}
+		}
+	}
+
+	/**
+	 * Write the events that the peer is known to lack before its tip booleans have been read, in a pipelined sync,
+	 * and flush them. {@link #writeEvents()} then writes the rest of the send list, and the end of the events.
+	 *
+	 * @param events
+	 * 		the events to send, from {@link SyncShadowGraphManager#getSpeculativeSendList(SyncData)}
+	 * @throws IOException
+	 * 		iff the output stream instance throws
+	 */
+	protected void writeSpeculativeEvents(final List<EventImpl> events) throws IOException {
+		initializeThrottle();
+		speculativeEvents = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (final EventImpl event : events) {
+			writeByte(SyncConstants.COMM_EVENT_NEXT);
+			writeEventData(event);
+			speculativeEvents.add(event);
+		}
+
+		writeFlush();
+
+		log.debug(SYNC_SGM.getMarker(), "{} `writeSpeculativeEvents`: sent {} events", logString, events.size());
+
+		// (stats may be null for testing)
+		if (stats != null) {
+			stats.avgSpeculativeEventsPerSync.recordValue(events.size());
+		}
+	}
+
+	private void initializeThrottle() {
+		// (throttle may be null for testing)
+		if (throttle != null) {
+			throttle.initialize(conn);
 		}
 	}
 
@@ -348,7 +418,11 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		final String syncLogString = logString + " `writeEventData`: ";
 		log.debug(TIME_MEASURE.getMarker(), "start writeEvents,writeEvent {}-{}", conn.getSelfId(), conn.getOtherId());
 
-		getOutputStream().writeSerializable(event.getBaseEventHashedData(), false);
+		if (parentReferences != null) {
+			parentReferences.writeHashedData(getOutputStream(), event.getBaseEventHashedData(), event.getBaseHash());
+		} else {
+			getOutputStream().writeSerializable(event.getBaseEventHashedData(), false);
+		}
 		getOutputStream().writeSerializable(event.getBaseEventUnhashedData(), false);
 
 		eventsWritten.incrementAndGet();
@@ -373,26 +447,44 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 	 * 		anything unexpected was received or the connection broke
 	 */
 	protected void readEvents() throws IOException {
-
-		while (true) {
-			final byte next = readByte();
-
-			if (next == SyncConstants.COMM_EVENT_DONE) {
-				readByteArray();
-				break;
-			} else if (next == SyncConstants.COMM_EVENT_NEXT) {
-				final ValidateEventTask validateEventTask = readEventData();
-				addEvent.accept(validateEventTask);
-			} else {
-				// Unconditionally throws IOException
-				badByte(next);
-			}
+		boolean done = false;
+		while (!done) {
+			done = readNextEvent();
 		}
+	}
 
-		// record history of events read per sync
-		// (stats may be null for testing)
-		if (stats != null) {
-			stats.avgEventsPerSyncRec.recordValue(eventsRead.get());
+	/**
+	 * Read the next event and send it to {@code addEvent}, or read the end of the events. {@link #readEvents()} calls
+	 * this until the end of the events is read. Nothing changes until everything this reads has been read, so a reader
+	 * that has not received all of it yet can read it again from the start.
+	 *
+	 * @return true if the end of the events was read, false if an event was read
+	 * @throws IOException
+	 * 		anything unexpected was received or the connection broke
+	 */
+	protected boolean readNextEvent() throws IOException {
+		final byte next = readByte();
+
+		if (next == SyncConstants.COMM_EVENT_DONE) {
+			readByteArray();
+
+			// record history of events read per sync
+			// (stats may be null for testing)
+			if (stats != null) {
+				stats.avgEventsPerSyncRec.recordValue(eventsRead.get());
+				if (conn.usesBloomFilter() && eventsRead.get() > 0) {
+					stats.avgRedundantAfterFilterPercent.recordValue(100.0 * duplicatesRead / eventsRead.get());
+				}
+			}
+			return true;
+		} else if (next == SyncConstants.COMM_EVENT_NEXT) {
+			final ValidateEventTask validateEventTask = readEventData();
+			addEvent.accept(validateEventTask);
+			return false;
+		} else {
+			// Unconditionally throws IOException
+			badByte(next);
+			return false;
 		}
 	}
 
@@ -450,11 +542,16 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		log.debug(TIME_MEASURE.getMarker(),
 				"{}start readEvents,readValidateEventTaskData", syncLogString);
 
-		final BaseEventHashedData hashedData =
-				getInputStream().readSerializable(false, BaseEventHashedData::new);
+		final BaseEventHashedData hashedData = parentReferences != null
+				? parentReferences.readHashedData(getInputStream())
+				: getInputStream().readSerializable(false, BaseEventHashedData::new);
 		final BaseEventUnhashedData unhashedData =
 				getInputStream().readSerializable(false, BaseEventUnhashedData::new);
 
+		if (conn.usesBloomFilter()) {
+			countIfDuplicate(hashedData);
+		}
+
 		final ValidateEventTask validateEventTask = new ValidateEventTask(hashedData, unhashedData);
 		log.debug(SYNC_STEP_4.getMarker(),
 				"{}created ValidateEventTask {}",
@@ -468,6 +565,22 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		return validateEventTask;
 	}
 
+	/**
+	 * Count an event read that is already in the shadow graph, which the filter sent to the peer should have left
+	 * out. The hash computed here is not computed again when the event is validated.
+	 *
+	 * @param hashedData
+	 * 		the hashed data of the event read
+	 */
+	private void countIfDuplicate(final BaseEventHashedData hashedData) {
+		if (hashedData.getHash() == null) {
+			CryptoFactory.getInstance().digestSync(hashedData);
+		}
+		if (syncShadowGraphManager.shadow(hashedData.getHash()) != null) {
+			duplicatesRead++;
+		}
+	}
+
 	private static void badByte(final byte next) throws IOException {
 		throw new IOException(
 				"during sync, received unexpected byte " + next);
@@ -570,6 +683,17 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		// we have now finished reading and writing all the events of a sync. the remote node may not have
 		// finished reading and processing all the events this node has sent. so we write a byte to tell the remote
 		// node we have finished, and we wait for it to send us the same byte.
+		writeSyncDone();
+		readSyncDone();
+	}
+
+	/**
+	 * Write a {@code  SyncConstants.COMM_SYNC_DONE} byte to the remote node, and flush it.
+	 *
+	 * @throws IOException
+	 * 		iff the {@link SyncOutputStream} throws
+	 */
+	protected void writeSyncDone() throws IOException {
 		writeByte(SyncConstants.COMM_SYNC_DONE);
 
 		log.debug(SYNC.getMarker(),
@@ -579,7 +703,16 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		writeFlush();
 
 		bytesWritten.addAndGet(Byte.BYTES);
+	}
 
+	/**
+	 * Read the {@code  SyncConstants.COMM_SYNC_DONE} byte written by the remote node.
+	 *
+	 * @throws IOException
+	 * 		iff: (a) the {@link SyncInputStream} throws, or (b) if the received byte is not
+	 *        {@code SyncConstants.COMM_SYNC_DONE}
+	 */
+	protected void readSyncDone() throws IOException {
 		final byte done = readByte();
 
 		if (done != SyncConstants.COMM_SYNC_DONE) {
@@ -625,6 +758,8 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 		/* track the number of bytes written and read during a sync */
 		getInputStream().getSyncByteCounter().resetCount();
 		getOutputStream().getSyncByteCounter().resetCount();
+		resetCompressionCounter(getInputStream().getCompressionCounter());
+		resetCompressionCounter(getOutputStream().getCompressionCounter());
 
 		conn.getSocket().setSoTimeout(Settings.timeoutSyncClientSocket);
 
@@ -642,4 +777,16 @@ abstract class AbstractNodeSynchronizer implements NodeSynchronizer {
 				});
 	}
 
+	/**
+	 * Start counting the compression of a stream from 0, so that it counts the work done by this sync
+	 *
+	 * @param counter
+	 * 		the counter of the stream, or null if it is not compressed
+	 */
+	private static void resetCompressionCounter(final CompressionCounter counter) {
+		if (counter != null) {
+			counter.reset();
+		}
+	}
+
 }
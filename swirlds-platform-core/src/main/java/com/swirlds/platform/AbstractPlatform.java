@@ -121,6 +121,11 @@ public abstract class AbstractPlatform implements Platform, SwirldMainManager {
 	 */
 	abstract EventTaskCreator getEventTaskCreator();
 
+	/**
+	 * @return the instance that starts checking the signatures of events received by gossip before intake
+	 */
+	abstract EventSignatureVerifier getEventSignatureVerifier();
+
 	abstract EventMapper getEventMapper();
 
 	abstract QueueThread<EventIntakeTask> getIntakeQueue();
@@ -27,6 +27,7 @@ import com.swirlds.common.crypto.SerializablePublicKey;
 import com.swirlds.common.internal.ApplicationDefinition;
 import com.swirlds.common.internal.ConfigurationException;
 import com.swirlds.common.internal.SettingsCommon;
+import com.swirlds.common.list.FCQueueSettingsFactory;
 import com.swirlds.common.merkle.synchronization.ReconnectSettingsFactory;
 import com.swirlds.common.notification.NotificationFactory;
 import com.swirlds.common.notification.listeners.StateLoadedFromDiskCompleteListener;
@@ -1086,5 +1087,6 @@ public abstract class Browser {
 		CryptoFactory.configure(Settings.crypto);
 		ReconnectSettingsFactory.configure(Settings.reconnect);
 		FCHashMapSettingsFactory.configure(Settings.fcHashMap);
+		FCQueueSettingsFactory.configure(Settings.fcQueue);
 	}
 }
@@ -21,14 +21,15 @@ import com.swirlds.platform.internal.CreatorSeqPair;
 
 import java.util.List;
 import java.util.Queue;
+import java.util.function.Predicate;
 
 /**
  * An interface for classes that calculate consensus of events
  */
 public interface Consensus extends OldEventChecker {
 	/**
-	 * Adds an event to the consensus object. This should be the only public method that modifies the state of the
-	 * object.
+	 * Adds an event to the consensus object. This and {@link #addEvents(List, AddressBook, Predicate)} should be the
+	 * only public methods that modify the state of the object.
 	 *
 	 * @param event
 	 * 		the event to be added
@@ -38,6 +39,32 @@ public interface Consensus extends OldEventChecker {
 	 */
 	List<EventImpl> addEvent(EventImpl event, AddressBook addressBook);
 
+	/**
+	 * Adds a batch of events to the consensus object, in the order given, which must be a topological order (parents
+	 * before children). The whole batch is added under a single acquisition of the lock, and the result is the same
+	 * as calling {@link #addEvent(EventImpl, AddressBook)} on each event in turn.
+	 *
+	 * @param events
+	 * 		the events to be added
+	 * @param addressBook
+	 * 		the address book to be used
+	 * @param discard
+	 * 		tested on each event immediately before it would be added, with the hashgraph as it is at that point. An
+	 * 		event it returns true for is not added.
+	 * @return A list of all the events that reached consensus while adding the batch, in consensus order, or null if
+	 * 		no consensus was reached
+	 */
+	List<EventImpl> addEvents(List<EventImpl> events, AddressBook addressBook, Predicate<EventImpl> discard);
+
+	/**
+	 * Get the most recently published snapshot of the hashgraph. A new snapshot is published at the end of every call
+	 * to {@link #addEvent(EventImpl, AddressBook)}. Reading it never waits for consensus to be calculated, so threads
+	 * that need several consistent values, or lists of events, should read them from a single snapshot.
+	 *
+	 * @return the latest snapshot
+	 */
+	ConsensusSnapshot getSnapshot();
+
 	/**
 	 * Get the minimum judge generation number in the most recent round for which the fame of all witnesses
 	 * has been decided, if such a round exists.
@@ -0,0 +1,378 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import java.util.Arrays;
+
+/**
+ * Stores the memoized results of the lastSee and stronglySeeP functions (from SWIRLDS-TR-2020-01) for every event
+ * known to {@link ConsensusImpl}, without giving each event its own arrays of references.
+ * <p>
+ * Each event is given a dense int index the first time it is needed. The results for an event are stored in a row
+ * of two int slabs (one for each function), where the row for index i holds numMembers entries starting at
+ * i*numMembers. An entry holds the index of the resulting event, or {@link #NONE} if the result is null. The slabs
+ * are primitive arrays, so the garbage collector never has to walk them.
+ * <p>
+ * An event's results may refer to events that have already expired (e.g. the last event by a member that has been
+ * offline for a long time), and those references must keep resolving to the same event. So every index has a count
+ * of the entries referring to it, and the index of an expired event is only recycled once nothing refers to it.
+ * Until then, the event stays reachable through this index, just as it stayed reachable through the reference
+ * arrays this class replaces.
+ * <p>
+ * Once an event has been released, it is never given a row of its own again, since nothing would release that row:
+ * {@link #indexOf(EventImpl)} returns {@link #NONE} for it, and its results are computed without being memoized. It
+ * can still be the result in the row of another event, in which case it is given an index that is recycled as soon
+ * as nothing refers to it.
+ * <p>
+ * This class is not thread safe. It is only used by the consensus thread, inside the synchronized methods of
+ * {@link ConsensusImpl}.
+ */
+final class ConsensusEventIndex {
+	/** the value stored in an entry whose result is null, and the index of an event that has none */
+	static final int NONE = -1;
+
+	/** the index stored in an event that has been released, and whose index has been recycled */
+	static final int RELEASED = -2;
+
+	/** the number of indices to allocate space for initially */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** the number of members, which is the number of entries in each row of a slab */
+	private final int numMembers;
+
+	/** the number of indices that space is currently allocated for */
+	private int capacity;
+
+	/** the number of indices that have ever been handed out (indices below this are in use or free) */
+	private int highWater = 0;
+
+	/** the event each index refers to, or null if the index is free */
+	private EventImpl[] events;
+
+	/** lastSee[i*numMembers+m] is the index of the last ancestor of event i created by m */
+	private int[] lastSee;
+
+	/** stronglySeeP[i*numMembers+m] is the index of the strongly-seen witness in the parent round of i by m */
+	private int[] stronglySeeP;
+
+	/** bit i is set if the lastSee row for index i has been memoized */
+	private long[] lastSeeMemoized;
+
+	/** bit i is set if the stronglySeeP row for index i has been memoized */
+	private long[] stronglySeePMemoized;
+
+	/** bit i is set if the event with index i has been cleared, so the index can be recycled when unreferenced */
+	private long[] retired;
+
+	/** refCount[i] is the number of entries in rows of other events that refer to index i */
+	private int[] refCount;
+
+	/** a stack of free indices, available for reuse */
+	private int[] freeIndices;
+
+	/** the number of free indices on the stack */
+	private int numFree = 0;
+
+	/**
+	 * Create an empty index.
+	 *
+	 * @param numMembers
+	 * 		the number of members in the address book
+	 */
+	ConsensusEventIndex(final int numMembers) {
+		this.numMembers = numMembers;
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Get the index of the given event, assigning it one if it doesn't already have one, so that its results can be
+	 * memoized.
+	 *
+	 * @param event
+	 * 		the event (must not be null)
+	 * @return the index of the event, or {@link #NONE} if it has been released and its index recycled, in which case
+	 * 		its results must not be memoized
+	 */
+	int indexOf(final EventImpl event) {
+		if (event.getConsensusIndex() == RELEASED) {
+			return NONE;
+		}
+		return assignIndex(event);
+	}
+
+	/**
+	 * Get the index of an event that is the result in a row, assigning it one if it doesn't already have one. An
+	 * event that has been released gets an index that is recycled once nothing refers to it.
+	 */
+	private int targetIndexOf(final EventImpl event) {
+		if (event.getConsensusIndex() != RELEASED) {
+			return assignIndex(event);
+		}
+		final int index = assignIndex(event);
+		set(retired, index);
+		return index;
+	}
+
+	private int assignIndex(final EventImpl event) {
+		final int index = event.getConsensusIndex();
+		if (index >= 0 && index < highWater && events[index] == event) {
+			return index;
+		}
+		// the event has no index, or has one from an index that has since been discarded (e.g. after a reconnect)
+		final int newIndex;
+		if (numFree > 0) {
+			newIndex = freeIndices[--numFree];
+		} else {
+			if (highWater == capacity) {
+				allocate(capacity * 2);
+			}
+			newIndex = highWater++;
+		}
+		events[newIndex] = event;
+		event.setConsensusIndex(newIndex);
+		return newIndex;
+	}
+
+	/**
+	 * @param index
+	 * 		an event index
+	 * @return true if the lastSee results for that event have been memoized
+	 */
+	boolean isLastSeeMemoized(final int index) {
+		return isSet(lastSeeMemoized, index);
+	}
+
+	/**
+	 * Start memoizing the lastSee results for an event. Every entry is null until it is set.
+	 *
+	 * @param index
+	 * 		the event index
+	 */
+	void initLastSee(final int index) {
+		releaseRow(lastSee, index);
+		set(lastSeeMemoized, index);
+	}
+
+	/**
+	 * @param index
+	 * 		the event index
+	 * @param m
+	 * 		the member ID
+	 * @return the memoized last ancestor of the event created by m, or null if none
+	 */
+	EventImpl getLastSee(final int index, final int m) {
+		return eventAt(lastSee[index * numMembers + m]);
+	}
+
+	/**
+	 * Memoize the last ancestor of an event created by m.
+	 *
+	 * @param index
+	 * 		the event index
+	 * @param m
+	 * 		the member ID
+	 * @param event
+	 * 		the last ancestor created by m, or null if none
+	 */
+	void setLastSee(final int index, final int m, final EventImpl event) {
+		// the target is indexed before the slab is read, since that may grow the slab
+		final int target = event == null ? NONE : targetIndexOf(event);
+		lastSee[index * numMembers + m] = reference(index, lastSee[index * numMembers + m], target);
+	}
+
+	/**
+	 * @param index
+	 * 		an event index
+	 * @return true if the stronglySeeP results for that event have been memoized
+	 */
+	boolean isStronglySeePMemoized(final int index) {
+		return isSet(stronglySeePMemoized, index);
+	}
+
+	/**
+	 * Start memoizing the stronglySeeP results for an event. Every entry is null until it is set.
+	 *
+	 * @param index
+	 * 		the event index
+	 */
+	void initStronglySeeP(final int index) {
+		releaseRow(stronglySeeP, index);
+		set(stronglySeePMemoized, index);
+	}
+
+	/**
+	 * @param index
+	 * 		the event index
+	 * @param m
+	 * 		the member ID
+	 * @return the memoized strongly-seen witness in the parent round of the event created by m, or null if none
+	 */
+	EventImpl getStronglySeeP(final int index, final int m) {
+		return eventAt(stronglySeeP[index * numMembers + m]);
+	}
+
+	/**
+	 * Memoize the strongly-seen witness in the parent round of an event created by m.
+	 *
+	 * @param index
+	 * 		the event index
+	 * @param m
+	 * 		the member ID
+	 * @param event
+	 * 		the strongly-seen witness created by m, or null if none
+	 */
+	void setStronglySeeP(final int index, final int m, final EventImpl event) {
+		final int target = event == null ? NONE : targetIndexOf(event);
+		stronglySeeP[index * numMembers + m] = reference(index, stronglySeeP[index * numMembers + m], target);
+	}
+
+	/**
+	 * Called when an event is cleared because it has expired. Its memoized results are discarded, the same way
+	 * {@link EventImpl#clear()} used to discard them, and its index is recycled as soon as no other event refers to
+	 * it. From then on, the results of the event are no longer memoized.
+	 *
+	 * @param event
+	 * 		the event that was cleared
+	 */
+	void release(final EventImpl event) {
+		final int index = event.getConsensusIndex();
+		if (index < 0 || index >= highWater || events[index] != event) {
+			// this event was never indexed, or its index was already recycled
+			event.setConsensusIndex(RELEASED);
+			return;
+		}
+		forget(index);
+		set(retired, index);
+		recycleIfUnreferenced(index);
+	}
+
+	/**
+	 * @return the number of indices currently assigned to events
+	 */
+	int size() {
+		return highWater - numFree;
+	}
+
+	/**
+	 * Discard the memoized results of an event, and drop the references they held.
+	 */
+	private void forget(final int index) {
+		if (isSet(lastSeeMemoized, index)) {
+			releaseRow(lastSee, index);
+			clear(lastSeeMemoized, index);
+		}
+		if (isSet(stronglySeePMemoized, index)) {
+			releaseRow(stronglySeeP, index);
+			clear(stronglySeePMemoized, index);
+		}
+	}
+
+	/**
+	 * Set every entry in a row to {@link #NONE}, dropping the references it held.
+	 */
+	private void releaseRow(final int[] slab, final int index) {
+		final int start = index * numMembers;
+		for (int i = start; i < start + numMembers; i++) {
+			if (slab[i] != NONE) {
+				slab[i] = reference(index, slab[i], NONE);
+			}
+		}
+	}
+
+	/**
+	 * Replace the reference held in an entry of the row for index, keeping the reference counts up to date. An
+	 * event referring to itself is not counted, so that it doesn't keep itself alive.
+	 *
+	 * @return the new value of the entry
+	 */
+	private int reference(final int index, final int oldTarget, final int newTarget) {
+		if (newTarget != NONE && newTarget != index) {
+			refCount[newTarget]++;
+		}
+		if (oldTarget != NONE && oldTarget != index) {
+			refCount[oldTarget]--;
+			recycleIfUnreferenced(oldTarget);
+		}
+		return newTarget;
+	}
+
+	/**
+	 * Recycle the given index if its event has been cleared and nothing refers to it any more.
+	 */
+	private void recycleIfUnreferenced(final int index) {
+		if (refCount[index] != 0 || !isSet(retired, index)) {
+			return;
+		}
+		// a cleared event may have been memoized again after it was released, so drop those references too
+		forget(index);
+		clear(retired, index);
+		final EventImpl event = events[index];
+		events[index] = null;
+		if (event.getConsensusIndex() == index) {
+			event.setConsensusIndex(RELEASED);
+		}
+		if (numFree == freeIndices.length) {
+			freeIndices = Arrays.copyOf(freeIndices, freeIndices.length * 2);
+		}
+		freeIndices[numFree++] = index;
+	}
+
+	private EventImpl eventAt(final int index) {
+		return index == NONE ? null : events[index];
+	}
+
+	/**
+	 * Grow every array so that it can hold the given number of indices.
+	 */
+	private void allocate(final int newCapacity) {
+		final int oldSlabLength = capacity * numMembers;
+		final int newSlabLength = Math.multiplyExact(newCapacity, numMembers);
+		final int bitWords = (newCapacity + Long.SIZE - 1) / Long.SIZE;
+
+		if (events == null) {
+			events = new EventImpl[newCapacity];
+			lastSee = new int[newSlabLength];
+			stronglySeeP = new int[newSlabLength];
+			lastSeeMemoized = new long[bitWords];
+			stronglySeePMemoized = new long[bitWords];
+			retired = new long[bitWords];
+			refCount = new int[newCapacity];
+			freeIndices = new int[INITIAL_CAPACITY];
+		} else {
+			events = Arrays.copyOf(events, newCapacity);
+			lastSee = Arrays.copyOf(lastSee, newSlabLength);
+			stronglySeeP = Arrays.copyOf(stronglySeeP, newSlabLength);
+			lastSeeMemoized = Arrays.copyOf(lastSeeMemoized, bitWords);
+			stronglySeePMemoized = Arrays.copyOf(stronglySeePMemoized, bitWords);
+			retired = Arrays.copyOf(retired, bitWords);
+			refCount = Arrays.copyOf(refCount, newCapacity);
+		}
+		Arrays.fill(lastSee, oldSlabLength, newSlabLength, NONE);
+		Arrays.fill(stronglySeeP, oldSlabLength, newSlabLength, NONE);
+		capacity = newCapacity;
+	}
+
+	private static boolean isSet(final long[] bits, final int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void set(final long[] bits, final int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	private static void clear(final long[] bits, final int index) {
+		bits[index >>> 6] &= ~(1L << index);
+	}
+}
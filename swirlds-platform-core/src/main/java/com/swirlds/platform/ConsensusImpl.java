@@ -29,12 +29,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -43,6 +41,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiConsumer;
@@ -50,6 +50,7 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static com.swirlds.logging.LogMarker.ADD_EVENT;
+import static com.swirlds.logging.LogMarker.EXCEPTION;
 import static com.swirlds.logging.LogMarker.EXPIRE_EVENT;
 import static com.swirlds.logging.LogMarker.INVALID_EVENT_ERROR;
 import static com.swirlds.logging.LogMarker.RECONNECT_SGM;
@@ -64,6 +65,8 @@ import static com.swirlds.platform.Settings.minTransTimestampIncrNanos;
  * if care is taken so that only one thread at a time can be in the call to addEvent, then only one
  * thread at a time will be anywhere in this is class (except for the getters). None of the variables
  * are volatile, so calls to the getters by other threads may not see effects of addEvent immediately.
+ * The getters that read lists of events or generation bounds never wait for addEvent: they read the
+ * immutable {@link ConsensusSnapshot} that is published at the end of each call to addEvent.
  *
  * The consensus order is calculated incrementally: each time a new event is added to the hashgraph, it
  * immediately finds the consensus order for all the older events for which that is possible. It uses a
@@ -194,6 +197,9 @@ public class ConsensusImpl implements Consensus {
 	/** an array that keeps the last consensus event by each member. */
 	private final AtomicReferenceArray<EventImpl> lastConsEventByMember;
 
+	/** memoizes lastSee and stronglySeeP for every event, in primitive arrays indexed by event and member */
+	private final ConsensusEventIndex eventIndex;
+
 	/**
 	 * maximum round number of all events stored in "rounds", or -1 if none. This is the max round created
 	 * of all events ever added to the hashgraph.
@@ -249,6 +255,40 @@ public class ConsensusImpl implements Consensus {
 	/** the number of coin rounds that have happened so far (used to update the statistics) */
 	private long numCoinRounds = 0;
 
+	/** the number of nanoseconds in a second */
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	/** the latest time that received times can represent, in nanoseconds since the epoch */
+	private static final long MAX_EPOCH_NANOS = (Long.MAX_VALUE / NANOS_PER_SECOND) * NANOS_PER_SECOND - 1;
+
+	/** the earliest time that received times can represent, in nanoseconds since the epoch */
+	private static final long MIN_EPOCH_NANOS = (Long.MIN_VALUE / NANOS_PER_SECOND) * NANOS_PER_SECOND;
+
+	/** the initial size of the stacks used by the ValidAncestorsIterator */
+	private static final int INITIAL_STACK_SIZE = 300;
+
+	/** the initial size of the event log read by snapshots */
+	private static final int INITIAL_EVENT_LOG_SIZE = 1024;
+
+	/**
+	 * every event stored in the rounds, in the order it was added, possibly followed by some whose rounds have been
+	 * deleted. Only the first eventLogLength elements are used. Elements are never overwritten, see
+	 * {@link #appendToEventLog(EventImpl)}.
+	 */
+	private EventImpl[] eventLog = new EventImpl[INITIAL_EVENT_LOG_SIZE];
+
+	/** the number of elements used in eventLog */
+	private int eventLogLength = 0;
+
+	/** the number of events stored in the rounds */
+	private int numEvents = 0;
+
+	/** the number of events that have ever been stored in the rounds */
+	private long numEventsAdded = 0;
+
+	/** the most recently published snapshot, which other threads can read without acquiring the lock */
+	private volatile ConsensusSnapshot snapshot;
+
 	/**
 	 * The minimum judge generation number from the oldest non-expired round, if there is one.
 	 * Else, this is the minimum judge generation number from the oldest round in memory, if there is one.
@@ -303,6 +343,10 @@ public class ConsensusImpl implements Consensus {
 		this.rounds = new ConcurrentHashMap<>();
 
 		this.lastConsEventByMember = new AtomicReferenceArray<>(addressBook.getSize());
+
+		this.eventIndex = new ConsensusEventIndex(addressBook.getSize());
+
+		publishSnapshot();
 	}
 
 	/**
@@ -364,6 +408,7 @@ public class ConsensusImpl implements Consensus {
 				final RoundInfo roundInfo = createRoundForSignedStateConstructor(event.getRoundCreated(), minGen);
 
 				roundInfo.allEvents.add(event);
+				appendToEventLog(event);
 				roundInfo.fameDecided = true;
 			}
 		}
@@ -378,6 +423,8 @@ public class ConsensusImpl implements Consensus {
 		updateMaxRoundGeneration();
 		updateMinRoundGeneration();
 
+		publishSnapshot();
+
 		LogManager.getLogger().debug(STARTUP.getMarker(),
 				"ConsensusImpl is initialized from signed state. minRound: {}(min gen = {}), maxRound: {}(max gen = " +
 						"{})",
@@ -399,9 +446,9 @@ public class ConsensusImpl implements Consensus {
 		if (rounds.isEmpty()) {
 			// First execution
 			newMinRoundGeneration = RoundInfo.MIN_FAMOUS_WITNESS_GENERATION_UNDEFINED;
-		} else if (rounds.get(getMinRoundNonExpired()) != null) {
+		} else if (rounds.get(calcMinRoundNonExpired()) != null) {
 			// This is typical.
-			newMinRoundGeneration = rounds.get(getMinRoundNonExpired()).getMinGeneration();
+			newMinRoundGeneration = rounds.get(calcMinRoundNonExpired()).getMinGeneration();
 		} else {
 			// This usually happens at genesis or after a reconnect.
 			// It's possible this branch may be executed during steady state operation, but that should be rare.
@@ -634,8 +681,135 @@ public class ConsensusImpl implements Consensus {
 
 		this.eventsByCreatorSeq = new ConcurrentHashMap<>();
 		this.lastConsEventByMember = new AtomicReferenceArray<>(addressBook.getSize());
+		this.eventIndex = new ConsensusEventIndex(addressBook.getSize());
 
 		this.rounds = new ConcurrentHashMap<>();
+
+		publishSnapshot();
+	}
+
+	/**
+	 * Calculate the value returned by {@link #getMinGenerationNonAncient()} from the current state of the hashgraph.
+	 *
+	 * Executed only on consensus thread.
+	 *
+	 * @return the minimum generation of all the famous witnesses that are not in ancient rounds
+	 */
+	private long calcMinGenerationNonAncient() {
+		if (getLastRoundDecided() - Settings.state.roundsStale < 0) {
+			// if we dont have any stale rounds yet
+			return -1;
+		}
+
+		if (getLastRoundDecided() - Settings.state.roundsStale < minRound.get()) {
+			// this can happen after a restart when loading a state saved with the old code
+			for (int i = 0; i < 10; i++) {
+				RoundInfo ri = rounds.get(minRound.get());
+				if (ri != null) {
+					return ri.getMinGeneration();
+				}
+			}
+		}
+
+		// because LastRoundDecided can change, we try to get the min generation multiple times
+		// in practice, we should always get it on the first try
+		for (int i = 0; i < 10; i++) {
+			RoundInfo ri = rounds.get(getLastRoundDecided() - Settings.state.roundsStale);
+			if (ri != null) {
+				return ri.getMinGeneration();
+			}
+		}
+
+		// in case we don't find it, which will likely never happen, keep the value of the last snapshot rather than
+		// throwing on the consensus thread
+		final ConsensusSnapshot previous = snapshot;
+		log.error(EXCEPTION.getMarker(), "Cannot find stale round! lastRoundDecided: {}, minRound: {}",
+				getLastRoundDecided(), minRound.get());
+		return previous == null ? -1 : previous.getMinGenerationNonAncient();
+	}
+
+	/**
+	 * Calculate the value returned by {@link #getMinRoundNonExpired()} from the current state of the hashgraph.
+	 *
+	 * Executed only on consensus thread.
+	 *
+	 * @return the minimum (oldest, least recent) round which is not yet expired
+	 */
+	private long calcMinRoundNonExpired() {
+		return getLastRoundDecided() - Settings.state.roundsExpired;
+	}
+
+	/**
+	 * Calculate the value returned by {@link #getMinGenerationNonExpired()} from the current state of the hashgraph.
+	 *
+	 * Executed only on consensus thread.
+	 *
+	 * @return the minimum (oldest, least recent) generation which is not yet expired
+	 */
+	private long calcMinGenerationNonExpired() {
+		long minGenNotExpired = -1;
+		final RoundInfo expRound = rounds.get(calcMinRoundNonExpired());
+		if (expRound != null) {
+			minGenNotExpired = expRound.getMinGeneration();
+		}
+
+		return minGenNotExpired;
+	}
+
+	/**
+	 * Append an event that was just stored in one of the rounds to the event log read by snapshots. If the log is
+	 * full, the events whose rounds have been deleted are left out of the new, larger log. Snapshots that were already
+	 * published keep reading the old log, which is never written again.
+	 *
+	 * Executed only on consensus thread.
+	 *
+	 * @param event
+	 * 		the event that was added to the hashgraph
+	 */
+	private void appendToEventLog(final EventImpl event) {
+		if (eventLogLength == eventLog.length) {
+			final long min = minRound.get();
+			int live = 0;
+			for (int i = 0; i < eventLogLength; i++) {
+				if (eventLog[i].getRoundCreated() >= min) {
+					live++;
+				}
+			}
+			final EventImpl[] newLog = new EventImpl[Math.max(INITIAL_EVENT_LOG_SIZE, 2 * live)];
+			int j = 0;
+			for (int i = 0; i < eventLogLength; i++) {
+				if (eventLog[i].getRoundCreated() >= min) {
+					newLog[j++] = eventLog[i];
+				}
+			}
+			eventLog = newLog;
+			eventLogLength = j;
+		}
+		eventLog[eventLogLength++] = event;
+		numEvents++;
+		numEventsAdded++;
+	}
+
+	/**
+	 * Publish a new snapshot of the hashgraph for other threads to read. This is called whenever a public method
+	 * finishes changing the hashgraph.
+	 *
+	 * Executed only on consensus thread.
+	 */
+	private void publishSnapshot() {
+		snapshot = new ConsensusSnapshot(
+				numEventsAdded,
+				minRound.get(),
+				maxRound.get(),
+				getLastRoundDecided(),
+				calcMinRoundNonExpired(),
+				calcMinGenerationNonAncient(),
+				calcMinGenerationNonExpired(),
+				minRoundGeneration,
+				maxRoundGeneration,
+				numEvents,
+				eventLog,
+				eventLogLength);
 	}
 
 	////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -694,119 +868,64 @@ public class ConsensusImpl implements Consensus {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized long getMinGenerationNonAncient() {
-		if (getLastRoundDecided() - Settings.state.roundsStale < 0) {
-			// if we dont have any stale rounds yet
-			return -1;
-		}
-
-		if (getLastRoundDecided() - Settings.state.roundsStale < minRound.get()) {
-			// this can happen after a restart when loading a state saved with the old code
-			for (int i = 0; i < 10; i++) {
-				RoundInfo ri = rounds.get(minRound.get());
-				if (ri != null) {
-					return ri.getMinGeneration();
-				}
-			}
-		}
-
-		// because LastRoundDecided can change, we try to get the min generation multiple times
-		// in practice, we should always get it on the first try
-		for (int i = 0; i < 10; i++) {
-			RoundInfo ri = rounds.get(getLastRoundDecided() - Settings.state.roundsStale);
-			if (ri != null) {
-				return ri.getMinGeneration();
-			}
-		}
-		// in case we don't find it, we throw an exception that will likely never happen
-		throw new RuntimeException("Cannot find stale round!");
+	public ConsensusSnapshot getSnapshot() {
+		return snapshot;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized long getMinRoundNonExpired() {
-		return getLastRoundDecided() - Settings.state.roundsExpired;
+	public long getMinGenerationNonAncient() {
+		return snapshot.getMinGenerationNonAncient();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized long getMinGenerationNonExpired() {
-		final long minRoundNotExpired = getLastRoundDecided() - Settings.state.roundsExpired;
-		long minGenNotExpired = -1;
-		final RoundInfo expRound = rounds.get(minRoundNotExpired);
-		if (expRound != null) {
-			minGenNotExpired = expRound.getMinGeneration();
-		}
-
-		return minGenNotExpired;
+	public long getMinRoundNonExpired() {
+		return snapshot.getMinRoundNonExpired();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized EventImpl[] getAllEvents() {
-		ArrayList<EventImpl> all = new ArrayList<>();
-		for (long r = minRound.get(); r <= maxRound.get(); r++) {
-			RoundInfo info = rounds.get(r); // each element of rounds has its own lock
-			if (info != null) {
-				all.addAll(info.allEvents); // allEvents has its own lock
-			}
-		}
-		return all.toArray(new EventImpl[0]);
+	public long getMinGenerationNonExpired() {
+		return snapshot.getMinGenerationNonExpired();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized int getNumEvents() {
-		int count = 0;
-		for (long r = minRound.get(); r <= maxRound.get(); r++) {
-			final RoundInfo info = rounds.get(r); // each element of rounds has its own lock
-
-			if (info != null) {
-				count += info.allEvents.size(); // allEvents has its own lock
-			}
-		}
-		return count;
+	public EventImpl[] getAllEvents() {
+		return snapshot.getAllEvents();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized EventImpl[] getRecentEvents(final long minGenerationNumber) {
-		final ArrayList<EventImpl> recentEvents = new ArrayList<>();
-
-		for (long r = maxRound.get(); r >= minRound.get(); --r) {
-			RoundInfo info = rounds.get(r); // each element of rounds has its own lock
-
-			if (info == null) {
-				// Round has been deleted because expired, so all older rounds are
-				// also deleted-as-expired.
-				break;
-			}
-
-			for (final EventImpl e : info.allEvents) {
-				if (e.getGeneration() >= minGenerationNumber) {
-					recentEvents.add(e);
-				}
-			}
-		}
+	public int getNumEvents() {
+		return snapshot.getNumEvents();
+	}
 
-		return recentEvents.toArray(new EventImpl[0]);
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public EventImpl[] getRecentEvents(final long minGenerationNumber) {
+		return snapshot.getRecentEvents(minGenerationNumber);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized EventImpl getEvent(CreatorSeqPair pair) {
+	public EventImpl getEvent(CreatorSeqPair pair) {
+		// both maps are thread safe, so there is no need to wait for addEvent
 		final EventImpl event = eventsByCreatorSeq.get(pair);
 		if (event == null) {
 			EventImpl lastEvent = lastConsEventByMember.get((int) pair.getCreatorId());
@@ -922,10 +1041,42 @@ public class ConsensusImpl implements Consensus {
 		// finish recording the event in 2 ways
 		roundInfo.allEvents.add(event); // this was an event created in this round
 		roundInfo.nonConsensusEvents.add(event); // there isn't yet a consensus on this event
+		appendToEventLog(event);
+
+		publishSnapshot();
 
 		return newConsensusEvents;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>Each event is added by {@link #addEvent(EventImpl, AddressBook)}, which reacquires the lock already held
+	 * here, so the batch is never interleaved with other threads, and a snapshot is still published after each
+	 * event for the readers.
+	 */
+	@Override
+	public synchronized List<EventImpl> addEvents(
+			final List<EventImpl> events,
+			final AddressBook addressBook,
+			final Predicate<EventImpl> discard) {
+		List<EventImpl> consensusEvents = null;
+		for (final EventImpl event : events) {
+			if (discard.test(event)) {
+				continue;
+			}
+			final List<EventImpl> newConsensusEvents = addEvent(event, addressBook);
+			if (newConsensusEvents != null) {
+				if (consensusEvents == null) {
+					consensusEvents = new ArrayList<>(newConsensusEvents);
+				} else {
+					consensusEvents.addAll(newConsensusEvents);
+				}
+			}
+		}
+		return consensusEvents;
+	}
+
 	/**
 	 * Check if event is a witness, and if it is, make it vote in all elections in its created round. This should be
 	 * called on a round R only if it has already been called on round R-1.
@@ -945,7 +1096,21 @@ public class ConsensusImpl implements Consensus {
 		}
 		List<EventImpl> cons = new LinkedList<>();//all events reaching consensus now, in consensus order
 		int voterId = (int) event.getCreatorId();
-		for (RoundInfo.ElectionRound election = roundInfo.elections; election != null; election = election.nextElection) { // for all elections
+		int numSeen = stronglySeen.size(); //number of witnesses whose votes are counted
+		int[] seenIds = new int[numSeen]; //creator of each strongly seen witness
+		long[] seenStakes = new long[numSeen]; //stake of each strongly seen witness
+		long seenStake = 0; //total stake of all strongly seen witnesses
+		for (int i = 0; i < numSeen; i++) {
+			seenIds[i] = (int) stronglySeen.get(i).getCreatorId();
+			seenStakes[i] = addressBook.getStake(seenIds[i]);
+			seenStake += seenStakes[i];
+		}
+		long totalStake = addressBook.getTotalStake();
+		//whether the vote decides each election in this round, if they were counted in parallel, else null
+		boolean[] decisions = countVotesInParallel(event, roundInfo, seenIds, seenStakes, seenStake);
+		int electionIndex = 0; //position of election in the list of elections of this round
+		for (RoundInfo.ElectionRound election = roundInfo.elections; election != null;
+				election = election.nextElection, electionIndex++) { // for all elections
 			if (election.age == 1) {
 				// first round of an election. Vote TRUE for self-ancestors of those you firstSee. Don't decide.
 				EventImpl w = firstSee(event, election.event.getCreatorId());
@@ -955,45 +1120,19 @@ public class ConsensusImpl implements Consensus {
 				election.vote[voterId] = (election.event == w);
 			} else {
 				// either a coin round or normal round, so count votes from witnesses you strongly see
-				long yesStake = 0; //total stake of all members voting yes
-				long noStake = 0; //total stake of all members voting yes
-				for (EventImpl w : stronglySeen) {
-					int id = (int) w.getCreatorId();
-					long stake = addressBook.getStake(id);
-					if (election.prevRound.vote[id]) {
-						yesStake += stake;
-					} else {
-						noStake += stake;
-					}
-				}
-				long totalStake = addressBook.getTotalStake();
-				boolean superMajority = Utilities.isSupermajority(yesStake, totalStake)
-						|| Utilities.isSupermajority(noStake, totalStake);
-
-				election.vote[voterId] = (yesStake >= noStake);
 				if ((election.age % Settings.coinFreq) == 0) {
-					// a coin round. Vote randomly unless you strongly see a supermajority. Don't decide.
 					numCoinRounds++;
-					if (!superMajority) {
-						if ((election.age % (2
-								* Settings.coinFreq)) == Settings.coinFreq) {
-							election.vote[voterId] = true; // every other "coin round" is just coin=true
-						} else {
-							// coin is one bit from signature (LSB of second of two middle bytes)
-							election.vote[voterId] = coin(event);
-						}
-					}
-				} else {
-					// a normal round. Vote with the majority of those you strongly see.
-					// If you strongly see a supermajority one way, then decide that way.
-					if (superMajority) {
-						//we've decided one famous event. Set it as famous. If that round is now decided, remember the
-						// new consensus events
-						List<EventImpl> c = setFamous(election.event, rounds.get(election.event.getRoundCreated()),
-								election.vote[voterId], election);
-						if (c != null) {
-							cons.addAll(c);
-						}
+				}
+				boolean decided = decisions != null
+						? decisions[electionIndex]
+						: countVote(event, election, seenIds, seenStakes, seenStake, totalStake);
+				if (decided) {
+					//we've decided one famous event. Set it as famous. If that round is now decided, remember the
+					// new consensus events
+					List<EventImpl> c = setFamous(election.event, rounds.get(election.event.getRoundCreated()),
+							election.vote[voterId], election);
+					if (c != null) {
+						cons.addAll(c);
 					}
 				}
 			}
@@ -1002,6 +1141,163 @@ public class ConsensusImpl implements Consensus {
 		return cons.size() == 0 ? null : cons;
 	}
 
+	/**
+	 * Cast the vote of a witness in an election past its first round, from the votes of the witnesses it strongly
+	 * sees in the previous round.
+	 * <p>
+	 * This only reads votes cast in earlier rounds, which never change once cast, and only writes the vote of the
+	 * voter in this election, so it can safely be called concurrently for different elections of the same round.
+	 *
+	 * @param voter
+	 * 		the witness that is voting
+	 * @param election
+	 * 		the election to vote in (must be past its first round)
+	 * @param seenIds
+	 * 		the creator of each strongly seen witness in the previous round
+	 * @param seenStakes
+	 * 		the stake of each strongly seen witness in the previous round
+	 * @param seenStake
+	 * 		the total stake of the strongly seen witnesses
+	 * @param totalStake
+	 * 		the total stake in existence
+	 * @return true if the vote decides the election, in which case fame is decided the way the voter voted
+	 */
+	private static boolean countVote(EventImpl voter, RoundInfo.ElectionRound election, int[] seenIds,
+			long[] seenStakes, long seenStake, long totalStake) {
+		int voterId = (int) voter.getCreatorId();
+		long yesStake = countYesStake(election, seenIds, seenStakes); //total stake of all members voting yes
+		long noStake = seenStake - yesStake; //total stake of all members voting no
+		boolean superMajority = Utilities.isSupermajority(yesStake, totalStake)
+				|| Utilities.isSupermajority(noStake, totalStake);
+
+		election.vote[voterId] = (yesStake >= noStake);
+		if ((election.age % Settings.coinFreq) == 0) {
+			// a coin round. Vote randomly unless you strongly see a supermajority. Don't decide.
+			if (!superMajority) {
+				if ((election.age % (2
+						* Settings.coinFreq)) == Settings.coinFreq) {
+					election.vote[voterId] = true; // every other "coin round" is just coin=true
+				} else {
+					// coin is one bit from signature (LSB of second of two middle bytes)
+					election.vote[voterId] = coin(voter);
+				}
+			}
+			return false;
+		}
+		// a normal round. Vote with the majority of those you strongly see.
+		// If you strongly see a supermajority one way, then decide that way.
+		return superMajority;
+	}
+
+	/**
+	 * If {@link Settings#parallelFameVoting} is enabled and the round has enough elections to be worth it, cast the
+	 * votes of a witness in every election of its round that is past its first round, on the common fork-join pool.
+	 * <p>
+	 * Each election only depends on its own votes from the previous round, so they can be counted in any order. The
+	 * results are returned in the order of the elections list, and the calling thread then casts the first round
+	 * votes and calls setFamous in that order, exactly as when counting serially. So the consensus order is the
+	 * same either way.
+	 *
+	 * @param voter
+	 * 		the witness that is voting
+	 * @param roundInfo
+	 * 		the round of the voter
+	 * @param seenIds
+	 * 		the creator of each witness in the previous round that the voter strongly sees
+	 * @param seenStakes
+	 * 		the stake of each witness in the previous round that the voter strongly sees
+	 * @param seenStake
+	 * 		the total stake of the strongly seen witnesses
+	 * @return whether the vote decides each election (false for first round elections), or null if not counted
+	 */
+	private boolean[] countVotesInParallel(EventImpl voter, RoundInfo roundInfo, int[] seenIds, long[] seenStakes,
+			long seenStake) {
+		if (!Settings.parallelFameVoting) {
+			return null;
+		}
+		List<RoundInfo.ElectionRound> elections = new ArrayList<>();
+		for (RoundInfo.ElectionRound e = roundInfo.elections; e != null; e = e.nextElection) {
+			elections.add(e);
+		}
+		if (elections.size() < 2 * Settings.fameVotingBatchSize) {
+			return null;
+		}
+		boolean[] decisions = new boolean[elections.size()];
+		ForkJoinPool.commonPool().invoke(new VoteCountingTask(voter, elections, seenIds, seenStakes, seenStake,
+				addressBook.getTotalStake(), decisions, 0, elections.size()));
+		return decisions;
+	}
+
+	/**
+	 * Casts the votes of a witness for a range of elections, splitting the range in half until it is no more than
+	 * {@link Settings#fameVotingBatchSize} elections. Each decision is written to its own slot of the result array,
+	 * and each vote to its own election.
+	 */
+	private static final class VoteCountingTask extends RecursiveAction {
+		private final EventImpl voter;
+		private final List<RoundInfo.ElectionRound> elections;
+		private final int[] seenIds;
+		private final long[] seenStakes;
+		private final long seenStake;
+		private final long totalStake;
+		private final boolean[] decisions;
+		private final int from;
+		private final int to;
+
+		VoteCountingTask(EventImpl voter, List<RoundInfo.ElectionRound> elections, int[] seenIds,
+				long[] seenStakes, long seenStake, long totalStake, boolean[] decisions, int from, int to) {
+			this.voter = voter;
+			this.elections = elections;
+			this.seenIds = seenIds;
+			this.seenStakes = seenStakes;
+			this.seenStake = seenStake;
+			this.totalStake = totalStake;
+			this.decisions = decisions;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= Settings.fameVotingBatchSize) {
+				for (int i = from; i < to; i++) {
+					RoundInfo.ElectionRound election = elections.get(i);
+					if (election.age != 1) {
+						decisions[i] = countVote(voter, election, seenIds, seenStakes, seenStake, totalStake);
+					}
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new VoteCountingTask(voter, elections, seenIds, seenStakes, seenStake, totalStake,
+							decisions, from, mid),
+					new VoteCountingTask(voter, elections, seenIds, seenStakes, seenStake, totalStake,
+							decisions, mid, to));
+		}
+	}
+
+	/**
+	 * Count the stake of the witnesses that voted yes in the previous round of an election.
+	 *
+	 * @param election
+	 * 		the election to count votes for (must be past its first round)
+	 * @param seenIds
+	 * 		the creator of each strongly seen witness in the previous round
+	 * @param seenStakes
+	 * 		the stake of each strongly seen witness in the previous round
+	 * @return the total stake of the strongly seen witnesses that voted yes
+	 */
+	private static long countYesStake(RoundInfo.ElectionRound election, int[] seenIds, long[] seenStakes) {
+		boolean[] prevVote = election.prevRound.vote;
+		long yesStake = 0;
+		for (int i = 0; i < seenIds.length; i++) {
+			if (prevVote[seenIds[i]]) {
+				yesStake += seenStakes[i];
+			}
+		}
+		return yesStake;
+	}
+
 	////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 	// All methods and inner classes below this line are private
 	////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1275,11 +1571,12 @@ public class ConsensusImpl implements Consensus {
 		delRounds(); // we could delete old rounds more often, but once per new decided round is enough
 
 		//now that a new round reached consensus, some events became ancient, so set the non-consensus ones to stale
+		final long minGenerationNonAncient = calcMinGenerationNonAncient();
 		for (long r = minRound.get(); r <= roundInfo.getRound(); r++) {
 			RoundInfo info = rounds.get(r); // each element of rounds has its own lock
 			if (info != null) {
 				for (EventImpl e : info.allEvents) { // allEvents has its own lock
-					if (!e.isConsensus() && !e.isStale() && e.getGeneration() < getMinGenerationNonAncient()) {
+					if (!e.isConsensus() && !e.isStale() && e.getGeneration() < minGenerationNonAncient) {
 						staleEvent(e);
 					}
 				}
@@ -1402,14 +1699,24 @@ public class ConsensusImpl implements Consensus {
 						continue;
 					}
 					if (event.getRecTimes() == null) {
-						event.setRecTimes(new ArrayList<>());
+						event.setRecTimes(new long[numJudges]);
 						visited.add(event);
 					}
 					//this is one of the times that will affect the median
-					event.getRecTimes().add(nonConsensusAncestors.getTime()); //this is reset to null after this loop
+					final long recTime = nonConsensusAncestors.getTimeNanos();
+					if (event.getExactRecTimes() == null && isClampedEpochNanos(recTime)) {
+						//the nanoseconds no longer order the times exactly, so keep them all as instants from now on
+						final Instant[] exactRecTimes = new Instant[numJudges];
+						for (int i = 0; i < event.getNumRecTimes(); i++) {
+							exactRecTimes[i] = fromEpochNanos(event.getRecTimes()[i]);
+						}
+						event.setExactRecTimes(exactRecTimes);
+					}
+					//this is reset to null after this loop
+					event.addRecTime(recTime, nonConsensusAncestors.getTime());
 
 					//if it reached all the ufws, then it now has consensus
-					if (event.getRecTimes().size() == numJudges) {
+					if (event.getNumRecTimes() == numJudges) {
 						// event has reached consensus, so store it, set consensus timestamp, and set isConsensus to
 						// true
 						RoundInfo eventRoundInfo = rounds.get(event.getRoundCreated());
@@ -1436,21 +1743,27 @@ public class ConsensusImpl implements Consensus {
 			if (c != 0)
 				return c;
 
-			//subsort ties by extended median timestamp
-			ArrayList<Instant> recTimes1 = e1.getRecTimes();
-			ArrayList<Instant> recTimes2 = e2.getRecTimes();
-
-			int m1 = recTimes1.size() / 2; //middle position of e1 (the later of the two middles, if even length)
-			int m2 = recTimes2.size() / 2; //middle position of e2 (the later of the two middles, if even length)
-			int d = -1; //offset from median position to look at
-			while (m1 + d >= 0
-					&& m2 + d >= 0
-					&& m1 + d < recTimes1.size()
-					&& m2 + d < recTimes2.size()) {
-				c = recTimes1.get(m1 + d).compareTo(recTimes2.get(m2 + d));
+			//subsort ties by extended median timestamp (both arrays are sorted, and hold one time per judge)
+			if (e1.getExactRecTimes() != null || e2.getExactRecTimes() != null) {
+				c = compareExactExtendedMedians(e1, e2);
 				if (c != 0)
 					return c;
-				d = d < 0 ? -d : -d - 1; //use the median position plus -1, 1, -2, 2, -3, 3, ...
+			} else {
+				long[] recTimes1 = e1.getRecTimes();
+				long[] recTimes2 = e2.getRecTimes();
+
+				int m1 = recTimes1.length / 2; //middle position of e1 (the later of the two middles, if even length)
+				int m2 = recTimes2.length / 2; //middle position of e2 (the later of the two middles, if even length)
+				int d = -1; //offset from median position to look at
+				while (m1 + d >= 0
+						&& m2 + d >= 0
+						&& m1 + d < recTimes1.length
+						&& m2 + d < recTimes2.length) {
+					c = Long.compare(recTimes1[m1 + d], recTimes2[m2 + d]);
+					if (c != 0)
+						return c;
+					d = d < 0 ? -d : -d - 1; //use the median position plus -1, 1, -2, 2, -3, 3, ...
+				}
 			}
 
 			//subsort ties by generation
@@ -1527,6 +1840,7 @@ public class ConsensusImpl implements Consensus {
 			final RoundInfo info = rounds.get(r);
 			rounds.remove(r);
 			hashLists.remove(r);
+			numEvents -= info.allEvents.size();
 			if (r == hashRound) {
 				// we've now discarded the most recent of the hashList events, so clear everything for all 3 lists,
 				// except don't clear hashLists, because it is storing lists to be saved in the future, not the
@@ -1550,6 +1864,7 @@ public class ConsensusImpl implements Consensus {
 					// null out the references to other events, so the garbage collector can delete
 					// those older events
 					e.clear();
+					eventIndex.release(e);
 					log.debug(EXPIRE_EVENT.getMarker(),
 							"HG removing {}", e::toShortString);
 				}
@@ -1567,6 +1882,7 @@ public class ConsensusImpl implements Consensus {
 			EventImpl next = it.next();
 			if (!isLastConsEventByMember(next)) {
 				next.clear();
+				eventIndex.release(next);
 				log.debug(EXPIRE_EVENT.getMarker(),
 						"HG removing {}", next::toShortString);
 				it.remove();
@@ -1589,11 +1905,19 @@ public class ConsensusImpl implements Consensus {
 		event.setRoundReceived(receivedRoundInfo.getRound());
 		event.setConsensus(true);
 
-		ArrayList<Instant> times = event.getRecTimes(); //list of when e1 first became ancestor of each ufw
-		//sort ascending the received times. Used to find the median now, and the extended median later.
-		Collections.sort(times);
-		// take middle. If there are 2 middle (even length) then use the 2nd (max) of them
-		event.setConsensusTimestamp(times.get(times.size() / 2));
+		if (event.getExactRecTimes() != null) {
+			Instant[] times = event.getExactRecTimes(); //when e1 first became ancestor of each ufw
+			//sort ascending the received times. Used to find the median now, and the extended median later.
+			Arrays.sort(times);
+			// take middle. If there are 2 middle (even length) then use the 2nd (max) of them
+			event.setConsensusTimestamp(times[times.length / 2]);
+		} else {
+			long[] times = event.getRecTimes(); //when e1 first became ancestor of each ufw, in nanoseconds
+			//sort ascending the received times. Used to find the median now, and the extended median later.
+			Arrays.sort(times);
+			// take middle. If there are 2 middle (even length) then use the 2nd (max) of them
+			event.setConsensusTimestamp(fromEpochNanos(times[times.length / 2]));
+		}
 
 		event.setReachedConsTimestamp(Instant.now()); //used for statistics
 
@@ -1714,40 +2038,55 @@ public class ConsensusImpl implements Consensus {
 	 */
 	private EventImpl lastSee(EventImpl x, long m) {
 		int numMembers;
-		EventImpl sp, op;
+		int xi; //index of x in eventIndex
 
 		if (x == null) {
 			return null;
 		}
-		if (x.sizeLastSee() != 0) { //return memoized answer, if available
-			return x.getLastSee((int) m);
+		xi = eventIndex.indexOf(x);
+		if (xi == ConsensusEventIndex.NONE) { //x has been released, so its answers are no longer memoized
+			return calculateLastSee(x, m);
+		}
+		if (eventIndex.isLastSeeMemoized(xi)) { //return memoized answer, if available
+			return eventIndex.getLastSee(xi, (int) m);
 		}
 		//memoize answers for all choices of m, then return answer for just this m
 		numMembers = getAddressBook().getSize();
-		x.initLastSee(numMembers);
-
-		op = x.getOtherParent();
-		sp = x.getSelfParent();
+		eventIndex.initLastSee(xi);
 
 		for (int mm = 0; mm < numMembers; mm++) {
-			if (x.getCreatorId() == mm) {
-				x.setLastSee(mm, x);
-			} else if (sp == null && op == null) {
-				x.setLastSee(mm, null);
-			} else {
-				EventImpl lsop = lastSee(op, mm);
-				EventImpl lssp = lastSee(sp, mm);
-				long lsopGen = lsop == null ? 0 : lsop.getGeneration();
-				long lsspGen = lssp == null ? 0 : lssp.getGeneration();
-				if ((round(lsop) > round(lssp))
-						|| ((lsopGen > lsspGen) && (firstSee(op, mm) == firstSee(sp, mm)))) {
-					x.setLastSee(mm, lsop);
-				} else {
-					x.setLastSee(mm, lssp);
-				}
-			}
+			eventIndex.setLastSee(xi, mm, calculateLastSee(x, mm));
 		}
-		return x.getLastSee((int) m);
+		return eventIndex.getLastSee(xi, (int) m);
+	}
+
+	/**
+	 * Calculate {@link #lastSee(EventImpl, long)} for one member from the answers for the parents of x.
+	 *
+	 * @param x
+	 * 		the event being queried (must not be null)
+	 * @param m
+	 * 		the member ID of the creator
+	 * @return the last event created by m that is an ancestor of x, or null if none
+	 */
+	private EventImpl calculateLastSee(EventImpl x, long m) {
+		EventImpl op = x.getOtherParent();
+		EventImpl sp = x.getSelfParent();
+
+		if (x.getCreatorId() == m) {
+			return x;
+		} else if (sp == null && op == null) {
+			return null;
+		}
+		EventImpl lsop = lastSee(op, m);
+		EventImpl lssp = lastSee(sp, m);
+		long lsopGen = lsop == null ? 0 : lsop.getGeneration();
+		long lsspGen = lssp == null ? 0 : lssp.getGeneration();
+		if ((round(lsop) > round(lssp))
+				|| ((lsopGen > lsspGen) && (firstSee(op, m) == firstSee(sp, m)))) {
+			return lsop;
+		}
+		return lssp;
 	}
 
 	/**
@@ -1790,55 +2129,68 @@ public class ConsensusImpl implements Consensus {
 	private EventImpl stronglySeeP(EventImpl x, long m) {
 		long t = System.nanoTime(); //Used to update statistic for dot product time
 		EventImpl result; //the witness to return (possibly null)
+		int xi = x == null ? -1 : eventIndex.indexOf(x); //index of x in eventIndex
 
 		if (x == null) { //if there is no event, then it can't see anything
 			result = null;
-		} else if (x.sizeStronglySeeP() != 0) { //return memoized answer, if available
-			result = x.getStronglySeeP((int) m);
+		} else if (xi == ConsensusEventIndex.NONE) { //x has been released, so its answers are no longer memoized
+			result = calculateStronglySeeP(x, m, parentRound(x));
+		} else if (eventIndex.isStronglySeePMemoized(xi)) { //return memoized answer, if available
+			result = eventIndex.getStronglySeeP(xi, (int) m);
 		} else { //calculate the answer, and remember it for next time
 			//find and memoize answers for all choices of m, then return answer for just this m
 			int numMembers = getAddressBook().getSize(); //number of members
-			long totalStake = addressBook.getTotalStake(); //total stake in existence
-			EventImpl sp = x.getSelfParent(); //self parent
-			EventImpl op = x.getOtherParent(); //other parent
 			long prx = parentRound(x); //parent round of x
-			long prsp = parentRound(sp); //parent round of self parent of x
-			long prop = parentRound(op); //parent round of other parent of x
 
-			x.initStronglySeeP(numMembers);
+			eventIndex.initStronglySeeP(xi);
 			for (int mm = 0; mm < numMembers; mm++) {
-				if (stronglySeeP(sp,
-						mm) != null && prx == prsp) {
-					x.setStronglySeeP(mm, stronglySeeP(sp, mm));
-				} else if (stronglySeeP(op, mm) != null && prx == prop) {
-					x.setStronglySeeP(mm, stronglySeeP(op, mm));
-				} else {
-					EventImpl st = seeThru(x, mm, mm); //the canonical witness by mm that is seen by x thru someone else
-					if (round(st) != prx) { //ignore if the canonical is in the wrong round, or doesn't exist
-						x.setStronglySeeP(mm, null);
-					} else {
-						long stake = 0;
-						for (long m3 = 0; m3 < numMembers; m3++) {
-							if (seeThru(x, mm, m3) == st) {  //only count intermediates that see the canonical witness
-								stake += addressBook.getStake(m3);
-							}
-						}
-						if (Utilities.isSupermajority(stake, totalStake)) { //strongly see supermajority of
-							// intermediates
-							x.setStronglySeeP(mm, st);
-						} else {
-							x.setStronglySeeP(mm, null);
-						}
-					}
-				}
+				eventIndex.setStronglySeeP(xi, mm, calculateStronglySeeP(x, mm, prx));
 			}
-			result = x.getStronglySeeP((int) m);
+			result = eventIndex.getStronglySeeP(xi, (int) m);
 		}
 		t = System.nanoTime() - t; // nanoseconds spent doing the dot product
 		statsSupplier.get().dotProductTime(t);
 		return result;
 	}
 
+	/**
+	 * Calculate {@link #stronglySeeP(EventImpl, long)} for one member from the answers for the parents of x.
+	 *
+	 * @param x
+	 * 		the event being queried (must not be null)
+	 * @param m
+	 * 		the member ID of the creator
+	 * @param prx
+	 * 		the parent round of x
+	 * @return witness created by m in the parent round of x that x strongly sees, or null if none
+	 */
+	private EventImpl calculateStronglySeeP(EventImpl x, long m, long prx) {
+		int numMembers = getAddressBook().getSize(); //number of members
+		long totalStake = addressBook.getTotalStake(); //total stake in existence
+		EventImpl sp = x.getSelfParent(); //self parent
+		EventImpl op = x.getOtherParent(); //other parent
+
+		if (stronglySeeP(sp, m) != null && prx == parentRound(sp)) {
+			return stronglySeeP(sp, m);
+		} else if (stronglySeeP(op, m) != null && prx == parentRound(op)) {
+			return stronglySeeP(op, m);
+		}
+		EventImpl st = seeThru(x, m, m); //the canonical witness by m that is seen by x thru someone else
+		if (round(st) != prx) { //ignore if the canonical is in the wrong round, or doesn't exist
+			return null;
+		}
+		long stake = 0;
+		for (long m3 = 0; m3 < numMembers; m3++) {
+			if (seeThru(x, m, m3) == st) {  //only count intermediates that see the canonical witness
+				stake += addressBook.getStake(m3);
+			}
+		}
+		if (Utilities.isSupermajority(stake, totalStake)) { //strongly see supermajority of intermediates
+			return st;
+		}
+		return null;
+	}
+
 	/**
 	 * The round-created for event x (first round is 1), or 0 if x is null (function from SWIRLDS-TR-2020-01).
 	 * It also stores the round number with x.setRoundCreated().
@@ -2060,7 +2412,7 @@ public class ConsensusImpl implements Consensus {
 	 * 		the event that will vote with a coin flip
 	 * @return true if voting for famous, false if voting for not famous
 	 */
-	private boolean coin(EventImpl event) {
+	private static boolean coin(EventImpl event) {
 		return ((event.getSignature()[(event.getSignature().length / 2)] & 1) == 1);
 	}
 
@@ -2088,6 +2440,78 @@ public class ConsensusImpl implements Consensus {
 		return t;
 	}
 
+	/**
+	 * Compare the extended medians of two events that reached consensus, as the consensus order does, when at least
+	 * one of them kept its exact received times.
+	 *
+	 * @return the order of the extended medians, or 0 if they are equal
+	 */
+	private static int compareExactExtendedMedians(final EventImpl e1, final EventImpl e2) {
+		int length1 = e1.getRecTimes().length;
+		int length2 = e2.getRecTimes().length;
+		int m1 = length1 / 2; //middle position of e1 (the later of the two middles, if even length)
+		int m2 = length2 / 2; //middle position of e2 (the later of the two middles, if even length)
+		int d = -1; //offset from median position to look at
+		while (m1 + d >= 0
+				&& m2 + d >= 0
+				&& m1 + d < length1
+				&& m2 + d < length2) {
+			int c = getRecTime(e1, m1 + d).compareTo(getRecTime(e2, m2 + d));
+			if (c != 0)
+				return c;
+			d = d < 0 ? -d : -d - 1; //use the median position plus -1, 1, -2, 2, -3, 3, ...
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the received time at a position of the sorted received times of an event that reached consensus
+	 */
+	private static Instant getRecTime(final EventImpl event, final int index) {
+		final Instant[] exactRecTimes = event.getExactRecTimes();
+		return exactRecTimes != null ? exactRecTimes[index] : fromEpochNanos(event.getRecTimes()[index]);
+	}
+
+	/**
+	 * @return true if a time returned by {@link #toEpochNanos(Instant)} may have been clamped, and so may not order
+	 * 		exactly against other clamped times
+	 */
+	private static boolean isClampedEpochNanos(final long nanos) {
+		return nanos == MAX_EPOCH_NANOS || nanos == MIN_EPOCH_NANOS;
+	}
+
+	/**
+	 * Convert a time to the number of nanoseconds since the epoch, so that received times can be stored and sorted as
+	 * primitives. Times too early or too late to be represented (before 1677 or after 2262) are clamped to the
+	 * earliest or latest representable time. Clamping makes distinct times equal, so an event that records a clamped
+	 * received time keeps all its received times as instants as well, see {@link #isClampedEpochNanos(long)}.
+	 *
+	 * @param time
+	 * 		the time to convert
+	 * @return nanoseconds since the epoch
+	 */
+	static long toEpochNanos(final Instant time) {
+		final long seconds = time.getEpochSecond();
+		if (seconds >= MAX_EPOCH_NANOS / NANOS_PER_SECOND) {
+			return MAX_EPOCH_NANOS;
+		}
+		if (seconds < MIN_EPOCH_NANOS / NANOS_PER_SECOND) {
+			return MIN_EPOCH_NANOS;
+		}
+		return seconds * NANOS_PER_SECOND + time.getNano();
+	}
+
+	/**
+	 * The inverse of {@link #toEpochNanos(Instant)}
+	 *
+	 * @param nanos
+	 * 		nanoseconds since the epoch
+	 * @return the time
+	 */
+	static Instant fromEpochNanos(final long nanos) {
+		return Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+	}
+
 	/////////////////////////////////////////////////////////////
 	// Graph search Iterator and view
 	/////////////////////////////////////////////////////////////
@@ -2116,8 +2540,11 @@ public class ConsensusImpl implements Consensus {
 		/** the event whose ancestors we are getting */
 		private final EventImpl root;
 
-		/** the time when the event last returned by the iterator's next() first reached the creator of root */
-		private Instant timeReachedRoot;
+		/**
+		 * the self-ancestor of root whose creation time is when the event last returned by the iterator's next() first
+		 * reached the creator of root
+		 */
+		private EventImpl timeReachedRoot;
 
 		/** a lambda which filters which ancestors are of interest: only each event e for which valid(e)==true */
 		private final Predicate<EventImpl> valid;
@@ -2136,9 +2563,17 @@ public class ConsensusImpl implements Consensus {
 			this.valid = valid;
 		}
 
+		/**
+		 * @return the time (in nanoseconds since the epoch) when the event last returned by the iterator first reached
+		 * 		a self-ancestor of the root
+		 */
+		public long getTimeNanos() {
+			return toEpochNanos(timeReachedRoot.getTimeCreated());
+		}
+
 		/** @return the time when the event last returned by the iterator first reached a self-ancestor of the root */
 		public Instant getTime() {
-			return timeReachedRoot;
+			return timeReachedRoot.getTimeCreated();
 		}
 
 		/** @return an iterator for this ValidAncestorsView collection of Events. */
@@ -2153,10 +2588,12 @@ public class ConsensusImpl implements Consensus {
 			EventImpl curr; //the current event reached in the search
 			byte state = 0; //the state of the state machine searching from curr
 			boolean selfAncestor = true; //is curr a self ancestor of the judge?
-			Deque<EventImpl> stackRef = new ArrayDeque<>(300); //stack of EventImpl on the path to curr
-			Deque<Byte> stackState = new ArrayDeque<>(300); //stack of state
-			Deque<Boolean> stackSelfAncestor = new ArrayDeque<>(300); //stack of selfAncestor
-			Deque<Instant> stackTime = new ArrayDeque<>(300); //stack of timeReachedRoot
+			//the stack of the path to curr is kept in parallel primitive arrays, which grow as needed
+			int stackSize = 0; //number of elements on the stack
+			EventImpl[] stackRef = new EventImpl[INITIAL_STACK_SIZE]; //stack of EventImpl on the path to curr
+			byte[] stackState = new byte[INITIAL_STACK_SIZE]; //stack of state
+			boolean[] stackSelfAncestor = new boolean[INITIAL_STACK_SIZE]; //stack of selfAncestor
+			EventImpl[] stackTime = new EventImpl[INITIAL_STACK_SIZE]; //stack of timeReachedRoot
 			Predicate<EventImpl> valid;
 
 			/** construct iterator that will iterate over all ancestors of root (including itself) */
@@ -2164,7 +2601,34 @@ public class ConsensusImpl implements Consensus {
 				this.valid = valid;
 				curr = root;
 				currMark++; //unmark all the events, so the search can find them all again
-				timeReachedRoot = root.getTimeCreated(); //ancestors of curr reached creator then
+				timeReachedRoot = root; //ancestors of curr reached creator then
+			}
+
+			/** push the current position in the search onto the stack */
+			private void push() {
+				if (stackSize == stackRef.length) {
+					final int newSize = stackSize * 2;
+					stackRef = Arrays.copyOf(stackRef, newSize);
+					stackState = Arrays.copyOf(stackState, newSize);
+					stackSelfAncestor = Arrays.copyOf(stackSelfAncestor, newSize);
+					stackTime = Arrays.copyOf(stackTime, newSize);
+				}
+				stackRef[stackSize] = curr;
+				stackState[stackSize] = state;
+				stackSelfAncestor[stackSize] = selfAncestor;
+				stackTime[stackSize] = timeReachedRoot;
+				stackSize++;
+			}
+
+			/** pop the previous position in the search off the stack, and make it the current position */
+			private void pop() {
+				stackSize--;
+				curr = stackRef[stackSize];
+				stackRef[stackSize] = null;
+				state = stackState[stackSize];
+				selfAncestor = stackSelfAncestor[stackSize];
+				timeReachedRoot = stackTime[stackSize];
+				stackTime[stackSize] = null;
 			}
 
 			/**
@@ -2197,14 +2661,12 @@ public class ConsensusImpl implements Consensus {
 						EventImpl p = curr.getSelfParent();
 						state = 1;
 						if (p != null && p.getMark() != currMark && valid.test(p)) {
-							stackRef.push(curr);
-							stackState.push(state);
-							stackSelfAncestor.push(selfAncestor);
-							stackTime.push(timeReachedRoot);
+							push();
 							curr = p;
 							state = 0;
 							if (selfAncestor) {
-								timeReachedRoot = curr.getTimeCreated(); //ancestors of curr reached creator then
+								//ancestors of curr reached creator then
+								timeReachedRoot = curr;
 							}
 						} else { //there is no selfParent, or it was already visited, or it was consensus
 							state = 1;
@@ -2213,25 +2675,19 @@ public class ConsensusImpl implements Consensus {
 						EventImpl p = curr.getOtherParent();
 						state = 2;
 						if (p != null && p.getMark() != currMark && valid.test(p)) {
-							stackRef.push(curr);
-							stackState.push(state);
-							stackSelfAncestor.push(selfAncestor);
-							stackTime.push(timeReachedRoot);
+							push();
 							curr = p;
 							state = 0;
 							selfAncestor = false; //first step off the selfAncestor path makes all the events below
 							// false
 						} //else there is no otherParent, or it was already visited, or it was consensus
 					} else if (state == 2) { //done with ancestors of curr, so return curr then backtrack
-						if (stackRef.size() == 0) { //if we're back to the root
+						if (stackSize == 0) { //if we're back to the root
 							hasNext = false; //then there are no more
 							return curr; //return this root
 						}
 						EventImpl toReturn = curr; //else we are done with all the descendents, so backtrack
-						curr = stackRef.pop();
-						state = stackState.pop();
-						selfAncestor = stackSelfAncestor.pop();
-						timeReachedRoot = stackTime.pop();
+						pop();
 						return toReturn; //return the child of the vertex we just backtracked to
 					} else { //this should never happen (illegal state number)
 					}
@@ -0,0 +1,198 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable view of the hashgraph held by a {@link Consensus} object, as it was at the end of one call to
+ * {@link Consensus#addEvent}. A new snapshot is published after every event is added, so threads that only need to
+ * read the hashgraph (sync, statistics, the UI) can do so without waiting for consensus to be calculated.
+ * <p>
+ * The events are stored in an append-only log that is shared by consecutive snapshots. Each snapshot only reads the
+ * part of the log that had been written when it was published, and ignores events whose round has since been
+ * deleted, so it never sees later changes. The log itself is only written by the consensus thread.
+ */
+public final class ConsensusSnapshot {
+	/** the number of events that had been added to the hashgraph when this was published */
+	private final long version;
+	/** see {@link Consensus#getMinRound()} */
+	private final long minRound;
+	/** see {@link Consensus#getMaxRound()} */
+	private final long maxRound;
+	/** see {@link Consensus#getLastRoundDecided()} */
+	private final long lastRoundDecided;
+	/** see {@link Consensus#getMinRoundNonExpired()} */
+	private final long minRoundNonExpired;
+	/** see {@link Consensus#getMinGenerationNonAncient()} */
+	private final long minGenerationNonAncient;
+	/** see {@link Consensus#getMinGenerationNonExpired()} */
+	private final long minGenerationNonExpired;
+	/** see {@link Consensus#getMinRoundGeneration()} */
+	private final long minRoundGeneration;
+	/** see {@link Consensus#getMaxRoundGeneration()} */
+	private final long maxRoundGeneration;
+	/** the number of events in the hashgraph */
+	private final int numEvents;
+	/** the event log, in the order the events were added. Only the first logLength elements belong to this */
+	private final EventImpl[] log;
+	/** the number of elements of log that were written when this was published */
+	private final int logLength;
+
+	ConsensusSnapshot(
+			final long version,
+			final long minRound,
+			final long maxRound,
+			final long lastRoundDecided,
+			final long minRoundNonExpired,
+			final long minGenerationNonAncient,
+			final long minGenerationNonExpired,
+			final long minRoundGeneration,
+			final long maxRoundGeneration,
+			final int numEvents,
+			final EventImpl[] log,
+			final int logLength) {
+		this.version = version;
+		this.minRound = minRound;
+		this.maxRound = maxRound;
+		this.lastRoundDecided = lastRoundDecided;
+		this.minRoundNonExpired = minRoundNonExpired;
+		this.minGenerationNonAncient = minGenerationNonAncient;
+		this.minGenerationNonExpired = minGenerationNonExpired;
+		this.minRoundGeneration = minRoundGeneration;
+		this.maxRoundGeneration = maxRoundGeneration;
+		this.numEvents = numEvents;
+		this.log = log;
+		this.logLength = logLength;
+	}
+
+	/**
+	 * @return the number of events that had been added to the hashgraph when this snapshot was published. A later
+	 * 		snapshot always has a greater version.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMinRound()}
+	 */
+	public long getMinRound() {
+		return minRound;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMaxRound()}
+	 */
+	public long getMaxRound() {
+		return maxRound;
+	}
+
+	/**
+	 * @return see {@link Consensus#getLastRoundDecided()}
+	 */
+	public long getLastRoundDecided() {
+		return lastRoundDecided;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMinRoundNonExpired()}
+	 */
+	public long getMinRoundNonExpired() {
+		return minRoundNonExpired;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMinGenerationNonAncient()}
+	 */
+	public long getMinGenerationNonAncient() {
+		return minGenerationNonAncient;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMinGenerationNonExpired()}
+	 */
+	public long getMinGenerationNonExpired() {
+		return minGenerationNonExpired;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMinRoundGeneration()}
+	 */
+	public long getMinRoundGeneration() {
+		return minRoundGeneration;
+	}
+
+	/**
+	 * @return see {@link Consensus#getMaxRoundGeneration()}
+	 */
+	public long getMaxRoundGeneration() {
+		return maxRoundGeneration;
+	}
+
+	/**
+	 * @return the number of events in the hashgraph
+	 */
+	public int getNumEvents() {
+		return numEvents;
+	}
+
+	/**
+	 * Get an array of all the events in the hashgraph, ordered by round created, from the oldest round to the newest.
+	 * The events of one round are in the order they were added.
+	 *
+	 * @return An array of events
+	 */
+	public EventImpl[] getAllEvents() {
+		final List<EventImpl> all = new ArrayList<>(numEvents);
+		for (int i = 0; i < logLength; i++) {
+			if (isInHashgraph(log[i])) {
+				all.add(log[i]);
+			}
+		}
+		// the sort is stable, so this is the order of the rounds' lists of events, as ConsensusImpl used to return
+		all.sort(Comparator.comparingLong(EventImpl::getRoundCreated));
+		return all.toArray(new EventImpl[0]);
+	}
+
+	/**
+	 * Get an array of all the events in the hashgraph with generation number &gt;= `minGenerationNumber`, ordered
+	 * by round created, from the newest round to the oldest. The events of one round are in the order they were added.
+	 *
+	 * @param minGenerationNumber
+	 * 		the minimum generation to identify in the hashgraph
+	 * @return An array of events
+	 */
+	public EventImpl[] getRecentEvents(final long minGenerationNumber) {
+		final List<EventImpl> recentEvents = new ArrayList<>();
+		for (int i = 0; i < logLength; i++) {
+			if (log[i].getGeneration() >= minGenerationNumber && isInHashgraph(log[i])) {
+				recentEvents.add(log[i]);
+			}
+		}
+		recentEvents.sort(Comparator.comparingLong(EventImpl::getRoundCreated).reversed());
+		return recentEvents.toArray(new EventImpl[0]);
+	}
+
+	/**
+	 * Events are removed from the hashgraph a whole round at a time, by increasing the min round, so an event in the
+	 * log was in the hashgraph at the time of this snapshot if its round had not been removed.
+	 */
+	private boolean isInHashgraph(final EventImpl event) {
+		return event.getRoundCreated() >= minRound;
+	}
+}
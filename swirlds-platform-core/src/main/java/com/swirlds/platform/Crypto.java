@@ -29,6 +29,7 @@ import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
 import javax.net.ssl.SSLSocket;
@@ -72,6 +73,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.swirlds.logging.LogMarker.CERTIFICATES;
 import static com.swirlds.logging.LogMarker.EVENT_SIG;
@@ -384,6 +386,21 @@ public class Crypto extends CryptoUtils {
 		return serverSocket;
 	}
 
+	/**
+	 * Create the TLS engine of a connection accepted by a non-blocking server, with the same cipher suite and client
+	 * authentication as the sockets accepted by a server socket from {@link #newServerSocketConnect(byte[], int)}.
+	 *
+	 * @return the new engine, in server mode
+	 */
+	SSLEngine newServerSSLEngine() {
+		final SSLEngine engine = sslContext.createSSLEngine();
+		engine.setUseClientMode(false);
+		engine.setEnabledCipherSuites(TLS_SUITES);
+		engine.setWantClientAuth(true);
+		engine.setNeedClientAuth(true);
+		return engine;
+	}
+
 	/**
 	 * Return the nondeterministic secure random number generator stored in this Crypto instance. If it
 	 * doesn't already exist, create it.
@@ -812,6 +829,31 @@ public class Crypto extends CryptoUtils {
 		});
 	}
 
+	/**
+	 * Verify the given signature for data that is computed on the thread pool, just before it is verified, instead of
+	 * by the caller. Otherwise, this is the same as {@link #verifySignatureParallel(byte[], byte[], PublicKey,
+	 * Consumer)}.
+	 *
+	 * @param data
+	 * 		computes the data that was signed
+	 * @param signature
+	 * 		the claimed signature of that data
+	 * @param publicKey
+	 * 		the claimed public key used to generate that signature
+	 * @param doLast
+	 * 		a function that will be run after verification, and will be passed true if the signature
+	 * 		is valid. To do nothing, pass in (Boolean b)
+	 * @return a Future that returns true if the signature is valid
+	 */
+	public Future<Boolean> verifySignatureParallel(Supplier<byte[]> data, byte[] signature,
+			PublicKey publicKey, Consumer<Boolean> doLast) {
+		return cryptoThreadPool.submit(() -> {
+			boolean result = verifySignature(data.get(), signature, publicKey);
+			doLast.accept(result);
+			return result;
+		});
+	}
+
 	/**
 	 * check whether the given signature is valid
 	 *
@@ -13,6 +13,7 @@
  */
 package com.swirlds.platform;
 
+import com.swirlds.common.ParallelSwirldState;
 import com.swirlds.common.SwirldState;
 import com.swirlds.common.SwirldState.SwirldState2;
 import com.swirlds.common.SwirldTransaction;
@@ -25,12 +26,17 @@ import com.swirlds.common.crypto.RunningHash;
 import com.swirlds.common.crypto.TransactionSignature;
 import com.swirlds.common.merkle.hash.MerkleHashChecker;
 import com.swirlds.common.stream.EventStreamManager;
+import com.swirlds.common.threading.SpscRingBuffer;
+import com.swirlds.common.threading.SpscRingBuffer.OverflowPolicy;
+import com.swirlds.common.threading.SpscRingBuffer.WaitStrategy;
 import com.swirlds.common.threading.StoppableThread;
 import com.swirlds.common.threading.StoppableThreadConfiguration;
 import com.swirlds.common.Transaction;
+import com.swirlds.common.TransactionKeys;
 import com.swirlds.logging.LogMarker;
 import com.swirlds.platform.eventhandling.MinGenQueue;
 import com.swirlds.platform.eventhandling.SignedStateEventStorage;
+import com.swirlds.platform.eventhandling.TransactionScheduler;
 import com.swirlds.platform.state.SignedState;
 import com.swirlds.platform.state.State;
 import com.swirlds.platform.state.StateInfo;
@@ -168,6 +174,13 @@ class EventFlow extends AbstractEventFlow {
 
 	private static final String COMPONENT_NAME = "event-flow";
 
+	/**
+	 * prepares transactions in parallel, if {@link Settings#parallelTransactions} is enabled. Created by
+	 * {@link #startAll()} and shut down by {@link #stopAndClear()}, so its threads live as long as the threads
+	 * handling events.
+	 */
+	private volatile TransactionScheduler transactionScheduler;
+
 	/**
 	 * is used for unit testing.
 	 * this 0-arg constructor is required to create a mock instance
@@ -213,7 +226,19 @@ class EventFlow extends AbstractEventFlow {
 					.compareTo(y.getConsensusTimestamp());
 		};
 
-		forCurr = new PriorityBlockingQueue<>(100, cmp);
+		if (Settings.eventFlowRingPipeline) {
+			// forCurr is only put into by the intake thread, so it has a single producer. forCons is also put into
+			// while recovering from event streams, and forWork and forNext must stay unbounded, since threadWork must
+			// never block on forNext, which is only drained by a shuffle. Nor must the intake thread ever wait for
+			// threadCurr, so the events that don't fit in the forCurr ring spill over.
+			forCurr = new SpscRingBuffer<>(Settings.eventFlowRingCapacity, Settings.eventFlowRingBatchSize,
+					Settings.eventFlowRingBusySpin ? WaitStrategy.BUSY_SPIN : WaitStrategy.PARK,
+					OverflowPolicy.SPILL,
+					nanos -> platform.getStats().avgForCurrHandOffMicros.recordValue(
+							nanos * NANOSECONDS_TO_MICROSECONDS));
+		} else {
+			forCurr = new PriorityBlockingQueue<>(100, cmp);
+		}
 		forCons = Settings.maxEventQueueForCons == 0
 				? new LinkedBlockingQueue<>()
 				: new ArrayBlockingQueue<>(Settings.maxEventQueueForCons);
@@ -356,6 +381,15 @@ class EventFlow extends AbstractEventFlow {
 		return forCurr.size();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	int getForWorkSize() {
+		final BlockingQueue<EventImpl> queue = forWork;
+		return queue == null ? 0 : queue.size();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -405,10 +439,14 @@ class EventFlow extends AbstractEventFlow {
 
 	/**
 	 * if forCurr is empty, then put noEvent to unblock threadCurr, otherwise don't (the check and put are
-	 * not atomic together, but that's ok), and also do the same for forWork.
+	 * not atomic together, but that's ok), and also do the same for forWork. If forCurr is a ring, threadCurr is
+	 * woken up instead.
 	 **/
 	void unblockCurrWork() {
-		if (forCurr.peek() == null) { // unblock threadCurr, if it's blocked
+		if (forCurr instanceof SpscRingBuffer) {
+			// only the intake thread may put into the ring, so threadCurr is woken up without putting noEvent in it
+			((SpscRingBuffer<?>) forCurr).wakeUp();
+		} else if (forCurr.peek() == null) { // unblock threadCurr, if it's blocked
 			forCurr.offer(transLists.noEvent);// this unblocks it (then noEvent is later ignored)
 		}
 		if (forWork != null && forWork.peek() == null) { // unblock threadCurr, if it's blocked
@@ -464,6 +502,12 @@ class EventFlow extends AbstractEventFlow {
 			threadWork.stop();
 		}
 
+		if (transactionScheduler != null) {
+			log.info(RECONNECT.getMarker(), "stopAndClear: shutting down the transaction scheduler");
+			transactionScheduler.shutdown();
+			transactionScheduler = null;
+		}
+
 		log.info(RECONNECT.getMarker(), "stopAndClear: releasing states");
 
 		// delete the states
@@ -491,6 +535,7 @@ class EventFlow extends AbstractEventFlow {
 		log.info(RECONNECT.getMarker(), "stopAndClear: clearing stateToHashSign");
 		stateToHashSign.clear();
 		log.info(RECONNECT.getMarker(), "stopAndClear: clearing forCurr");
+		// threadCurr has been joined, so this thread may take over as the consumer of forCurr if it is a ring
 		forCurr.clear();
 		log.info(RECONNECT.getMarker(), "stopAndClear: clearing forCons");
 		forCons.clear();
@@ -641,6 +686,9 @@ class EventFlow extends AbstractEventFlow {
 	 */
 	@Override
 	void startAll() {
+		if (Settings.parallelTransactions) {
+			transactionScheduler = new TransactionScheduler(Settings.parallelTransactionThreads);
+		}
 		threadStateHashSign = new StoppableThreadConfiguration()
 				.setNodeId(platform.getSelfId().getId())
 				.setComponent(COMPONENT_NAME)
@@ -812,6 +860,150 @@ class EventFlow extends AbstractEventFlow {
 		}
 	}
 
+	/**
+	 * Handle all the transactions in an event, preparing the transactions that don't conflict in parallel. The
+	 * state ends up exactly as it would if each transaction were passed to
+	 * {@link #handleTransaction(AbstractPlatform, boolean, boolean, StateInfo, boolean, EventImpl, Transaction,
+	 * Instant, long)} in turn. See {@link TransactionScheduler}.
+	 *
+	 * @param swirldState
+	 * 		the state handling the transactions
+	 * @param stateInfo
+	 * 		contains the state handling the transactions, whose lock must be held
+	 * @param ignoreSystem
+	 * 		should we ignore system transactions and not handle them?
+	 * @param isConsensus
+	 * 		should the state be told that these transactions are part of the consensus?
+	 * @param event
+	 * 		the event containing the transactions
+	 * @param transactions
+	 * 		the transactions in the event
+	 * @param baseTime
+	 * 		the timestamp (consensus or estimated) of the event
+	 * @param pollCons
+	 * 		should a transaction be removed from the consensus transaction list for each transaction handled?
+	 */
+	private void handleTransactionsInParallel(final ParallelSwirldState swirldState, final StateInfo stateInfo,
+			final boolean ignoreSystem, final boolean isConsensus, final EventImpl event,
+			final Transaction[] transactions, final Instant baseTime, final boolean pollCons) {
+		try {
+			// If we have consensus, validate any signatures present and wait if necessary. This is done here, before
+			// any transaction is prepared, so the threads preparing transactions never block on a signature check.
+			if (isConsensus) {
+				for (final Transaction trans : transactions) {
+					if (trans.isSystem()) {
+						continue;
+					}
+					for (TransactionSignature sig : ((SwirldTransaction) trans).getSignatures()) {
+						sig.waitForFuture().get();
+					}
+				}
+			}
+			transactionScheduler.handle(transactions.length,
+					i -> getTransactionKeys(swirldState, transactions[i]),
+					i -> prepareTransaction(swirldState, stateInfo, isConsensus, event,
+							(SwirldTransaction) transactions[i], baseTime.plusNanos(i * minTransTimestampIncrNanos),
+							pollCons),
+					i -> {
+						handleTransaction(platform, ignoreSystem, transactions[i].isSystem(), stateInfo, isConsensus,
+								event, transactions[i], baseTime, i * minTransTimestampIncrNanos);
+						if (pollCons) {
+							transLists.pollCons();
+						}
+					});
+		} catch (InterruptedException ex) {
+			log.error(TESTING_EXCEPTIONS_ACCEPTABLE_RECONNECT.getMarker(),
+					"EventFlow::handleTransactionsInParallel Interrupted [ nodeId = {} ]",
+					platform.getSelfId().getId(), ex);
+			Thread.currentThread().interrupt();
+		} catch (Exception ex) {
+			log.error(EXCEPTION.getMarker(), "error while handling the transactions of event {} in parallel",
+					toShortString(event), ex);
+		}
+	}
+
+	/**
+	 * @return the keys declared by the app for a transaction, or null if it must be handled on its own because it
+	 * 		is a system transaction, or the app didn't declare its keys
+	 */
+	private static TransactionKeys getTransactionKeys(final ParallelSwirldState swirldState,
+			final Transaction trans) {
+		if (trans.isSystem()) {
+			return null;
+		}
+		try {
+			return swirldState.getTransactionKeys((SwirldTransaction) trans);
+		} catch (Exception ex) {
+			// defensive: catch exceptions from a bad app, and let handleTransaction deal with the transaction
+			log.error(EXCEPTION.getMarker(), "exception in app during getTransactionKeys:", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Prepare a transaction on one of the threads of the {@link TransactionScheduler}. Its signatures have already
+	 * been checked by {@link #handleTransactionsInParallel}.
+	 *
+	 * @return a runnable that applies the effect of the transaction to the state, and records its statistics
+	 */
+	private Runnable prepareTransaction(final ParallelSwirldState swirldState, final StateInfo stateInfo,
+			final boolean isConsensus, final EventImpl event, final SwirldTransaction trans,
+			final Instant estConsTime, final boolean pollCons) {
+		Runnable effect = null;
+		long prepareTime = 0;
+		try {
+			final long startTime = System.nanoTime();
+			effect = swirldState.prepareTransaction(event.getCreatorId(), isConsensus, event.getTimeCreated(),
+					estConsTime, trans, stateInfo.getState().getSwirldDualState());
+			prepareTime = System.nanoTime() - startTime;
+		} catch (Exception ex) {
+			log.error(EXCEPTION.getMarker(),
+					"error while calling the app's ParallelSwirldState.prepareTransaction with event {}",
+					toShortString(event), ex);
+		}
+
+		final Runnable preparedEffect = effect;
+		final long preparedTime = prepareTime;
+		return () -> {
+			if (preparedEffect != null) {
+				applyTransaction(preparedEffect, event, preparedTime);
+			}
+			if (pollCons) {
+				transLists.pollCons();
+			}
+		};
+	}
+
+	/**
+	 * Apply the effect of a prepared transaction to the state, on the thread handling the event.
+	 *
+	 * @param effect
+	 * 		the effect returned by the app when it prepared the transaction
+	 * @param event
+	 * 		the event containing the transaction
+	 * @param prepareTime
+	 * 		the number of nanoseconds the app spent preparing the transaction
+	 */
+	private void applyTransaction(final Runnable effect, final EventImpl event, final long prepareTime) {
+		try {
+			final long startTime = System.nanoTime();
+			effect.run();
+			// we only add these stats for transactions that have reached consensus
+			if (event.getReachedConsTimestamp() != null) {
+				platform.getStats().avgSecTransHandled.recordValue(
+						(System.nanoTime() - startTime + prepareTime) * NANOSECONDS_TO_SECONDS);
+				platform.getStats().transHandledPerSecond.cycle();
+				platform.getStats().avgConsHandleTime.recordValue(
+						event.getReachedConsTimestamp().until(Instant.now(),
+								ChronoUnit.NANOS) * NANOSECONDS_TO_SECONDS);
+			}
+		} catch (Exception ex) {
+			log.error(EXCEPTION.getMarker(),
+					"error while applying a transaction prepared by the app's ParallelSwirldState with event {}",
+					toShortString(event), ex);
+		}
+	}
+
 	@Override
 	void addMinGenInfo(long round, long minGeneration) {
 		minGenQueue.add(round, minGeneration);
@@ -1252,28 +1444,36 @@ class EventFlow extends AbstractEventFlow {
 		boolean selfConsTrans = stateInfo == stateCons
 				&& platform.getSelfId().equalsMain(event.getCreatorId());
 		synchronized (stateInfo) {
-			for (int i = 0; i < transactions.length; i++) {
-				boolean isConsensus = isConsensusEvent && allowIsConsensusTrue;
-
-				// this is the only place where handleTransaction is called on system
-				// transactions with ignoreSystem == false
-				handleTransaction(//
-						platform, // platform: the platform that made this EventFlow
-						fromQueue != forCons,// All system transactions are handled twice, once with consensus
-						// false, and once with true. This is the second time a system
-						// transaction is handled when its consensus is known. The
-						// first time it was handled is in Hashgraph.addEvent3()
-						transactions[i].isSystem(), // isSystem: is this a system transaction?
-						stateInfo, //// state: contains the state that will handle the transaction
-						isConsensus, // isConsensus: does this event have a consensus order?
-						event, // event: the event containing the transaction (whose time gives timeCreated)
-						transactions[i], // trans: the transaction to handle
-						baseTime, // baseTime: the timestamp (consensus or estimated) of the event
-						i * minTransTimestampIncrNanos); // timeInc: number of nanoseconds to add to baseTime to get
-				// consensus or est time
-
-				if (selfConsTrans || isSwirldState2()) {
-					transLists.pollCons();
+			final SwirldState swirldState = stateInfo.getState().getSwirldState();
+			if (transactionScheduler != null && swirldState instanceof ParallelSwirldState
+					&& transactions.length > 1 && !stateInfo.isFrozen()) {
+				handleTransactionsInParallel((ParallelSwirldState) swirldState, stateInfo, fromQueue != forCons,
+						isConsensusEvent && allowIsConsensusTrue, event, transactions, baseTime,
+						selfConsTrans || isSwirldState2());
+			} else {
+				for (int i = 0; i < transactions.length; i++) {
+					boolean isConsensus = isConsensusEvent && allowIsConsensusTrue;
+
+					// this is the only place where handleTransaction is called on system
+					// transactions with ignoreSystem == false
+					handleTransaction(//
+							platform, // platform: the platform that made this EventFlow
+							fromQueue != forCons,// All system transactions are handled twice, once with consensus
+							// false, and once with true. This is the second time a system
+							// transaction is handled when its consensus is known. The
+							// first time it was handled is in Hashgraph.addEvent3()
+							transactions[i].isSystem(), // isSystem: is this a system transaction?
+							stateInfo, //// state: contains the state that will handle the transaction
+							isConsensus, // isConsensus: does this event have a consensus order?
+							event, // event: the event containing the transaction (whose time gives timeCreated)
+							transactions[i], // trans: the transaction to handle
+							baseTime, // baseTime: the timestamp (consensus or estimated) of the event
+							i * minTransTimestampIncrNanos); // timeInc: number of nanoseconds to add to baseTime to get
+					// consensus or est time
+
+					if (selfConsTrans || isSwirldState2()) {
+						transLists.pollCons();
+					}
 				}
 			}
 		}
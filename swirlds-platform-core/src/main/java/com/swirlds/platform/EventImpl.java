@@ -41,7 +41,6 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 
 /**
  * An internal platform event. It holds all the event data relevant to the platform. It implements the Event interface
@@ -598,124 +597,101 @@ public class EventImpl extends AbstractSerializableHashable implements Comparabl
 	}
 
 	/**
-	 * @return the time at which each unique famous witness in the received round first received this event
+	 * @return the time (in nanoseconds since the epoch) at which each unique famous witness in the received round
+	 * 		first received this event. Only the first {@link #getNumRecTimes()} elements have been recorded.
 	 */
-	public ArrayList<Instant> getRecTimes() {
+	public long[] getRecTimes() {
 		return internalEventData.getRecTimes();
 	}
 
 	/**
+	 * Set the array that the received times will be recorded in, and forget any times recorded so far.
+	 *
 	 * @param recTimes
-	 * 		the time at which each unique famous witness in the received round first received this event
+	 * 		an array with one element for each unique famous witness in the received round, or null
 	 */
-	public void setRecTimes(ArrayList<Instant> recTimes) {
+	public void setRecTimes(long[] recTimes) {
 		internalEventData.setRecTimes(recTimes);
 	}
 
 	/**
-	 * @return is roundCreated frozen (won't change with address book changes)? True if an ancestor of a famous
-	 * 		witness
+	 * @return the exact received times, if a time too early or too late for {@link #getRecTimes()} to hold exactly
+	 * 		has been recorded, else null. Only the first {@link #getNumRecTimes()} elements have been recorded.
 	 */
 	@JsonIgnore
-	public boolean isFrozen() {
-		return internalEventData.isFrozen();
-	}
-
-	/**
-	 * @param frozen
-	 * 		is roundCreated frozen (won't change with address book changes)? True if an ancestor of a famous witness
-	 */
-	public void setFrozen(boolean frozen) {
-		internalEventData.setFrozen(frozen);
+	public Instant[] getExactRecTimes() {
+		return internalEventData.getExactRecTimes();
 	}
 
 	/**
-	 * @param reachedConsTimestamp
-	 * 		the local time (not consensus time) at which the event reached consensus
+	 * Start keeping the exact received times, in addition to those in nanoseconds.
+	 *
+	 * @param exactRecTimes
+	 * 		an array as long as the one given to {@link #setRecTimes(long[])}, holding the times recorded so far
 	 */
-	public void setReachedConsTimestamp(Instant reachedConsTimestamp) {
-		internalEventData.setReachedConsTimestamp(reachedConsTimestamp);
+	public void setExactRecTimes(Instant[] exactRecTimes) {
+		internalEventData.setExactRecTimes(exactRecTimes);
 	}
 
 	/**
-	 * @param m
-	 * 		the member ID
-	 * @return last ancestor created by m (memoizes lastSee function from Swirlds-TR-2020-01)
+	 * @return the number of received times that have been recorded
 	 */
 	@JsonIgnore
-	public EventImpl getLastSee(int m) {
-		return internalEventData.getLastSee(m);
-	}
-
-	/**
-	 * remember event, the last ancestor created by m (memoizes lastSee function from Swirlds-TR-2020-01)
-	 *
-	 * @param m
-	 * 		the member ID of the creator
-	 * @param event
-	 * 		the last seen {@link EventImpl} object created by m
-	 */
-	public void setLastSee(int m, EventImpl event) {
-		internalEventData.setLastSee(m, event);
+	public int getNumRecTimes() {
+		return internalEventData.getNumRecTimes();
 	}
 
 	/**
-	 * Initialize the lastSee array to hold n elements (for n &ge; 0) (memoizes lastSee function from
-	 * Swirlds-TR-2020-01)
+	 * Record the time at which one more unique famous witness first received this event.
 	 *
-	 * @param n
-	 * 		number of members in AddressBook
+	 * @param recTime
+	 * 		the time, in nanoseconds since the epoch
+	 * @param exactRecTime
+	 * 		the same time, which is kept if the exact received times are being kept
 	 */
-	public void initLastSee(int n) {
-		internalEventData.initLastSee(n);
+	public void addRecTime(long recTime, Instant exactRecTime) {
+		internalEventData.addRecTime(recTime, exactRecTime);
 	}
 
 	/**
-	 * @return the number of elements lastSee holds (memoizes lastSee function from Swirlds-TR-2020-01)
+	 * @return is roundCreated frozen (won't change with address book changes)? True if an ancestor of a famous
+	 * 		witness
 	 */
-	public int sizeLastSee() {
-		return internalEventData.sizeLastSee();
+	@JsonIgnore
+	public boolean isFrozen() {
+		return internalEventData.isFrozen();
 	}
 
 	/**
-	 * @param m
-	 * 		the member ID
-	 * @return strongly-seen witness in parent round by m (memoizes stronglySeeP function from Swirlds-TR-2020-01)
+	 * @param frozen
+	 * 		is roundCreated frozen (won't change with address book changes)? True if an ancestor of a famous witness
 	 */
-	@JsonIgnore
-	public EventImpl getStronglySeeP(int m) {
-		return internalEventData.getStronglySeeP(m);
+	public void setFrozen(boolean frozen) {
+		internalEventData.setFrozen(frozen);
 	}
 
 	/**
-	 * remember event, the strongly-seen witness in parent round by m (memoizes stronglySeeP function from
-	 * Swirlds-TR-2020-01)
-	 *
-	 * @param m
-	 * 		the member ID of the creator
-	 * @param event
-	 * 		the strongly-seen witness in parent round created by m
+	 * @param reachedConsTimestamp
+	 * 		the local time (not consensus time) at which the event reached consensus
 	 */
-	public void setStronglySeeP(int m, EventImpl event) {
-		internalEventData.setStronglySeeP(m, event);
+	public void setReachedConsTimestamp(Instant reachedConsTimestamp) {
+		internalEventData.setReachedConsTimestamp(reachedConsTimestamp);
 	}
 
 	/**
-	 * Initialize the stronglySeeP array to hold n elements (for n &ge; 0) (memoizes stronglySeeP function from
-	 * Swirlds-TR-2020-01)
-	 *
-	 * @param n
-	 * 		number of members in AddressBook
+	 * @return the index of this event in the consensus index, -1 if it has none, or -2 if it was released
 	 */
-	public void initStronglySeeP(int n) {
-		internalEventData.initStronglySeeP(n);
+	@JsonIgnore
+	public int getConsensusIndex() {
+		return internalEventData.getConsensusIndex();
 	}
 
 	/**
-	 * @return the number of elements stronglySeeP holds (memoizes stronglySeeP function from Swirlds-TR-2020-01)
+	 * @param consensusIndex
+	 * 		the index of this event in the consensus index, -1 if it has none, or -2 if it was released
 	 */
-	public int sizeStronglySeeP() {
-		return internalEventData.sizeStronglySeeP();
+	public void setConsensusIndex(int consensusIndex) {
+		internalEventData.setConsensusIndex(consensusIndex);
 	}
 
 	/**
@@ -0,0 +1,136 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.crypto.CryptoFactory;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.platform.event.ValidateEventTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.PublicKey;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+import static com.swirlds.logging.LogMarker.EVENT_SIG;
+
+/**
+ * The first stage of intake for events received by gossip. As soon as a sync has read an event, this submits the
+ * hashing of the event and the check of its signature to the crypto thread pool, and then the event is queued for
+ * intake. So the signatures of all the events of a sync are checked in parallel while the rest of the sync is still
+ * being read, and the intake thread, which takes events in the order they were received (which is a topological
+ * order), only waits for each result instead of doing the check itself.
+ * <p>
+ * The check only needs the event's own data and the public key of its creator, not its parents, which is why it
+ * can be done before the event is instantiated. Events that intake rejects without checking their signature, and
+ * ancient events, are not submitted.
+ */
+class EventSignatureVerifier {
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger log = LogManager.getLogger();
+
+	/** checks signatures on the crypto thread pool */
+	private final Crypto crypto;
+
+	/** returns the public key of a member, or null if there is no such member */
+	private final Function<Long, PublicKey> publicKeyById;
+
+	/** returns true if a member has no stake, so that its events are rejected */
+	private final Predicate<Long> isZeroStakeNode;
+
+	/** returns the sequence number of the last event of a member in the hashgraph */
+	private final LongUnaryOperator lastSeqByCreator;
+
+	/** returns the generation below which events are ancient */
+	private final LongSupplier minGenerationNonAncient;
+
+	/**
+	 * @param crypto
+	 * 		the object that checks signatures on the crypto thread pool
+	 * @param publicKeyById
+	 * 		returns the public key of a member, or null if there is no such member
+	 * @param isZeroStakeNode
+	 * 		returns true if a member has no stake, so that its events are rejected
+	 * @param lastSeqByCreator
+	 * 		returns the sequence number of the last event of a member in the hashgraph
+	 * @param minGenerationNonAncient
+	 * 		returns the generation below which events are ancient
+	 */
+	EventSignatureVerifier(
+			final Crypto crypto,
+			final Function<Long, PublicKey> publicKeyById,
+			final Predicate<Long> isZeroStakeNode,
+			final LongUnaryOperator lastSeqByCreator,
+			final LongSupplier minGenerationNonAncient) {
+		this.crypto = crypto;
+		this.publicKeyById = publicKeyById;
+		this.isZeroStakeNode = isZeroStakeNode;
+		this.lastSeqByCreator = lastSeqByCreator;
+		this.minGenerationNonAncient = minGenerationNonAncient;
+	}
+
+	/**
+	 * Start checking the signature of the event in the given task, unless parallel checks are disabled. If the check
+	 * can't be started (e.g. the creator is unknown), or isn't worth starting (e.g. the event is a duplicate), the task
+	 * is left alone, and the event will be checked during validation if it gets that far, just as if parallel checks
+	 * were disabled.
+	 *
+	 * @param task
+	 * 		the task holding the event data that was just read
+	 */
+	void verifyAsync(final ValidateEventTask task) {
+		if (!Settings.verifyEventSigs || !Settings.verifyEventSigsInParallel) {
+			return;
+		}
+
+		final BaseEventHashedData hashedData = task.getHashedData();
+		final long creatorId = hashedData.getCreatorId();
+		final PublicKey publicKey = publicKeyById.apply(creatorId);
+		final byte[] signature = task.getUnhashedData().getSignature();
+		if (publicKey == null || signature == null) {
+			return;
+		}
+
+		// the cheap checks first: intake rejects events from zero stake nodes, and duplicates, before it would check
+		// their signatures, and ancient events will only become stale
+		if (isZeroStakeNode.test(creatorId)
+				|| task.getUnhashedData().getCreatorSeq() <= lastSeqByCreator.applyAsLong(creatorId)
+				|| hashedData.getGeneration() < minGenerationNonAncient.getAsLong()) {
+			return;
+		}
+
+		log.debug(EVENT_SIG.getMarker(), "event signature is about to be verified in parallel. {}", task);
+
+		// the hash is computed on the crypto thread too, unless the sync already needed it
+		task.setSignatureCheck(crypto.verifySignatureParallel(
+				() -> {
+					if (!task.claimSignatureCheck()) {
+						// intake stopped waiting for this check, and may be hashing the event itself
+						throw new CancellationException("the signature check was abandoned");
+					}
+					if (hashedData.getHash() == null) {
+						CryptoFactory.getInstance().digestSync(hashedData);
+					}
+					return hashedData.getHash().getValue();
+				},
+				signature,
+				publicKey,
+				(Boolean valid) -> {
+				}));
+	}
+}
@@ -20,12 +20,21 @@ import com.swirlds.common.crypto.CryptoFactory;
 import com.swirlds.common.crypto.Hash;
 import com.swirlds.common.events.BaseEventHashedData;
 import com.swirlds.common.events.BaseEventUnhashedData;
+import com.swirlds.platform.event.ValidateEventTask;
 import com.swirlds.platform.stats.HashgraphStats;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -68,6 +77,11 @@ public class EventValidator {
 	 */
 	private final Consumer<EventImpl> eventIntake;
 
+	/**
+	 * A functor to use for adding a batch of new events to the hashgraph
+	 */
+	private final Consumer<List<EventImpl>> eventBatchIntake;
+
 	/**
 	 * A statistics accumulator. Used for reporting certain validation states,
 	 */
@@ -109,6 +123,7 @@ public class EventValidator {
 		this.isZeroStakeNode = isZeroStateNode;
 		this.hasValidSignature = hasValidSignature;
 		this.eventIntake = null;
+		this.eventBatchIntake = null;
 		this.stats = stats;
 		this.consensusSupplier = consensusSupplier;
 		this.eventByHash = null;
@@ -127,6 +142,10 @@ public class EventValidator {
 	 * 		predicate that defines whether a node with a given node ID is a zero-stake node
 	 * @param publicKey
 	 * 		a functor that returns the public key of a given {@code EventImpl}
+	 * @param eventIntake
+	 * 		adds a valid event to the hashgraph
+	 * @param eventBatchIntake
+	 * 		adds a batch of valid events to the hashgraph
 	 */
 	EventValidator(
 			final NodeId selfId,
@@ -135,6 +154,7 @@ public class EventValidator {
 			final Predicate<Long> isZeroStateNode,
 			final Function<EventImpl, PublicKey> publicKey,
 			final Consumer<EventImpl> eventIntake,
+			final Consumer<List<EventImpl>> eventBatchIntake,
 			final HashgraphStats stats,
 			final Supplier<Consensus> consensusSupplier,
 			final Function<Hash, EventImpl> eventByHash) {
@@ -144,6 +164,7 @@ public class EventValidator {
 		this.isZeroStakeNode = isZeroStateNode;
 		this.hasValidSignature = (EventImpl event) -> hasValidSignatureImpl(event, publicKey.apply(event));
 		this.eventIntake = eventIntake;
+		this.eventBatchIntake = eventBatchIntake;
 		this.stats = stats;
 		this.consensusSupplier = consensusSupplier;
 		this.eventByHash = eventByHash;
@@ -174,18 +195,103 @@ public class EventValidator {
 					publicKey);
 
 			if (!valid) {
-				final byte[] signatureCopy = event.getSignature();
-				log.error(EXCEPTION.getMarker(),
-						"failed the signature check {} with sig \n     {} and hash \n     {}",
-						() -> event,
-						() -> Arrays.toString(signatureCopy),
-						event::getBaseHash);
+				logInvalidSignature(event);
 			}
 
 			return valid;
 		}
 	}
 
+	/**
+	 * Log that an event failed the signature check
+	 *
+	 * @param event
+	 * 		the event with an invalid signature
+	 */
+	private static void logInvalidSignature(final EventImpl event) {
+		final byte[] signatureCopy = event.getSignature();
+		log.error(EXCEPTION.getMarker(),
+				"failed the signature check {} with sig \n     {} and hash \n     {}",
+				() -> event,
+				() -> Arrays.toString(signatureCopy),
+				event::getBaseHash);
+	}
+
+	/**
+	 * Determine whether an event has a valid signature, waiting for the result of a check that was started before
+	 * the event was queued for intake, if there is one, or else checking it now.
+	 *
+	 * @param event
+	 * 		the event to be examined
+	 * @param signatureCheck
+	 * 		the result of a check of the event's signature that was already started, or null if none was
+	 * @return true iff the signature is valid
+	 */
+	private boolean checkSignature(final EventImpl event, final Future<Boolean> signatureCheck) {
+		if (signatureCheck == null) {
+			return hasValidSignature.test(event);
+		}
+
+		try {
+			final boolean valid = signatureCheck.get();
+			if (!valid) {
+				logInvalidSignature(event);
+			}
+			return valid;
+		} catch (ExecutionException e) {
+			log.error(EXCEPTION.getMarker(), "error while checking the signature of {}", event.toShortString(), e);
+			return false;
+		} catch (CancellationException e) {
+			// the check was cancelled before it started, because this thread was interrupted
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Wait for a check of an event's signature that was started before intake, if there is one. That check also
+	 * hashes the event data, so the hash must not be read or computed here before it is done.
+	 * <p>
+	 * If this thread is interrupted, the check is abandoned if it hasn't started yet, in which case it will never
+	 * touch the event data, and checkSignature fails the event. Otherwise, this keeps waiting until the check is
+	 * done, since the crypto thread may be writing the hash. Either way, the interrupt is restored before returning.
+	 *
+	 * @param task
+	 * 		the task holding the check, or null if there is none
+	 */
+	static void awaitSignatureCheck(final ValidateEventTask task) {
+		final Future<Boolean> signatureCheck = task == null ? null : task.getSignatureCheck();
+		if (signatureCheck == null) {
+			return;
+		}
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					signatureCheck.get();
+					return;
+				} catch (ExecutionException | CancellationException e) {
+					// reported by checkSignature
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+					if (task.claimSignatureCheck()) {
+						// the check had not started, and now never will
+						signatureCheck.cancel(false);
+						return;
+					}
+					// the check is running, and may be writing the hash, so wait for it to finish
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	/**
 	 * Determine whether total size of all transactions in a given task is too
 	 * large to be accepted.
@@ -235,9 +341,29 @@ public class EventValidator {
 	 * 		the unhashed data for the event
 	 */
 	public void validateEvent(final BaseEventHashedData hashedData, final BaseEventUnhashedData unhashedData) {
+		validateEvent(hashedData, unhashedData, null);
+	}
+
+	/**
+	 * Validate the event data in the given task, the same way {@link #validateEvent(BaseEventHashedData,
+	 * BaseEventUnhashedData)} does, except that if a check of the event's signature has already been started, then
+	 * its result is used.
+	 *
+	 * @param task
+	 * 		the hashed and unhashed data for the event
+	 */
+	public void validateEvent(final ValidateEventTask task) {
+		validateEvent(task.getHashedData(), task.getUnhashedData(), task);
+	}
+
+	private void validateEvent(
+			final BaseEventHashedData hashedData,
+			final BaseEventUnhashedData unhashedData,
+			final ValidateEventTask task) {
 		try {
+			awaitSignatureCheck(task);
 			final EventImpl event = buildEvent(hashedData, unhashedData);
-			final EventStatus eventStatus = getStatus(event);
+			final EventStatus eventStatus = getStatus(event, task == null ? null : task.getSignatureCheck());
 
 			updateStats(event, eventStatus);
 
@@ -256,6 +382,58 @@ public class EventValidator {
 		}
 	}
 
+	/**
+	 * Validate a batch of gossiped event data, the same way {@link #validateEvent} does, and add all the valid events
+	 * to the hashgraph intake as a single batch, in topological order.
+	 * <p>
+	 * An event's parents may be earlier in the same batch, in which case they are not in the hashgraph yet, so they
+	 * are looked up among the valid events of the batch before being looked up in the hashgraph. For the same reason,
+	 * an event is a duplicate if it is already in the hashgraph or earlier in the batch.
+	 *
+	 * @param tasks
+	 * 		the hashed and unhashed data of each event, in the order they were received
+	 */
+	public void validateEvents(final List<ValidateEventTask> tasks) {
+		final List<EventImpl> validEvents = new ArrayList<>(tasks.size());
+		final Map<Hash, EventImpl> validEventsByHash = new HashMap<>();
+
+		for (final ValidateEventTask task : tasks) {
+			try {
+				awaitSignatureCheck(task);
+				final EventImpl event = buildEvent(task.getHashedData(), task.getUnhashedData(), validEventsByHash);
+				final EventStatus eventStatus = validEventsByHash.containsKey(event.getBaseHash())
+						? EventStatus.INVALID_DUPLICATE_EVENT
+						: getStatus(event, task.getSignatureCheck());
+
+				updateStats(event, eventStatus);
+
+				if (eventStatus != EventStatus.VALID) {
+					event.clear();
+					continue;
+				}
+
+				validEventsByHash.put(event.getBaseHash(), event);
+				validEvents.add(event);
+			} catch (Exception e) {
+				log.error(EXCEPTION.getMarker(), "Error while processing intake event", e);
+			}
+		}
+
+		if (validEvents.isEmpty()) {
+			return;
+		}
+
+		// Events are gossiped in topological order, but sort them to be sure. A parent always has a lower
+		// generation than its children, and the sort is stable, so this keeps the received order where it can.
+		validEvents.sort(Comparator.comparingLong(EventImpl::getGeneration));
+
+		try {
+			eventBatchIntake.accept(validEvents);
+		} catch (Exception e) {
+			log.error(EXCEPTION.getMarker(), "Error while processing intake event batch", e);
+		}
+	}
+
 	/**
 	 * Evaluate a {@code ValidateEventTask} instance for validity.
 	 *
@@ -264,6 +442,19 @@ public class EventValidator {
 	 * @return A {@code Status} enum instance which defines the assayed status
 	 */
 	protected EventStatus getStatus(final EventImpl event) {
+		return getStatus(event, null);
+	}
+
+	/**
+	 * Evaluate a {@code ValidateEventTask} instance for validity.
+	 *
+	 * @param event
+	 * 		an event instance to assay for validity
+	 * @param signatureCheck
+	 * 		the result of a check of the event's signature that was already started, or null if none was
+	 * @return A {@code Status} enum instance which defines the assayed status
+	 */
+	protected EventStatus getStatus(final EventImpl event, final Future<Boolean> signatureCheck) {
 		if (isFromZeroStakeNode(event)) {
 			return EventStatus.INVALID_ZERO_STAKE_NODE;
 		}
@@ -289,7 +480,7 @@ public class EventValidator {
 		}
 
 		// Execute signature validation last
-		if (!hasValidSignature.test(event)) {
+		if (!checkSignature(event, signatureCheck)) {
 			return EventStatus.INVALID_EVENT_SIGNATURE;
 		}
 
@@ -328,18 +519,48 @@ public class EventValidator {
 	 * 		the unhashed data for the event
 	 */
 	private EventImpl buildEvent(final BaseEventHashedData hashedData, final BaseEventUnhashedData unhashedData) {
+		return buildEvent(hashedData, unhashedData, Map.of());
+	}
+
+	/**
+	 * Build the event, looking up its parents among the given events before looking them up in the hashgraph.
+	 *
+	 * @param hashedData
+	 * 		the hashed data for the event
+	 * @param unhashedData
+	 * 		the unhashed data for the event
+	 * @param pendingEvents
+	 * 		events that are about to be added to the hashgraph, by hash
+	 */
+	private EventImpl buildEvent(
+			final BaseEventHashedData hashedData,
+			final BaseEventUnhashedData unhashedData,
+			final Map<Hash, EventImpl> pendingEvents) {
 
 		final EventImpl event = new EventImpl(
 				hashedData,
 				unhashedData,
-				eventByHash.apply(hashedData.getSelfParentHash()),
-				eventByHash.apply(hashedData.getOtherParentHash()));
+				findParent(hashedData.getSelfParentHash(), pendingEvents),
+				findParent(hashedData.getOtherParentHash(), pendingEvents));
 
-		CryptoFactory.getInstance().digestSync(event.getBaseEventHashedData());
+		// the data was already hashed if its signature check was started before intake, or by the sync
+		if (hashedData.getHash() == null) {
+			CryptoFactory.getInstance().digestSync(hashedData);
+		}
 
 		return event;
 	}
 
+	/**
+	 * Find a parent event by its hash, first among the given events, and then in the hashgraph.
+	 *
+	 * @return the parent, or null if it has no hash or can't be found
+	 */
+	private EventImpl findParent(final Hash hash, final Map<Hash, EventImpl> pendingEvents) {
+		final EventImpl pending = hash == null ? null : pendingEvents.get(hash);
+		return pending != null ? pending : eventByHash.apply(hash);
+	}
+
 	/**
 	 * For an event's parent p, if p is not ancient and not present, reject the event.
 	 * if a parent is missing, then its generation should be smaller than the minimum
@@ -26,6 +26,7 @@ public class FCHashMapSettingsImpl extends SubSetting implements FCHashMapSettin
 
 	public int maximumGCQueueSize = 100;
 	public Duration gcQueueThresholdPeriod = Duration.ofMinutes(1);
+	public int gcThreadCount = 1;
 
 	/**
 	 * {@inheritDoc}
@@ -50,4 +51,16 @@ public class FCHashMapSettingsImpl extends SubSetting implements FCHashMapSettin
 	public void setGCQueueThresholdPeriod(final Duration gcQueueThresholdPeriod) {
 		this.gcQueueThresholdPeriod = gcQueueThresholdPeriod;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getGCThreadCount() {
+		return gcThreadCount;
+	}
+
+	public void setGCThreadCount(final int gcThreadCount) {
+		this.gcThreadCount = gcThreadCount;
+	}
 }
@@ -0,0 +1,51 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.list.FCQueueSettings;
+import com.swirlds.platform.internal.SubSetting;
+
+/**
+ * An implementation of {@link FCQueueSettings}.
+ */
+public class FCQueueSettingsImpl extends SubSetting implements FCQueueSettings {
+
+	public boolean asyncElementHashing = false;
+	public int asyncHashingBatchSize = 1024;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isAsyncElementHashing() {
+		return asyncElementHashing;
+	}
+
+	public void setAsyncElementHashing(final boolean asyncElementHashing) {
+		this.asyncElementHashing = asyncElementHashing;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getAsyncHashingBatchSize() {
+		return asyncHashingBatchSize;
+	}
+
+	public void setAsyncHashingBatchSize(final int asyncHashingBatchSize) {
+		this.asyncHashingBatchSize = asyncHashingBatchSize;
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.platform.sync.NioSyncChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.SyncFailedException;
+
+import static com.swirlds.logging.LogMarker.SYNC_SGM;
+import static com.swirlds.logging.LogMarker.SYNC_STEP_2;
+import static com.swirlds.logging.LogMarker.SYNC_STEP_4;
+
+/**
+ * The listener side of the sync protocol of {@link NodeSynchronizerImpl}, run as a state machine on a
+ * {@link NioSyncChannel}, so that a sync waiting for the caller holds no thread. The bytes on the wire are the same,
+ * so the caller cannot tell the difference.
+ * <p>
+ * The two halves of each step, which {@link NodeSynchronizerImpl} runs on two threads, need no threads here: what
+ * the listener writes in a step never depends on what it reads in the same step, so it is written, and sent as the
+ * socket allows, before reading starts. If more than {@code Settings.nioSyncMaxBufferedBytes} is waiting to be
+ * sent, the sync stops reading until the caller has read enough of it, without holding the worker.
+ * </p>
+ */
+class NioNodeSynchronizer extends NodeSynchronizerImpl {
+
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger LOG = LogManager.getLogger();
+
+	/** the steps of a sync that wait for bytes from the caller */
+	private enum Phase {
+		/** reading the generations and tip hashes of the caller */
+		TIP_HASHES,
+		/** reading the tip booleans of the caller */
+		TIP_BOOLEANS,
+		/** reading the events of the caller */
+		EVENTS,
+		/** reading the COMM_SYNC_DONE byte of the caller */
+		SYNC_DONE,
+		/** the sync has finished */
+		FINISHED
+	}
+
+	private Phase phase;
+
+	/** true iff this listener accepted the sync request */
+	private boolean canAcceptSync;
+
+	/**
+	 * @param conn
+	 * 		the connection to sync through, whose streams are those of a {@link NioSyncChannel}
+	 */
+	NioNodeSynchronizer(final SyncConnection conn) throws SyncFailedException {
+		super(conn, false);
+	}
+
+	/**
+	 * Start a sync, once the sync request has been read, by writing the reply of this listener.
+	 *
+	 * @param canAcceptSync
+	 * 		true iff this listener can accept the sync request
+	 * @throws IOException
+	 * 		iff the connection is not valid
+	 */
+	void start(final boolean canAcceptSync) throws IOException {
+		this.canAcceptSync = canAcceptSync;
+		init(canAcceptSync, false);
+		getTiming().start();
+
+		// STEP 1: no work for the listener
+		getTiming().setTimePoint(1);
+
+		// STEP 2: WRITE the ACK/NACK, and if ACK, the generations and tip hashes
+		writeSyncRequestResponse(canAcceptSync);
+		if (canAcceptSync) {
+			writeGenerations();
+			writeTipHashes();
+		}
+		writeFlush();
+		phase = Phase.TIP_HASHES;
+	}
+
+	/**
+	 * Continue the sync with the bytes received so far.
+	 *
+	 * @param channel
+	 * 		the channel of the connection
+	 * @return true if the sync has finished, false if it is waiting for more bytes
+	 * @throws IOException
+	 * 		if the caller broke the protocol
+	 */
+	boolean advance(final NioSyncChannel channel) throws IOException {
+		while (true) {
+			switch (phase) {
+				case TIP_HASHES:
+					if (channel.tryRead(() -> {
+						readGenerations();
+						readTipHashes();
+						return Boolean.TRUE;
+					}) == null) {
+						return false;
+					}
+					LOG.debug(SYNC_STEP_2.getMarker(), "{} : read tip hashes and generations", getLogString());
+					writeTipBooleans();
+					phase = Phase.TIP_BOOLEANS;
+					break;
+
+				case TIP_BOOLEANS:
+					if (channel.tryRead(() -> {
+						readTipBooleans();
+						return Boolean.TRUE;
+					}) == null) {
+						return false;
+					}
+					getTiming().setTimePoint(2);
+					if (!canAcceptSync) {
+						phase = Phase.FINISHED;
+						return true;
+					}
+
+					// STEP 3: decide to slow down if neither self nor other is falling behind
+					syncStep3();
+					getTiming().setTimePoint(3);
+
+					// STEP 4: WRITE the events the caller doesn't know, then READ its events
+					if (getFallenBehind().detected()) {
+						writeFallenBehind();
+					} else {
+						getTiming().setEventsStarted();
+						writeEvents();
+						LOG.debug(SYNC_STEP_4.getMarker(), "{} : wrote {} events",
+								getLogString(), getEventsWritten().get());
+					}
+					phase = Phase.EVENTS;
+					break;
+
+				case EVENTS:
+					if (!readAvailableEvents(channel)) {
+						return false;
+					}
+					getTiming().setTimePoint(4);
+					if (!Settings.sendSyncDoneByte) {
+						finish();
+						return true;
+					}
+					writeSyncDone();
+					phase = Phase.SYNC_DONE;
+					break;
+
+				case SYNC_DONE:
+					if (channel.tryRead(() -> {
+						readSyncDone();
+						return Boolean.TRUE;
+					}) == null) {
+						return false;
+					}
+					finish();
+					return true;
+
+				default:
+					return true;
+			}
+		}
+	}
+
+	/**
+	 * Read the events of the caller that have been received completely.
+	 *
+	 * @return true if all the events, or COMM_EVENT_DISCARDED, have been read
+	 */
+	private boolean readAvailableEvents(final NioSyncChannel channel) throws IOException {
+		if (getFallenBehind().detected()) {
+			return channel.tryRead(() -> {
+				readFallenBehind();
+				return Boolean.TRUE;
+			}) != null;
+		}
+
+		while (true) {
+			final Boolean done = channel.tryRead(this::readNextEvent);
+			if (done == null) {
+				return false;
+			}
+			if (done) {
+				LOG.debug(SYNC_STEP_4.getMarker(), "{} : read {} events", getLogString(), getEventsRead().get());
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * STEP 5: create an event, log various stats, and record the timing of the sync
+	 */
+	private void finish() {
+		completeSync();
+		getTiming().setTimePoint(5);
+		getTiming().finish(conn, getStats());
+		phase = Phase.FINISHED;
+
+		LOG.debug(SYNC_SGM.getMarker(),
+				"Sizes after `sync`, workingTips: {}, receivedTipHashes: {}, sendList: {}",
+				getSyncData().getWorkingTips().size(),
+				getSyncData().getReceivedTipHashes().size(),
+				getSyncData().getSendList().size());
+	}
+}
@@ -0,0 +1,425 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.AutoCloseableWrapper;
+import com.swirlds.common.NodeId;
+import com.swirlds.platform.internal.PlatformThreadFactory;
+import com.swirlds.platform.reconnect.ReconnectSender;
+import com.swirlds.platform.reconnect.ReconnectThrottle;
+import com.swirlds.platform.state.SignedState;
+import com.swirlds.platform.state.StateDumpSource;
+import com.swirlds.platform.sync.DirectBufferPool;
+import com.swirlds.platform.sync.NioSyncChannel;
+import com.swirlds.platform.sync.NioSyncHandler;
+import com.swirlds.platform.sync.NioSyncSelector;
+import com.swirlds.platform.sync.SyncInputStream;
+import com.swirlds.platform.sync.SyncOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.swirlds.logging.LogMarker.EXCEPTION;
+import static com.swirlds.logging.LogMarker.HEARTBEAT;
+import static com.swirlds.logging.LogMarker.RECONNECT;
+import static com.swirlds.logging.LogMarker.SOCKET_EXCEPTIONS;
+import static com.swirlds.logging.LogMarker.SYNC_LISTENER;
+import static com.swirlds.logging.LogMarker.SYNC_START;
+
+/**
+ * Run this class as a separate thread, instead of the {@link SyncServer} thread, when
+ * {@code Settings.nioSyncListener} is true. It accepts the connections initiated by other members, and handles the
+ * heartbeats and sync requests received on them, which a {@link SyncListener} thread per member does otherwise.
+ * <p>
+ * The sockets are read and written by one {@link NioSyncSelector} thread, with non-blocking sockets and pooled direct
+ * buffers, and the bytes received are handled by {@code Settings.nioSyncListenerThreads} worker threads, each of which
+ * serves the connections given to it in turn. A sync is run by a {@link NioNodeSynchronizer}, which only uses a worker
+ * while it has bytes to handle. If {@code Settings.useTLS} is true, the connections are encrypted by an
+ * {@link javax.net.ssl.SSLEngine} set up as {@link SyncServer} sets up its TLS sockets. A request for a state is handed
+ * to a thread of its own, with the socket in blocking mode, since sending a state blocks; the connection is closed
+ * once the state has been sent, and the other member connects again.
+ * </p>
+ * <p>
+ * The {@link SyncServer} still keeps the connections, locks and counters, which are shared with the callers, and the
+ * callers and heartbeats are not affected.
+ * </p>
+ */
+class NioSyncServer implements Runnable {
+
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger log = LogManager.getLogger();
+
+	/** overrides ip if not null */
+	private static final byte[] listenIP = new byte[] { 0, 0, 0, 0 };
+
+	/** the Platform running this server */
+	private final AbstractPlatform platform;
+
+	/** keeps the connections, locks and counters shared with the callers */
+	private final SyncServer syncServer;
+
+	/** the IP address that this server listens on for establishing new connections */
+	private final byte[] ip;
+
+	/** the port that this server listens on for establishing new connections */
+	private final int port;
+
+	/** limits the frequency of reconnect attempts (in the role of the sender) */
+	private final ReconnectThrottle reconnectThrottle;
+
+	/** the buffers of all the connections */
+	private final DirectBufferPool bufferPool;
+
+	/** the threads that send states, which block */
+	private final ExecutorService reconnectPool;
+
+	/**
+	 * the threads that handle the bytes received. Each is a single thread, so that the handler of a connection, which
+	 * holds a lock shared with the callers during a sync, always runs on the same thread.
+	 */
+	private final ExecutorService[] workers;
+
+	/** the selector, which runs on the thread of this server */
+	private NioSyncSelector selector;
+
+	/** the worker that handles the next connection accepted */
+	private int nextWorker;
+
+	/**
+	 * @param platform
+	 * 		the platform that is using this
+	 * @param syncServer
+	 * 		the server that keeps the connections, locks and counters shared with the callers
+	 * @param ip
+	 * 		The IP address to listen to. Will listen to "listenIp" instead, if it's not null
+	 * @param port
+	 * 		the port to listen to
+	 * @param reconnectThrottle
+	 * 		limits the frequency of reconnect attempts (in the role of the sender)
+	 */
+	NioSyncServer(
+			final AbstractPlatform platform,
+			final SyncServer syncServer,
+			final byte[] ip,
+			final int port,
+			final ReconnectThrottle reconnectThrottle) {
+		this.platform = platform;
+		this.syncServer = syncServer;
+		this.ip = (ip != null) ? ip : listenIP;
+		this.port = port;
+		this.reconnectThrottle = reconnectThrottle;
+		// a busy connection holds a buffer for each direction
+		this.bufferPool = new DirectBufferPool(Settings.bufferSize, 2 * platform.getNumMembers());
+		this.reconnectPool = Executors.newCachedThreadPool(new PlatformThreadFactory("nio_reconnect_"));
+		this.workers = new ExecutorService[Math.max(1, Settings.nioSyncListenerThreads)];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = Executors.newSingleThreadExecutor(new PlatformThreadFactory("nio_sync_worker_" + i + "_"));
+		}
+	}
+
+	/**
+	 * @return true if incoming syncs are handled by a {@link NioSyncServer}
+	 */
+	static boolean isEnabled() {
+		return Settings.nioSyncListener;
+	}
+
+	/**
+	 * call this in its own thread, and it will run forever, accepting and handling incoming calls.
+	 */
+	@Override
+	public void run() {
+		final ServerSocketChannel serverChannel;
+		try {
+			serverChannel = bind();
+			selector = new NioSyncSelector(bufferPool, Settings.timeoutSyncClientSocket,
+					Settings.nioSyncMaxBufferedBytes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (IOException e) {
+			log.error(EXCEPTION.getMarker(), "NioSyncServer.run error", e);
+			return;
+		}
+
+		try {
+			selector.listen(serverChannel, this::accepted);
+			selector.run();
+		} finally {
+			try {
+				serverChannel.close();
+			} catch (Exception ignored) {
+				// Suppress any exceptions during cleanup
+			}
+			for (final ExecutorService worker : workers) {
+				worker.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Keep trying to bind to the port on this computer, until success.
+	 */
+	private ServerSocketChannel bind() throws InterruptedException {
+		while (true) {
+			ServerSocketChannel serverChannel = null;
+			try {
+				serverChannel = ServerSocketChannel.open();
+				serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+				serverChannel.bind(new InetSocketAddress(InetAddress.getByAddress(ip), port));
+				return serverChannel;
+			} catch (IOException e) {
+				log.error(EXCEPTION.getMarker(), "NioSyncServer.run error", e);
+				try {
+					if (serverChannel != null) {
+						serverChannel.close();
+					}
+				} catch (IOException ignored) {
+					// Suppress any exceptions during cleanup
+				}
+				Thread.sleep(Settings.sleepSyncServerSocketBind);
+				platform.getStats().sleep3perSecond.cycle();
+			}
+		}
+	}
+
+	/**
+	 * Called on the selector thread with each accepted connection, which is given to the workers in turn.
+	 */
+	private void accepted(final SocketChannel socketChannel) {
+		try {
+			socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, Settings.tcpNoDelay);
+			if (0 <= Settings.socketIpTos && Settings.socketIpTos <= 255) {
+				socketChannel.setOption(StandardSocketOptions.IP_TOS, Settings.socketIpTos);
+			}
+			final Executor worker = workers[nextWorker];
+			nextWorker = (nextWorker + 1) % workers.length;
+			selector.register(socketChannel, Settings.useTLS ? platform.getCrypto().newServerSSLEngine() : null,
+					worker, new HandshakeHandler());
+		} catch (IOException e) {
+			log.error(EXCEPTION.getMarker(), "NioSyncServer failed to set up an accepted connection", e);
+			try {
+				socketChannel.close();
+			} catch (IOException ignored) {
+				// Suppress any exceptions during cleanup
+			}
+		}
+	}
+
+	/**
+	 * Reads the name of the member that connected, as {@link SyncServer} does, then hands the connection to a
+	 * {@link ListenerHandler}.
+	 */
+	private class HandshakeHandler implements NioSyncHandler {
+
+		@Override
+		public void received(final NioSyncChannel channel) throws IOException {
+			final String otherKey = channel.tryRead(() -> channel.getInput().readUTF());
+			if (otherKey == null) {
+				return;
+			}
+
+			final long otherId = platform.getAddressBook().getId(otherKey);
+
+			channel.getOutput().writeInt(SyncConstants.COMM_CONNECT);// send an ACK for creating connection
+			channel.getOutput().flush();
+
+			// ignore invalid IDs, but keep the connections of valid ones
+			if (otherId < 0
+					|| otherId >= platform.getAddressBook().getSize()
+					|| !platform.getConnectionGraph().isAdjacent(platform.getSelfId().getIdAsInt(), (int) otherId)) {
+				channel.close();
+				return;
+			}
+
+			log.debug(SYNC_START.getMarker(),
+					"listener {} just established connection initiated by {}",
+					platform.getSelfId(), otherId);
+
+			final SyncConnection conn = new SyncConnection();
+			conn.set(platform, platform.getSelfId(), NodeId.createMain(otherId), channel.getSocket(),
+					channel.getInput(), channel.getOutput());
+			syncServer.connectionEstablished(conn);
+
+			final ListenerHandler listener = new ListenerHandler(conn);
+			channel.setHandler(listener);
+			listener.received(channel);
+		}
+
+		@Override
+		public void closed(final NioSyncChannel channel) {
+			// nothing was set up yet
+		}
+	}
+
+	/**
+	 * Handles the heartbeats, sync requests and state requests of one member, as a {@link SyncListener} does.
+	 */
+	private class ListenerHandler implements NioSyncHandler {
+
+		/** the connection, as kept by the {@link SyncServer} */
+		private final SyncConnection conn;
+
+		/** the sync in progress, or null if none */
+		private NioNodeSynchronizer sync;
+
+		/** the lock shared with the callers that sync with the same member, if this listener holds it */
+		private ReentrantLock lockCallListen;
+
+		ListenerHandler(final SyncConnection conn) {
+			this.conn = conn;
+		}
+
+		@Override
+		public void received(final NioSyncChannel channel) throws IOException {
+			while (channel.isOpen()) {
+				if (sync != null) {
+					if (!sync.advance(channel)) {
+						return;
+					}
+					endSync();
+				}
+
+				final Byte b = channel.tryRead(() -> channel.getInput().readByte());
+				if (b == null) {
+					return;
+				}
+
+				if (b == SyncConstants.HEARTBEAT) {
+					log.debug(HEARTBEAT.getMarker(), "received HEARTBEAT");
+					channel.getOutput().writeByte(SyncConstants.HEARTBEAT_ACK);
+					channel.getOutput().flush();
+					log.debug(HEARTBEAT.getMarker(), "sent HEARTBEAT_ACK");
+				} else if (b == SyncConstants.COMM_SYNC_REQUEST) {
+					log.debug(HEARTBEAT.getMarker(), "received COMM_SYNC_REQUEST");
+					startSync();
+				} else if (b == SyncConstants.COMM_STATE_REQUEST) {
+					log.info(RECONNECT.getMarker(), "{} got COMM_STATE_REQUEST from {}",
+							platform.getSelfId(), conn.getOtherId());
+					channel.detach(detached -> reconnectPool.submit(() -> sendState(detached)));
+					return;
+				} else { // b is neither a heartbeat, a COMM_STATE_REQUEST nor a COMM_SYNC_REQUEST, so it's an error
+					log.debug(RECONNECT.getMarker(),
+							"listener {} received sync byte {} (should be {} or {}) from {}",
+							conn.getSelfId(), b, SyncConstants.COMM_SYNC_REQUEST, SyncConstants.HEARTBEAT,
+							conn.getOtherId());
+					conn.disconnect(false, 8);
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void closed(final NioSyncChannel channel) {
+			if (sync != null) {
+				endSync();
+			}
+			conn.disconnect(false, 6);
+		}
+
+		/**
+		 * Decide whether to accept a sync request, as {@link SyncListener} does, and start the sync.
+		 */
+		private void startSync() throws IOException {
+			syncServer.numListenerSyncs.incrementAndGet(); // matching decr in endSync
+			syncServer.numSyncs.incrementAndGet(); // matching decr in endSync
+			sync = new NioNodeSynchronizer(conn);
+
+			final ReentrantLock lock = syncServer.lockCallListen.get(conn.getOtherId().getIdAsInt());
+			final boolean canAcceptSync;
+			if (platform.getSyncManager().hasFallenBehind()) {
+				log.debug(SYNC_LISTENER.getMarker(),
+						"node {} has fallen behind. Incoming sync requests will not be accepted.", conn.getSelfId());
+				canAcceptSync = false;
+			} else if (!lock.tryLock()) {
+				// caller is already syncing with otherId, so reply NACK
+				canAcceptSync = false;
+			} else {
+				lockCallListen = lock;
+				canAcceptSync = platform.getSyncManager().shouldAcceptSync();
+				if (!canAcceptSync) {
+					log.debug(SYNC_LISTENER.getMarker(),
+							"platform.getSyncManager().shouldAcceptSync() returned false. Incoming sync " +
+									"requests will not be accepted.");
+				}
+			}
+
+			sync.start(canAcceptSync);
+		}
+
+		/**
+		 * Release what the sync held, whether it finished or the connection was closed.
+		 */
+		private void endSync() {
+			sync = null;
+			if (lockCallListen != null) {
+				lockCallListen.unlock();
+				lockCallListen = null;
+			}
+			syncServer.numListenerSyncs.decrementAndGet();
+			syncServer.numSyncs.decrementAndGet();
+		}
+
+		/**
+		 * Send the last complete signed state, as {@link SyncListener} does, on a thread that may block. The socket
+		 * is used with blocking streams, which first read the bytes already received, and encrypt if it uses TLS.
+		 */
+		private void sendState(final NioSyncChannel channel) {
+			try {
+				final Socket socket = channel.getSocket();
+				channel.send();
+				final SyncConnection stateConn = new SyncConnection();
+				stateConn.set(platform, conn.getSelfId(), conn.getOtherId(), socket,
+						SyncInputStream.createSyncInputStream(channel.getBlockingInput(), Settings.bufferSize),
+						SyncOutputStream.createSyncOutputStream(channel.getBlockingOutput(), Settings.bufferSize));
+
+				try (AutoCloseableWrapper<SignedState> stateWrapper =
+							 platform.getSignedStateManager().getLastCompleteSignedState()) {
+
+					// This was added to support writing signed state JSON files after every reconnect
+					// This is enabled/disabled via settings and is disabled by default
+					platform.getSignedStateManager().jsonifySignedState(stateWrapper.get(), StateDumpSource.RECONNECT);
+
+					new ReconnectSender(
+							stateConn,
+							stateWrapper.get(),
+							Settings.reconnect.getAsyncInputStreamTimeoutMilliseconds(),
+							reconnectThrottle,
+							platform.getSelfId().getId(),
+							conn.getOtherId().getId(),
+							stateWrapper.get().getLastRoundReceived()).execute();
+				} finally {
+					stateConn.disconnect(false, 12);
+				}
+			} catch (Exception e) {
+				log.error(SOCKET_EXCEPTIONS.getMarker(),
+						"NioSyncServer failed to send a state to {}", conn.getOtherId(), e);
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
@@ -18,6 +18,7 @@ import com.swirlds.common.io.BadIOException;
 import com.swirlds.common.threading.ParallelExecutionException;
 import com.swirlds.common.threading.ThreadConfiguration;
 import com.swirlds.platform.event.ValidateEventTask;
+import com.swirlds.platform.sync.EventBloomFilter;
 import com.swirlds.platform.sync.SyncFallenBehind;
 import com.swirlds.platform.sync.SyncLogging;
 import com.swirlds.platform.sync.SyncShadowGraphManager;
@@ -26,14 +27,18 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.SyncFailedException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import static com.swirlds.logging.LogMarker.RECONNECT;
@@ -122,6 +127,33 @@ import static com.swirlds.logging.LogMarker.SYNC_STEP_5;
  * #===========================================#   #===========================================#
  *
  * </pre>
+ *
+ * If both members agreed to CONNECT_OPTION_PIPELINED when connecting, steps 2 and 4 overlap, which saves a round
+ * trip per sync. Step 2 exchanges only the ACK/NACK, generations and tip hashes, and if the sync was refused, that is
+ * all. Step 3 needs only the generations, so it runs as soon as they are read. In step 4, each side sends its tip
+ * booleans and, without waiting for those of the other side, the events that the other side is known to lack: the
+ * self-descendants of its tips whose parents it has or is sent first. Once the tip booleans of the other side arrive,
+ * they correct the send list, and only the events not sent already follow.
+ *
+ * <pre>
+ *
+ * STEP 4 (pipelined, both sides):
+ * #=====================#=====================#
+ * #  send tip booleans  #  read tip booleans  #
+ * #  flush              #                     #
+ * #  if ACK             #  if ACK             #
+ * #    send Events      #    read peer Events #
+ * #      known missing  #    insert peer      #
+ * #    flush            #      Events         #
+ * #    wait for tip     #                     #
+ * #      booleans       #                     #
+ * #    send the other   #                     #
+ * #      Events         #                     #
+ * #    send extra bytes #                     #
+ * #    flush            #                     #
+ * #=====================#=====================#
+ *
+ * </pre>
  ***********************************************************************************************/
 
 
@@ -177,6 +209,24 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 	private boolean syncAccepted;
 
 
+	/**
+	 * Get the time points of the steps of this sync
+	 *
+	 * @return the time points of the steps of this sync
+	 */
+	protected SyncTiming getTiming() {
+		return timing;
+	}
+
+	/**
+	 * Get whether this node or the remote has fallen behind the other, as known so far in this sync
+	 *
+	 * @return whether this node or the remote has fallen behind the other
+	 */
+	protected SyncFallenBehind getFallenBehind() {
+		return fallenBehind;
+	}
+
 	/**
 	 * Production constructor
 	 *
@@ -193,7 +243,10 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 				getSyncShadowGraphManager(conn),
 				new SyncThrottle(conn.getPlatform().getNumMembers()),
 				conn.getPlatform().getStats(),
-				(ValidateEventTask task) -> conn.getPlatform().getEventTaskCreator().addEvent(task),
+				(ValidateEventTask task) -> {
+					conn.getPlatform().getEventSignatureVerifier().verifyAsync(task);
+					conn.getPlatform().getEventTaskCreator().addEvent(task);
+				},
 				conn.getPlatform().getNumMembers(),
 				LOG,
 				SyncLogging.getSyncLogString(conn, caller));
@@ -258,8 +311,12 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 			syncStep3();
 			timing.setTimePoint(3);
 
-			// STEP 4: READ and WRITE events the other doesn't know
-			syncStep4();
+			// STEP 4: READ and WRITE events the other doesn't know (and the tip booleans, if pipelined)
+			if (conn.usesPipelinedSync()) {
+				syncStep4Pipelined();
+			} else {
+				syncStep4();
+			}
 			timing.setTimePoint(4);
 
 			// STEP 5: sync now completed, without errors. So send COMM_SYNC_DONE if sendSyncDoneByte=true,
@@ -334,6 +391,36 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 				fallenBehind.getSelfMaxRoundGeneration());
 	}
 
+	/**
+	 * Write a Bloom filter of the non-ancient events in this node's shadow graph, which follows the tip hashes on
+	 * connections that use them
+	 *
+	 * @throws IOException
+	 * 		if a stream exception occurs
+	 */
+	private void writeBloomFilter() throws IOException {
+		final EventBloomFilter filter = getSyncShadowGraphManager().getSendBloomFilter(
+				conn.getPlatform().getConsensus().getMinGenerationNonAncient(),
+				Settings.syncBloomFilterBitsPerEvent,
+				ThreadLocalRandom.current().nextLong());
+
+		filter.serialize(getOutputStream());
+
+		LOG.debug(SYNC_STEP_2.getMarker(), "{} : `writeBloomFilter`: wrote {} bytes",
+				getLogString(), filter.getSerializedSize());
+	}
+
+	/**
+	 * Read the Bloom filter of the events the other node has, which follows its tip hashes on connections that use
+	 * them, so that {@code writeEvents} leaves those events out
+	 *
+	 * @throws IOException
+	 * 		if a stream exception occurs, or the filter is not valid
+	 */
+	private void readBloomFilter() throws IOException {
+		getSyncData().setPeerBloomFilter(EventBloomFilter.deserialize(getInputStream()));
+	}
+
 	/**
 	 * Sync step 1: WRITE sync request (only for caller; listener READ already happened)
 	 *
@@ -373,6 +460,12 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 		} catch (ParallelExecutionException e) {
 			LOG.debug(SYNC_STEP_2.getMarker(), "{}", getLogString(), e);
 		}
+
+		if (conn.usesPipelinedSync()) {
+			// the tip booleans are exchanged in step 4, while the events are being sent
+			return;
+		}
+
 		try {
 			doParallel(
 					syncStep2aReadTipBooleans(),
@@ -407,6 +500,9 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 			if (isListener() || syncAccepted) {
 				readGenerations();
 				readTipHashes();
+				if (conn.usesBloomFilter()) {
+					readBloomFilter();
+				}
 			}
 
 			LOG.debug(SYNC_STEP_2.getMarker(), "{}finished", syncLogString);
@@ -439,6 +535,9 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 			if (isCaller() || canAcceptSync) {
 				writeGenerations();
 				writeTipHashes();
+				if (conn.usesBloomFilter()) {
+					writeBloomFilter();
+				}
 			}
 
 			LOG.debug(SYNC_STEP_2.getMarker(), "{}finished", syncLogString);
@@ -460,7 +559,7 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 	 * @throws IOException
 	 * 		iff the DataOutputStream instance throws
 	 */
-	private void writeSyncRequestResponse(final boolean canAcceptSync) throws IOException {
+	protected void writeSyncRequestResponse(final boolean canAcceptSync) throws IOException {
 
 		getOutputStream().writeByte(canAcceptSync
 				? SyncConstants.COMM_SYNC_ACK
@@ -566,7 +665,7 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 	 * to slow down. Also determine whether either node in this communicating pair has
 	 * fallen behind.
 	 */
-	private void syncStep3() {
+	protected void syncStep3() {
 		fallenBehind.detect();
 
 		final String syncLogString = getLogString() + ": `syncStep3`: ";
@@ -662,6 +761,7 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 			if (fallenBehind.detected()) {
 				writeFallenBehind();
 			} else {
+				timing.setEventsStarted();
 				writeEvents();
 
 				LOG.debug(SYNC_STEP_4.getMarker(), "{}writing events finished, wrote {} events",
@@ -673,6 +773,116 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 		};
 	}
 
+	/**
+	 * Exchange the tip booleans and the selected events, sending those that the other is known to lack without
+	 * waiting for its tip booleans
+	 */
+	private void syncStep4Pipelined() {
+		// chosen before the tip booleans are read, which change the sync data
+		final List<EventImpl> speculativeEvents = fallenBehind.detected()
+				? Collections.emptyList()
+				: getSyncShadowGraphManager().getSpeculativeSendList(getSyncData());
+		final CountDownLatch tipBooleansDone = new CountDownLatch(1);
+		final AtomicBoolean tipBooleansRead = new AtomicBoolean(false);
+
+		try {
+			doParallel(
+					// THREAD A: READ the tip booleans, then the events, and create a new ValidateEventTask
+					syncStep4aReadTipBooleansAndEvents(tipBooleansDone, tipBooleansRead),
+					// THREAD B: WRITE the tip booleans and the events
+					syncStep4bWriteTipBooleansAndEvents(speculativeEvents, tipBooleansDone, tipBooleansRead),
+					"syncStep4(pipelined)");
+		} catch (ParallelExecutionException e) {
+			LOG.debug(SYNC_STEP_4.getMarker(), "{}", getLogString(), e);
+		}
+	}
+
+	/**
+	 * Pipelined sync step 4 thread A: READ the tip booleans, then the events
+	 *
+	 * @param tipBooleansDone
+	 * 		counted down once reading the tip booleans has finished or failed
+	 * @param tipBooleansRead
+	 * 		set to true if the tip booleans were read
+	 * @return the {@code Callable} to run
+	 */
+	private Callable<Object> syncStep4aReadTipBooleansAndEvents(
+			final CountDownLatch tipBooleansDone,
+			final AtomicBoolean tipBooleansRead) {
+		return () -> {
+			final String syncLogString = getLogString() + ": `syncStep4aReadTipBooleansAndEvents` : ";
+
+			try {
+				readTipBooleans();
+				timing.setTipBooleansRead();
+				tipBooleansRead.set(true);
+			} finally {
+				tipBooleansDone.countDown();
+			}
+
+			if (fallenBehind.detected()) {
+				readFallenBehind();
+			} else {
+				readEvents();
+
+				LOG.debug(SYNC_STEP_4.getMarker(), "{}reading events finished, read {} events",
+						syncLogString, getEventsRead().get());
+			}
+
+			// (ignored)
+			return null;
+		};
+	}
+
+	/**
+	 * Pipelined sync step 4 thread B: WRITE the tip booleans, the events the other is known to lack, and once the tip
+	 * booleans of the other have been read, the rest of the events
+	 *
+	 * @param speculativeEvents
+	 * 		the events to send before the tip booleans of the other have been read
+	 * @param tipBooleansDone
+	 * 		counted down once reading the tip booleans has finished or failed
+	 * @param tipBooleansRead
+	 * 		set to true if the tip booleans were read
+	 * @return the {@code Callable} to run
+	 */
+	private Callable<Object> syncStep4bWriteTipBooleansAndEvents(
+			final List<EventImpl> speculativeEvents,
+			final CountDownLatch tipBooleansDone,
+			final AtomicBoolean tipBooleansRead) {
+		return () -> {
+			final String syncLogString = getLogString() + ": `syncStep4bWriteTipBooleansAndEvents `: ";
+
+			writeTipBooleans();
+
+			if (fallenBehind.detected()) {
+				writeFallenBehind();
+				// (ignored)
+				return null;
+			}
+
+			timing.setEventsStarted();
+			writeSpeculativeEvents(speculativeEvents);
+
+			LOG.debug(SYNC_STEP_4.getMarker(), "{}wrote {} events, waiting for tip booleans",
+					syncLogString, speculativeEvents.size());
+
+			tipBooleansDone.await();
+			if (!tipBooleansRead.get()) {
+				throw new BadIOException(syncLogString + "the tip booleans were not read, so the events to send "
+						+ "after the first " + speculativeEvents.size() + " are unknown");
+			}
+
+			writeEvents();
+
+			LOG.debug(SYNC_STEP_4.getMarker(), "{}writing events finished, wrote {} events",
+					syncLogString, getEventsWritten().get());
+
+			// (ignored)
+			return null;
+		};
+	}
+
 
 	/**
 	 * Sync step 5: sync now completed, without errors. So send COMM_SYNC_DONE if sendSyncDoneByte=true, create an
@@ -693,6 +903,16 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 			writeAndReadSyncDone();
 		}
 
+		completeSync();
+
+		LOG.debug(SYNC_STEP_5.getMarker(), "{}finishing sync: finished", syncLogString);
+	}
+
+	/**
+	 * The part of sync step 5 that follows the exchange of COMM_SYNC_DONE bytes: create an event, log various stats,
+	 * maybe sleep
+	 */
+	protected void completeSync() {
 		if (shouldCreateEvent()) {
 			createEvents();
 		}
@@ -719,8 +939,6 @@ class NodeSynchronizerImpl extends AbstractNodeSynchronizer {
 		if (fallenBehind.selfFallenBehind()) {
 			reportSelfHasFallenBehind();
 		}
-
-		LOG.debug(SYNC_STEP_5.getMarker(), "{}finishing sync: finished", syncLogString);
 	}
 
 	/**
@@ -109,6 +109,11 @@ class Settings {
 	static boolean useRSA = true;
 	/** verify event signatures (rather than just trusting they are correct)? */
 	static boolean verifyEventSigs = true;
+	/**
+	 * if verifying event signatures, start verifying the signature of each event received by gossip on the crypto
+	 * threads as soon as it is read, so that the intake thread only has to wait for the result
+	 */
+	static boolean verifyEventSigsInParallel = false;
 	/** number of threads used to verify signatures and generate keys, in parallel */
 	static int numCryptoThreads = 32;
 
@@ -148,6 +153,25 @@ class Settings {
 	static int signedStateFreq = 1;
 	/** max events that can be put in the forCons queue in EventFlow (0 for infinity) */
 	static int maxEventQueueForCons = 500;
+	/**
+	 * if true, EventFlow hands events to threadCurr through a single-producer/single-consumer ring buffer, which
+	 * never locks or allocates, instead of a blocking queue. Events are then handed off in the order they were put.
+	 * forCons stays a blocking queue, since events are put into it by more than one thread (e.g. when recovering).
+	 */
+	static boolean eventFlowRingPipeline = false;
+	/**
+	 * the capacity of the forCurr ring, if eventFlowRingPipeline is true. It is rounded up to a power of 2. When the
+	 * ring is full, the events that don't fit spill into an unbounded queue until threadCurr has caught up, so the
+	 * intake thread never waits for threadCurr, just as with the unbounded queue the ring replaces.
+	 */
+	static int eventFlowRingCapacity = 8192;
+	/**
+	 * the maximum number of events threadCurr takes from its ring each time it wakes up, if eventFlowRingPipeline is
+	 * true
+	 */
+	static int eventFlowRingBatchSize = 64;
+	/** if true, threads waiting on the forCurr ring busy-spin. If false, they park. */
+	static boolean eventFlowRingBusySpin = false;
 	/**
 	 * Stop accepting new non-system transactions into the 4 transaction queues if any of them have more
 	 * than this many.
@@ -216,6 +240,21 @@ class Settings {
 	static double halfLife = 10;
 	/** a coin round happens every coinFreq rounds during an election (every other one is all true) */
 	static int coinFreq = 12;
+	/**
+	 * if true, when a new witness votes, its votes in all the elections of its round are counted in parallel on the
+	 * common fork-join pool. The votes, and so the consensus order, are identical to counting them serially.
+	 */
+	static boolean parallelFameVoting = false;
+	/** the maximum number of elections counted by one task, if parallelFameVoting is true */
+	static int fameVotingBatchSize = 4;
+	/**
+	 * if true, and the app's state implements ParallelSwirldState, consecutive transactions in an event that don't
+	 * conflict are prepared in parallel. Their effects are still applied one at a time, in order, so the resulting
+	 * state is identical to handling them one at a time.
+	 */
+	static boolean parallelTransactions = false;
+	/** the number of threads used to prepare transactions, if parallelTransactions is true */
+	static int parallelTransactionThreads = 8;
 	/** when converting an exception to a string for logging, should it include the stack trace? */
 	static boolean logStack = true;
 	/** should TLS be turned on, rather than making all sockets unencrypted? */
@@ -259,6 +298,54 @@ class Settings {
 	static long sleepListenerDisconnected = 100;
 	/** wake up (while blocked on a socket) every this many milliseconds to check if it's still valid */
 	static int waitListenerRead = 500;
+	/**
+	 * if true, incoming connections are handled by one selector thread with non-blocking sockets and
+	 * nioSyncListenerThreads worker threads, instead of a listener thread per member. Connections accepted this way
+	 * agree to none of the options offered when connecting (syncCompression, syncParentReferences, multiplexSync,
+	 * syncPipelined and syncBloomFilter), so the callers of the other members fall back to the plain protocol.
+	 */
+	static boolean nioSyncListener = false;
+	/** the number of threads handling the bytes received on incoming connections, if nioSyncListener is true */
+	static int nioSyncListenerThreads = 2;
+	/**
+	 * the largest message an incoming connection may receive, and the most bytes that may wait to be sent on it before
+	 * it stops handling what it receives, if nioSyncListener is true
+	 */
+	static int nioSyncMaxBufferedBytes = 4 * 1024 * 1024;
+	/**
+	 * if true, offer and accept compressing the streams of each connection with Deflate. It is only used if the other
+	 * member agrees when connecting.
+	 */
+	static boolean syncCompression = false;
+	/** the Deflate level of compressed connections, from 1 (fastest) to 9 (smallest) */
+	static int syncCompressionLevel = 1;
+	/**
+	 * if true, offer and accept replacing the parent hashes of the events sent in a sync by references to events sent
+	 * earlier in the same sync. It is only used if the other member agrees when connecting.
+	 */
+	static boolean syncParentReferences = false;
+	/**
+	 * if true, offer and accept carrying syncs in both directions, their heartbeats and reconnects as streams of one
+	 * connection per pair of members, instead of a connection each way. Only the member with the lower ID connects,
+	 * so this should be the same for all members.
+	 */
+	static boolean multiplexSync = false;
+	/** the number of bytes of a multiplexed stream that may be sent before its reader makes room for more */
+	static int multiplexWindowSize = 1024 * 1024;
+	/**
+	 * if true, offer and accept the pipelined version of the sync protocol, which sends the events that the other
+	 * member is known to lack while the tip booleans are still being exchanged, saving a round trip per sync. It is
+	 * only used if the other member agrees when connecting.
+	 */
+	static boolean syncPipelined = false;
+	/**
+	 * if true, offer and accept sending with the tip hashes a Bloom filter of the non-ancient events self has, so that
+	 * the other member leaves out of a sync the events self has but that the tips do not tell it about. It is only
+	 * used if the other member agrees when connecting.
+	 */
+	static boolean syncBloomFilter = false;
+	/** the number of bits per event of the Bloom filters sent in syncs, more giving fewer events wrongly left out */
+	static int syncBloomFilterBitsPerEvent = 12;
 
 	/** number of bins to store for the history (in StatsBuffer etc.) */
 	static int statsBufferSize = 100;
@@ -309,6 +396,11 @@ class Settings {
 	 */
 	static FCHashMapSettingsImpl fcHashMap = new FCHashMapSettingsImpl();
 
+	/**
+	 * Settings controlling FCQueue.
+	 */
+	static FCQueueSettingsImpl fcQueue = new FCQueueSettingsImpl();
+
 	/** settings related to database connectivity */
 	static DatabaseSettings dbConnection = new DatabaseSettings();
 
@@ -348,6 +440,13 @@ class Settings {
 	/** The value for the event intake queue at which the node should stop syncing */
 	static int eventIntakeQueueThrottleSize = 1;
 
+	/**
+	 * If true, the event intake thread handles everything it drains from the intake queue as a single batch: the
+	 * events are validated, topologically ordered and added to the hashgraph under one acquisition of the consensus
+	 * lock, and the observers are notified once per batch. If false, events are handled one at a time.
+	 */
+	static boolean batchEventIntake = false;
+
 	/**
 	 * If true, the platform will recalculate the hash of the signed state and check it against the written hash. It
 	 * will also verify that the signatures are valid.
@@ -148,6 +148,14 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 	StatsSpeedometer bytesPerSecondSent;
 	/** number of extra bytes sent per second to help other members who fall behind to catch up */
 	StatsSpeedometer bytesPerSecondCatchupSent;
+	/** number of bytes per second not sent because of sync compression and parent references */
+	StatsSpeedometer bytesPerSecondCompressionSaved;
+	/** bytes sent after compression per byte before compression, in each sync of a compressed connection */
+	StatsRunningAverage avgCompressionRatio;
+	/** time spent compressing and decompressing in each sync of a compressed connection (in microseconds) */
+	StatsRunningAverage avgCompressionMicroseconds;
+	/** number of parent hashes sent as references per sync, on connections that use them */
+	StatsRunningAverage avgParentReferencesPerSync;
 	/** time for event, from when the event is received, to when all the famous witnesses are known */
 	StatsRunningAverage avgReceivedFamousTime;
 	/** time for member, from creating to knowing consensus */
@@ -166,6 +174,12 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 	StatsRunningAverage avgSyncDuration3;
 	/** average wall clock time for step 4 of a successful sync */
 	StatsRunningAverage avgSyncDuration4;
+	/** average wall clock time from the start of a successful sync until self starts sending events */
+	StatsRunningAverage avgSyncTimeToEvents;
+	/** average wall clock time events are sent while the tip booleans are still awaited, in a pipelined sync */
+	StatsRunningAverage avgSyncPipelineOverlap;
+	/** number of events sent before the tip booleans were read per sync, on pipelined connections */
+	StatsRunningAverage avgSpeculativeEventsPerSync;
 	/** average time (in seconds) to send a byte and get a reply, for each member (holds 0 for self) */
 	public StatsRunningAverage[] avgPingMilliseconds;
 	/** average bytes per second received during a sync with each member (holds 0 for self) */
@@ -182,6 +196,10 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 	StatsRunningAverage avgBytesPerTransaction;
 	/** average percentage of received events that are already known */
 	StatsRunningAverage avgDuplicatePercent;
+	/** average percentage of the events chosen to send in a sync that the Bloom filter of the peer left out */
+	StatsRunningAverage avgRedundantBeforeFilterPercent;
+	/** average percentage of the events received in a sync already known, although self sent a Bloom filter */
+	StatsRunningAverage avgRedundantAfterFilterPercent;
 	/** self event consensus timestamp minus time created */
 	StatsRunningAverage avgSelfCreatedTimestamp;
 	/** other event consensus timestamp minus time received */
@@ -215,6 +233,10 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 	StatsSpeedometer timeFracDot;
 	/** fraction of each second spent adding an event to the hashgraph, and calculating consensus */
 	StatsSpeedometer timeFracAdd;
+	/** average number of tasks in each batch dispatched by the intake thread, when it dispatches batches */
+	StatsRunningAverage avgIntakeBatchSize;
+	/** average time to dispatch a batch of intake tasks, including adding their events to the hashgraph (seconds) */
+	StatsRunningAverage avgIntakeBatchTime;
 	/** average number of bytes per second transfered during a sync */
 	StatsRunningAverage avgBytesPerSecSync;
 
@@ -274,6 +296,10 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 	StatsRunningAverage avgQ1forCurr;
 	/** number of consensus events waiting to be handled [forCons.size()] */
 	StatsRunningAverage avgQ2forCons;
+	/** number of non-consensus events waiting to be handled by stateWork [forWork.size()] */
+	StatsRunningAverage avgQ5forWork;
+	/** time an event waits in the forCurr ring before threadCurr takes it, if eventFlowRingPipeline (microseconds) */
+	StatsRunningAverage avgForCurrHandOffMicros;
 	/** number of handled events waiting to be deleted [forSigs.size()] */
 	StatsRunningAverage avgQ3forSigs;
 	/** number of events received waiting to be processed, or events waiting to be created [forSigs.size()] */
@@ -416,6 +442,7 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 				avgQ1forCurr.recordValue(platform.getEventFlow().getForCurrSize());
 				avgQ2forCons.recordValue(platform.getEventFlow().getForConsSize());
 				avgQ3forSigs.recordValue(platform.getEventFlow().getForSigsSize());
+				avgQ5forWork.recordValue(platform.getEventFlow().getForWorkSize());
 				eventStreamQueueSize.recordValue(platform.getEventStreamManager() != null ?
 						platform.getEventStreamManager().getEventStreamingQueueSize() : 0);
 				hashQueueSize.recordValue(platform.getEventStreamManager() != null ?
@@ -671,6 +698,30 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 						},//
 						null,//
 						() -> avgSyncDuration4.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"sec/syncToEvents",//
+						"time from the start of average successful sync until self starts sending events (in seconds)",//
+						FLOAT_FORMAT_10_3,//
+						avgSyncTimeToEvents,//
+						(h) -> {
+							avgSyncTimeToEvents = new StatsRunningAverage(h);
+							return avgSyncTimeToEvents;
+						},//
+						null,//
+						() -> avgSyncTimeToEvents.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"sec/syncOverlap",//
+						"time events are sent while the tip booleans are awaited, in a pipelined sync (in seconds)",//
+						FLOAT_FORMAT_10_3,//
+						avgSyncPipelineOverlap,//
+						(h) -> {
+							avgSyncPipelineOverlap = new StatsRunningAverage(h);
+							return avgSyncPipelineOverlap;
+						},//
+						null,//
+						() -> avgSyncPipelineOverlap.getWeightedMean()),//
 				new StatEntry(//
 						CATEGORY,//
 						"rounds/sec",//
@@ -732,6 +783,66 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 						},//
 						null,//
 						() -> bytesPerSecondCatchupSent.getCyclesPerSecond()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"bytes/sec_saved",//
+						"number of bytes per second not sent because of sync compression and parent references",//
+						FLOAT_FORMAT_16_2,//
+						bytesPerSecondCompressionSaved,//
+						(h) -> {
+							bytesPerSecondCompressionSaved = new StatsSpeedometer(h);
+							return bytesPerSecondCompressionSaved;
+						},//
+						null,//
+						() -> bytesPerSecondCompressionSaved.getCyclesPerSecond()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"compressRatio",//
+						"bytes sent after compression per byte before compression, in each compressed sync",//
+						FLOAT_FORMAT_10_3,//
+						avgCompressionRatio,//
+						(h) -> {
+							avgCompressionRatio = new StatsRunningAverage(h);
+							return avgCompressionRatio;
+						},//
+						null,//
+						() -> avgCompressionRatio.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"compressMicroSec/sync",//
+						"time spent compressing and decompressing in each compressed sync (in microseconds)",//
+						FLOAT_FORMAT_10_3,//
+						avgCompressionMicroseconds,//
+						(h) -> {
+							avgCompressionMicroseconds = new StatsRunningAverage(h);
+							return avgCompressionMicroseconds;
+						},//
+						null,//
+						() -> avgCompressionMicroseconds.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"parentRefs/sync",//
+						"number of parent hashes sent as references to events of the same sync, per sync",//
+						"%,8.1f",//
+						avgParentReferencesPerSync,//
+						(h) -> {
+							avgParentReferencesPerSync = new StatsRunningAverage(h);
+							return avgParentReferencesPerSync;
+						},//
+						null,//
+						() -> avgParentReferencesPerSync.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"specEvents/sync",//
+						"number of events sent before the tip booleans were read, per pipelined sync",//
+						"%,8.1f",//
+						avgSpeculativeEventsPerSync,//
+						(h) -> {
+							avgSpeculativeEventsPerSync = new StatsRunningAverage(h);
+							return avgSpeculativeEventsPerSync;
+						},//
+						null,//
+						() -> avgSpeculativeEventsPerSync.getWeightedMean()),//
 				new StatEntry(//
 						INTERNAL_CATEGORY,//
 						"bytes/sec_sys",//
@@ -796,6 +907,30 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 						},//
 						null,//
 						() -> avgDuplicatePercent.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"dupEvBeforeFilter%",//
+						"percentage of the events chosen to send in a sync that the peer's Bloom filter left out",//
+						"%,10.2f",//
+						avgRedundantBeforeFilterPercent,//
+						(h) -> {
+							avgRedundantBeforeFilterPercent = new StatsRunningAverage(h);
+							return avgRedundantBeforeFilterPercent;
+						},//
+						null,//
+						() -> avgRedundantBeforeFilterPercent.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"dupEvAfterFilter%",//
+						"percentage of the events received in a sync that self already had, despite its Bloom filter",//
+						"%,10.2f",//
+						avgRedundantAfterFilterPercent,//
+						(h) -> {
+							avgRedundantAfterFilterPercent = new StatsRunningAverage(h);
+							return avgRedundantAfterFilterPercent;
+						},//
+						null,//
+						() -> avgRedundantAfterFilterPercent.getWeightedMean()),//
 				new StatEntry(//
 						CATEGORY,//
 						"badEv/sec",//
@@ -1143,6 +1278,31 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 						},//
 						null,//
 						() -> avgQ2forCons.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"q5",//
+						"number of non-consensus events in queue waiting to be handled by the working state",//
+						FLOAT_FORMAT_10_3,//
+						avgQ5forWork,//
+						(h) -> {
+							avgQ5forWork = new StatsRunningAverage(h);
+							return avgQ5forWork;
+						},//
+						null,//
+						() -> avgQ5forWork.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"q1HandOffMicros",//
+						"average time a non-consensus event waits in the forCurr ring before it is handled, if the " +
+								"ring pipeline is enabled (in microseconds)",//
+						FLOAT_FORMAT_16_2,//
+						avgForCurrHandOffMicros,//
+						(h) -> {
+							avgForCurrHandOffMicros = new StatsRunningAverage(h);
+							return avgForCurrHandOffMicros;
+						},//
+						null,//
+						() -> avgForCurrHandOffMicros.getWeightedMean()),//
 				new StatEntry(//
 						INTERNAL_CATEGORY,//
 						"q3",//
@@ -1346,6 +1506,31 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 						},//
 						null,//
 						() -> timeFracAdd.getCyclesPerSecond()),
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"intakeBatchSize",//
+						"average number of tasks in each batch dispatched by the intake thread",//
+						FLOAT_FORMAT_10_3,//
+						avgIntakeBatchSize,//
+						(h) -> {
+							avgIntakeBatchSize = new StatsRunningAverage(h);
+							return avgIntakeBatchSize;
+						},//
+						null,//
+						() -> avgIntakeBatchSize.getWeightedMean()),//
+				new StatEntry(//
+						INTERNAL_CATEGORY,//
+						"intakeBatchSec",//
+						"average time to dispatch a batch of intake tasks, and add their events to the hashgraph " +
+								"(in seconds)",//
+						"%,10.6f",//
+						avgIntakeBatchTime,//
+						(h) -> {
+							avgIntakeBatchTime = new StatsRunningAverage(h);
+							return avgIntakeBatchTime;
+						},//
+						null,//
+						() -> avgIntakeBatchTime.getWeightedMean()),//
 				new StatEntry(//
 						INTERNAL_CATEGORY,//
 						"sleep1/sec",//
@@ -2017,6 +2202,14 @@ public class Statistics extends AbstractStatistics implements ConsensusStats, Si
 		timeFracAdd.update(((double) time() - startTime) * NANOSECONDS_TO_SECONDS);
 	}
 
+	@Override
+	public void processedEventTaskBatch(int batchSize, long startTime) {
+		final double seconds = ((double) time() - startTime) * NANOSECONDS_TO_SECONDS;
+		timeFracAdd.update(seconds);
+		avgIntakeBatchSize.recordValue(batchSize);
+		avgIntakeBatchTime.recordValue(seconds);
+	}
+
 	@Override
 	public void eventAdded(EventImpl event) {
 		if (event.isCreatedBy(platform.getSelfId())) {
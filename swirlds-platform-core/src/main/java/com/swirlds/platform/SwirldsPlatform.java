@@ -238,6 +238,9 @@ public class SwirldsPlatform extends AbstractPlatform {
 	/** all the events and other data about the hashgraph */
 	protected EventTaskCreator eventTaskCreator;
 
+	/** starts checking the signatures of events received by gossip before they are queued for intake */
+	private EventSignatureVerifier eventSignatureVerifier;
+
 	private QueueThread<EventIntakeTask> intakeQueue;
 
 	/**
@@ -841,6 +844,7 @@ public class SwirldsPlatform extends AbstractPlatform {
 				// evaluate event for public key
 				(EventImpl event) -> getAddressBook().getAddress(event.getCreatorId()).getSigPublicKey(),
 				eventIntake::addEvent,
+				eventIntake::addEvents,
 				stats,
 				consensusRef::get,
 				sgm::hashgraphEvent);
@@ -852,12 +856,17 @@ public class SwirldsPlatform extends AbstractPlatform {
 				stats
 		);
 
-		intakeQueue = new QueueThreadConfiguration<EventIntakeTask>()
-				.setNodeId(selfId.getId())
-				.setComponent(PLATFORM_THREAD_POOL_NAME)
-				.setThreadName("event-intake")
-				.setHandler(taskDispatcher::dispatchTask)
-				.build();
+		final QueueThreadConfiguration<EventIntakeTask> intakeQueueConfiguration =
+				new QueueThreadConfiguration<EventIntakeTask>()
+						.setNodeId(selfId.getId())
+						.setComponent(PLATFORM_THREAD_POOL_NAME)
+						.setThreadName("event-intake");
+		if (Settings.batchEventIntake) {
+			intakeQueueConfiguration.setBatchHandler(taskDispatcher::dispatchTasks);
+		} else {
+			intakeQueueConfiguration.setHandler(taskDispatcher::dispatchTask);
+		}
+		intakeQueue = intakeQueueConfiguration.build();
 
 		this.eventTaskCreator = new EventTaskCreator(
 				eventMapper,
@@ -868,6 +877,17 @@ public class SwirldsPlatform extends AbstractPlatform {
 				intakeQueue,
 				StaticSettingsProvider.getSingleton());
 
+		this.eventSignatureVerifier = new EventSignatureVerifier(
+				crypto,
+				(Long id) -> {
+					final Address creator = getAddressBook().getAddress(id);
+					return creator == null ? null : creator.getSigPublicKey();
+				},
+				// the same zero-stake node predicate as the event validator
+				(Long id) -> Settings.enableBetaMirror && initialAddressBook.isZeroStakeNode(id),
+				eventMapper::getSequenceNumber,
+				() -> consensusRef.get().getMinGenerationNonAncient());
+
 		intakeQueue.start();
 		eventFlow.startAll(); // start all threads managing the queues.
 
@@ -981,8 +1001,10 @@ public class SwirldsPlatform extends AbstractPlatform {
 			// create and start new threads to listen for syncs
 			for (int i = 0; i < getAddressBook().getSize(); i++) {
 				if (connectionGraph.isAdjacent(selfId.getIdAsInt(), i)) {
-					// create and start new thread to listen for incoming sync requests
-					spawnSyncListener(NodeId.createMain(i));
+					if (!NioSyncServer.isEnabled()) {
+						// create and start new thread to listen for incoming sync requests
+						spawnSyncListener(NodeId.createMain(i));
+					}
 
 					// create and start new thread to send heartbeats on the SyncCaller channels
 					SyncHeartbeat sh = new SyncHeartbeat(this, NodeId.createMain(i));
@@ -1064,12 +1086,21 @@ public class SwirldsPlatform extends AbstractPlatform {
 		syncServer = new SyncServer(this, address.getListenAddressIpv4(),
 				address.getListenPortIpv4());
 
+		// the listeners are run by the workers of a NioSyncServer, if enabled, instead of a thread per member
+		final Runnable server;
+		if (NioSyncServer.isEnabled()) {
+			server = new NioSyncServer(this, syncServer, address.getListenAddressIpv4(),
+					address.getListenPortIpv4(), reconnectThrottle);
+		} else {
+			server = syncServer;
+		}
+
 		final Thread serverThread = new ThreadConfiguration()
 				.setPriority(Settings.threadPrioritySync)
 				.setNodeId(selfId.getId())
 				.setComponent(PLATFORM_THREAD_POOL_NAME)
 				.setThreadName("syncServer")
-				.setRunnable(syncServer)
+				.setRunnable(server)
 				.build();
 
 		serverThread.start();
@@ -1254,6 +1285,14 @@ public class SwirldsPlatform extends AbstractPlatform {
 		return eventTaskCreator;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	EventSignatureVerifier getEventSignatureVerifier() {
+		return eventSignatureVerifier;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
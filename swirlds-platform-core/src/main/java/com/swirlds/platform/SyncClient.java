@@ -88,7 +88,14 @@ class SyncClient {
 		}
 		connection = callerConn.get(otherConnId.getIdAsInt());
 		boolean connected = (connection != null && connection.connected());
-		if (!connected) {
+		if (!connected && SyncMultiplexer.isEnabled()) {
+			// a stream of the connection already made with the other member, if there is one
+			connection = platform.getSyncServer().getMultiplexer().openCallerConn(otherConnId);
+			callerConn.set(otherConnId.getIdAsInt(), connection);
+			connected = connection != null;
+		}
+		// when multiplexing, only the member with the lower ID connects, so the two never connect at the same time
+		if (!connected && (!SyncMultiplexer.isEnabled() || selfConnId.getId() < otherConnId.getId())) {
 			// only try once. This may take a while.
 			connection = SyncConnection.connect(platform, platform.getSelfId(),
 					otherConnId);
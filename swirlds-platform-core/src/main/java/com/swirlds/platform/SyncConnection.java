@@ -57,6 +57,35 @@ public class SyncConnection {
 	private Socket socket = null;
 	private AbstractPlatform platform = null;
 	private AtomicBoolean connected = new AtomicBoolean(true);
+	/** true if the parent hashes of the events sent in a sync are replaced by references, as agreed when connecting */
+	private boolean parentReferences = false;
+	/** true if syncs use the pipelined version of the protocol, as agreed when connecting */
+	private boolean pipelined = false;
+	/** true if each side of a sync sends a Bloom filter of the events it has, as agreed when connecting */
+	private boolean bloomFilter = false;
+
+	/**
+	 * @return the CONNECT_OPTION bits of {@link SyncConstants} that self offers and accepts, as set in the settings
+	 */
+	static int getSupportedOptions() {
+		int options = 0;
+		if (Settings.syncCompression) {
+			options |= SyncConstants.CONNECT_OPTION_DEFLATE;
+		}
+		if (Settings.syncParentReferences) {
+			options |= SyncConstants.CONNECT_OPTION_PARENT_REFERENCES;
+		}
+		if (SyncMultiplexer.isEnabled()) {
+			options |= SyncConstants.CONNECT_OPTION_MULTIPLEX;
+		}
+		if (Settings.syncPipelined) {
+			options |= SyncConstants.CONNECT_OPTION_PIPELINED;
+		}
+		if (Settings.syncBloomFilter) {
+			options |= SyncConstants.CONNECT_OPTION_BLOOM_FILTER;
+		}
+		return options;
+	}
 
 	/**
 	 * return the total number of bytes written to all the given connections since the last time this was
@@ -125,6 +154,54 @@ public class SyncConnection {
 		return platform.getSyncServer();
 	}
 
+	/**
+	 * @return true if the parent hashes of the events sent in a sync are replaced by references to events sent earlier
+	 * 		in the same sync
+	 */
+	boolean usesParentReferences() {
+		return parentReferences;
+	}
+
+	/**
+	 * @param parentReferences
+	 * 		true if the parent hashes of the events sent in a sync are replaced by references, as agreed when
+	 * 		connecting
+	 */
+	void setParentReferences(final boolean parentReferences) {
+		this.parentReferences = parentReferences;
+	}
+
+	/**
+	 * @return true if syncs send events while the tip booleans are being exchanged, as agreed when connecting
+	 */
+	boolean usesPipelinedSync() {
+		return pipelined;
+	}
+
+	/**
+	 * @param pipelined
+	 * 		true if syncs use the pipelined version of the protocol, as agreed when connecting
+	 */
+	void setPipelinedSync(final boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
+	/**
+	 * @return true if each side of a sync sends a Bloom filter of the events it has after its tip hashes, as agreed
+	 * 		when connecting
+	 */
+	boolean usesBloomFilter() {
+		return bloomFilter;
+	}
+
+	/**
+	 * @param bloomFilter
+	 * 		true if each side of a sync sends a Bloom filter of the events it has, as agreed when connecting
+	 */
+	void setBloomFilter(final boolean bloomFilter) {
+		this.bloomFilter = bloomFilter;
+	}
+
 	/**
 	 * End this connection by closing the socket and streams, and setting them to null. Also update the
 	 * statistics for the caller (if caller is true) or listener (if false).
@@ -242,7 +319,13 @@ public class SyncConnection {
 			dos.flush();
 
 			int ack = dis.readInt(); // read the ACK for creating the connection
-			if (ack != SyncConstants.COMM_CONNECT) {  // this is an ACK for creating the connection
+			int options = 0;
+			if (ack == SyncConstants.COMM_CONNECT_OPTIONS) {
+				// the listener offers options, so reply with those that self accepts
+				options = dis.readInt() & getSupportedOptions();
+				dos.writeInt(options);
+				dos.flush();
+			} else if (ack != SyncConstants.COMM_CONNECT) {  // this is an ACK for creating the connection
 				clientSocket.close();
 				dos.close();
 				dis.close();
@@ -256,8 +339,29 @@ public class SyncConnection {
 						platform.getSelfId(),
 						otherId);
 
+				if ((options & SyncConstants.CONNECT_OPTION_MULTIPLEX) != 0) {
+					// the caller connection is a stream of the connection, which the listener side reads from now on
+					final SyncConnection sc = platform.getSyncServer().getMultiplexer()
+							.established(otherId, clientSocket, options, true);
+					if (sc == null) {
+						clientSocket.close();
+					}
+					return sc;
+				}
+
+				if ((options & SyncConstants.CONNECT_OPTION_DEFLATE) != 0) {
+					// nothing more was sent before the options, so nothing is left in the buffers of the old streams
+					dos = SyncOutputStream.createCompressedSyncOutputStream(clientSocket.getOutputStream(),
+							Settings.bufferSize, Settings.syncCompressionLevel);
+					dis = SyncInputStream.createCompressedSyncInputStream(clientSocket.getInputStream(),
+							Settings.bufferSize);
+				}
+
 				SyncConnection sc = new SyncConnection();
 				sc.set(platform, selfId, otherId, clientSocket, dis, dos);
+				sc.setParentReferences((options & SyncConstants.CONNECT_OPTION_PARENT_REFERENCES) != 0);
+				sc.setPipelinedSync((options & SyncConstants.CONNECT_OPTION_PIPELINED) != 0);
+				sc.setBloomFilter((options & SyncConstants.CONNECT_OPTION_BLOOM_FILTER) != 0);
 
 				return sc;
 
@@ -46,6 +46,21 @@ public abstract class SyncConstants {
 	public final static byte COMM_STATE_ACK = 0x4d /* 77 */;
 	/** sent as a reply to COMM_STATE_REQUEST when NOT accepting to transfer the latest state */
 	public final static byte COMM_STATE_NACK = 0x4e /* 78 */;
+	/**
+	 * sent instead of COMM_CONNECT by a listener that offers connection options, followed by an int of the
+	 * CONNECT_OPTION bits it offers. The caller replies with an int of the bits it accepts, which are then used.
+	 */
+	protected final static byte COMM_CONNECT_OPTIONS = 0x4f /* 79 */;
+	/** connection option: both streams are compressed with Deflate */
+	protected final static int CONNECT_OPTION_DEFLATE = 1;
+	/** connection option: parent hashes are replaced by references to events sent earlier in the same sync */
+	protected final static int CONNECT_OPTION_PARENT_REFERENCES = 2;
+	/** connection option: syncs in both directions are carried as streams of this one connection */
+	protected final static int CONNECT_OPTION_MULTIPLEX = 4;
+	/** connection option: syncs send events while the tip booleans are exchanged, see NodeSynchronizerImpl */
+	protected final static int CONNECT_OPTION_PIPELINED = 8;
+	/** connection option: a Bloom filter of the events each side has follows its tip hashes */
+	protected final static int CONNECT_OPTION_BLOOM_FILTER = 16;
 	/** returned by {@link DataInputStream#read()} to indicate that the end of the stream has been reached */
 	protected final static byte COMM_END_OF_STREAM = -1;
 }
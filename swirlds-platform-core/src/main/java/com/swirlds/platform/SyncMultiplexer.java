@@ -0,0 +1,224 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform;
+
+import com.swirlds.common.NodeId;
+import com.swirlds.common.threading.ThreadConfiguration;
+import com.swirlds.platform.sync.MultiplexedConnection;
+import com.swirlds.platform.sync.MultiplexedSocket;
+import com.swirlds.platform.sync.MultiplexedStream;
+import com.swirlds.platform.sync.SyncInputStream;
+import com.swirlds.platform.sync.SyncOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.swirlds.logging.LogMarker.EXCEPTION;
+import static com.swirlds.logging.LogMarker.SOCKET_EXCEPTIONS;
+import static com.swirlds.logging.LogMarker.SYNC_CONNECTION;
+
+/**
+ * Keeps one {@link MultiplexedConnection} per other member, for the connections on which
+ * {@link SyncConstants#CONNECT_OPTION_MULTIPLEX} was agreed. The caller connection of each side is a stream opened by
+ * that side, and the listener connection of the other side is the same stream, so syncs in both directions, their
+ * heartbeats, and reconnects share one TCP (and TLS) connection, with one handshake.
+ * <p>
+ * Only the member with the lower ID makes the connection, so the two members never make one each at the same time.
+ * </p>
+ */
+class SyncMultiplexer {
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger log = LogManager.getLogger();
+
+	/** a multiplexed connection, with what is needed to make sync connections out of its streams */
+	private static final class Link {
+		private final MultiplexedConnection connection;
+		/** the socket of the connection */
+		private final Socket socket;
+		/** the CONNECT_OPTION bits of {@link SyncConstants} agreed when connecting */
+		private final int options;
+
+		private Link(final MultiplexedConnection connection, final Socket socket, final int options) {
+			this.connection = connection;
+			this.socket = socket;
+			this.options = options;
+		}
+	}
+
+	private final AbstractPlatform platform;
+	private final SyncServer syncServer;
+
+	/** links.get(i) is the multiplexed connection to member i, or null if there is none */
+	private final AtomicReferenceArray<Link> links;
+
+	/**
+	 * @param platform
+	 * 		the platform that is using this
+	 * @param syncServer
+	 * 		the server that is told of each listener connection opened by another member
+	 */
+	SyncMultiplexer(final AbstractPlatform platform, final SyncServer syncServer) {
+		this.platform = platform;
+		this.syncServer = syncServer;
+		this.links = new AtomicReferenceArray<>(platform.getNumMembers());
+	}
+
+	/**
+	 * @return true if connections are offered and accepted as multiplexed, which is never the case with the
+	 * 		listener of {@link NioSyncServer}
+	 */
+	static boolean isEnabled() {
+		return Settings.multiplexSync && !NioSyncServer.isEnabled();
+	}
+
+	/**
+	 * Start multiplexing a connection on which {@link SyncConstants#CONNECT_OPTION_MULTIPLEX} was just agreed,
+	 * replacing any old multiplexed connection with the same member.
+	 *
+	 * @param otherId
+	 * 		the ID of the other member
+	 * @param socket
+	 * 		the socket of the connection, with nothing left unread after the options
+	 * @param options
+	 * 		the CONNECT_OPTION bits of {@link SyncConstants} agreed when connecting
+	 * @param initiator
+	 * 		true if self made the connection
+	 * @return the caller connection to the other member if self made the connection, else null
+	 * @throws IOException
+	 * 		if the connection fails
+	 */
+	SyncConnection established(final NodeId otherId, final Socket socket, final int options,
+			final boolean initiator) throws IOException {
+		// the thread reading the connection never waits for a reader, so only a silent member makes it time out
+		socket.setSoTimeout(Settings.timeoutSyncClientSocket);
+		final DataInputStream in = new DataInputStream(
+				new BufferedInputStream(socket.getInputStream(), Settings.bufferSize));
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(socket.getOutputStream(), Settings.bufferSize));
+		final MultiplexedConnection connection = new MultiplexedConnection(in, out,
+				() -> closeSocket(socket),
+				initiator,
+				Settings.multiplexWindowSize,
+				Settings.bufferSize,
+				// as many as the listener syncs that SyncManager lets SyncServer serve at once
+				Settings.maxOutgoingSyncs + Settings.maxIncomingSyncsInc,
+				(final MultiplexedStream stream) -> opened(otherId, stream));
+
+		final Link link = new Link(connection, socket, options);
+		final Link old = links.getAndSet(otherId.getIdAsInt(), link);
+		if (old != null) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(),
+					"{} got new multiplexed connection with {}, closing old one", platform.getSelfId(), otherId);
+			old.connection.close();
+		}
+
+		new ThreadConfiguration()
+				.setPriority(Settings.threadPrioritySync)
+				.setNodeId(platform.getSelfId().getId())
+				.setComponent(SwirldsPlatform.PLATFORM_THREAD_POOL_NAME)
+				.setThreadName("multiplexReader")
+				.setOtherNodeId(otherId.getId())
+				.setRunnable(connection)
+				.build()
+				.start();
+
+		log.debug(SYNC_CONNECTION.getMarker(), "{} multiplexing connection with {}, initiated by {}",
+				platform.getSelfId(), otherId, initiator ? "self" : "them");
+
+		return initiator ? openCallerConn(otherId) : null;
+	}
+
+	/**
+	 * Open a stream on the multiplexed connection with a member, for self to call them through.
+	 *
+	 * @param otherId
+	 * 		the ID of the other member
+	 * @return the new caller connection, or null if there is no multiplexed connection with the member that works
+	 */
+	SyncConnection openCallerConn(final NodeId otherId) {
+		final Link link = links.get(otherId.getIdAsInt());
+		if (link == null || link.connection.isClosed()) {
+			return null;
+		}
+		try {
+			return toConnection(otherId, link, link.connection.openStream());
+		} catch (final IOException e) {
+			log.debug(SOCKET_EXCEPTIONS.getMarker(), "{} failed to open a stream to {}",
+					platform.getSelfId(), otherId, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Called on the thread reading a multiplexed connection when the other member opens a stream to call self
+	 * through.
+	 */
+	private void opened(final NodeId otherId, final MultiplexedStream stream) {
+		final Link link = links.get(otherId.getIdAsInt());
+		if (link == null) {
+			stream.close();
+			return;
+		}
+		try {
+			syncServer.connectionEstablished(toConnection(otherId, link, stream));
+		} catch (final IOException e) {
+			log.error(EXCEPTION.getMarker(), "{} failed to accept a stream from {}",
+					platform.getSelfId(), otherId, e);
+			stream.close();
+		}
+	}
+
+	/**
+	 * Make a sync connection out of a stream, with the options agreed for its multiplexed connection.
+	 */
+	private SyncConnection toConnection(final NodeId otherId, final Link link, final MultiplexedStream stream)
+			throws IOException {
+		final MultiplexedSocket socket = new MultiplexedSocket(stream, link.socket);
+		socket.setSoTimeout(Settings.timeoutSyncClientSocket);
+		final SyncInputStream dis;
+		final SyncOutputStream dos;
+		if ((link.options & SyncConstants.CONNECT_OPTION_DEFLATE) != 0) {
+			dis = SyncInputStream.createCompressedSyncInputStream(socket.getInputStream(), Settings.bufferSize);
+			dos = SyncOutputStream.createCompressedSyncOutputStream(socket.getOutputStream(),
+					Settings.bufferSize, Settings.syncCompressionLevel);
+		} else {
+			dis = SyncInputStream.createSyncInputStream(socket.getInputStream(), Settings.bufferSize);
+			dos = SyncOutputStream.createSyncOutputStream(socket.getOutputStream(), Settings.bufferSize);
+		}
+
+		final SyncConnection sc = new SyncConnection();
+		sc.set(platform, platform.getSelfId(), otherId, socket, dis, dos);
+		sc.setParentReferences((link.options & SyncConstants.CONNECT_OPTION_PARENT_REFERENCES) != 0);
+		sc.setPipelinedSync((link.options & SyncConstants.CONNECT_OPTION_PIPELINED) != 0);
+		sc.setBloomFilter((link.options & SyncConstants.CONNECT_OPTION_BLOOM_FILTER) != 0);
+		return sc;
+	}
+
+	private static void closeSocket(final Socket socket) {
+		try {
+			socket.close();
+		} catch (final IOException ignored) {
+			// Suppress any exceptions during cleanup
+		}
+	}
+}
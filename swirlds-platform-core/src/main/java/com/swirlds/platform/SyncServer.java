@@ -82,11 +82,20 @@ class SyncServer implements Runnable {
 	AtomicReferenceArray<AtomicReferenceArray<Socket>> pendingMultisocketConnections;
 	/** a thread pool used to handle incoming connections */
 	private final ExecutorService incomingConnPool;
+	/** the connections on which syncs in both directions are multiplexed */
+	private final SyncMultiplexer multiplexer;
 
 	AbstractPlatform getPlatform() {
 		return platform;
 	}
 
+	/**
+	 * @return the connections on which syncs in both directions are multiplexed, as agreed when connecting
+	 */
+	SyncMultiplexer getMultiplexer() {
+		return multiplexer;
+	}
+
 	/**
 	 * The constructor must be given what ip and port to listen to. It will then listen forever, creating a
 	 * DataInputStream and DataOutputStream for each incoming call. The caller must send their name, and the
@@ -116,6 +125,7 @@ class SyncServer implements Runnable {
 				new PlatformThreadFactory("sync_server_"));
 		this.pendingMultisocketConnections = new AtomicReferenceArray<>(
 				numMembers);
+		this.multiplexer = new SyncMultiplexer(platform, this);
 	}
 
 	/**
@@ -234,36 +244,56 @@ class SyncServer implements Runnable {
 	 * 		the socket of the TCP connection that has been established
 	 * @param otherId
 	 * 		ID number of the remote member
+	 * @param options
+	 * 		the CONNECT_OPTION bits of {@link SyncConstants} agreed with the remote member
 	 */
-	void tcpConnectionEstablished(Socket socket, NodeId otherId) {
+	void tcpConnectionEstablished(Socket socket, NodeId otherId, int options) {
 		SyncConnection sc = new SyncConnection();
 		SyncInputStream dis = null;
 		SyncOutputStream dos = null;
 		try {
-			dis = SyncInputStream.createSyncInputStream(socket.getInputStream(), Settings.bufferSize);
-			dos = SyncOutputStream.createSyncOutputStream(socket.getOutputStream(), Settings.bufferSize);
-
-			sc.set(platform, platform.getSelfId(), otherId, socket, dis, dos);
-			SyncConnection oldConn = listenerConn.get(otherId.getIdAsInt());
-			// end any old connection that might exist with them
-			if (oldConn != null) {
-				log.error(SOCKET_EXCEPTIONS.getMarker(),
-						"{} got new connection from {}, disconnecting old one",
-						sc.getSelfId(), sc.getOtherId());
-				oldConn.disconnect(false, 11);
+			if ((options & SyncConstants.CONNECT_OPTION_DEFLATE) != 0) {
+				dis = SyncInputStream.createCompressedSyncInputStream(socket.getInputStream(), Settings.bufferSize);
+				dos = SyncOutputStream.createCompressedSyncOutputStream(socket.getOutputStream(),
+						Settings.bufferSize, Settings.syncCompressionLevel);
+			} else {
+				dis = SyncInputStream.createSyncInputStream(socket.getInputStream(), Settings.bufferSize);
+				dos = SyncOutputStream.createSyncOutputStream(socket.getOutputStream(), Settings.bufferSize);
 			}
-			listenerConn.set(otherId.getIdAsInt(), sc); // remember the new connection
-			platform.getSyncServer().connsCreated.incrementAndGet(); // count new connections
-			log.debug(SYNC_START.getMarker(),
-					"{} accepted connection from {}", sc.getSelfId(),
-					sc.getOtherId());
 
+			sc.set(platform, platform.getSelfId(), otherId, socket, dis, dos);
+			sc.setParentReferences((options & SyncConstants.CONNECT_OPTION_PARENT_REFERENCES) != 0);
+			sc.setPipelinedSync((options & SyncConstants.CONNECT_OPTION_PIPELINED) != 0);
+			sc.setBloomFilter((options & SyncConstants.CONNECT_OPTION_BLOOM_FILTER) != 0);
+			connectionEstablished(sc);
 		} catch (IOException e) {
 			log.error(EXCEPTION.getMarker(), "", e);
 			close(dis, dos, socket);
 		}
 	}
 
+	/**
+	 * Remember a new connection initiated by another member, replacing any old connection with them
+	 *
+	 * @param sc
+	 * 		the new connection
+	 */
+	void connectionEstablished(SyncConnection sc) {
+		SyncConnection oldConn = listenerConn.get(sc.getOtherId().getIdAsInt());
+		// end any old connection that might exist with them
+		if (oldConn != null) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(),
+					"{} got new connection from {}, disconnecting old one",
+					sc.getSelfId(), sc.getOtherId());
+			oldConn.disconnect(false, 11);
+		}
+		listenerConn.set(sc.getOtherId().getIdAsInt(), sc); // remember the new connection
+		platform.getSyncServer().connsCreated.incrementAndGet(); // count new connections
+		log.debug(SYNC_START.getMarker(),
+				"{} accepted connection from {}", sc.getSelfId(),
+				sc.getOtherId());
+	}
+
 	private void close(DataInputStream dis, DataOutputStream dos,
 			Socket clientSocket) {
 		try {
@@ -331,8 +361,18 @@ class SyncServer implements Runnable {
 
 				otherId = platform.getAddressBook().getId(otherKey);
 
-				dos.writeInt(SyncConstants.COMM_CONNECT);// send an ACK for creating connection
-				dos.flush();
+				final int supportedOptions = SyncConnection.getSupportedOptions();
+				int options = 0;
+				if (supportedOptions == 0) {
+					dos.writeInt(SyncConstants.COMM_CONNECT);// send an ACK for creating connection
+					dos.flush();
+				} else {
+					// send an ACK for creating connection with the options offered, and read those accepted
+					dos.writeInt(SyncConstants.COMM_CONNECT_OPTIONS);
+					dos.writeInt(supportedOptions);
+					dos.flush();
+					options = dis.readInt() & supportedOptions;
+				}
 
 				// ignore invalid IDs, but store the streams for valid ones
 				if (otherId >= 0
@@ -344,7 +384,13 @@ class SyncServer implements Runnable {
 							"listener {} just established connection initiated by {}",
 							platform.getSelfId(), otherId);
 
-					syncServer.tcpConnectionEstablished(clientSocket, NodeId.createMain(otherId));
+					if ((options & SyncConstants.CONNECT_OPTION_MULTIPLEX) != 0) {
+						// the caller opens a stream of the connection, which becomes the listener connection
+						syncServer.getMultiplexer().established(NodeId.createMain(otherId), clientSocket, options,
+								false);
+					} else {
+						syncServer.tcpConnectionEstablished(clientSocket, NodeId.createMain(otherId), options);
+					}
 				} else {
 					close(dis, dos, clientSocket);
 				}
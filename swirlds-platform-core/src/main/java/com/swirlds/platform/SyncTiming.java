@@ -15,6 +15,7 @@
 package com.swirlds.platform;
 
 import com.swirlds.common.Units;
+import com.swirlds.platform.sync.CompressionCounter;
 
 /**
  * A type to record the points for gossip steps. At the end of a gossip session,
@@ -32,6 +33,17 @@ class SyncTiming {
 	 */
 	private final long[] t = new long[NUM_TIME_POINTS];
 
+	/**
+	 * JVM time at which self started sending events, in nanoseconds, or 0 if it did not
+	 */
+	private long eventsStarted;
+
+	/**
+	 * JVM time at which the tip booleans of the other member were read in a pipelined sync, in nanoseconds, or 0 if
+	 * the sync is not pipelined
+	 */
+	private long tipBooleansRead;
+
 	/**
 	 * Empty default ctor
 	 */
@@ -56,6 +68,21 @@ class SyncTiming {
 		t[i] = now();
 	}
 
+	/**
+	 * Record the time at which self starts sending events, which is in step 4 unless the sync is pipelined
+	 */
+	protected void setEventsStarted() {
+		eventsStarted = now();
+	}
+
+	/**
+	 * Record the time at which the tip booleans of the other member were read, in a pipelined sync, where events are
+	 * already being sent by then
+	 */
+	protected void setTipBooleansRead() {
+		tipBooleansRead = now();
+	}
+
 	/**
 	 * Get the ith time point
 	 *
@@ -89,6 +116,13 @@ class SyncTiming {
 		stats.avgSyncDuration2.recordValue((t[2] - t[1]) * Units.NANOSECONDS_TO_SECONDS);
 		stats.avgSyncDuration3.recordValue((t[3] - t[2]) * Units.NANOSECONDS_TO_SECONDS);
 		stats.avgSyncDuration4.recordValue((t[4] - t[3]) * Units.NANOSECONDS_TO_SECONDS);
+		if (eventsStarted != 0) {
+			stats.avgSyncTimeToEvents.recordValue((eventsStarted - t[0]) * Units.NANOSECONDS_TO_SECONDS);
+			if (tipBooleansRead != 0) {
+				stats.avgSyncPipelineOverlap.recordValue(
+						Math.max(0, tipBooleansRead - eventsStarted) * Units.NANOSECONDS_TO_SECONDS);
+			}
+		}
 
 		// SyncConnection.disconnect sets the stream references to null, so if the connection has been
 		// closed before this line executes, we can not get the byte counts. This is (part of) the subject of
@@ -106,6 +140,19 @@ class SyncTiming {
 		// set the bytes/sec speed of the sync currently measured
 		conn.getPlatform().setLastSyncSpeed(conn.getOtherId().getIdAsInt(), speed);
 		stats.avgBytesPerSecSync.recordValue(speed);
+
+		// the work done by compression during this sync, if the connection is compressed
+		final CompressionCounter sent = conn.getDos().getCompressionCounter();
+		final CompressionCounter received = conn.getDis().getCompressionCounter();
+		if (sent != null && received != null) {
+			stats.bytesPerSecondCompressionSaved.update(sent.getUncompressedBytes() - sent.getCompressedBytes());
+			if (sent.getUncompressedBytes() > 0) {
+				stats.avgCompressionRatio.recordValue(
+						(double) sent.getCompressedBytes() / sent.getUncompressedBytes());
+			}
+			stats.avgCompressionMicroseconds.recordValue(
+					(sent.getNanos() + received.getNanos()) * Units.NANOSECONDS_TO_MICROSECONDS);
+		}
 	}
 
 }
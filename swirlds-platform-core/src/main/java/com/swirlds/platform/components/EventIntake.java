@@ -25,6 +25,7 @@ import com.swirlds.platform.sync.SyncShadowGraphManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -124,6 +125,56 @@ public class EventIntake {
 		handleStale();
 	}
 
+	/**
+	 * Add a batch of events to the hashgraph, in the given order, which must be topological. The events are added to
+	 * consensus under a single acquisition of its lock, and the observers and the shadow graph are each notified once
+	 * for the whole batch.
+	 * <p>
+	 * So the observers are notified in a different order than when each event is added by
+	 * {@link #addEvent(EventImpl)}: every event in the batch is announced as pre-consensus, then every event that was
+	 * added is announced as added, and then every event that reached consensus is announced, in consensus order. Each
+	 * event is still announced as pre-consensus before it is announced as added, and as added before it is announced
+	 * as having reached consensus, and each kind of announcement is in the order of the batch.
+	 *
+	 * @param events
+	 * 		the events to be added
+	 */
+	public void addEvents(final List<EventImpl> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+
+		for (final EventImpl event : events) {
+			log.debug(SYNC.getMarker(), "{} sees {}", selfId, event);
+		}
+
+		dispatcher.preConsensusEvents(events);
+
+		// the events that were not discarded, in the order they were added
+		final List<EventImpl> added = new ArrayList<>(events.size());
+
+		// record the events in the hashgraph, which results in the events in consEvents reaching consensus
+		final List<EventImpl> consEvents = consensus().addEvents(events, addressBook, (final EventImpl event) -> {
+			log.debug(INTAKE_EVENT.getMarker(), "Adding {} ", event::toShortString);
+			if (smallerThanMinRound(event)) {
+				return true;
+			}
+			added.add(event);
+			return false;
+		});
+
+		final boolean newConsensus = consEvents != null;
+		addShadowEvents(added, newConsensus);
+
+		dispatcher.eventsAdded(added);
+
+		if (newConsensus) {
+			dispatcher.consensusEvents(consEvents);
+		}
+
+		handleStale();
+	}
+
 	/**
 	 * Add an event to the shadow graph. If events reached consensus ({@code newConsensus} is true), then
 	 * expire any sufficiently old event from the shadow graph
@@ -154,17 +205,53 @@ public class EventIntake {
 		// If no new consensus, the expired generation has not been increased, so nothing
 		// to expire from the shadow graph.
 		if (newConsensus) {
-			final int nExpired = sgm.expire(consensus().getMinGenerationNonExpired() - 1);
-			if (nExpired > 0) {
-				log.debug(SYNC_SGM.getMarker(),
-						"{} `EventIntake.addShadowEvent`: purged {} expired shadow events",
-						selfId,
-						nExpired);
-			}
+			expireShadowEvents();
 		}
 
 	}
 
+	/**
+	 * Add a batch of events to the shadow graph. If events reached consensus ({@code newConsensus} is true), then
+	 * expire any sufficiently old event from the shadow graph
+	 *
+	 * @param events
+	 * 		the events to reference with new shadow events, in topological order
+	 * @param newConsensus
+	 * 		true iff inserting {@code events} in the consensus instance caused events to reach consensus
+	 */
+	private void addShadowEvents(final List<EventImpl> events, final boolean newConsensus) {
+		// (Shadow Graph Manager may be null for testing.)
+		if (sgm == null) {
+			return;
+		}
+
+		final int numAdded = sgm.addEvents(events);
+		if (numAdded < events.size()) {
+			log.debug(SYNC_SGM.getMarker(),
+					"{}: `EventIntake.addShadowEvents`: failed to add {} of {} events to shadow graph.",
+					selfId,
+					events.size() - numAdded,
+					events.size());
+		}
+
+		if (newConsensus) {
+			expireShadowEvents();
+		}
+	}
+
+	/**
+	 * Expire any event from the shadow graph that is older than the consensus minimum non-expired generation.
+	 */
+	private void expireShadowEvents() {
+		final int nExpired = sgm.expire(consensus().getMinGenerationNonExpired() - 1);
+		if (nExpired > 0) {
+			log.debug(SYNC_SGM.getMarker(),
+					"{} `EventIntake.addShadowEvent`: purged {} expired shadow events",
+					selfId,
+					nExpired);
+		}
+	}
+
 	/**
 	 * Notify observer of stale events, of all event in the consensus stale event queue.
 	 */
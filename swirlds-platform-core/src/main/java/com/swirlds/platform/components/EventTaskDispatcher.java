@@ -20,6 +20,9 @@ import com.swirlds.platform.event.EventIntakeTask;
 import com.swirlds.platform.event.ValidateEventTask;
 import com.swirlds.platform.stats.HashgraphStats;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class is responsible for dispatching tasks to the {@link EventCreator} and {@link EventValidator}.
  */
@@ -72,6 +75,29 @@ public class EventTaskDispatcher {
 		stats.processedEventTask(start);
 	}
 
+	/**
+	 * Dispatch a batch of {@code EventIntakeTask} instances, in order. Consecutive tasks that validate gossiped events
+	 * are validated and added to the hashgraph together via {@link EventValidator#validateEvents(List)}. A task to
+	 * create a new event is dispatched after the tasks before it, so the new event can use their events as parents.
+	 *
+	 * @param eventIntakeTasks
+	 * 		the tasks to be dispatched
+	 */
+	public void dispatchTasks(final List<EventIntakeTask> eventIntakeTasks) {
+		final long start = stats.time();
+		final List<ValidateEventTask> validateEventTasks = new ArrayList<>(eventIntakeTasks.size());
+		for (final EventIntakeTask eventIntakeTask : eventIntakeTasks) {
+			if (eventIntakeTask instanceof CreateEventTask) {
+				validateEvents(validateEventTasks);
+				createNewEvent((CreateEventTask) eventIntakeTask);
+			} else {
+				validateEventTasks.add((ValidateEventTask) eventIntakeTask);
+			}
+		}
+		validateEvents(validateEventTasks);
+		stats.processedEventTaskBatch(eventIntakeTasks.size(), start);
+	}
+
 	/**
 	 * Creates a new event based on the information supplied
 	 *
@@ -89,6 +115,19 @@ public class EventTaskDispatcher {
 	 * 		the information used to create an event
 	 */
 	private void validateEvent(final ValidateEventTask validateEventTask) {
-		eventValidator.validateEvent(validateEventTask.getHashedData(), validateEventTask.getUnhashedData());
+		eventValidator.validateEvent(validateEventTask);
+	}
+
+	/**
+	 * Validates the given event information as a single batch, then empties the list
+	 *
+	 * @param validateEventTasks
+	 * 		the information used to create each event
+	 */
+	private void validateEvents(final List<ValidateEventTask> validateEventTasks) {
+		if (!validateEventTasks.isEmpty()) {
+			eventValidator.validateEvents(validateEventTasks);
+			validateEventTasks.clear();
+		}
 	}
 }
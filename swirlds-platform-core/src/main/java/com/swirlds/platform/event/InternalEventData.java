@@ -19,7 +19,7 @@ import com.swirlds.platform.EventImpl;
 import com.swirlds.platform.RoundInfo;
 
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * A class that stores temporary data that is used while calculating consensus inside the platform. This data is not
@@ -58,12 +58,9 @@ public class InternalEventData {
 	private RoundInfo.ElectionRound firstElection;
 	/** does this event contains user transactions (not just system transactions) */
 	private boolean hasUserTransactions = false;
-	/** lastSee[m] is the last ancestor created by m (memoizes function from Swirlds-TR-2020-01) */
+	/** the index of this event in the consensus event index, which memoizes lastSee and stronglySeeP */
 	@JsonIgnore
-	private EventImpl[] lastSee;
-	/** stronglySeeP[m] is strongly-seen witness in parent round by m (memoizes function from Swirlds-TR-2020-01) */
-	@JsonIgnore
-	private EventImpl[] stronglySeeP;
+	private int consensusIndex = -1;
 	/** The first witness that's a self-ancestor in the self round (memoizes function from Swirlds-TR-2020-01) */
 	@JsonIgnore
 	private EventImpl firstSelfWitnessS;
@@ -73,8 +70,18 @@ public class InternalEventData {
 	/** temporarily used during any graph algorithm that needs to mark vertices (events) already visited */
 	@JsonIgnore
 	private int mark;
-	/** the time at which each unique famous witness in the received round first received this event */
-	private ArrayList<Instant> recTimes;
+	/**
+	 * the time (in nanoseconds since the epoch) at which each unique famous witness in the received round first
+	 * received this event. Only the first numRecTimes elements have been recorded.
+	 */
+	private long[] recTimes;
+	/** the number of elements of recTimes that have been recorded */
+	private int numRecTimes;
+	/**
+	 * the same times as recTimes, exactly, kept only once a time too early or too late for recTimes to hold exactly
+	 * has been recorded, else null
+	 */
+	private Instant[] exactRecTimes;
 
 	/**
 	 * only used for event streaming
@@ -111,12 +118,11 @@ public class InternalEventData {
 				", reachedConsTimestamp=" + reachedConsTimestamp +
 				", firstElection=" + firstElection +
 				", hasUserTransactions=" + hasUserTransactions +
-				", lastSee=" + EventUtils.toShortStrings(lastSee) +
-				", stronglySeeP=" + EventUtils.toShortStrings(stronglySeeP) +
+				", consensusIndex=" + consensusIndex +
 				", firstSelfWitnessS=" + EventUtils.toShortString(firstSelfWitnessS) +
 				", firstWitnessS=" + EventUtils.toShortString(firstWitnessS) +
 				", mark=" + mark +
-				", recTimes=" + recTimes +
+				", recTimes=" + (recTimes == null ? null : Arrays.toString(Arrays.copyOf(recTimes, numRecTimes))) +
 				'}';
 	}
 
@@ -131,8 +137,6 @@ public class InternalEventData {
 		EventCounter.eventCleared();
 		selfParent = null;
 		otherParent = null;
-		initLastSee(0);
-		initStronglySeeP(0);
 		firstSelfWitnessS = null;
 		firstWitnessS = null;
 	}
@@ -326,82 +330,18 @@ public class InternalEventData {
 
 
 	/**
-	 * @param m
-	 * 		the member ID
-	 * @return last ancestor created by m (memoizes lastSee function from Swirlds-TR-2020-01)
-	 */
-	public EventImpl getLastSee(int m) {
-		return lastSee[m];
-	}
-
-	/**
-	 * remember event, the last ancestor created by m (memoizes lastSee function from Swirlds-TR-2020-01)
-	 *
-	 * @param m
-	 * 		the member ID
-	 * @param event
-	 * 		the last seen {@link EventImpl} object created by m
-	 */
-	public void setLastSee(int m, EventImpl event) {
-		lastSee[m] = event;
-	}
-
-	/**
-	 * Initialize the lastSee array to hold n elements (for n &ge; 0) (memoizes lastSee function from
-	 * Swirlds-TR-2020-01)
-	 *
-	 * @param n
-	 * 		number of members in the initial address book
-	 */
-	public void initLastSee(int n) {
-		lastSee = n == 0 ? null : new EventImpl[n];
-	}
-
-	/**
-	 * @return the number of elements lastSee holds (memoizes lastSee function from Swirlds-TR-2020-01)
+	 * @return the index of this event in the consensus index, -1 if it has none, or -2 if it was released
 	 */
-	public int sizeLastSee() {
-		return lastSee == null ? 0 : lastSee.length;
+	public int getConsensusIndex() {
+		return consensusIndex;
 	}
 
 	/**
-	 * @param m
-	 * 		the member ID
-	 * @return strongly-seen witness in parent round by m (memoizes stronglySeeP function from Swirlds-TR-2020-01)
+	 * @param consensusIndex
+	 * 		the index of this event in the consensus index, -1 if it has none, or -2 if it was released
 	 */
-	public EventImpl getStronglySeeP(int m) {
-		return stronglySeeP[m];
-	}
-
-	/**
-	 * remember event, the strongly-seen witness in parent round by m (memoizes stronglySeeP function from
-	 * Swirlds-TR-2020-01)
-	 *
-	 * @param m
-	 * 		the member ID
-	 * @param event
-	 * 		the strongly-seen witness in parent round created by m
-	 */
-	public void setStronglySeeP(int m, EventImpl event) {
-		stronglySeeP[m] = event;
-	}
-
-	/**
-	 * Initialize the stronglySeeP array to hold n elements (for n &ge; 0) (memoizes stronglySeeP function from
-	 * Swirlds-TR-2020-01)
-	 *
-	 * @param n
-	 * 		number of members in AddressBook
-	 */
-	public void initStronglySeeP(int n) {
-		stronglySeeP = n == 0 ? null : new EventImpl[n];
-	}
-
-	/**
-	 * @return the number of elements stronglySeeP holds (memoizes stronglySeeP function from Swirlds-TR-2020-01)
-	 */
-	public int sizeStronglySeeP() {
-		return stronglySeeP == null ? 0 : stronglySeeP.length;
+	public void setConsensusIndex(int consensusIndex) {
+		this.consensusIndex = consensusIndex;
 	}
 
 	/**
@@ -452,18 +392,63 @@ public class InternalEventData {
 	}
 
 	/**
-	 * @return the time at which each unique famous witness in the received round first received this event
+	 * @return the time (in nanoseconds since the epoch) at which each unique famous witness in the received round
+	 * 		first received this event. Only the first {@link #getNumRecTimes()} elements have been recorded.
 	 */
-	public ArrayList<Instant> getRecTimes() {
+	public long[] getRecTimes() {
 		return recTimes;
 	}
 
 	/**
+	 * Set the array that the received times will be recorded in, and forget any times recorded so far.
+	 *
 	 * @param recTimes
-	 * 		the time at which each unique famous witness in the received round first received this event
+	 * 		an array with one element for each unique famous witness in the received round, or null
 	 */
-	public void setRecTimes(ArrayList<Instant> recTimes) {
+	public void setRecTimes(long[] recTimes) {
 		this.recTimes = recTimes;
+		this.numRecTimes = 0;
+		this.exactRecTimes = null;
+	}
+
+	/**
+	 * @return the exact received times, if a time too early or too late for {@link #getRecTimes()} to hold exactly
+	 * 		has been recorded, else null. Only the first {@link #getNumRecTimes()} elements have been recorded.
+	 */
+	public Instant[] getExactRecTimes() {
+		return exactRecTimes;
+	}
+
+	/**
+	 * Start keeping the exact received times, in addition to those in nanoseconds.
+	 *
+	 * @param exactRecTimes
+	 * 		an array as long as the one given to {@link #setRecTimes(long[])}, holding the times recorded so far
+	 */
+	public void setExactRecTimes(Instant[] exactRecTimes) {
+		this.exactRecTimes = exactRecTimes;
+	}
+
+	/**
+	 * @return the number of received times that have been recorded
+	 */
+	public int getNumRecTimes() {
+		return numRecTimes;
+	}
+
+	/**
+	 * Record the time at which one more unique famous witness first received this event.
+	 *
+	 * @param recTime
+	 * 		the time, in nanoseconds since the epoch
+	 * @param exactRecTime
+	 * 		the same time, which is kept if the exact received times are being kept
+	 */
+	public void addRecTime(long recTime, Instant exactRecTime) {
+		if (exactRecTimes != null) {
+			exactRecTimes[numRecTimes] = exactRecTime;
+		}
+		recTimes[numRecTimes++] = recTime;
 	}
 
 	/**
@@ -17,6 +17,9 @@ package com.swirlds.platform.event;
 import com.swirlds.common.events.BaseEventHashedData;
 import com.swirlds.common.events.BaseEventUnhashedData;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * A class used to hold information about an event from another node that requires validation.
  */
@@ -25,6 +28,17 @@ public class ValidateEventTask implements EventIntakeTask {
 	private final BaseEventHashedData hashedData;
 	private final BaseEventUnhashedData unhashedData;
 
+	/**
+	 * The result of verifying the event's signature, if verification was started before the task was queued for
+	 * intake, else null. Set before the task is queued, so the intake thread always sees it.
+	 */
+	private Future<Boolean> signatureCheck;
+
+	/**
+	 * Set by whichever comes first: the signature check starting on the crypto thread, or intake abandoning it
+	 */
+	private final AtomicBoolean signatureCheckClaimed = new AtomicBoolean();
+
 	/**
 	 * @param hashedData
 	 * 		the hashed data for the event
@@ -50,6 +64,35 @@ public class ValidateEventTask implements EventIntakeTask {
 		return unhashedData;
 	}
 
+	/**
+	 * Get the result of verifying the event's signature, or null if verification has not been started, and must be
+	 * done during validation.
+	 */
+	public Future<Boolean> getSignatureCheck() {
+		return signatureCheck;
+	}
+
+	/**
+	 * Set the result of verifying the event's signature, which was started in the background.
+	 *
+	 * @param signatureCheck
+	 * 		completes with true iff the signature is valid
+	 */
+	public void setSignatureCheck(final Future<Boolean> signatureCheck) {
+		this.signatureCheck = signatureCheck;
+	}
+
+	/**
+	 * Claim the event data, either to start the signature check on the crypto thread, or to abandon the check during
+	 * intake. Only the first claim succeeds, so an abandoned check never touches the event data, and a check that has
+	 * started is never abandoned.
+	 *
+	 * @return true iff this call made the claim
+	 */
+	public boolean claimSignatureCheck() {
+		return signatureCheckClaimed.compareAndSet(false, true);
+	}
+
 	@Override
 	public String toString() {
 		return "(" + hashedData.getCreatorId() + "," + unhashedData.getCreatorSeq() + ")" +
@@ -0,0 +1,188 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.eventhandling;
+
+import com.swirlds.common.ParallelSwirldState;
+import com.swirlds.common.TransactionKeys;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Handles a sequence of transactions for a {@link ParallelSwirldState}, preparing transactions that don't conflict
+ * on several threads at once, and applying their effects one at a time, in order, on the calling thread.
+ * <p>
+ * The sequence is split into runs of consecutive transactions where no two transactions conflict. All the
+ * transactions in a run are prepared in parallel, against the state left by the runs before it, and then their
+ * effects are applied in order. Since nothing in a run reads what another transaction in the run writes, each
+ * transaction is prepared against the same values it would have read if the transactions had been handled one at a
+ * time, and since the effects are applied in the original order, the final state (and its hash) is identical.
+ * <p>
+ * A transaction whose keys are unknown is handled on its own, between runs.
+ * <p>
+ * Several threads may handle sequences of transactions at once (for different states), sharing the threads that
+ * prepare them. A prepare must never block waiting for something else (such as a signature check), since it would
+ * hold one of the pool's threads while it waits.
+ */
+public class TransactionScheduler {
+
+	/** the pool that prepares transactions */
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param numThreads
+	 * 		the number of threads that prepare transactions
+	 */
+	public TransactionScheduler(final int numThreads) {
+		this.pool = new ForkJoinPool(numThreads, p -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			thread.setName("parallel_trans_" + thread.getPoolIndex());
+			return thread;
+		}, null, false);
+	}
+
+	/**
+	 * Handle a sequence of transactions.
+	 *
+	 * @param count
+	 * 		the number of transactions, which are numbered from 0 to count-1 in the order they must be handled
+	 * @param keys
+	 * 		returns the keys of a transaction, or null if they aren't known. Called on the calling thread.
+	 * @param prepare
+	 * 		prepares a transaction, without changing the state, and returns a runnable that applies its effect. May
+	 * 		be called on several threads at once, for transactions that don't conflict. Must never return null.
+	 * @param handleAlone
+	 * 		handles a transaction whose keys aren't known. Called on the calling thread.
+	 * @throws InterruptedException
+	 * 		if the calling thread is interrupted while it waits for a run to be prepared. The transactions before
+	 * 		that run have been handled, and the rest have not.
+	 */
+	public void handle(final int count, final IntFunction<TransactionKeys> keys,
+			final IntFunction<Runnable> prepare, final IntConsumer handleAlone) throws InterruptedException {
+		// the keys written and read by the transactions in the current run
+		final Set<Object> written = new HashSet<>();
+		final Set<Object> read = new HashSet<>();
+		int runStart = 0;
+		for (int i = 0; i < count; i++) {
+			final TransactionKeys transactionKeys = keys.apply(i);
+			if (transactionKeys == null) {
+				run(runStart, i, prepare);
+				handleAlone.accept(i);
+				written.clear();
+				read.clear();
+				runStart = i + 1;
+				continue;
+			}
+			if (conflicts(transactionKeys, written, read)) {
+				run(runStart, i, prepare);
+				written.clear();
+				read.clear();
+				runStart = i;
+			}
+			written.addAll(transactionKeys.getWriteKeys());
+			read.addAll(transactionKeys.getReadKeys());
+		}
+		run(runStart, count, prepare);
+	}
+
+	/**
+	 * Stop the threads that prepare transactions. The scheduler can't be used after this.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * @return true if a transaction with the given keys conflicts with a transaction in the current run, which
+	 * 		writes the keys in written and reads the keys in read
+	 */
+	private static boolean conflicts(final TransactionKeys transactionKeys, final Set<Object> written,
+			final Set<Object> read) {
+		for (final Object key : transactionKeys.getWriteKeys()) {
+			if (written.contains(key) || read.contains(key)) {
+				return true;
+			}
+		}
+		for (final Object key : transactionKeys.getReadKeys()) {
+			if (written.contains(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Prepare the transactions from (inclusive) to to (exclusive) in parallel, then apply their effects in order.
+	 * The calling thread waits for the pool with {@link ForkJoinTask#get()} rather than joining it, so that the wait
+	 * can be interrupted.
+	 */
+	private void run(final int from, final int to, final IntFunction<Runnable> prepare) throws InterruptedException {
+		if (to <= from) {
+			return;
+		}
+		if (to - from == 1) {
+			prepare.apply(from).run();
+			return;
+		}
+		final Runnable[] effects = new Runnable[to - from];
+		try {
+			pool.submit(new PrepareTask(prepare, effects, from, from, to)).get();
+		} catch (final ExecutionException ex) {
+			throw new IllegalStateException("failed to prepare transactions " + from + " to " + to, ex.getCause());
+		}
+		for (final Runnable effect : effects) {
+			effect.run();
+		}
+	}
+
+	/**
+	 * Prepares a range of transactions, splitting the range in half until it is a single transaction. The effect of
+	 * each transaction is written to its own slot of the effects array.
+	 */
+	private static final class PrepareTask extends RecursiveAction {
+		private final IntFunction<Runnable> prepare;
+		private final Runnable[] effects;
+		private final int offset;
+		private final int from;
+		private final int to;
+
+		PrepareTask(final IntFunction<Runnable> prepare, final Runnable[] effects, final int offset, final int from,
+				final int to) {
+			this.prepare = prepare;
+			this.effects = effects;
+			this.offset = offset;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				effects[from - offset] = prepare.apply(from);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			invokeAll(new PrepareTask(prepare, effects, offset, from, mid),
+					new PrepareTask(prepare, effects, offset, mid, to));
+		}
+	}
+}
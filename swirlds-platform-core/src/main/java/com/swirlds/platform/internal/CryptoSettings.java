@@ -48,6 +48,11 @@ public class CryptoSettings extends SubSetting implements CryptographySettings {
 	 */
 	public String keystorePassword = CryptoSettings.DEFAULT_KEYSTORE_PASSWORD;
 
+	/**
+	 * should merkle trees be hashed by splitting them into subtrees on a fork-join pool
+	 */
+	public boolean forkJoinMerkleHashing = false;
+
 	public CryptoSettings() {
 
 	}
@@ -108,4 +113,12 @@ public class CryptoSettings extends SubSetting implements CryptographySettings {
 	public String getKeystorePassword() {
 		return keystorePassword;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean forkJoinMerkleHashing() {
+		return forkJoinMerkleHashing;
+	}
 }
@@ -16,6 +16,8 @@ package com.swirlds.platform.observers;
 
 import com.swirlds.platform.EventImpl;
 
+import java.util.List;
+
 /**
  * An observer that is notified when an event has achieved consensus.
  */
@@ -28,4 +30,17 @@ public interface ConsensusEventObserver extends EventObserver {
 	 * 		the event
 	 */
 	void consensusEvent(EventImpl event);
+
+	/**
+	 * Announce that the given events have achieved consensus, in consensus order. By default, each event is
+	 * announced by itself.
+	 *
+	 * @param events
+	 * 		the events
+	 */
+	default void consensusEvents(List<EventImpl> events) {
+		for (final EventImpl event : events) {
+			consensusEvent(event);
+		}
+	}
 }
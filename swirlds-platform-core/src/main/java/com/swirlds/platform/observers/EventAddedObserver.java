@@ -16,6 +16,8 @@ package com.swirlds.platform.observers;
 
 import com.swirlds.platform.EventImpl;
 
+import java.util.List;
+
 /**
  * An observer that is notified when an event is added to the hashgraph.
  */
@@ -28,4 +30,17 @@ public interface EventAddedObserver extends EventObserver {
 	 * 		the event
 	 */
 	void eventAdded(EventImpl event);
+
+	/**
+	 * Announce that the given events have been added to the hashgraph, in the order they were added. By default,
+	 * each event is announced by itself.
+	 *
+	 * @param events
+	 * 		the events
+	 */
+	default void eventsAdded(List<EventImpl> events) {
+		for (final EventImpl event : events) {
+			eventAdded(event);
+		}
+	}
 }
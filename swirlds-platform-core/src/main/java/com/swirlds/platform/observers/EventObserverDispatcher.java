@@ -97,6 +97,16 @@ public class EventObserverDispatcher implements
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void consensusEvents(final List<EventImpl> events) {
+		for (final ConsensusEventObserver observer : consensusEventObservers) {
+			observer.consensusEvents(events);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -107,6 +117,16 @@ public class EventObserverDispatcher implements
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void eventsAdded(final List<EventImpl> events) {
+		for (final EventAddedObserver observer : eventAddedObservers) {
+			observer.eventsAdded(events);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -117,6 +137,16 @@ public class EventObserverDispatcher implements
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void preConsensusEvents(final List<EventImpl> events) {
+		for (final PreConsensusEventObserver observer : preConsensusEventObservers) {
+			observer.preConsensusEvents(events);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -16,6 +16,8 @@ package com.swirlds.platform.observers;
 
 import com.swirlds.platform.EventImpl;
 
+import java.util.List;
+
 /**
  * An observer that is notified before an event reaches consensus.
  */
@@ -28,4 +30,16 @@ public interface PreConsensusEventObserver extends EventObserver {
 	 * 		the event
 	 */
 	void preConsensusEvent(EventImpl event);
+
+	/**
+	 * Announce that the given events have not yet achieved consensus. By default, each event is announced by itself.
+	 *
+	 * @param events
+	 * 		the events
+	 */
+	default void preConsensusEvents(List<EventImpl> events) {
+		for (final EventImpl event : events) {
+			preConsensusEvent(event);
+		}
+	}
 }
@@ -53,4 +53,14 @@ public interface HashgraphStats extends DefaultStats, StaleEventObserver {
 	 * @param startTime a start time, in nanoseconds
 	 */
 	void processedEventTask(long startTime);
+
+	/**
+	 * Update the statistics when the intake thread has dispatched a batch of tasks at once
+	 *
+	 * @param batchSize
+	 * 		the number of tasks in the batch
+	 * @param startTime
+	 * 		the time the batch started to be dispatched, from {@link #time()}
+	 */
+	void processedEventTaskBatch(int batchSize, long startTime);
 }
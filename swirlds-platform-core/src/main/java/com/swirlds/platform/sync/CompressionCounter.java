@@ -0,0 +1,84 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the work done by the compression of one direction of a connection since the last reset: the bytes before and
+ * after compression, and the time spent compressing or decompressing them. The time does not include waiting for the
+ * socket.
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class CompressionCounter {
+
+	/** the number of bytes before compression, or after decompression */
+	private final AtomicLong uncompressedBytes = new AtomicLong(0);
+
+	/** the number of bytes after compression, or before decompression, as sent over the network */
+	private final AtomicLong compressedBytes = new AtomicLong(0);
+
+	/** the time spent compressing or decompressing, in nanoseconds */
+	private final AtomicLong nanos = new AtomicLong(0);
+
+	/**
+	 * Count the work done by one call to a deflater or inflater.
+	 *
+	 * @param uncompressed
+	 * 		the number of bytes before compression, or after decompression
+	 * @param compressed
+	 * 		the number of bytes after compression, or before decompression
+	 * @param elapsedNanos
+	 * 		the time spent, in nanoseconds
+	 */
+	void add(final long uncompressed, final long compressed, final long elapsedNanos) {
+		uncompressedBytes.addAndGet(uncompressed);
+		compressedBytes.addAndGet(compressed);
+		nanos.addAndGet(elapsedNanos);
+	}
+
+	/**
+	 * @return the number of bytes before compression, or after decompression, since the last reset
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes.get();
+	}
+
+	/**
+	 * @return the number of bytes after compression, or before decompression, since the last reset
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
+	/**
+	 * @return the time spent compressing or decompressing since the last reset, in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos.get();
+	}
+
+	/**
+	 * Start counting from 0
+	 */
+	public void reset() {
+		uncompressedBytes.set(0);
+		compressedBytes.set(0);
+		nanos.set(0);
+	}
+}
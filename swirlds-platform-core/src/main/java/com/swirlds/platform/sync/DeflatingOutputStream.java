@@ -0,0 +1,91 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses a sync stream with a {@link Deflater} that lives as long as the connection, so that what was sent in
+ * earlier syncs, such as the creator IDs and the hashes of recent events, is in the dictionary of later ones. Every
+ * flush ends a block that the other side can decompress completely, so that messages are never held back.
+ */
+class DeflatingOutputStream extends DeflaterOutputStream {
+
+	private final CompressionCounter counter;
+
+	/**
+	 * @param out
+	 * 		the stream to write the compressed bytes to
+	 * @param level
+	 * 		the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+	 * @param bufferSize
+	 * 		the size of the buffer of compressed bytes
+	 * @param counter
+	 * 		counts the bytes compressed and the time spent compressing them
+	 */
+	DeflatingOutputStream(final OutputStream out, final int level, final int bufferSize,
+			final CompressionCounter counter) {
+		super(out, new Deflater(level), bufferSize, true);
+		this.counter = counter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void deflate() throws IOException {
+		deflate(Deflater.NO_FLUSH);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() throws IOException {
+		// as DeflaterOutputStream does with syncFlush, but counting the work
+		while (deflate(Deflater.SYNC_FLUSH) == buf.length) {
+			// the buffer was full, so there may be more
+		}
+		out.flush();
+	}
+
+	/**
+	 * Close the stream, without writing the end of the compressed data, which the other side never reads.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			out.close();
+		} finally {
+			def.end();
+		}
+	}
+
+	private int deflate(final int flush) throws IOException {
+		final long bytesRead = def.getBytesRead();
+		final long bytesWritten = def.getBytesWritten();
+		final long start = System.nanoTime();
+		final int len = def.deflate(buf, 0, buf.length, flush);
+		counter.add(def.getBytesRead() - bytesRead, def.getBytesWritten() - bytesWritten, System.nanoTime() - start);
+		if (len > 0) {
+			out.write(buf, 0, len);
+		}
+		return len;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct buffers of one size, shared by the connections of a {@link NioSyncSelector}. A connection only
+ * holds buffers while it has bytes waiting to be read or written, so idle connections hold none, and allocating a
+ * direct buffer, which is slow, only happens when more connections are busy at once than ever before.
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class DirectBufferPool {
+
+	/** the capacity of every buffer in the pool */
+	private final int bufferSize;
+
+	/** the maximum number of free buffers kept in the pool */
+	private final int maxFreeBuffers;
+
+	/** the buffers that are not in use */
+	private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+
+	/** the number of buffers in {@link #freeBuffers}, which is slow to count */
+	private final AtomicInteger freeCount = new AtomicInteger(0);
+
+	/** the number of buffers allocated by this pool */
+	private final AtomicLong allocatedCount = new AtomicLong(0);
+
+	/**
+	 * @param bufferSize
+	 * 		the capacity of every buffer in the pool
+	 * @param maxFreeBuffers
+	 * 		the maximum number of free buffers kept in the pool. Buffers released when the pool is full are left to
+	 * 		the garbage collector.
+	 */
+	public DirectBufferPool(final int bufferSize, final int maxFreeBuffers) {
+		this.bufferSize = bufferSize;
+		this.maxFreeBuffers = maxFreeBuffers;
+	}
+
+	/**
+	 * @return the capacity of every buffer in the pool
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Take a buffer from the pool, or allocate one if the pool is empty.
+	 *
+	 * @return a cleared buffer with a capacity of {@link #getBufferSize()}
+	 */
+	public ByteBuffer acquire() {
+		final ByteBuffer buffer = freeBuffers.poll();
+		if (buffer == null) {
+			allocatedCount.incrementAndGet();
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+		freeCount.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Return a buffer to the pool. The buffer must not be used after this. Buffers that were not allocated by a pool
+	 * of this size are ignored, so a buffer that was replaced by a larger one can be released without checking.
+	 *
+	 * @param buffer
+	 * 		the buffer, or null
+	 */
+	public void release(final ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+			return;
+		}
+		if (freeCount.incrementAndGet() > maxFreeBuffers) {
+			freeCount.decrementAndGet();
+			return;
+		}
+		freeBuffers.add(buffer);
+	}
+
+	/**
+	 * @return the number of buffers allocated by this pool, including those released when it was full
+	 */
+	public long getAllocatedCount() {
+		return allocatedCount.get();
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.io.BadIOException;
+import com.swirlds.common.io.SerializableDataInputStream;
+import com.swirlds.common.io.SerializableDataOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A Bloom filter of the hashes of the events a node has, which it sends to a peer during a sync so that the peer does
+ * not send it events it already has.
+ * <p>
+ * A filter never reports that the node lacks an event it has. It may report that the node has an event it lacks,
+ * with a probability that falls as the number of bits per event grows (about 0.3% at 12 bits). Each filter is built
+ * with a random seed, so that an event wrongly filtered out in one sync is unlikely to be filtered out again in the
+ * next.
+ * </p>
+ */
+public final class EventBloomFilter {
+
+	/** the largest number of 64-bit words of a filter read from a peer, so 8 MB */
+	public static final int MAX_WORDS = 1 << 20;
+
+	/** the largest number of hash functions of a filter read from a peer */
+	private static final int MAX_HASHES = 16;
+
+	private final long[] words;
+	private final long numBits;
+	private final int numHashes;
+	private final long seed;
+
+	/**
+	 * Create an empty filter.
+	 *
+	 * @param expectedEvents
+	 * 		the number of events that will be added
+	 * @param bitsPerEvent
+	 * 		the number of bits of the filter per event, more giving fewer false positives
+	 * @param seed
+	 * 		the seed of the hash functions
+	 */
+	public EventBloomFilter(final int expectedEvents, final int bitsPerEvent, final long seed) {
+		final long bits = Math.max(Long.SIZE, (long) Math.max(1, expectedEvents) * Math.max(1, bitsPerEvent));
+		this.words = new long[(int) Math.min(MAX_WORDS, (bits + Long.SIZE - 1) / Long.SIZE)];
+		this.numBits = (long) words.length * Long.SIZE;
+		this.numHashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerEvent * Math.log(2))));
+		this.seed = seed;
+	}
+
+	private EventBloomFilter(final long[] words, final int numHashes, final long seed) {
+		this.words = words;
+		this.numBits = (long) words.length * Long.SIZE;
+		this.numHashes = numHashes;
+		this.seed = seed;
+	}
+
+	/**
+	 * Add the hash of an event.
+	 *
+	 * @param hash
+	 * 		the base hash of the event
+	 */
+	public void add(final Hash hash) {
+		final long h1 = h1(hash);
+		final long h2 = h2(hash);
+		for (int i = 0; i < numHashes; i++) {
+			final long bit = Math.floorMod(h1 + i * h2, numBits);
+			words[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * @param hash
+	 * 		the base hash of an event
+	 * @return false if the event was certainly not added, true if it probably was
+	 */
+	public boolean mightContain(final Hash hash) {
+		final long h1 = h1(hash);
+		final long h2 = h2(hash);
+		for (int i = 0; i < numHashes; i++) {
+			final long bit = Math.floorMod(h1 + i * h2, numBits);
+			if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of bytes this filter takes on the wire
+	 */
+	public int getSerializedSize() {
+		return Integer.BYTES + Long.BYTES + Integer.BYTES + words.length * Long.BYTES;
+	}
+
+	/**
+	 * Write this filter to a stream
+	 *
+	 * @param out
+	 * 		the stream to write to
+	 * @throws IOException
+	 * 		iff the stream throws
+	 */
+	public void serialize(final SerializableDataOutputStream out) throws IOException {
+		out.writeInt(numHashes);
+		out.writeLong(seed);
+		out.writeLongArray(words);
+	}
+
+	/**
+	 * Read a filter written by {@link #serialize(SerializableDataOutputStream)}
+	 *
+	 * @param in
+	 * 		the stream to read from
+	 * @return the filter
+	 * @throws IOException
+	 * 		iff the stream throws, or the filter is not valid
+	 */
+	public static EventBloomFilter deserialize(final SerializableDataInputStream in) throws IOException {
+		final int numHashes = in.readInt();
+		if (numHashes < 1 || numHashes > MAX_HASHES) {
+			throw new BadIOException("event Bloom filter has " + numHashes + " hash functions");
+		}
+		final long seed = in.readLong();
+		final long[] words = in.readLongArray(MAX_WORDS);
+		if (words == null || words.length == 0) {
+			throw new BadIOException("event Bloom filter has no bits");
+		}
+		return new EventBloomFilter(words, numHashes, seed);
+	}
+
+	/**
+	 * The two hashes from which all those of the filter are derived. The hash of an event is already uniformly
+	 * distributed, so its first bytes only need mixing with the seed.
+	 */
+	private long h1(final Hash hash) {
+		return mix(prefix(hash, 0) ^ seed);
+	}
+
+	private long h2(final Hash hash) {
+		// odd, so that the derived hashes do not repeat before covering the filter
+		return mix(prefix(hash, Long.BYTES) ^ Long.rotateLeft(seed, 32)) | 1;
+	}
+
+	private static long prefix(final Hash hash, final int offset) {
+		final byte[] value = hash.getValue();
+		if (value.length < offset + Long.BYTES) {
+			return Arrays.hashCode(value) * (offset + 1L);
+		}
+		return ByteBuffer.wrap(value, offset, Long.BYTES).getLong();
+	}
+
+	/** the finalizer of SplitMix64 */
+	private static long mix(final long x) {
+		long z = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
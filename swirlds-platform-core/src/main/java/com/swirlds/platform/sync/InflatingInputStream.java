@@ -0,0 +1,83 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses a sync stream written by a {@link DeflatingOutputStream}, with an {@link Inflater} that lives as long as
+ * the connection.
+ */
+class InflatingInputStream extends InflaterInputStream {
+
+	private final CompressionCounter counter;
+
+	/** the time spent waiting for compressed bytes during the current read, in nanoseconds */
+	private long fillNanos;
+
+	/**
+	 * @param in
+	 * 		the stream to read the compressed bytes from
+	 * @param bufferSize
+	 * 		the size of the buffer of compressed bytes
+	 * @param counter
+	 * 		counts the bytes decompressed and the time spent decompressing them
+	 */
+	InflatingInputStream(final InputStream in, final int bufferSize, final CompressionCounter counter) {
+		super(in, new Inflater(), bufferSize);
+		this.counter = counter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		final long bytesRead = inf.getBytesRead();
+		final long bytesWritten = inf.getBytesWritten();
+		final long start = System.nanoTime();
+		fillNanos = 0;
+		final int n = super.read(b, off, len);
+		counter.add(inf.getBytesWritten() - bytesWritten, inf.getBytesRead() - bytesRead,
+				System.nanoTime() - start - fillNanos);
+		return n;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void fill() throws IOException {
+		final long start = System.nanoTime();
+		super.fill();
+		fillNanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			in.close();
+		} finally {
+			inf.end();
+		}
+	}
+}
@@ -0,0 +1,341 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.swirlds.logging.LogMarker.SOCKET_EXCEPTIONS;
+import static com.swirlds.logging.LogMarker.SYNC_CONNECTION;
+
+/**
+ * Carries any number of {@link MultiplexedStream}s over one connection, so that two members need only one TLS
+ * connection, with one handshake, however many things they are doing at once.
+ * <p>
+ * Everything is sent in frames of a type byte, the ID of the stream as an int, the length as an int, and for a
+ * {@link #FRAME_DATA} frame, that many bytes. Either side may open a stream. Those opened by the side that made the
+ * connection have odd IDs, the others even, so the two never choose the same one. The other side may only have a
+ * limited number of streams open at once; a stream it opens beyond that is closed at once, without being accepted.
+ * </p>
+ * <p>
+ * Run this class as a separate thread, which reads the connection and hands the frames to their streams. If the
+ * connection fails or times out, it is closed with all its streams, as a socket would be.
+ * </p>
+ */
+public class MultiplexedConnection implements Runnable {
+
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger log = LogManager.getLogger();
+
+	/** a new stream, whose length is 0 */
+	static final byte FRAME_OPEN = 1;
+	/** bytes of a stream */
+	static final byte FRAME_DATA = 2;
+	/** the reader of a stream has room for this many more bytes, given as the length */
+	static final byte FRAME_WINDOW = 3;
+	/** the end of a stream, whose length is 0 */
+	static final byte FRAME_CLOSE = 4;
+
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/** closes the connection */
+	private final Runnable closer;
+
+	/** called on the thread of this connection with each stream opened by the other side */
+	private final Consumer<MultiplexedStream> acceptor;
+
+	/** the number of bytes of a stream that may be sent before its reader makes room for more */
+	private final int windowSize;
+
+	/** the largest number of bytes sent in one frame */
+	private final int maxFrameSize;
+
+	/** the most streams opened by the other side that may be open at once */
+	private final int maxAcceptedStreams;
+
+	/** the number of streams opened by the other side that are open */
+	private final AtomicInteger acceptedStreams = new AtomicInteger();
+
+	/** the streams that are open, by ID */
+	private final Map<Integer, MultiplexedStream> streams = new ConcurrentHashMap<>();
+
+	/** the ID of the next stream opened by self */
+	private final AtomicInteger nextId;
+
+	private volatile boolean closed;
+
+	/**
+	 * @param in
+	 * 		the stream of the bytes received from the other side, which should be buffered
+	 * @param out
+	 * 		the stream of the bytes sent to the other side, which should be buffered
+	 * @param closer
+	 * 		closes the connection, normally by closing its socket
+	 * @param initiator
+	 * 		true if self made the connection
+	 * @param windowSize
+	 * 		the number of bytes of a stream that may be sent before its reader makes room for more. Must be the same
+	 * 		on both sides.
+	 * @param maxFrameSize
+	 * 		the largest number of bytes sent in one frame
+	 * @param maxAcceptedStreams
+	 * 		the most streams opened by the other side that may be open at once. Any more are refused.
+	 * @param acceptor
+	 * 		called with each stream opened by the other side, on the thread running this connection, so it should
+	 * 		hand the stream to another thread instead of using it
+	 */
+	public MultiplexedConnection(
+			final DataInputStream in,
+			final DataOutputStream out,
+			final Runnable closer,
+			final boolean initiator,
+			final int windowSize,
+			final int maxFrameSize,
+			final int maxAcceptedStreams,
+			final Consumer<MultiplexedStream> acceptor) {
+		this.in = in;
+		this.out = out;
+		this.closer = closer;
+		this.acceptor = acceptor;
+		this.windowSize = windowSize;
+		this.maxFrameSize = maxFrameSize;
+		this.maxAcceptedStreams = maxAcceptedStreams;
+		this.nextId = new AtomicInteger(initiator ? 1 : 2);
+	}
+
+	/**
+	 * Open a new stream. The other side is given it as soon as the frame opening it arrives.
+	 *
+	 * @return the new stream
+	 * @throws IOException
+	 * 		if the connection is closed or fails
+	 */
+	public MultiplexedStream openStream() throws IOException {
+		if (closed) {
+			throw new IOException("the multiplexed connection is closed");
+		}
+		final MultiplexedStream stream = new MultiplexedStream(this, nextId.getAndAdd(2));
+		streams.put(stream.getId(), stream);
+		try {
+			writeFrame(FRAME_OPEN, stream.getId(), null, 0, 0);
+		} catch (final IOException e) {
+			streams.remove(stream.getId());
+			throw e;
+		}
+		return stream;
+	}
+
+	/**
+	 * @return true if the connection has been closed, after which no stream can be used
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * @return the number of streams that are open
+	 */
+	public int getStreamCount() {
+		return streams.size();
+	}
+
+	/**
+	 * Close the connection and all its streams.
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		closer.run();
+		for (final MultiplexedStream stream : new ArrayList<>(streams.values())) {
+			stream.ended();
+		}
+		streams.clear();
+	}
+
+	/**
+	 * Read frames and hand them to their streams until the connection is closed or fails.
+	 */
+	@Override
+	public void run() {
+		byte[] discard = null;
+		try {
+			while (!closed) {
+				final byte type = in.readByte();
+				final int id = in.readInt();
+				final int length = in.readInt();
+				switch (type) {
+					case FRAME_OPEN:
+						openedByOtherSide(id);
+						break;
+					case FRAME_DATA:
+						if (length < 0 || length > maxFrameSize) {
+							throw new IOException("frame of stream " + id + " has an invalid length " + length);
+						}
+						final MultiplexedStream stream = streams.get(id);
+						if (stream == null) {
+							// a stream closed by self, whose other side had not been told yet
+							if (discard == null) {
+								discard = new byte[maxFrameSize];
+							}
+							in.readFully(discard, 0, length);
+						} else {
+							final byte[] bytes = new byte[length];
+							in.readFully(bytes);
+							stream.received(bytes);
+						}
+						break;
+					case FRAME_WINDOW:
+						final MultiplexedStream updated = streams.get(id);
+						if (updated != null) {
+							updated.windowUpdated(length);
+						}
+						break;
+					case FRAME_CLOSE:
+						final MultiplexedStream ended = removeStream(id);
+						if (ended != null) {
+							ended.ended();
+						}
+						break;
+					default:
+						throw new IOException("unknown frame type " + type);
+				}
+			}
+		} catch (final IOException e) {
+			if (!closed) {
+				log.error(SOCKET_EXCEPTIONS.getMarker(), "multiplexed connection failed, closing it and {} streams",
+						streams.size(), e);
+			}
+		} finally {
+			close();
+		}
+	}
+
+	private void openedByOtherSide(final int id) throws IOException {
+		if (!isOpenedByOtherSide(id) || streams.containsKey(id)) {
+			throw new IOException("the other side opened stream " + id + ", which it may not");
+		}
+		if (acceptedStreams.get() >= maxAcceptedStreams) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(),
+					"the other side opened multiplexed stream {} while {} of its streams are open, refusing it",
+					id, maxAcceptedStreams);
+			writeFrame(FRAME_CLOSE, id, null, 0, 0);
+			return;
+		}
+		final MultiplexedStream stream = new MultiplexedStream(this, id);
+		acceptedStreams.incrementAndGet();
+		streams.put(id, stream);
+		log.debug(SYNC_CONNECTION.getMarker(), "the other side opened multiplexed stream {}", id);
+		acceptor.accept(stream);
+	}
+
+	private boolean isOpenedByOtherSide(final int id) {
+		return (id & 1) != (nextId.get() & 1);
+	}
+
+	/**
+	 * Forget a stream that has been closed by either side.
+	 *
+	 * @return the stream, or null if it was not open
+	 */
+	private MultiplexedStream removeStream(final int id) {
+		final MultiplexedStream stream = streams.remove(id);
+		if (stream != null && isOpenedByOtherSide(id)) {
+			acceptedStreams.decrementAndGet();
+		}
+		return stream;
+	}
+
+	int getWindowSize() {
+		return windowSize;
+	}
+
+	int getMaxFrameSize() {
+		return maxFrameSize;
+	}
+
+	/**
+	 * Send bytes of a stream, which must fit in its send window and in one frame.
+	 */
+	void sendData(final int id, final byte[] bytes, final int offset, final int length) throws IOException {
+		writeFrame(FRAME_DATA, id, bytes, offset, length);
+	}
+
+	/**
+	 * Tell the other side that the reader of a stream has room for more bytes.
+	 */
+	void sendWindowUpdate(final int id, final int bytes) {
+		try {
+			writeFrame(FRAME_WINDOW, id, null, 0, bytes);
+		} catch (final IOException e) {
+			// the connection has been closed, which the reader of the stream will see
+		}
+	}
+
+	/**
+	 * Called by a stream closed by self.
+	 *
+	 * @param tellOtherSide
+	 * 		true if the other side has not closed the stream already
+	 */
+	void streamClosed(final MultiplexedStream stream, final boolean tellOtherSide) {
+		// any bytes of the stream still in flight are dropped by run()
+		removeStream(stream.getId());
+		if (!tellOtherSide) {
+			return;
+		}
+		try {
+			writeFrame(FRAME_CLOSE, stream.getId(), null, 0, 0);
+		} catch (final IOException e) {
+			// the connection has been closed, so the other side will close the stream too
+		}
+	}
+
+	/**
+	 * Write one frame and send it at once. The frames of all the streams are written one at a time.
+	 */
+	private void writeFrame(final byte type, final int id, final byte[] bytes, final int offset, final int length)
+			throws IOException {
+		if (closed) {
+			throw new IOException("the multiplexed connection is closed");
+		}
+		try {
+			synchronized (out) {
+				out.writeByte(type);
+				out.writeInt(id);
+				out.writeInt(length);
+				if (type == FRAME_DATA) {
+					out.write(bytes, offset, length);
+				}
+				out.flush();
+			}
+		} catch (final IOException e) {
+			close();
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+/**
+ * A {@link MultiplexedStream} seen as a socket, so that code written for a socket of its own, such as that which sets
+ * read timeouts during a sync or a reconnect, works unchanged on a stream that shares its connection.
+ * <p>
+ * Timeouts and closing act on the stream. Whether it is connected, and to which address, is that of the socket of the
+ * connection.
+ * </p>
+ */
+public class MultiplexedSocket extends Socket {
+
+	private final MultiplexedStream stream;
+
+	/** the socket of the connection that carries the stream */
+	private final Socket connectionSocket;
+
+	/**
+	 * @param stream
+	 * 		the stream
+	 * @param connectionSocket
+	 * 		the socket of the connection that carries the stream
+	 */
+	public MultiplexedSocket(final MultiplexedStream stream, final Socket connectionSocket) {
+		this.stream = stream;
+		this.connectionSocket = connectionSocket;
+	}
+
+	/**
+	 * @return the stream
+	 */
+	public MultiplexedStream getStream() {
+		return stream;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public InputStream getInputStream() {
+		return stream.getInputStream();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public OutputStream getOutputStream() {
+		return stream.getOutputStream();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSoTimeout(final int timeout) {
+		stream.setSoTimeout(timeout);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getSoTimeout() {
+		return stream.getSoTimeout();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isClosed() {
+		return stream.isClosed() || connectionSocket.isClosed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isConnected() {
+		return connectionSocket.isConnected();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBound() {
+		return connectionSocket.isBound();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public InetAddress getInetAddress() {
+		return connectionSocket.getInetAddress();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPort() {
+		return connectionSocket.getPort();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SocketAddress getRemoteSocketAddress() {
+		return connectionSocket.getRemoteSocketAddress();
+	}
+
+	/**
+	 * Close the stream, leaving the connection, and the other streams it carries, open.
+	 */
+	@Override
+	public void close() {
+		stream.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "stream " + stream.getId() + " of " + connectionSocket;
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * One stream of a {@link MultiplexedConnection}, which carries bytes in both directions as a socket does, but shares
+ * the connection with other streams.
+ * <p>
+ * Flow control is per stream: a stream may only send as many bytes as the other side has room for, and the other side
+ * makes room by reading them. So a stream whose reader is slow, such as one sending a state, never holds back the
+ * others, and the thread reading the connection never waits for a reader.
+ * </p>
+ * <p>
+ * Reads and writes time out as those of a socket do, after {@link #setSoTimeout(int)} milliseconds, by throwing a
+ * {@link SocketTimeoutException}.
+ * </p>
+ */
+public class MultiplexedStream {
+
+	private final MultiplexedConnection connection;
+
+	/** the ID of this stream, odd if it was opened by the side that made the connection */
+	private final int id;
+
+	/** the bytes received and not read yet */
+	private final Deque<byte[]> received = new ArrayDeque<>();
+
+	/** the position in the first array of {@link #received} of the next byte to read */
+	private int position;
+
+	/** the number of bytes received and not read yet */
+	private int unread;
+
+	/** the number of bytes read since the last window update was sent */
+	private int readSinceUpdate;
+
+	/** the number of bytes this side may send before the other side makes room for more */
+	private int sendWindow;
+
+	/** true once this side has closed the stream */
+	private boolean closed;
+
+	/** true once the other side has closed the stream, or the connection was closed */
+	private boolean endOfStream;
+
+	/** read and write timeout, in milliseconds, or 0 for none */
+	private volatile int soTimeout;
+
+	private final InputStream inputStream = new StreamInput();
+	private final OutputStream outputStream = new StreamOutput();
+
+	/**
+	 * @param connection
+	 * 		the connection that carries this stream
+	 * @param id
+	 * 		the ID of this stream
+	 */
+	MultiplexedStream(final MultiplexedConnection connection, final int id) {
+		this.connection = connection;
+		this.id = id;
+		this.sendWindow = connection.getWindowSize();
+	}
+
+	/**
+	 * @return the ID of this stream, odd if it was opened by the side that made the connection
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the stream of the bytes received
+	 */
+	public InputStream getInputStream() {
+		return inputStream;
+	}
+
+	/**
+	 * @return the stream of the bytes to send. Every write is sent at once, so this should be buffered.
+	 */
+	public OutputStream getOutputStream() {
+		return outputStream;
+	}
+
+	/**
+	 * @param timeout
+	 * 		read and write timeout, in milliseconds, or 0 for none
+	 */
+	public void setSoTimeout(final int timeout) {
+		this.soTimeout = timeout;
+	}
+
+	/**
+	 * @return read and write timeout, in milliseconds, or 0 for none
+	 */
+	public int getSoTimeout() {
+		return soTimeout;
+	}
+
+	/**
+	 * @return true if this side has closed the stream, or the connection was closed
+	 */
+	public synchronized boolean isClosed() {
+		return closed || (endOfStream && connection.isClosed());
+	}
+
+	/**
+	 * Close the stream, and tell the other side, if it has not closed it already.
+	 */
+	public void close() {
+		final boolean tellOtherSide;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			tellOtherSide = !endOfStream;
+			received.clear();
+			unread = 0;
+			notifyAll();
+		}
+		connection.streamClosed(this, tellOtherSide);
+	}
+
+	/**
+	 * Called by the thread reading the connection with the bytes of a frame of this stream.
+	 *
+	 * @throws IOException
+	 * 		if the other side sent more than the window allows
+	 */
+	synchronized void received(final byte[] bytes) throws IOException {
+		if (closed) {
+			// the other side has not been told yet, or sent these before it was told
+			return;
+		}
+		unread += bytes.length;
+		if (unread > connection.getWindowSize()) {
+			throw new IOException("stream " + id + " received " + unread + " unread bytes, more than its window of "
+					+ connection.getWindowSize());
+		}
+		received.add(bytes);
+		notifyAll();
+	}
+
+	/**
+	 * Called by the thread reading the connection when the other side has made room for more bytes.
+	 */
+	synchronized void windowUpdated(final int bytes) {
+		sendWindow += bytes;
+		notifyAll();
+	}
+
+	/**
+	 * Called when the other side has closed the stream, or the connection was closed. The bytes already received can
+	 * still be read.
+	 */
+	synchronized void ended() {
+		endOfStream = true;
+		notifyAll();
+	}
+
+	/**
+	 * Wait until there is something to read, or the stream has ended.
+	 *
+	 * @return false if the stream has ended and everything has been read
+	 */
+	private synchronized boolean awaitReceived() throws IOException {
+		final long deadline = System.currentTimeMillis() + soTimeout;
+		while (unread == 0) {
+			if (closed) {
+				throw new SocketException("Socket closed");
+			}
+			if (endOfStream) {
+				return false;
+			}
+			awaitUntil(deadline, "Read timed out");
+		}
+		return true;
+	}
+
+	/**
+	 * Wait until the other side has room for at least one more byte, and take as much of that room as possible.
+	 *
+	 * @return the number of bytes that may be sent, at most {@code wanted}
+	 */
+	private synchronized int awaitSendWindow(final int wanted) throws IOException {
+		final long deadline = System.currentTimeMillis() + soTimeout;
+		while (sendWindow == 0) {
+			if (closed || endOfStream) {
+				throw new SocketException("Socket closed");
+			}
+			awaitUntil(deadline, "Write timed out");
+		}
+		if (closed || endOfStream) {
+			throw new SocketException("Socket closed");
+		}
+		final int granted = Math.min(wanted, sendWindow);
+		sendWindow -= granted;
+		return granted;
+	}
+
+	private void awaitUntil(final long deadline, final String timeoutMessage) throws IOException {
+		try {
+			if (soTimeout == 0) {
+				wait();
+			} else {
+				final long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					throw new SocketTimeoutException(timeoutMessage);
+				}
+				wait(remaining);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SocketException("interrupted while waiting on stream " + id);
+		}
+	}
+
+	/**
+	 * Copy received bytes, and decide whether to tell the other side that there is room for more.
+	 *
+	 * @return the number of bytes to add to the window of the other side, or 0 if it is not worth telling yet
+	 */
+	private synchronized int take(final byte[] b, final int off, final int len, final int[] count) {
+		int copied = 0;
+		while (copied < len && !received.isEmpty()) {
+			final byte[] first = received.peekFirst();
+			final int n = Math.min(len - copied, first.length - position);
+			System.arraycopy(first, position, b, off + copied, n);
+			copied += n;
+			position += n;
+			if (position == first.length) {
+				received.pollFirst();
+				position = 0;
+			}
+		}
+		unread -= copied;
+		readSinceUpdate += copied;
+		count[0] = copied;
+
+		// updating the window for every read would send a frame for every few bytes read
+		if (readSinceUpdate >= connection.getWindowSize() / 2) {
+			final int update = readSinceUpdate;
+			readSinceUpdate = 0;
+			return update;
+		}
+		return 0;
+	}
+
+	private final class StreamInput extends InputStream {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xff);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!awaitReceived()) {
+				return -1;
+			}
+			final int[] count = new int[1];
+			final int update = take(b, off, len, count);
+			if (update > 0) {
+				connection.sendWindowUpdate(id, update);
+			}
+			return count[0];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int available() {
+			synchronized (MultiplexedStream.this) {
+				return unread;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void close() {
+			MultiplexedStream.this.close();
+		}
+	}
+
+	private final class StreamOutput extends OutputStream {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			int written = 0;
+			while (written < len) {
+				final int n = awaitSendWindow(Math.min(len - written, connection.getMaxFrameSize()));
+				connection.sendData(id, b, off + written, n);
+				written += n;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void close() {
+			MultiplexedStream.this.close();
+		}
+	}
+}
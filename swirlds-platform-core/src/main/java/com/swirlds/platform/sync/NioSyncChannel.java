@@ -0,0 +1,715 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking connection, registered with a {@link NioSyncSelector}, that reads and writes the same
+ * {@link SyncInputStream} and {@link SyncOutputStream} types as a blocking connection, so that the existing sync
+ * messages can be read and written by a {@link NioSyncHandler}.
+ * <p>
+ * The selector thread only moves bytes between the socket and the buffers of the channel. The bytes received are
+ * handed to the worker thread of the channel, which decrypts them if the connection uses TLS, and calls the handler.
+ * While the worker has them, the selector does not read from the socket, so a connection never has more than one
+ * batch of bytes being handled.
+ * </p>
+ * <p>
+ * Received bytes are kept in a pooled direct buffer until a handler has read a complete message from them with
+ * {@link #tryRead(Reader)}. A message that has not been received completely is read again from its start when more
+ * bytes arrive, so the messages of the blocking protocol can be used unchanged, without a length in front of them.
+ * The buffer grows for a larger message, up to the limit given to the selector, and the connection is closed if a
+ * message is larger still. Written bytes go to pooled direct buffers, which are sent when the socket can take them.
+ * Once more than that limit is waiting to be sent, the channel is suspended: {@link #tryRead(Reader)} reads nothing
+ * and the selector stops reading the socket, so the handler stops where it is, without holding the worker, until the
+ * selector has sent enough and calls the handler again.
+ * </p>
+ * <p>
+ * Except for {@link #close()}, the methods of this class must only be called by the thread that owns the channel:
+ * the worker while it handles received bytes, the selector otherwise, or the thread that the channel was handed to by
+ * {@link #detach(Consumer)}.
+ * </p>
+ */
+public class NioSyncChannel {
+
+	/**
+	 * Reads one message from {@link NioSyncChannel#getInput()}.
+	 *
+	 * @param <T>
+	 * 		the type of the message
+	 */
+	@FunctionalInterface
+	public interface Reader<T> {
+		/**
+		 * @return the message, which must not be null
+		 * @throws IOException
+		 * 		if the message could not be read. An {@link EOFException} means that the message has not been
+		 * 		received completely.
+		 */
+		T read() throws IOException;
+	}
+
+	private final NioSyncSelector selector;
+	private final SocketChannel socketChannel;
+	private final DirectBufferPool bufferPool;
+	private final SyncInputStream input;
+	private final SyncOutputStream output;
+	private final OutboundStream outboundStream = new OutboundStream();
+
+	/** the TLS layer of the connection, or null if it is not encrypted */
+	private final NioTlsEngine tls;
+
+	/** the thread that handles the bytes received */
+	private final Executor worker;
+
+	/** the largest message that may be received, and the most bytes that may wait to be sent */
+	private final int maxBufferedBytes;
+
+	/** the bytes received and not read yet, ready to be read, or null if there are none */
+	private ByteBuffer inbound;
+
+	/** the buffers that have been written and not sent yet, ready to be sent. Guards itself and outboundBytes. */
+	private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+
+	/** the number of bytes in {@link #outbound} */
+	private long outboundBytes;
+
+	/** true from when too much was waiting to be sent until the handler is called again. Guarded by outbound. */
+	private boolean suspended;
+
+	/** the protocol of this channel */
+	private NioSyncHandler handler;
+
+	/** the key of this channel in the selector, or null if it is not registered */
+	private volatile SelectionKey key;
+
+	/** true while the worker is handling received bytes. Only used on the selector thread. */
+	private boolean busy;
+
+	/** the time bytes were last received or sent, in nanoseconds */
+	private volatile long lastProgress = System.nanoTime();
+
+	/** called once the selector has stopped watching this channel, or null if the channel is not being detached */
+	private volatile Consumer<NioSyncChannel> detachAction;
+
+	private final AtomicBoolean closed = new AtomicBoolean(false);
+
+	NioSyncChannel(
+			final NioSyncSelector selector,
+			final SocketChannel socketChannel,
+			final DirectBufferPool bufferPool,
+			final NioTlsEngine tls,
+			final Executor worker,
+			final int maxBufferedBytes,
+			final NioSyncHandler handler) {
+		this.selector = selector;
+		this.socketChannel = socketChannel;
+		this.bufferPool = bufferPool;
+		this.tls = tls;
+		this.worker = worker;
+		this.maxBufferedBytes = maxBufferedBytes;
+		this.handler = handler;
+		this.input = SyncInputStream.createUnbufferedSyncInputStream(new InboundStream());
+		this.output = SyncOutputStream.createSyncOutputStream(outboundStream, bufferPool.getBufferSize());
+	}
+
+	/**
+	 * @return the stream that messages are read from, inside {@link #tryRead(Reader)}
+	 */
+	public SyncInputStream getInput() {
+		return input;
+	}
+
+	/**
+	 * @return the stream that messages are written to. Nothing is sent until it is flushed.
+	 */
+	public SyncOutputStream getOutput() {
+		return output;
+	}
+
+	/**
+	 * @return the socket of this channel
+	 */
+	public Socket getSocket() {
+		return socketChannel.socket();
+	}
+
+	/**
+	 * @return the protocol of this channel
+	 */
+	public NioSyncHandler getHandler() {
+		return handler;
+	}
+
+	/**
+	 * Change the protocol of this channel, such as once a connection has been set up. The new handler is called when
+	 * more bytes are received; a handler that changes to another should pass it any bytes already received by calling
+	 * its {@link NioSyncHandler#received(NioSyncChannel)}.
+	 *
+	 * @param handler
+	 * 		the new protocol
+	 */
+	public void setHandler(final NioSyncHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Read a message if it has been received completely. If it has not, nothing is consumed, and the message will be
+	 * read from its start the next time this is called. Nothing is read either while the channel is suspended because
+	 * too many bytes are waiting to be sent; the handler is called again once enough of them have been sent.
+	 *
+	 * @param reader
+	 * 		reads the message from {@link #getInput()}. It may be called several times for the same message, so it
+	 * 		must not have effects until the whole message has been read.
+	 * @param <T>
+	 * 		the type of the message
+	 * @return the message, or null if it has not been received completely or the channel is suspended
+	 * @throws IOException
+	 * 		if the reader throws anything other than an {@link EOFException}
+	 */
+	public <T> T tryRead(final Reader<T> reader) throws IOException {
+		if (isSuspended()) {
+			return null;
+		}
+
+		final int start = inbound == null ? 0 : inbound.position();
+		final T message;
+		try {
+			message = reader.read();
+		} catch (final EOFException e) {
+			if (inbound != null) {
+				inbound.position(start);
+			}
+			return null;
+		}
+
+		if (inbound != null) {
+			input.getSyncByteCounter().addToCount(inbound.position() - start);
+			if (!inbound.hasRemaining()) {
+				bufferPool.release(inbound);
+				inbound = null;
+			}
+		}
+		return message;
+	}
+
+	/**
+	 * Read the bytes that the socket has received. Called on the selector thread while the worker is not busy.
+	 *
+	 * @return false if the other side has closed the connection
+	 * @throws IOException
+	 * 		if the socket throws, or the message being received is larger than the limit
+	 */
+	boolean receive() throws IOException {
+		final int count;
+		if (tls == null) {
+			final ByteBuffer buffer = inboundForWriting(1);
+			try {
+				count = socketChannel.read(buffer);
+			} finally {
+				inboundWritten();
+			}
+		} else {
+			count = socketChannel.read(tls.getNetIn());
+		}
+
+		if (count > 0) {
+			lastProgress = System.nanoTime();
+		}
+		return count >= 0;
+	}
+
+	/**
+	 * Handle the bytes received: decrypt them, if the connection uses TLS, and let the handler consume them. Called
+	 * on the worker thread.
+	 *
+	 * @throws IOException
+	 * 		if the bytes break the protocol
+	 */
+	void handleReceived() throws IOException {
+		if (tls != null) {
+			tls.decrypt(this);
+			if (tls.isHandshaking()) {
+				return;
+			}
+		}
+		handler.received(this);
+	}
+
+	/**
+	 * Send the bytes that have been written and flushed, as far as the socket can take them without blocking. After
+	 * {@link #detach(Consumer)}, the socket is in blocking mode, and everything is sent.
+	 *
+	 * @return true if everything has been sent
+	 * @throws IOException
+	 * 		if the socket throws
+	 */
+	public boolean send() throws IOException {
+		synchronized (outbound) {
+			while (!outbound.isEmpty()) {
+				final long count = socketChannel.write(outbound.toArray(new ByteBuffer[0]));
+				if (count > 0) {
+					outboundBytes -= count;
+					lastProgress = System.nanoTime();
+				}
+				while (!outbound.isEmpty() && !outbound.peek().hasRemaining()) {
+					bufferPool.release(outbound.poll());
+				}
+				if (!outbound.isEmpty() && !socketChannel.isBlocking()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Stop handling this channel on the selector once the handler returns, and put the socket in blocking mode, so
+	 * that it can be used by code that blocks, such as sending a state to a node that reconnects. The channel is
+	 * handed to the action on the selector thread, which must not block, so the action normally hands the channel to
+	 * another thread. The handler is not called any more, except by {@link #close()}.
+	 *
+	 * @param action
+	 * 		receives the channel once the socket is in blocking mode
+	 */
+	public void detach(final Consumer<NioSyncChannel> action) {
+		detachAction = action;
+	}
+
+	/**
+	 * Get a blocking stream of the bytes received, after {@link #detach(Consumer)}. It starts with the bytes that were
+	 * received and not read, and decrypts what follows if the connection uses TLS.
+	 *
+	 * @return the stream of the bytes received
+	 * @throws IOException
+	 * 		if the socket throws
+	 */
+	public InputStream getBlockingInput() throws IOException {
+		if (tls != null) {
+			return new BlockingTlsInputStream(socketChannel.socket().getInputStream());
+		}
+
+		final byte[] bytes = new byte[inbound == null ? 0 : inbound.remaining()];
+		if (inbound != null) {
+			inbound.get(bytes);
+			bufferPool.release(inbound);
+			inbound = null;
+		}
+		return new SequenceInputStream(new ByteArrayInputStream(bytes), socketChannel.socket().getInputStream());
+	}
+
+	/**
+	 * Get a blocking stream that sends bytes, after {@link #detach(Consumer)} and {@link #send()}. It encrypts them if
+	 * the connection uses TLS.
+	 *
+	 * @return the stream that sends bytes
+	 * @throws IOException
+	 * 		if the socket throws
+	 */
+	public OutputStream getBlockingOutput() throws IOException {
+		if (tls != null) {
+			return new BlockingTlsOutputStream();
+		}
+		return socketChannel.socket().getOutputStream();
+	}
+
+	/**
+	 * Close the socket, if it is not closed yet, and tell the handler on the worker thread. This may be called by any
+	 * thread, but the buffers of the channel are only released by the thread that owns the channel: the selector
+	 * notices that the socket was closed by another thread, and calls this again.
+	 */
+	public void close() {
+		try {
+			socketChannel.close();
+		} catch (final IOException ignored) {
+			// Suppress any exceptions during cleanup
+		}
+
+		if (!isOwnedByCurrentThread() || !closed.compareAndSet(false, true)) {
+			return;
+		}
+
+		bufferPool.release(inbound);
+		inbound = null;
+		synchronized (outbound) {
+			while (!outbound.isEmpty()) {
+				bufferPool.release(outbound.poll());
+			}
+			outboundBytes = 0;
+			suspended = false;
+		}
+		outboundStream.discard();
+
+		if (key == null) {
+			handler.closed(this);
+			return;
+		}
+		try {
+			worker.execute(() -> handler.closed(this));
+		} catch (final RejectedExecutionException e) {
+			handler.closed(this);
+		}
+	}
+
+	/**
+	 * @return true if the socket has not been closed
+	 */
+	public boolean isOpen() {
+		return socketChannel.isOpen();
+	}
+
+	/**
+	 * @return the time bytes were last received or sent, in nanoseconds, as returned by {@link System#nanoTime()}
+	 */
+	long getLastProgress() {
+		return lastProgress;
+	}
+
+	SocketChannel getSocketChannel() {
+		return socketChannel;
+	}
+
+	Executor getWorker() {
+		return worker;
+	}
+
+	void setKey(final SelectionKey key) {
+		this.key = key;
+	}
+
+	boolean isBusy() {
+		return busy;
+	}
+
+	void setBusy(final boolean busy) {
+		this.busy = busy;
+	}
+
+	/**
+	 * @return true if the handler asked for this channel to be detached
+	 */
+	boolean isDetaching() {
+		return detachAction != null;
+	}
+
+	/**
+	 * @return true if too many bytes were waiting to be sent, and the handler has not been called again since
+	 */
+	boolean isSuspended() {
+		synchronized (outbound) {
+			return suspended;
+		}
+	}
+
+	/**
+	 * End the suspension of the channel, if enough of the bytes waiting have been sent, after which the selector calls
+	 * the handler again to continue with the bytes it has not read.
+	 *
+	 * @return true if the channel was suspended, and is not any more
+	 */
+	boolean resumeIfSent() {
+		synchronized (outbound) {
+			if (suspended && outboundBytes <= maxBufferedBytes) {
+				suspended = false;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Watch for received bytes only while the worker is not handling the last ones and the channel is not suspended,
+	 * and for the socket being able to take more bytes only while there are bytes waiting to be sent.
+	 */
+	void updateInterest() {
+		final SelectionKey currentKey = key;
+		if (currentKey != null && currentKey.isValid()) {
+			int ops = 0;
+			synchronized (outbound) {
+				if (!busy && !suspended) {
+					ops |= SelectionKey.OP_READ;
+				}
+				if (!outbound.isEmpty()) {
+					ops |= SelectionKey.OP_WRITE;
+				}
+			}
+			currentKey.interestOps(ops);
+		}
+	}
+
+	/**
+	 * Called by the selector once it has stopped watching this channel.
+	 */
+	void detached() throws IOException {
+		key = null;
+		synchronized (outbound) {
+			// the thread the channel is handed to sends everything, however much is waiting
+			suspended = false;
+		}
+		socketChannel.configureBlocking(true);
+		final Consumer<NioSyncChannel> action = detachAction;
+		detachAction = null;
+		action.accept(this);
+	}
+
+	/**
+	 * Get the inbound buffer, ready to be written to, with room for at least some bytes after those not read yet.
+	 * {@link #inboundWritten()} must be called once the bytes have been written.
+	 *
+	 * @param minFree
+	 * 		the number of bytes to make room for
+	 * @return the buffer
+	 * @throws IOException
+	 * 		if the bytes not read yet, which are part of one message, already reach the limit
+	 */
+	ByteBuffer inboundForWriting(final int minFree) throws IOException {
+		if (inbound == null) {
+			inbound = minFree <= bufferPool.getBufferSize() ? bufferPool.acquire() : ByteBuffer.allocate(minFree);
+			return inbound;
+		}
+
+		inbound.compact();
+		if (inbound.remaining() < minFree) {
+			final int unread = inbound.position();
+			if (unread >= maxBufferedBytes) {
+				throw new IOException(String.format("a message from %s is larger than the limit of %d bytes",
+						getSocket().getRemoteSocketAddress(), maxBufferedBytes));
+			}
+			final ByteBuffer larger = ByteBuffer.allocate(
+					Math.max(unread + minFree, Math.min(inbound.capacity() * 2, maxBufferedBytes)));
+			inbound.flip();
+			larger.put(inbound);
+			bufferPool.release(inbound);
+			inbound = larger;
+		}
+		return inbound;
+	}
+
+	/**
+	 * Make the bytes written to the buffer returned by {@link #inboundForWriting(int)} ready to be read.
+	 */
+	void inboundWritten() {
+		inbound.flip();
+		if (!inbound.hasRemaining()) {
+			bufferPool.release(inbound);
+			inbound = null;
+		}
+	}
+
+	/**
+	 * Add bytes to be sent. If too many bytes are waiting to be sent, the channel is suspended, so that a handler that
+	 * writes more than the other side reads cannot fill the memory, and the worker is free for the other channels
+	 * while the selector sends them. Once the socket is in blocking mode, after {@link #detach(Consumer)}, the caller
+	 * sends the bytes itself.
+	 *
+	 * @param buffer
+	 * 		the bytes, ready to be read, which belong to the channel from now on
+	 */
+	void queue(final ByteBuffer buffer) {
+		synchronized (outbound) {
+			outbound.add(buffer);
+			outboundBytes += buffer.remaining();
+			if (outboundBytes > maxBufferedBytes && key != null) {
+				suspended = true;
+			}
+		}
+	}
+
+	private boolean isOwnedByCurrentThread() {
+		return key == null || (selector.isSelectorThread() && !busy);
+	}
+
+	/**
+	 * Reads the bytes in {@link #inbound}, and reports the end of the stream when there are no more, which
+	 * {@link #tryRead(Reader)} takes to mean that more bytes have to be received.
+	 */
+	private final class InboundStream extends InputStream {
+		@Override
+		public int read() {
+			if (inbound == null || !inbound.hasRemaining()) {
+				return -1;
+			}
+			return inbound.get() & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (inbound == null || !inbound.hasRemaining()) {
+				return -1;
+			}
+			final int count = Math.min(len, inbound.remaining());
+			inbound.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return inbound == null ? 0 : inbound.remaining();
+		}
+	}
+
+	/**
+	 * Writes bytes to pooled buffers, and adds each buffer to {@link #outbound} when it is full or flushed, encrypted
+	 * if the connection uses TLS.
+	 */
+	private final class OutboundStream extends OutputStream {
+		/** the buffer being written, or null if none */
+		private ByteBuffer current;
+
+		@Override
+		public void write(final int b) throws IOException {
+			if (current == null || !current.hasRemaining()) {
+				next();
+			}
+			current.put((byte) b);
+		}
+
+		@Override
+		public void write(final byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (current == null || !current.hasRemaining()) {
+					next();
+				}
+				final int count = Math.min(len, current.remaining());
+				current.put(b, off, count);
+				off += count;
+				len -= count;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (current != null && current.position() > 0) {
+				final ByteBuffer buffer = current;
+				current = null;
+				buffer.flip();
+				if (tls == null) {
+					queue(buffer);
+				} else {
+					try {
+						tls.encrypt(buffer, NioSyncChannel.this);
+					} finally {
+						bufferPool.release(buffer);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void close() {
+			// the channel is closed by NioSyncChannel.close(), which releases the buffers
+		}
+
+		/**
+		 * Release the buffer being written, without sending it.
+		 */
+		private void discard() {
+			bufferPool.release(current);
+			current = null;
+		}
+
+		private void next() throws IOException {
+			flush();
+			current = bufferPool.acquire();
+		}
+	}
+
+	/**
+	 * Reads and decrypts the bytes received by a socket in blocking mode, after {@link #detach(Consumer)}, starting
+	 * with those received and not read before.
+	 */
+	private final class BlockingTlsInputStream extends InputStream {
+		/** the stream of the socket, which times out as the socket is configured to */
+		private final InputStream socketInput;
+
+		BlockingTlsInputStream(final InputStream socketInput) {
+			this.socketInput = socketInput;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (inbound == null) {
+				final ByteBuffer netIn = tls.getNetIn();
+				final int count = socketInput.read(netIn.array(), netIn.arrayOffset() + netIn.position(),
+						netIn.remaining());
+				if (count < 0) {
+					return -1;
+				}
+				netIn.position(netIn.position() + count);
+				tls.decrypt(NioSyncChannel.this);
+				send();
+			}
+
+			final int count = Math.min(len, inbound.remaining());
+			inbound.get(b, off, count);
+			if (!inbound.hasRemaining()) {
+				bufferPool.release(inbound);
+				inbound = null;
+			}
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return inbound == null ? 0 : inbound.remaining();
+		}
+	}
+
+	/**
+	 * Encrypts bytes and sends them on a socket in blocking mode, after {@link #detach(Consumer)}.
+	 */
+	private final class BlockingTlsOutputStream extends OutputStream {
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			tls.encrypt(ByteBuffer.wrap(b, off, len), NioSyncChannel.this);
+			send();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import java.io.IOException;
+
+/**
+ * The protocol spoken over a {@link NioSyncChannel}. A handler is a state machine: it is called each time bytes are
+ * received, consumes every message that has been received completely, and returns without waiting for the rest.
+ * <p>
+ * Both methods are called on the worker thread that the channel was registered with, one call at a time, so a handler
+ * needs no locking unless it shares state with other threads. A worker is shared by several channels, so a handler
+ * must not wait for anything. When too many of its replies are waiting to be sent, the channel reads nothing more
+ * for it until they have been sent, and then calls it again, as if more bytes had been received.
+ * </p>
+ */
+public interface NioSyncHandler {
+
+	/**
+	 * Handle the bytes received so far. Messages are read with {@link NioSyncChannel#tryRead}, and replies are written
+	 * to {@link NioSyncChannel#getOutput()} and flushed, after which they are sent as the socket allows.
+	 *
+	 * @param channel
+	 * 		the channel the bytes were received on
+	 * @throws IOException
+	 * 		if the bytes break the protocol, in which case the channel is closed
+	 */
+	void received(NioSyncChannel channel) throws IOException;
+
+	/**
+	 * Called once, after the channel has been closed by either side, or because of an error or a timeout.
+	 *
+	 * @param channel
+	 * 		the channel that was closed
+	 */
+	void closed(NioSyncChannel channel);
+}
@@ -0,0 +1,385 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static com.swirlds.logging.LogMarker.EXCEPTION;
+import static com.swirlds.logging.LogMarker.SOCKET_EXCEPTIONS;
+
+/**
+ * Run this class as a separate thread. It reads and writes the sockets of any number of {@link NioSyncChannel}s on
+ * that one thread, and hands the bytes received on a channel to the worker of the channel, which calls its handler,
+ * instead of having a thread per connection that is blocked reading most of the time. The selector thread itself
+ * never parses, hashes or decrypts anything, so a slow handler only holds up its own worker.
+ * <p>
+ * A channel that has neither received nor sent anything for longer than the idle timeout is closed, as a blocking
+ * connection would be by its read timeout.
+ * </p>
+ */
+public class NioSyncSelector implements Runnable {
+
+	/** use this for all logging, as controlled by the optional data/log4j2.xml file */
+	private static final Logger log = LogManager.getLogger();
+
+	/** check for idle and closed channels every this many milliseconds */
+	private static final long SWEEP_PERIOD_MILLIS = 100;
+
+	private final Selector selector;
+	private final DirectBufferPool bufferPool;
+
+	/** close a channel that has received and sent nothing for this many nanoseconds, or never if 0 */
+	private final long idleTimeoutNanos;
+
+	/** the largest message a channel may receive, and the most bytes that may wait to be sent on it */
+	private final int maxBufferedBytes;
+
+	/** work for the selector thread, given by other threads */
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+	/** the channels registered with this selector */
+	private final Set<NioSyncChannel> channels = new HashSet<>();
+
+	/** the channels to hand over once the selector has stopped watching them */
+	private final List<NioSyncChannel> detaching = new ArrayList<>();
+
+	/** the thread running this selector, or null if it is not running */
+	private volatile Thread selectorThread;
+
+	private long lastSweep = System.nanoTime();
+
+	/**
+	 * @param bufferPool
+	 * 		the pool of the buffers of the channels
+	 * @param idleTimeoutMillis
+	 * 		close a channel that has received and sent nothing for this many milliseconds, or never if 0
+	 * @param maxBufferedBytes
+	 * 		the largest message a channel may receive, and the most bytes that may wait to be sent on it before its
+	 * 		handler is suspended
+	 * @throws IOException
+	 * 		if a selector cannot be opened
+	 */
+	public NioSyncSelector(final DirectBufferPool bufferPool, final long idleTimeoutMillis,
+			final int maxBufferedBytes) throws IOException {
+		this.selector = Selector.open();
+		this.bufferPool = bufferPool;
+		this.idleTimeoutNanos = idleTimeoutMillis * 1_000_000L;
+		this.maxBufferedBytes = maxBufferedBytes;
+	}
+
+	/**
+	 * Accept connections on a server socket. May be called from any thread.
+	 *
+	 * @param serverChannel
+	 * 		the bound server socket
+	 * @param acceptor
+	 * 		called on the selector thread with each accepted connection, normally to register it with this selector
+	 * 		or another one
+	 */
+	public void listen(final ServerSocketChannel serverChannel, final Consumer<SocketChannel> acceptor) {
+		submit(() -> {
+			try {
+				serverChannel.configureBlocking(false);
+				serverChannel.register(selector, SelectionKey.OP_ACCEPT, acceptor);
+			} catch (final IOException e) {
+				log.error(EXCEPTION.getMarker(), "NioSyncSelector failed to listen on {}", serverChannel, e);
+			}
+		});
+	}
+
+	/**
+	 * Start handling a connection. May be called from any thread.
+	 *
+	 * @param socketChannel
+	 * 		the connected socket
+	 * @param engine
+	 * 		the TLS engine of the connection, in server mode, or null if the connection is not encrypted
+	 * @param worker
+	 * 		runs the handler of the connection. It must run one task at a time, in order, such as a single thread
+	 * 		executor, and may be shared by several connections.
+	 * @param handler
+	 * 		the protocol of the connection
+	 */
+	public void register(final SocketChannel socketChannel, final SSLEngine engine, final Executor worker,
+			final NioSyncHandler handler) {
+		submit(() -> {
+			try {
+				final NioSyncChannel channel = new NioSyncChannel(this, socketChannel, bufferPool,
+						engine == null ? null : new NioTlsEngine(engine), worker, maxBufferedBytes, handler);
+				socketChannel.configureBlocking(false);
+				channel.setKey(socketChannel.register(selector, SelectionKey.OP_READ, channel));
+				channels.add(channel);
+			} catch (final IOException e) {
+				log.error(SOCKET_EXCEPTIONS.getMarker(), "NioSyncSelector failed to register {}", socketChannel, e);
+				try {
+					socketChannel.close();
+				} catch (final IOException ignored) {
+					// Suppress any exceptions during cleanup
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stop this selector, and close its channels. May be called from any thread.
+	 */
+	public void close() {
+		submit(() -> {
+			for (final NioSyncChannel channel : new ArrayList<>(channels)) {
+				channel.close();
+			}
+			channels.clear();
+			try {
+				selector.close();
+			} catch (final IOException ignored) {
+				// Suppress any exceptions during cleanup
+			}
+		});
+	}
+
+	/**
+	 * Handle the channels until the thread is interrupted or {@link #close()} is called.
+	 */
+	@Override
+	public void run() {
+		selectorThread = Thread.currentThread();
+		try {
+			while (!Thread.currentThread().isInterrupted() && selector.isOpen()) {
+				selector.select(SWEEP_PERIOD_MILLIS);
+				runTasks();
+				if (!selector.isOpen()) {
+					break;
+				}
+
+				final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					final SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept(key);
+					} else {
+						handle((NioSyncChannel) key.attachment(), key);
+					}
+				}
+
+				finishDetaching();
+				sweep();
+			}
+		} catch (final IOException e) {
+			log.error(EXCEPTION.getMarker(), "NioSyncSelector stopped", e);
+		} finally {
+			for (final NioSyncChannel channel : channels) {
+				channel.close();
+			}
+			channels.clear();
+			try {
+				selector.close();
+			} catch (final IOException ignored) {
+				// Suppress any exceptions during cleanup
+			}
+			selectorThread = null;
+		}
+	}
+
+	/**
+	 * @return true if this is called on the thread running this selector
+	 */
+	boolean isSelectorThread() {
+		return Thread.currentThread() == selectorThread;
+	}
+
+	private void submit(final Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void accept(final SelectionKey key) {
+		try {
+			final SocketChannel socketChannel = ((ServerSocketChannel) key.channel()).accept();
+			if (socketChannel != null) {
+				((Consumer<SocketChannel>) key.attachment()).accept(socketChannel);
+			}
+		} catch (final IOException e) {
+			log.error(EXCEPTION.getMarker(), "NioSyncSelector accept() error", e);
+		}
+	}
+
+	/**
+	 * Send what a channel has queued, and read what it received and hand it to its worker, unless the worker is still
+	 * handling the last bytes it received. A suspended channel is handed to its worker, without reading, once enough
+	 * of what it queued has been sent.
+	 */
+	private void handle(final NioSyncChannel channel, final SelectionKey key) {
+		try {
+			if (key.isWritable()) {
+				channel.send();
+				if (!channel.isBusy() && channel.resumeIfSent()) {
+					dispatch(channel);
+				}
+			}
+			if (key.isReadable() && !channel.isBusy() && !channel.isSuspended()) {
+				if (!channel.receive()) {
+					channel.close();
+					return;
+				}
+				dispatch(channel);
+			}
+			channel.updateInterest();
+		} catch (final Exception e) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(), "NioSyncSelector closing {} after an error",
+					channel.getSocket(), e);
+			if (channel.isBusy()) {
+				// the worker did not take the channel, so it is still owned by this thread
+				channel.setBusy(false);
+			}
+			channel.close();
+		}
+	}
+
+	/**
+	 * Hand a channel to its worker, which owns it until {@link #processed(NioSyncChannel)}.
+	 */
+	private void dispatch(final NioSyncChannel channel) {
+		channel.setBusy(true);
+		channel.getWorker().execute(() -> process(channel));
+	}
+
+	/**
+	 * Let the handler of a channel consume the bytes it received. Called on the worker of the channel.
+	 */
+	private void process(final NioSyncChannel channel) {
+		try {
+			channel.handleReceived();
+		} catch (final Exception e) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(), "NioSyncSelector closing {} after an error",
+					channel.getSocket(), e);
+			channel.close();
+		} finally {
+			submit(() -> processed(channel));
+		}
+	}
+
+	/**
+	 * Take a channel back from its worker: send whatever the handler wrote, and watch for more bytes, or for the
+	 * socket taking what the handler wrote if it is suspended, or finish what the handler started.
+	 */
+	private void processed(final NioSyncChannel channel) {
+		channel.setBusy(false);
+		if (!channel.isOpen()) {
+			channels.remove(channel);
+			channel.close();
+			return;
+		}
+		if (channel.isDetaching()) {
+			detaching.add(channel);
+			return;
+		}
+		try {
+			channel.send();
+			if (channel.resumeIfSent()) {
+				dispatch(channel);
+			}
+			channel.updateInterest();
+		} catch (final IOException e) {
+			log.error(SOCKET_EXCEPTIONS.getMarker(), "NioSyncSelector closing {} after an error",
+					channel.getSocket(), e);
+			channel.close();
+		}
+	}
+
+	/**
+	 * Deregister the channels being detached, which a selector only does in its next selection, then hand them over.
+	 */
+	private void finishDetaching() throws IOException {
+		if (detaching.isEmpty()) {
+			return;
+		}
+
+		for (final NioSyncChannel channel : detaching) {
+			final SelectionKey key = channel.getSocketChannel().keyFor(selector);
+			if (key != null) {
+				key.cancel();
+			}
+			channels.remove(channel);
+		}
+		selector.selectNow();
+
+		for (final NioSyncChannel channel : detaching) {
+			try {
+				channel.detached();
+			} catch (final Exception e) {
+				log.error(SOCKET_EXCEPTIONS.getMarker(), "NioSyncSelector failed to detach {}",
+						channel.getSocket(), e);
+				channel.close();
+			}
+		}
+		detaching.clear();
+	}
+
+	/**
+	 * Close the channels that have been idle for too long, and let go of those closed by other threads. A channel that
+	 * its worker is handling is let go of once the worker is done with it.
+	 */
+	private void sweep() {
+		final long now = System.nanoTime();
+		if (now - lastSweep < SWEEP_PERIOD_MILLIS * 1_000_000L) {
+			return;
+		}
+		lastSweep = now;
+
+		final Iterator<NioSyncChannel> iterator = channels.iterator();
+		while (iterator.hasNext()) {
+			final NioSyncChannel channel = iterator.next();
+			if (channel.isOpen() && idleTimeoutNanos > 0 && now - channel.getLastProgress() > idleTimeoutNanos) {
+				log.error(SOCKET_EXCEPTIONS.getMarker(),
+						"didn't receive or send anything on {} for {} ms. Disconnecting...",
+						channel.getSocket(), (now - channel.getLastProgress()) / 1_000_000L);
+				channel.close();
+			}
+			if (!channel.isOpen() && !channel.isBusy()) {
+				iterator.remove();
+				channel.close();
+			}
+		}
+	}
+}
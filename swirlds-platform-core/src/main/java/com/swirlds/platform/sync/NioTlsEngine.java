@@ -0,0 +1,174 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The TLS layer of a {@link NioSyncChannel}. It decrypts the bytes received from the socket and encrypts the bytes to
+ * send with an {@link SSLEngine}, so that a connection accepted by a non-blocking server can be used by a caller with
+ * a TLS socket, and answers the handshake that the caller starts.
+ * <p>
+ * Like the rest of the channel, it is only used by the thread that owns the channel at the time, so it is not thread
+ * safe.
+ * </p>
+ */
+final class NioTlsEngine {
+
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private final SSLEngine engine;
+
+	/** the encrypted bytes received and not decrypted yet, ready to be written to */
+	private ByteBuffer netIn;
+
+	/**
+	 * @param engine
+	 * 		the engine of the connection, in server mode
+	 * @throws SSLException
+	 * 		if the handshake cannot be started
+	 */
+	NioTlsEngine(final SSLEngine engine) throws SSLException {
+		this.engine = engine;
+		this.netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+		engine.beginHandshake();
+	}
+
+	/**
+	 * @return the buffer that encrypted bytes are received into, ready to be written to
+	 */
+	ByteBuffer getNetIn() {
+		return netIn;
+	}
+
+	/**
+	 * @return true if the handshake has not finished, in which case no application bytes can be sent or received
+	 */
+	boolean isHandshaking() {
+		final SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+		return status != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+				&& status != SSLEngineResult.HandshakeStatus.FINISHED;
+	}
+
+	/**
+	 * Decrypt the records received so far into the inbound buffer of the channel, and queue whatever the handshake
+	 * has to send. A record that has not been received completely is left for the next call.
+	 *
+	 * @param channel
+	 * 		the channel the bytes were received on
+	 * @throws IOException
+	 * 		if the bytes are not valid TLS records, or the other side closed the TLS session
+	 */
+	void decrypt(final NioSyncChannel channel) throws IOException {
+		netIn.flip();
+		try {
+			while (true) {
+				switch (engine.getHandshakeStatus()) {
+					case NEED_TASK:
+						runDelegatedTasks();
+						continue;
+					case NEED_WRAP:
+						encrypt(EMPTY, channel);
+						continue;
+					default:
+						break;
+				}
+
+				if (!netIn.hasRemaining()) {
+					return;
+				}
+
+				final ByteBuffer app = channel.inboundForWriting(engine.getSession().getApplicationBufferSize());
+				final SSLEngineResult result;
+				try {
+					result = engine.unwrap(netIn, app);
+				} finally {
+					channel.inboundWritten();
+				}
+
+				switch (result.getStatus()) {
+					case BUFFER_UNDERFLOW:
+						growNetIn();
+						return;
+					case CLOSED:
+						throw new EOFException("the other side closed the TLS session");
+					default:
+						// the next round either decrypts the next record or finds that there is none
+						break;
+				}
+			}
+		} finally {
+			netIn.compact();
+		}
+	}
+
+	/**
+	 * Encrypt bytes and queue the records on the channel.
+	 *
+	 * @param app
+	 * 		the bytes to encrypt, all of which are consumed
+	 * @param channel
+	 * 		the channel to send the records on
+	 * @throws IOException
+	 * 		if the TLS session was closed, or the bytes were written before the handshake finished
+	 */
+	void encrypt(final ByteBuffer app, final NioSyncChannel channel) throws IOException {
+		do {
+			final ByteBuffer net = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+			final SSLEngineResult result = engine.wrap(app, net);
+			if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+				throw new EOFException("the TLS session is closed");
+			}
+			if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+				throw new IOException("bytes were written before the TLS handshake finished");
+			}
+			net.flip();
+			if (net.hasRemaining()) {
+				channel.queue(net);
+			}
+			if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+				runDelegatedTasks();
+			}
+		} while (app.hasRemaining());
+	}
+
+	/**
+	 * Run the work of the handshake, such as checking the certificate of the other side, on the current thread.
+	 */
+	private void runDelegatedTasks() {
+		Runnable task;
+		while ((task = engine.getDelegatedTask()) != null) {
+			task.run();
+		}
+	}
+
+	/**
+	 * Make room for a whole record, if the session has started using larger records than the buffer holds.
+	 */
+	private void growNetIn() {
+		final int packetSize = engine.getSession().getPacketBufferSize();
+		if (netIn.capacity() < packetSize) {
+			final ByteBuffer larger = ByteBuffer.allocate(packetSize);
+			larger.put(netIn);
+			larger.flip();
+			netIn = larger;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+
+package com.swirlds.platform.sync;
+
+import com.swirlds.common.crypto.CryptoFactory;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.io.BadIOException;
+import com.swirlds.common.io.SerializableDataInputStream;
+import com.swirlds.common.io.SerializableDataOutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads the hashed data of the events of one side of a sync, replacing the hash of a parent that was sent
+ * earlier in the same sync by its index among the events sent. Events are sent parents first, so most parents of the
+ * events of a sync are in the same sync, and an index takes 4 bytes instead of the 56 of a serialized hash.
+ * <p>
+ * Before the hashed data of each event, a byte tells which of its parents are references, followed by the index of
+ * each of them. The hashed data is then written as usual, with a null hash for the parents that are references.
+ * </p>
+ * <p>
+ * The reader needs the hash of each event it reads, so it hashes the events as it reads them, which would otherwise be
+ * done when they are validated.
+ * </p>
+ */
+public class ParentHashReferences {
+
+	/** set in the byte before an event if its self parent is a reference */
+	private static final byte SELF_PARENT_REFERENCE = 1;
+
+	/** set in the byte before an event if its other parent is a reference */
+	private static final byte OTHER_PARENT_REFERENCE = 2;
+
+	/** the indexes of the events written, by hash */
+	private final Map<Hash, Integer> written = new HashMap<>();
+
+	/** the hashes of the events read, in the order they were read */
+	private final List<Hash> read = new ArrayList<>();
+
+	/** the number of parent hashes written as references */
+	private long referencesWritten;
+
+	/** the number of bytes not written because of references */
+	private long bytesSaved;
+
+	/**
+	 * Write the hashed data of the next event of this sync.
+	 *
+	 * @param out
+	 * 		the stream to write to
+	 * @param data
+	 * 		the hashed data of the event
+	 * @param hash
+	 * 		the hash of the event
+	 * @throws IOException
+	 * 		iff the stream throws
+	 */
+	public void writeHashedData(
+			final SerializableDataOutputStream out,
+			final BaseEventHashedData data,
+			final Hash hash) throws IOException {
+		final Integer selfParent = data.getSelfParentHash() == null ? null : written.get(data.getSelfParentHash());
+		final Integer otherParent = data.getOtherParentHash() == null ? null : written.get(data.getOtherParentHash());
+
+		out.writeByte((selfParent == null ? 0 : SELF_PARENT_REFERENCE)
+				| (otherParent == null ? 0 : OTHER_PARENT_REFERENCE));
+		bytesSaved -= Byte.BYTES;
+
+		if (selfParent == null && otherParent == null) {
+			out.writeSerializable(data, false);
+		} else {
+			if (selfParent != null) {
+				out.writeInt(selfParent);
+				countReference(data.getSelfParentHash());
+			}
+			if (otherParent != null) {
+				out.writeInt(otherParent);
+				countReference(data.getOtherParentHash());
+			}
+			out.writeSerializable(new BaseEventHashedData(
+					data.getCreatorId(),
+					data.getSelfParentGen(),
+					data.getOtherParentGen(),
+					selfParent == null ? data.getSelfParentHash() : null,
+					otherParent == null ? data.getOtherParentHash() : null,
+					data.getTimeCreated(),
+					data.getTransactions()), false);
+		}
+
+		written.put(hash, written.size());
+	}
+
+	/**
+	 * Read the hashed data of the next event of this sync, and hash it. Nothing changes until all of it has been read.
+	 *
+	 * @param in
+	 * 		the stream to read from
+	 * @return the hashed data of the event, with its hash
+	 * @throws IOException
+	 * 		iff the stream throws, or a reference is not valid
+	 */
+	public BaseEventHashedData readHashedData(final SerializableDataInputStream in) throws IOException {
+		final byte references = in.readByte();
+		if ((references & ~(SELF_PARENT_REFERENCE | OTHER_PARENT_REFERENCE)) != 0) {
+			throw new BadIOException("invalid parent references " + references);
+		}
+		final Hash selfParent = (references & SELF_PARENT_REFERENCE) == 0 ? null : referenced(in.readInt());
+		final Hash otherParent = (references & OTHER_PARENT_REFERENCE) == 0 ? null : referenced(in.readInt());
+
+		BaseEventHashedData data = in.readSerializable(false, BaseEventHashedData::new);
+		if (selfParent != null || otherParent != null) {
+			if ((selfParent != null && data.getSelfParentHash() != null)
+					|| (otherParent != null && data.getOtherParentHash() != null)) {
+				throw new BadIOException("a parent is both a reference and a hash");
+			}
+			data = new BaseEventHashedData(
+					data.getCreatorId(),
+					data.getSelfParentGen(),
+					data.getOtherParentGen(),
+					selfParent == null ? data.getSelfParentHash() : selfParent,
+					otherParent == null ? data.getOtherParentHash() : otherParent,
+					data.getTimeCreated(),
+					data.getTransactions());
+		}
+
+		CryptoFactory.getInstance().digestSync(data);
+		read.add(data.getHash());
+		return data;
+	}
+
+	/**
+	 * @return the number of parent hashes written as references
+	 */
+	public long getReferencesWritten() {
+		return referencesWritten;
+	}
+
+	/**
+	 * @return the number of bytes not written because of references, less the byte written before each event
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	private void countReference(final Hash hash) {
+		referencesWritten++;
+		// the digest type and the length of the value, then the value, are replaced by the index
+		bytesSaved += Integer.BYTES + Integer.BYTES + hash.getValue().length - Integer.BYTES;
+	}
+
+	private Hash referenced(final int index) throws IOException {
+		if (index < 0 || index >= read.size()) {
+			throw new BadIOException("parent reference " + index + " is not one of the " + read.size()
+					+ " events read");
+		}
+		return read.get(index);
+	}
+}
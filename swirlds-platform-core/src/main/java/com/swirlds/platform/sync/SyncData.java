@@ -59,6 +59,17 @@ public final class SyncData {
 	 */
 	private final Set<Hash> search = new HashSet<>();
 
+	/**
+	 * The filter of the events the remote node has, or null if it did not send one.
+	 * Used to leave out of the send list the events it already has.
+	 */
+	private EventBloomFilter peerBloomFilter;
+
+	/**
+	 * The number of events left out of the send list because they are in {@link #peerBloomFilter}.
+	 */
+	private int numSkippedByBloomFilter;
+
 	/**
 	 * Get the list of {@code EventImpl}s to send
 	 *
@@ -159,6 +170,41 @@ public final class SyncData {
 		return sync.size();
 	}
 
+	/**
+	 * Get the filter of the events the remote node has
+	 *
+	 * @return the filter, or null if the remote node did not send one
+	 */
+	public EventBloomFilter getPeerBloomFilter() {
+		return peerBloomFilter;
+	}
+
+	/**
+	 * Set the filter of the events the remote node has, received in Phase 1
+	 *
+	 * @param peerBloomFilter
+	 * 		the filter
+	 */
+	public void setPeerBloomFilter(final EventBloomFilter peerBloomFilter) {
+		this.peerBloomFilter = peerBloomFilter;
+	}
+
+	/**
+	 * Get the number of events left out of the send list because the remote node's filter reports it has them
+	 *
+	 * @return the number of events left out
+	 */
+	public int getNumSkippedByBloomFilter() {
+		return numSkippedByBloomFilter;
+	}
+
+	/**
+	 * Count an event left out of the send list because the remote node's filter reports it has it
+	 */
+	public void skippedByBloomFilter() {
+		numSkippedByBloomFilter++;
+	}
+
 	/**
 	 * Get the number of shadow events marked for search
 	 *
@@ -27,11 +27,18 @@ import java.io.InputStream;
 public class SyncInputStream extends SerializableDataInputStream {
 	private final CountingStreamExtension syncByteCounter;
 	private final HashingStreamExtension hasher;
+	private final CompressionCounter compressionCounter;
 
 	private SyncInputStream(InputStream in, CountingStreamExtension syncByteCounter, HashingStreamExtension hasher) {
+		this(in, syncByteCounter, hasher, null);
+	}
+
+	private SyncInputStream(InputStream in, CountingStreamExtension syncByteCounter, HashingStreamExtension hasher,
+			CompressionCounter compressionCounter) {
 		super(in);
 		this.syncByteCounter = syncByteCounter;
 		this.hasher = hasher;
+		this.compressionCounter = compressionCounter;
 	}
 
 	public static SyncInputStream createSyncInputStream(InputStream in, int bufferSize) {
@@ -49,6 +56,51 @@ public class SyncInputStream extends SerializableDataInputStream {
 		);
 	}
 
+	/**
+	 * Create a stream that decompresses what was written by a stream created by
+	 * {@link SyncOutputStream#createCompressedSyncOutputStream(OutputStream, int, int)}. The byte counter counts the
+	 * compressed bytes, as received over the network, and the hasher hashes the decompressed bytes.
+	 *
+	 * @param in
+	 * 		the stream of the connection
+	 * @param bufferSize
+	 * 		the size of the buffers before and after decompression
+	 * @return the stream
+	 */
+	public static SyncInputStream createCompressedSyncInputStream(InputStream in, int bufferSize) {
+		CountingStreamExtension syncCounter = new CountingStreamExtension();
+		HashingStreamExtension hasher = new HashingStreamExtension(DigestType.SHA_384);
+		CompressionCounter compressionCounter = new CompressionCounter();
+
+		return new SyncInputStream(
+				new ExtendableInputStream<>(
+						new BufferedInputStream(
+								new InflatingInputStream(
+										new ExtendableInputStream<>(in, syncCounter),
+										bufferSize,
+										compressionCounter),
+								bufferSize),
+						hasher
+				),
+				syncCounter,
+				hasher,
+				compressionCounter
+		);
+	}
+
+	/**
+	 * Create a stream over bytes that are already in memory and may be read more than once, such as the bytes
+	 * received by a {@link NioSyncChannel}. The bytes are not buffered again, and they are neither counted nor hashed
+	 * as they are read: the owner of the bytes adds them to {@link #getSyncByteCounter()} once they are consumed.
+	 *
+	 * @param in
+	 * 		the bytes to read
+	 * @return the stream
+	 */
+	public static SyncInputStream createUnbufferedSyncInputStream(InputStream in) {
+		return new SyncInputStream(in, new CountingStreamExtension(), new HashingStreamExtension(DigestType.SHA_384));
+	}
+
 	public CountingStreamExtension getSyncByteCounter() {
 		return syncByteCounter;
 	}
@@ -56,4 +108,11 @@ public class SyncInputStream extends SerializableDataInputStream {
 	public HashingStreamExtension getHasher() {
 		return hasher;
 	}
+
+	/**
+	 * @return the work done decompressing this stream, or null if it is not compressed
+	 */
+	public CompressionCounter getCompressionCounter() {
+		return compressionCounter;
+	}
 }
@@ -18,6 +18,7 @@ import com.swirlds.common.NodeId;
 import com.swirlds.common.crypto.Hash;
 import com.swirlds.common.events.Event;
 import com.swirlds.platform.Consensus;
+import com.swirlds.platform.ConsensusSnapshot;
 import com.swirlds.platform.EventImpl;
 import com.swirlds.platform.EventStrings;
 import com.swirlds.platform.SyncConnection;
@@ -357,12 +358,14 @@ public final class SyncLogging {
 			final EventMapper eventMapper,
 			final Logger log,
 			final String syncLogString) {
-		final EventImpl[] allEvents = consensus.getAllEvents();
+		// read everything from one snapshot, so the counts are consistent with each other
+		final ConsensusSnapshot snapshot = consensus.getSnapshot();
+		final EventImpl[] allEvents = snapshot.getAllEvents();
 		int currentEventNullHashCount = 0;
 		int nExpired = 0;
 		int nAncient = 0;
-		final long minGenerationNonAncient = consensus.getMinGenerationNonAncient();
-		final long minGenerationNonExpired = consensus.getMinGenerationNonExpired();
+		final long minGenerationNonAncient = snapshot.getMinGenerationNonAncient();
+		final long minGenerationNonExpired = snapshot.getMinGenerationNonExpired();
 		final long maxGeneration = eventMapper.getMaxGeneration();
 
 		for (final EventImpl e : allEvents) {
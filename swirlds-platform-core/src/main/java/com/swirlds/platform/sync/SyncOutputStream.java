@@ -25,13 +25,22 @@ import java.io.OutputStream;
 public class SyncOutputStream extends SerializableDataOutputStream {
 	private final CountingStreamExtension syncByteCounter;
 	private final CountingStreamExtension connectionByteCounter;
+	private final CompressionCounter compressionCounter;
 
 	protected SyncOutputStream(OutputStream out,
 			CountingStreamExtension syncByteCounter,
 			CountingStreamExtension connectionByteCounter) {
+		this(out, syncByteCounter, connectionByteCounter, null);
+	}
+
+	protected SyncOutputStream(OutputStream out,
+			CountingStreamExtension syncByteCounter,
+			CountingStreamExtension connectionByteCounter,
+			CompressionCounter compressionCounter) {
 		super(out);
 		this.syncByteCounter = syncByteCounter;
 		this.connectionByteCounter = connectionByteCounter;
+		this.compressionCounter = compressionCounter;
 	}
 
 	public static SyncOutputStream createSyncOutputStream(OutputStream out, int bufferSize) {
@@ -51,6 +60,42 @@ public class SyncOutputStream extends SerializableDataOutputStream {
 		);
 	}
 
+	/**
+	 * Create a stream that compresses what is written to it with a {@link java.util.zip.Deflater} that lives as long
+	 * as the stream, and sends a complete block each time it is flushed. The byte counters count the compressed bytes,
+	 * as sent over the network.
+	 *
+	 * @param out
+	 * 		the stream of the connection
+	 * @param bufferSize
+	 * 		the size of the buffers before and after compression
+	 * @param level
+	 * 		the compression level, from 1 (fastest) to 9 (smallest)
+	 * @return the stream
+	 */
+	public static SyncOutputStream createCompressedSyncOutputStream(OutputStream out, int bufferSize, int level) {
+		CountingStreamExtension syncByteCounter = new CountingStreamExtension();
+		CountingStreamExtension connectionByteCounter = new CountingStreamExtension();
+		CompressionCounter compressionCounter = new CompressionCounter();
+
+		// we write the data to the buffer first, so that it is compressed in large blocks
+		return new SyncOutputStream(
+				new BufferedOutputStream(
+						new DeflatingOutputStream(
+								new ExtendableOutputStream<>(
+										out,
+										new StreamExtensionList(syncByteCounter, connectionByteCounter)
+								),
+								level,
+								bufferSize,
+								compressionCounter),
+						bufferSize),
+				syncByteCounter,
+				connectionByteCounter,
+				compressionCounter
+		);
+	}
+
 	public CountingStreamExtension getSyncByteCounter() {
 		return syncByteCounter;
 	}
@@ -58,4 +103,11 @@ public class SyncOutputStream extends SerializableDataOutputStream {
 	public CountingStreamExtension getConnectionByteCounter() {
 		return connectionByteCounter;
 	}
+
+	/**
+	 * @return the work done compressing this stream, or null if it is not compressed
+	 */
+	public CompressionCounter getCompressionCounter() {
+		return compressionCounter;
+	}
 }
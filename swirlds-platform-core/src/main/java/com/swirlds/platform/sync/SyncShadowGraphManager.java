@@ -22,7 +22,9 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -231,7 +233,8 @@ public final class SyncShadowGraphManager {
 
 	/**
 	 * Phase 3 (send): Get a list of Hashgraph events to send to the peer. This finishes the identification of Hashgraph
-	 * events to send to the peer.
+	 * events to send to the peer. If the peer sent a filter of the events it has, those it reports are left out, and
+	 * so are their descendants, since the peer cannot insert an event whose parent it lacks if the filter was wrong.
 	 *
 	 * @param syncData
 	 * 		The instance that holds the tip mark fields set by this routine.
@@ -239,6 +242,7 @@ public final class SyncShadowGraphManager {
 	public synchronized void finishSendEventList(final SyncData syncData) {
 		final Set<SyncShadowEvent> workingTips = syncData.getWorkingTips();
 		final List<EventImpl> sendList = syncData.getSendList();
+		final Set<SyncShadowEvent> leftOut = new HashSet<>();
 		for (final SyncShadowEvent workingTip : workingTips) {
 			SyncShadowEvent y = workingTip;
 
@@ -252,7 +256,7 @@ public final class SyncShadowGraphManager {
 				}
 
 				if (!syncData.markedForSearch(y)) {
-					sendList.add((EventImpl) y.getEvent());
+					addUnlessPeerHas(syncData, y, leftOut);
 				} else {
 					break;
 				}
@@ -262,6 +266,166 @@ public final class SyncShadowGraphManager {
 		}
 
 		sort(sendList);
+		removeDescendantsOfLeftOut(sendList, leftOut);
+	}
+
+	/**
+	 * Add an event found in Phase 3 to the send list, unless the filter sent by the peer reports that it has it. The
+	 * filter may wrongly report that, in which case the peer gets the event in a later sync.
+	 *
+	 * @param syncData
+	 * 		The instance that holds the send list, and the filter of the peer if it sent one
+	 * @param s
+	 * 		the shadow of the event the peer does not know of, according to its tips
+	 * @param leftOut
+	 * 		the events left out because of the filter, to which this one is added if it is left out
+	 */
+	private static void addUnlessPeerHas(final SyncData syncData, final SyncShadowEvent s,
+			final Set<SyncShadowEvent> leftOut) {
+		final EventBloomFilter filter = syncData.getPeerBloomFilter();
+		if (filter != null && filter.mightContain(s.getEventBaseHash())) {
+			syncData.skippedByBloomFilter();
+			leftOut.add(s);
+			return;
+		}
+		syncData.getSendList().add((EventImpl) s.getEvent());
+	}
+
+	/**
+	 * Remove from the send list every event with a parent that was left out because of the filter of the peer, or
+	 * removed here. If the filter wrongly reported the parent, the peer would reject the event for lacking it, so the
+	 * event waits for a later sync, whose filter has another seed and tells the truth about the parent. If the filter
+	 * was right, the tips of the peer that this node learns of meanwhile tell it that the peer has the parent.
+	 *
+	 * @param sendList
+	 * 		the send list, in generation order, so that parents are checked before their children
+	 * @param leftOut
+	 * 		the events left out because of the filter, to which the events removed here are added
+	 */
+	private void removeDescendantsOfLeftOut(final List<EventImpl> sendList, final Set<SyncShadowEvent> leftOut) {
+		if (leftOut.isEmpty()) {
+			return;
+		}
+
+		final Iterator<EventImpl> iterator = sendList.iterator();
+		while (iterator.hasNext()) {
+			final SyncShadowEvent s = shadowGraph.shadow(iterator.next());
+			if (s != null && (leftOut.contains(s.getSelfParent()) || leftOut.contains(s.getOtherParent()))) {
+				leftOut.add(s);
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Phase 1 (send): Get a filter of the hashes of the events in this shadow graph, so that the peer can leave out of
+	 * its send list the events this node has, and that the tips do not tell it about.
+	 *
+	 * @param minGeneration
+	 * 		the lowest generation of the events to add, normally the minimum non-ancient generation, since the peer
+	 * 		never sends older events
+	 * @param bitsPerEvent
+	 * 		the number of bits of the filter per event
+	 * @param seed
+	 * 		the seed of the hash functions of the filter
+	 * @return the filter
+	 */
+	public synchronized EventBloomFilter getSendBloomFilter(final long minGeneration, final int bitsPerEvent,
+			final long seed) {
+		int count = 0;
+		for (final SyncShadowEvent s : shadowGraph.getShadowEvents()) {
+			if (s.getEvent().getGeneration() >= minGeneration) {
+				count++;
+			}
+		}
+
+		final EventBloomFilter filter = new EventBloomFilter(count, bitsPerEvent, seed);
+		for (final SyncShadowEvent s : shadowGraph.getShadowEvents()) {
+			if (s.getEvent().getGeneration() >= minGeneration) {
+				filter.add(s.getEventBaseHash());
+			}
+		}
+
+		return filter;
+	}
+
+	/**
+	 * Get the events that can be sent to the peer as soon as its tip hashes have been applied with
+	 * {@link #setReceivedTipHashes(SyncData)}, before its tip booleans are known, in a pipelined sync.
+	 * <p>
+	 * These are the strict self-descendants of the tips of the peer, which the peer cannot know, whose parents the
+	 * peer already has or is sent earlier in the list, so that it can insert each event as it arrives. The list is in
+	 * generation order. The other events of the send list are found later by {@link #finishSendEventList(SyncData)}.
+	 * </p>
+	 *
+	 * @param syncData
+	 * 		The instance that holds the tip hashes received in Phase 1 and the send list they started
+	 * @return the events to send speculatively, a subset of the send list
+	 */
+	public synchronized List<EventImpl> getSpeculativeSendList(final SyncData syncData) {
+		// the tips of the peer that this node has, by creator. Every self-ancestor of these is known to the peer.
+		final Map<Long, List<SyncShadowEvent>> peerTips = new HashMap<>();
+		for (final Hash h : syncData.getReceivedTipHashes()) {
+			final SyncShadowEvent tip = shadowGraph.shadow(h);
+			if (tip != null) {
+				peerTips.computeIfAbsent(tip.getEvent().getCreatorId(), (Long id) -> new ArrayList<>()).add(tip);
+			}
+		}
+
+		final List<EventImpl> candidates = new ArrayList<>(syncData.getSendList());
+		sort(candidates);
+
+		final Set<SyncShadowEvent> speculative = new HashSet<>();
+		final List<EventImpl> speculativeList = new ArrayList<>();
+		for (final EventImpl event : candidates) {
+			final SyncShadowEvent s = shadowGraph.shadow(event);
+			if (s != null
+					&& knownOrSent(s.getSelfParent(), peerTips, speculative)
+					&& knownOrSent(s.getOtherParent(), peerTips, speculative)) {
+				speculative.add(s);
+				speculativeList.add(event);
+			}
+		}
+
+		return speculativeList;
+	}
+
+	/**
+	 * Does the peer have a parent, or will it have it before its child arrives in a pipelined sync?
+	 *
+	 * @param parent
+	 * 		the shadow of the parent, or null if the parent has expired or there is none
+	 * @param peerTips
+	 * 		the tips of the peer that this node has, by creator
+	 * @param speculative
+	 * 		the events already chosen to be sent speculatively
+	 * @return true iff the parent is null, already chosen, or a self-ancestor of a tip of the peer
+	 */
+	private static boolean knownOrSent(
+			final SyncShadowEvent parent,
+			final Map<Long, List<SyncShadowEvent>> peerTips,
+			final Set<SyncShadowEvent> speculative) {
+		if (parent == null || speculative.contains(parent)) {
+			return true;
+		}
+
+		final List<SyncShadowEvent> tips = peerTips.get(parent.getEvent().getCreatorId());
+		if (tips == null) {
+			return false;
+		}
+
+		final long generation = parent.getEvent().getGeneration();
+		for (final SyncShadowEvent tip : tips) {
+			SyncShadowEvent y = tip;
+			while (y != null && y.getEvent().getGeneration() >= generation) {
+				if (y.equals(parent)) {
+					return true;
+				}
+				y = y.getSelfParent();
+			}
+		}
+
+		return false;
 	}
 
 	/**
@@ -392,6 +556,23 @@ public final class SyncShadowGraphManager {
 		}
 	}
 
+	/**
+	 * Insert each insertable event of a batch, in order, under a single acquisition of the lock.
+	 *
+	 * @param events
+	 * 		the events to insert, in topological order
+	 * @return the number of events inserted
+	 */
+	public synchronized int addEvents(final List<? extends Event> events) {
+		int numInserted = 0;
+		for (final Event e : events) {
+			if (addEvent(e)) {
+				numInserted++;
+			}
+		}
+		return numInserted;
+	}
+
 	/**
 	 * Get the number of tips in this node's shadow graph at time of call.
 	 *
@@ -0,0 +1,102 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.Transaction;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.events.BaseEventUnhashedData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConsensusEventIndexTest {
+
+	private static final int NUM_MEMBERS = 4;
+
+	private static EventImpl event(final long creatorId) {
+		return new EventImpl(
+				new BaseEventHashedData(creatorId, -1, -1, (Hash) null, null, Instant.EPOCH, new Transaction[0]),
+				new BaseEventUnhashedData(),
+				null,
+				null);
+	}
+
+	/**
+	 * Memoize an event whose only result is the given target.
+	 */
+	private static void memoize(final ConsensusEventIndex index, final EventImpl event, final EventImpl target) {
+		final int i = index.indexOf(event);
+		index.initLastSee(i);
+		index.setLastSee(i, 0, target);
+	}
+
+	@Test
+	@DisplayName("A released event that is reached again is not given a row of its own")
+	void releasedEventIsNotReindexed() {
+		final ConsensusEventIndex index = new ConsensusEventIndex(NUM_MEMBERS);
+		final EventImpl target = event(0);
+		final EventImpl a = event(1);
+
+		memoize(index, a, target);
+		index.release(target);
+		assertEquals(2, index.size(), "the target is still referenced by a");
+
+		index.release(a);
+		assertEquals(0, index.size(), "both indices are recycled once nothing refers to them");
+
+		assertEquals(ConsensusEventIndex.NONE, index.indexOf(target),
+				"a released event must not be indexed again, since nothing would release it");
+		assertEquals(0, index.size(), "looking up a released event must not assign it an index");
+	}
+
+	@Test
+	@DisplayName("A released event that becomes a result again is recycled once unreferenced")
+	void releasedTargetIsRecycled() {
+		final ConsensusEventIndex index = new ConsensusEventIndex(NUM_MEMBERS);
+		final EventImpl target = event(0);
+		final EventImpl a = event(1);
+		final EventImpl b = event(2);
+
+		memoize(index, a, target);
+		index.release(target);
+		index.release(a);
+		assertEquals(0, index.size(), "both indices are recycled once nothing refers to them");
+
+		memoize(index, b, target);
+		assertSame(target, index.getLastSee(index.indexOf(b), 0), "the released event is still a valid result");
+		assertEquals(2, index.size(), "the released event is given an index while b refers to it");
+
+		index.release(b);
+		assertEquals(0, index.size(), "the index of the released event is recycled with the last reference to it");
+		assertEquals(ConsensusEventIndex.NONE, index.indexOf(target), "the released event stays released");
+	}
+
+	@Test
+	@DisplayName("An event released before it was ever indexed is not indexed later")
+	void neverIndexedEventIsNotIndexedAfterRelease() {
+		final ConsensusEventIndex index = new ConsensusEventIndex(NUM_MEMBERS);
+		final EventImpl event = event(0);
+
+		index.release(event);
+
+		assertEquals(ConsensusEventIndex.NONE, index.indexOf(event), "a released event must not be indexed");
+		assertEquals(0, index.size(), "no index is assigned to a released event");
+	}
+}
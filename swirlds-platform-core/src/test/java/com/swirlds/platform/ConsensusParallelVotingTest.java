@@ -0,0 +1,164 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.common.Address;
+import com.swirlds.common.AddressBook;
+import com.swirlds.common.NodeId;
+import com.swirlds.common.Transaction;
+import com.swirlds.common.crypto.DigestType;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.crypto.SerializablePublicKey;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.events.BaseEventUnhashedData;
+import com.swirlds.platform.stats.ConsensusStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsensusParallelVotingTest {
+
+	private static final int NUM_MEMBERS = 20;
+	private static final int NUM_EVENTS = 10_000;
+	private static final long SEED = 0x5EED;
+
+	private final boolean parallelFameVoting = Settings.parallelFameVoting;
+	private final int fameVotingBatchSize = Settings.fameVotingBatchSize;
+
+	@AfterEach
+	void restoreSettings() {
+		Settings.parallelFameVoting = parallelFameVoting;
+		Settings.fameVotingBatchSize = fameVotingBatchSize;
+	}
+
+	@Test
+	@DisplayName("Counting fame votes in parallel gives the same consensus order as counting them serially")
+	void parallelVotingMatchesSerialVoting() {
+		Settings.parallelFameVoting = false;
+		final List<String> serial = consensusOrder();
+
+		// a batch of one election splits every round into as many tasks as possible
+		Settings.parallelFameVoting = true;
+		Settings.fameVotingBatchSize = 1;
+		final List<String> parallel = consensusOrder();
+
+		assertTrue(serial.size() > NUM_EVENTS / 2, "most of the events should reach consensus");
+		assertEquals(serial, parallel, "parallel voting must not change the consensus order");
+	}
+
+	/**
+	 * Add a deterministic hashgraph to a new consensus object.
+	 *
+	 * @return every event that reached consensus, with its consensus data, in consensus order
+	 */
+	private static List<String> consensusOrder() {
+		final Random random = new Random(SEED);
+		final AddressBook addressBook = addressBook();
+		final ConsensusStats stats = new NoStats();
+		final ConsensusImpl consensus = new ConsensusImpl(() -> stats, (round, generation) -> {
+		}, NodeId.createMain(0), addressBook);
+
+		final List<String> order = new ArrayList<>();
+		final EventImpl[] lastEvent = new EventImpl[NUM_MEMBERS];
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			final int creatorId = random.nextInt(NUM_MEMBERS);
+			final int otherId = (creatorId + 1 + random.nextInt(NUM_MEMBERS - 1)) % NUM_MEMBERS;
+			final EventImpl event = event(random, i, creatorId, lastEvent[creatorId], otherId, lastEvent[otherId]);
+			lastEvent[creatorId] = event;
+
+			final List<EventImpl> consensusEvents = consensus.addEvent(event, addressBook);
+			if (consensusEvents != null) {
+				for (final EventImpl e : consensusEvents) {
+					order.add(e.getBaseHash() + " order=" + e.getConsensusOrder()
+							+ " roundReceived=" + e.getRoundReceived()
+							+ " timestamp=" + e.getConsensusTimestamp());
+				}
+			}
+		}
+		return order;
+	}
+
+	private static AddressBook addressBook() {
+		final List<Address> addresses = new ArrayList<>(NUM_MEMBERS);
+		for (int i = 0; i < NUM_MEMBERS; i++) {
+			addresses.add(new Address(i, "node" + i, "node" + i, 1, false,
+					null, -1, null, -1, null, -1, null, -1,
+					(SerializablePublicKey) null, (SerializablePublicKey) null, (SerializablePublicKey) null, ""));
+		}
+		return new AddressBook(addresses);
+	}
+
+	/**
+	 * Create an event with a random hash and signature, which is all consensus needs from them.
+	 */
+	private static EventImpl event(final Random random, final int index, final int creatorId,
+			final EventImpl selfParent, final int otherId, final EventImpl otherParent) {
+		final BaseEventHashedData hashedData = new BaseEventHashedData(
+				creatorId,
+				selfParent == null ? -1 : selfParent.getGeneration(),
+				otherParent == null ? -1 : otherParent.getGeneration(),
+				selfParent == null ? null : selfParent.getBaseHash(),
+				otherParent == null ? null : otherParent.getBaseHash(),
+				Instant.EPOCH.plusMillis(index),
+				new Transaction[0]);
+		hashedData.setHash(new Hash(randomBytes(random, DigestType.SHA_384.digestLength()), DigestType.SHA_384));
+		final BaseEventUnhashedData unhashedData = new BaseEventUnhashedData(
+				selfParent == null ? 0 : selfParent.getCreatorSeq() + 1,
+				otherParent == null ? -1 : otherId,
+				otherParent == null ? -1 : otherParent.getCreatorSeq(),
+				randomBytes(random, 384));
+		return new EventImpl(hashedData, unhashedData, selfParent, otherParent);
+	}
+
+	private static byte[] randomBytes(final Random random, final int length) {
+		final byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+
+	private static final class NoStats implements ConsensusStats {
+		@Override
+		public void addedEvent(final EventImpl event) {
+		}
+
+		@Override
+		public void coinRounds(final long numCoinRounds) {
+		}
+
+		@Override
+		public void lastFamousInRound(final EventImpl event) {
+		}
+
+		@Override
+		public void consensusReached(final EventImpl event) {
+		}
+
+		@Override
+		public void consensusReachedOnRound() {
+		}
+
+		@Override
+		public void dotProductTime(final long nanoTime) {
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform;
+
+import com.swirlds.platform.event.ValidateEventTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventValidatorSignatureCheckTest {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@BeforeAll
+	static void loadValidator() {
+		// logging can't be initialized by a thread that is interrupted, so load the validator before any test does
+		EventValidator.awaitSignatureCheck(null);
+	}
+
+	@AfterEach
+	void shutdown() {
+		Thread.interrupted();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Create a task whose signature check claims the event data the same way {@link EventSignatureVerifier} does,
+	 * and then runs the given check.
+	 */
+	private static ValidateEventTask task(final Runnable check) {
+		final ValidateEventTask task = new ValidateEventTask(null, null);
+		task.setSignatureCheck(new FutureTask<>(() -> {
+			if (!task.claimSignatureCheck()) {
+				throw new CancellationException("the signature check was abandoned");
+			}
+			check.run();
+			return true;
+		}));
+		return task;
+	}
+
+	@Test
+	@DisplayName("An interrupted wait abandons a signature check that has not started")
+	void interruptAbandonsPendingCheck() {
+		final AtomicBoolean ran = new AtomicBoolean();
+		final ValidateEventTask task = task(() -> ran.set(true));
+
+		Thread.currentThread().interrupt();
+		EventValidator.awaitSignatureCheck(task);
+
+		assertTrue(Thread.interrupted(), "the interrupt must be restored");
+		assertTrue(task.getSignatureCheck().isCancelled(), "a check that has not started is cancelled");
+		((FutureTask<Boolean>) task.getSignatureCheck()).run();
+		assertFalse(ran.get(), "an abandoned check must never touch the event data");
+	}
+
+	@Test
+	@DisplayName("An interrupted wait still waits for a signature check that is running")
+	void interruptWaitsForRunningCheck() throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean hashWritten = new AtomicBoolean();
+		final ValidateEventTask task = task(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			hashWritten.set(true);
+		});
+		executor.execute((FutureTask<Boolean>) task.getSignatureCheck());
+		assertTrue(started.await(10, TimeUnit.SECONDS), "the check should start");
+
+		final Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			release.countDown();
+		});
+		releaser.start();
+
+		Thread.currentThread().interrupt();
+		EventValidator.awaitSignatureCheck(task);
+
+		assertTrue(Thread.interrupted(), "the interrupt must be restored");
+		assertTrue(hashWritten.get(), "the wait must not return while the check may still be writing the hash");
+		assertFalse(task.getSignatureCheck().isCancelled(), "a running check is not cancelled");
+		releaser.join();
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.components;
+
+import com.swirlds.common.Address;
+import com.swirlds.common.AddressBook;
+import com.swirlds.common.NodeId;
+import com.swirlds.common.Transaction;
+import com.swirlds.common.crypto.DigestType;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.crypto.SerializablePublicKey;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.events.BaseEventUnhashedData;
+import com.swirlds.platform.Consensus;
+import com.swirlds.platform.ConsensusImpl;
+import com.swirlds.platform.EventImpl;
+import com.swirlds.platform.observers.ConsensusEventObserver;
+import com.swirlds.platform.observers.EventAddedObserver;
+import com.swirlds.platform.observers.EventObserverDispatcher;
+import com.swirlds.platform.observers.PreConsensusEventObserver;
+import com.swirlds.platform.stats.ConsensusStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventIntakeBatchTest {
+
+	private static final int NUM_MEMBERS = 4;
+	private static final int NUM_BATCHES = 50;
+	private static final int BATCH_SIZE = 20;
+	private static final long SEED = 0x5EED;
+
+	/** records every announcement, in the order the observers are notified */
+	private static final class RecordingObserver
+			implements PreConsensusEventObserver, EventAddedObserver, ConsensusEventObserver {
+		private final List<String> announcements = new ArrayList<>();
+
+		@Override
+		public void preConsensusEvent(final EventImpl event) {
+			announcements.add("pre " + event.getBaseHash());
+		}
+
+		@Override
+		public void eventAdded(final EventImpl event) {
+			announcements.add("added " + event.getBaseHash());
+		}
+
+		@Override
+		public void consensusEvent(final EventImpl event) {
+			announcements.add("consensus " + event.getBaseHash());
+		}
+	}
+
+	@Test
+	@DisplayName("A batch announces every event as pre-consensus, then as added, then those reaching consensus")
+	void batchAnnouncementOrder() {
+		final Random random = new Random(SEED);
+		final AddressBook addressBook = addressBook();
+		final ConsensusStats stats = new NoStats();
+		final Consensus consensus = new ConsensusImpl(() -> stats, (round, generation) -> {
+		}, NodeId.createMain(0), addressBook);
+		final RecordingObserver observer = new RecordingObserver();
+		final EventIntake intake = new EventIntake(NodeId.createMain(0), () -> consensus, addressBook,
+				new EventObserverDispatcher(List.of(observer)), null);
+
+		final EventImpl[] lastEvent = new EventImpl[NUM_MEMBERS];
+		int numConsensus = 0;
+		for (int b = 0; b < NUM_BATCHES; b++) {
+			final EventImpl[] batch = new EventImpl[BATCH_SIZE];
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				final int creatorId = random.nextInt(NUM_MEMBERS);
+				final int otherId = (creatorId + 1 + random.nextInt(NUM_MEMBERS - 1)) % NUM_MEMBERS;
+				batch[i] = event(random, b * BATCH_SIZE + i, creatorId, lastEvent[creatorId], otherId,
+						lastEvent[otherId]);
+				lastEvent[creatorId] = batch[i];
+			}
+
+			observer.announcements.clear();
+			intake.addEvents(Arrays.asList(batch));
+
+			final List<String> announcements = observer.announcements;
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				assertEquals("pre " + batch[i].getBaseHash(), announcements.get(i),
+						"every event in the batch is announced as pre-consensus first, in batch order");
+				assertEquals("added " + batch[i].getBaseHash(), announcements.get(BATCH_SIZE + i),
+						"every event in the batch is then announced as added, in batch order");
+			}
+			for (int i = 2 * BATCH_SIZE; i < announcements.size(); i++) {
+				assertTrue(announcements.get(i).startsWith("consensus "),
+						"events reaching consensus are announced after every event of the batch was added");
+			}
+			numConsensus += announcements.size() - 2 * BATCH_SIZE;
+		}
+		assertTrue(numConsensus > 0, "some events should reach consensus");
+	}
+
+	private static AddressBook addressBook() {
+		final List<Address> addresses = new ArrayList<>(NUM_MEMBERS);
+		for (int i = 0; i < NUM_MEMBERS; i++) {
+			addresses.add(new Address(i, "node" + i, "node" + i, 1, false,
+					null, -1, null, -1, null, -1, null, -1,
+					(SerializablePublicKey) null, (SerializablePublicKey) null, (SerializablePublicKey) null, ""));
+		}
+		return new AddressBook(addresses);
+	}
+
+	/**
+	 * Create an event with a random hash and signature, which is all consensus needs from them.
+	 */
+	private static EventImpl event(final Random random, final int index, final int creatorId,
+			final EventImpl selfParent, final int otherId, final EventImpl otherParent) {
+		final BaseEventHashedData hashedData = new BaseEventHashedData(
+				creatorId,
+				selfParent == null ? -1 : selfParent.getGeneration(),
+				otherParent == null ? -1 : otherParent.getGeneration(),
+				selfParent == null ? null : selfParent.getBaseHash(),
+				otherParent == null ? null : otherParent.getBaseHash(),
+				Instant.EPOCH.plusMillis(index),
+				new Transaction[0]);
+		hashedData.setHash(new Hash(randomBytes(random, DigestType.SHA_384.digestLength()), DigestType.SHA_384));
+		final BaseEventUnhashedData unhashedData = new BaseEventUnhashedData(
+				selfParent == null ? 0 : selfParent.getCreatorSeq() + 1,
+				otherParent == null ? -1 : otherId,
+				otherParent == null ? -1 : otherParent.getCreatorSeq(),
+				randomBytes(random, 384));
+		return new EventImpl(hashedData, unhashedData, selfParent, otherParent);
+	}
+
+	private static byte[] randomBytes(final Random random, final int length) {
+		final byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+
+	private static final class NoStats implements ConsensusStats {
+		@Override
+		public void addedEvent(final EventImpl event) {
+		}
+
+		@Override
+		public void coinRounds(final long numCoinRounds) {
+		}
+
+		@Override
+		public void lastFamousInRound(final EventImpl event) {
+		}
+
+		@Override
+		public void consensusReached(final EventImpl event) {
+		}
+
+		@Override
+		public void consensusReachedOnRound() {
+		}
+
+		@Override
+		public void dotProductTime(final long nanoTime) {
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * (c) 2016-2021 Swirlds, Inc.
+ *
+ * This software is owned by Swirlds, Inc., which retains title to the software. This software is protected by various
+ * intellectual property laws throughout the world, including copyright and patent laws. This software is licensed and
+ * not sold. You must use this software only in accordance with the terms of the Hashgraph Open Review license at
+ *
+ * https://github.com/hashgraph/swirlds-open-review/raw/master/LICENSE.md
+ *
+ * SWIRLDS MAKES NO REPRESENTATIONS OR WARRANTIES ABOUT THE SUITABILITY OF THIS SOFTWARE, EITHER EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE IMPLIED WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE,
+ * OR NON-INFRINGEMENT.
+ */
+
+package com.swirlds.platform.sync;
+
+import com.swirlds.common.Transaction;
+import com.swirlds.common.crypto.Hash;
+import com.swirlds.common.events.BaseEventHashedData;
+import com.swirlds.common.events.BaseEventUnhashedData;
+import com.swirlds.platform.EventImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncShadowGraphManagerBloomFilterTest {
+
+	/** the seed of the hashes of the events, so every run builds the same graph */
+	private static final long SEED = 0x5EED;
+
+	private final Random random = new Random(SEED);
+
+	/**
+	 * Create an event with a random hash.
+	 */
+	private EventImpl event(final long creatorId, final EventImpl selfParent, final EventImpl otherParent) {
+		final byte[] hashBytes = new byte[48];
+		random.nextBytes(hashBytes);
+		final BaseEventHashedData hashedData = new BaseEventHashedData(
+				creatorId,
+				selfParent == null ? -1 : selfParent.getGeneration(),
+				otherParent == null ? -1 : otherParent.getGeneration(),
+				selfParent == null ? null : selfParent.getBaseHash(),
+				otherParent == null ? null : otherParent.getBaseHash(),
+				Instant.EPOCH,
+				new Transaction[0]);
+		hashedData.setHash(new Hash(hashBytes));
+		return new EventImpl(hashedData, new BaseEventUnhashedData(), selfParent, otherParent);
+	}
+
+	/**
+	 * A filter that reports the given events, which the peer does not have, so that each one is a false positive.
+	 */
+	private static EventBloomFilter falsePositives(final EventImpl... events) {
+		final EventBloomFilter filter = new EventBloomFilter(events.length, 12, SEED);
+		for (final EventImpl event : events) {
+			filter.add(event.getBaseHash());
+		}
+		return filter;
+	}
+
+	/**
+	 * Run the phases of a sync with a peer whose only tip is the given event, and which has none of this node's
+	 * tips.
+	 */
+	private static List<EventImpl> sendList(final SyncShadowGraphManager manager, final EventImpl peerTip,
+			final EventBloomFilter peerFilter) {
+		final SyncData syncData = new SyncData();
+		syncData.getReceivedTipHashes().add(peerTip.getBaseHash());
+		syncData.setPeerBloomFilter(peerFilter);
+		manager.setReceivedTipHashes(syncData);
+		manager.setReceivedTipBooleans(syncData, Collections.nCopies(manager.getNumTips(), false), "");
+		manager.finishSendEventList(syncData);
+		return syncData.getSendList();
+	}
+
+	/**
+	 * The peer has b. This node created y and its self-child z, whose other parent is b, so neither is known to the
+	 * peer. The filter wrongly reports y, so z must not be sent either: the peer would reject it for lacking y.
+	 */
+	@Test
+	@DisplayName("An event whose self-parent the filter wrongly reports is not sent")
+	void selfParentFalsePositive() {
+		final EventImpl b = event(1, null, null);
+		final EventImpl y = event(0, null, null);
+		final EventImpl z = event(0, y, b);
+		final SyncShadowGraphManager manager = new SyncShadowGraphManager();
+		manager.addEvents(List.of(b, y, z));
+
+		assertEquals(List.of(y, z), sendList(manager, b, null), "without a filter, y and z should be sent");
+		assertTrue(sendList(manager, b, falsePositives(y)).isEmpty(), "z should wait for y to be sent");
+	}
+
+	/**
+	 * The peer has y. This node has b0 and its self-child b1, created by another member, and z, the self-child of y
+	 * whose other parent is b1. The filter wrongly reports b1, so b0 is still sent, but z, which the tips alone say
+	 * the peer lacks, must wait for b1.
+	 */
+	@Test
+	@DisplayName("An event whose other parent the filter wrongly reports is not sent")
+	void otherParentFalsePositive() {
+		final EventImpl b0 = event(1, null, null);
+		final EventImpl b1 = event(1, b0, null);
+		final EventImpl y = event(0, null, null);
+		final EventImpl z = event(0, y, b1);
+		final SyncShadowGraphManager manager = new SyncShadowGraphManager();
+		manager.addEvents(List.of(b0, b1, y, z));
+
+		assertEquals(List.of(b0, b1, z), sendList(manager, y, null),
+				"without a filter, b0, b1 and z should be sent");
+		assertEquals(List.of(b0), sendList(manager, y, falsePositives(b1)), "z should wait for b1 to be sent");
+	}
+}